@@ -58,6 +58,7 @@
 #include "util/starrocks_metrics.h"
 #include "util/stopwatch.hpp"
 #include "util/thread.h"
+#include "util/time.h"
 
 namespace starrocks {
 
@@ -1135,6 +1136,12 @@ void* ReportOlapTableTaskWorkerPool::_worker_thread_callback(void* arg_this) {
     TReportRequest request;
     request.__isset.tablets = true;
     AgentStatus status = STARROCKS_SUCCESS;
+    // The tablets of the last report accepted by FE. An incremental report only contains the tablets
+    // changed since then, and the ids of the tablets dropped since then.
+    std::map<TTabletId, TTablet> last_reported_tablets;
+    // FE has no baseline after BE or FE restarts, the first report is always a full one
+    bool need_full_report = true;
+    int64_t last_full_report_time = 0;
 
     while ((!worker_pool_this->_stopped)) {
         auto master_address = get_master_address();
@@ -1145,15 +1152,41 @@ void* ReportOlapTableTaskWorkerPool::_worker_thread_callback(void* arg_this) {
             continue;
         }
         request.tablets.clear();
+        request.dropped_tablet_ids.clear();
 
         request.__set_report_version(_s_report_version.load(std::memory_order_relaxed));
-        Status st_report = StorageEngine::instance()->tablet_manager()->report_all_tablets_info(&request.tablets);
+        std::map<TTabletId, TTablet> tablets;
+        Status st_report = StorageEngine::instance()->tablet_manager()->report_all_tablets_info(&tablets);
         if (!st_report.ok()) {
             LOG(WARNING) << "Fail to report all tablets info, err=" << st_report.to_string();
             // wait for notifying until timeout
             StorageEngine::instance()->wait_for_report_notify(config::report_tablet_interval_seconds, true);
             continue;
         }
+
+        int64_t now = MonotonicSeconds();
+        bool full_report = need_full_report || !config::enable_incremental_tablet_report ||
+                           now - last_full_report_time >= config::full_tablet_report_interval_seconds;
+        if (full_report) {
+            request.tablets.swap(tablets);
+        } else {
+            for (auto& [tablet_id, tablet] : tablets) {
+                auto iter = last_reported_tablets.find(tablet_id);
+                // the tablets with expired transactions are always reported, so that FE can clear the transactions
+                bool has_expired_txns = !tablet.tablet_infos.empty() && tablet.tablet_infos[0].__isset.transaction_ids;
+                if (iter == last_reported_tablets.end() || !(iter->second == tablet) || has_expired_txns) {
+                    request.tablets.emplace(tablet_id, tablet);
+                }
+            }
+            for (const auto& [tablet_id, tablet] : last_reported_tablets) {
+                if (tablets.count(tablet_id) == 0) {
+                    request.dropped_tablet_ids.push_back(tablet_id);
+                }
+            }
+        }
+        request.__set_incremental_tablet_report(!full_report);
+        request.__isset.dropped_tablet_ids = !full_report;
+
         int64_t max_compaction_score =
                 std::max(StarRocksMetrics::instance()->tablet_cumulative_max_compaction_score.value(),
                          StarRocksMetrics::instance()->tablet_base_max_compaction_score.value());
@@ -1167,6 +1200,21 @@ void* ReportOlapTableTaskWorkerPool::_worker_thread_callback(void* arg_this) {
             StarRocksMetrics::instance()->report_all_tablets_requests_failed.increment(1);
             LOG(WARNING) << "Fail to report olap table state to " << master_address.hostname << ":"
                          << master_address.port << ", err=" << status;
+        } else if (result.__isset.need_full_tablet_report && result.need_full_tablet_report) {
+            // FE can not apply the incremental report, or wants to check all the tablets again after it changed
+            // the tablet meta or found mismatched tablets, send a full report right now
+            LOG(INFO) << "FE asks for a full tablet report";
+            need_full_report = true;
+            continue;
+        } else if (result.status.status_code == TStatusCode::OK) {
+            // the reported state becomes the baseline of the next incremental report
+            if (full_report) {
+                last_reported_tablets.swap(request.tablets);
+                last_full_report_time = now;
+            } else {
+                last_reported_tablets.swap(tablets);
+            }
+            need_full_report = false;
         }
 
         // wait for notifying until timeout
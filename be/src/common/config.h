@@ -121,6 +121,11 @@ CONF_mInt32(report_task_interval_seconds, "10");
 CONF_mInt32(report_disk_state_interval_seconds, "60");
 // The interval time(seconds) for agent report olap table to FE.
 CONF_mInt32(report_tablet_interval_seconds, "60");
+// Whether to report only the tablets changed since the last tablet report accepted by FE.
+CONF_mBool(enable_incremental_tablet_report, "true");
+// The interval time(seconds) for agent to send a full tablet report when incremental tablet report is enabled.
+// FE also asks for a full report when it changes the tablet meta or finds mismatched tablets in a report.
+CONF_mInt32(full_tablet_report_interval_seconds, "600");
 // The interval time(seconds) for agent report workgroup to FE.
 CONF_mInt32(report_workgroup_interval_seconds, "5");
 // The max download speed(KB/s).
@@ -5,8 +5,10 @@
 #include <memory>
 #include <type_traits>
 
+#include "column/binary_column.h"
 #include "column/column_helper.h"
 #include "column/nullable_column.h"
+#include "column/type_traits.h"
 #include "column/vectorized_fwd.h"
 #include "common/statusor.h"
 #include "exprs/expr.h"
@@ -49,12 +51,11 @@ Status JDBCScanner::get_next(RuntimeState* state, ChunkPtr* chunk, bool* eos) {
         *eos = true;
         return Status::OK();
     }
-    jobject jchunk = nullptr;
-    size_t jchunk_rows = 0;
-    LOCAL_REF_GUARD(jchunk);
-    RETURN_IF_ERROR(_get_next_chunk(&jchunk, &jchunk_rows));
-    RETURN_IF_ERROR(_fill_chunk(jchunk, jchunk_rows, chunk));
-    return Status::OK();
+    int64_t chunk_meta = 0;
+    RETURN_IF_ERROR(_get_next_off_heap_chunk(&chunk_meta));
+    Status status = _fill_chunk(chunk_meta, chunk);
+    RETURN_IF_ERROR(_release_off_heap_chunk());
+    return status;
 }
 
 Status JDBCScanner::close(RuntimeState* state) {
@@ -139,12 +140,10 @@ Status JDBCScanner::_init_jdbc_scanner() {
     // init jmethod
     _scanner_has_next = env->GetMethodID(_jdbc_scanner_cls->clazz(), "hasNext", "()Z");
     DCHECK(_scanner_has_next != nullptr);
-    _scanner_get_next_chunk = env->GetMethodID(_jdbc_scanner_cls->clazz(), "getNextChunk", "()Ljava/util/List;");
-
-    _scanner_result_rows = env->GetMethodID(_jdbc_scanner_cls->clazz(), "getResultNumRows", "()I");
-    DCHECK(_scanner_result_rows != nullptr);
-
-    DCHECK(_scanner_get_next_chunk != nullptr);
+    _scanner_get_next_off_heap_chunk = env->GetMethodID(_jdbc_scanner_cls->clazz(), "getNextOffHeapChunk", "()J");
+    DCHECK(_scanner_get_next_off_heap_chunk != nullptr);
+    _scanner_release_off_heap_table = env->GetMethodID(_jdbc_scanner_cls->clazz(), "releaseOffHeapTable", "()V");
+    DCHECK(_scanner_release_off_heap_table != nullptr);
     _scanner_close = env->GetMethodID(_jdbc_scanner_cls->clazz(), "close", "()V");
     DCHECK(_scanner_close != nullptr);
 
@@ -321,14 +320,19 @@ Status JDBCScanner::_has_next(bool* result) {
     return Status::OK();
 }
 
-Status JDBCScanner::_get_next_chunk(jobject* chunk, size_t* num_rows) {
+Status JDBCScanner::_get_next_off_heap_chunk(int64_t* chunk_meta) {
     auto* env = JVMFunctionHelper::getInstance().getEnv();
     SCOPED_TIMER(_profile.io_timer);
     COUNTER_UPDATE(_profile.io_counter, 1);
-    *chunk = env->CallObjectMethod(_jdbc_scanner.handle(), _scanner_get_next_chunk);
-    CHECK_JAVA_EXCEPTION(env, "getNextChunk failed")
-    *num_rows = env->CallIntMethod(_jdbc_scanner.handle(), _scanner_result_rows);
-    CHECK_JAVA_EXCEPTION(env, "getResultNumRows failed")
+    *chunk_meta = env->CallLongMethod(_jdbc_scanner.handle(), _scanner_get_next_off_heap_chunk);
+    CHECK_JAVA_EXCEPTION(env, "getNextOffHeapChunk failed")
+    return Status::OK();
+}
+
+Status JDBCScanner::_release_off_heap_chunk() {
+    auto* env = JVMFunctionHelper::getInstance().getEnv();
+    env->CallVoidMethod(_jdbc_scanner.handle(), _scanner_release_off_heap_table);
+    CHECK_JAVA_EXCEPTION(env, "releaseOffHeapTable failed")
     return Status::OK();
 }
 
@@ -349,23 +353,75 @@ Status JDBCScanner::_close_jdbc_scanner() {
     return Status::OK();
 }
 
-Status JDBCScanner::_fill_chunk(jobject jchunk, size_t num_rows, ChunkPtr* chunk) {
+template <PrimitiveType type>
+void JDBCScanner::_copy_off_heap_column(size_t num_rows, const int64_t* chunk_meta_ptr, int& chunk_meta_index,
+                                        Column* column) {
+    using CppType = RunTimeCppType<type>;
+    const auto* null_ptr = reinterpret_cast<const uint8_t*>(chunk_meta_ptr[chunk_meta_index++]);
+    const auto* data_ptr = reinterpret_cast<const CppType*>(chunk_meta_ptr[chunk_meta_index++]);
+
+    auto* nullable_column = down_cast<NullableColumn*>(column);
+    nullable_column->resize(num_rows);
+    memcpy(nullable_column->null_column_data().data(), null_ptr, num_rows);
+    auto* data_column = down_cast<RunTimeColumnType<type>*>(nullable_column->data_column().get());
+    memcpy(data_column->get_data().data(), data_ptr, num_rows * sizeof(CppType));
+    nullable_column->update_has_null();
+}
+
+void JDBCScanner::_copy_off_heap_binary_column(size_t num_rows, const int64_t* chunk_meta_ptr, int& chunk_meta_index,
+                                               Column* column) {
+    const auto* null_ptr = reinterpret_cast<const uint8_t*>(chunk_meta_ptr[chunk_meta_index++]);
+    const auto* offset_ptr = reinterpret_cast<const uint32_t*>(chunk_meta_ptr[chunk_meta_index++]);
+    const auto* bytes_ptr = reinterpret_cast<const uint8_t*>(chunk_meta_ptr[chunk_meta_index++]);
+
+    auto* nullable_column = down_cast<NullableColumn*>(column);
+    nullable_column->resize(num_rows);
+    memcpy(nullable_column->null_column_data().data(), null_ptr, num_rows);
+    auto* data_column = down_cast<BinaryColumn*>(nullable_column->data_column().get());
+    // the offsets written by java start from 0 as BinaryColumn
+    memcpy(data_column->get_offset().data(), offset_ptr, (num_rows + 1) * sizeof(uint32_t));
+    data_column->get_bytes().resize(offset_ptr[num_rows]);
+    memcpy(data_column->get_bytes().data(), bytes_ptr, offset_ptr[num_rows]);
+    data_column->invalidate_slice_cache();
+    nullable_column->update_has_null();
+}
+
+Status JDBCScanner::_fill_chunk(int64_t chunk_meta, ChunkPtr* chunk) {
     SCOPED_TIMER(_profile.fill_chunk_timer);
-    // get result from JNI
-    {
-        auto& helper = JVMFunctionHelper::getInstance();
-        auto* env = helper.getEnv();
-
-        COUNTER_UPDATE(_profile.rows_read_counter, num_rows);
-        (*chunk)->reset();
-
-        for (size_t i = 0; i < _slot_descs.size(); i++) {
-            jobject jcolumn = helper.list_get(jchunk, i);
-            LOCAL_REF_GUARD_ENV(env, jcolumn);
-            auto result_column = _result_chunk->columns()[i].get();
-            auto st = helper.get_result_from_boxed_array(_result_column_types[i], result_column, jcolumn, num_rows);
-            RETURN_IF_ERROR(st);
-            down_cast<NullableColumn*>(result_column)->update_has_null();
+    // copy the result from the off-heap table filled by the JDBCScanner of java, see OffHeapTable for the layout
+    const auto* chunk_meta_ptr = reinterpret_cast<const int64_t*>(chunk_meta);
+    int chunk_meta_index = 0;
+    auto num_rows = static_cast<size_t>(chunk_meta_ptr[chunk_meta_index++]);
+    COUNTER_UPDATE(_profile.rows_read_counter, num_rows);
+    (*chunk)->reset();
+
+    for (size_t i = 0; i < _slot_descs.size(); i++) {
+        auto* result_column = _result_chunk->columns()[i].get();
+        switch (_result_column_types[i]) {
+        case TYPE_BOOLEAN:
+            _copy_off_heap_column<TYPE_BOOLEAN>(num_rows, chunk_meta_ptr, chunk_meta_index, result_column);
+            break;
+        case TYPE_SMALLINT:
+            _copy_off_heap_column<TYPE_SMALLINT>(num_rows, chunk_meta_ptr, chunk_meta_index, result_column);
+            break;
+        case TYPE_INT:
+            _copy_off_heap_column<TYPE_INT>(num_rows, chunk_meta_ptr, chunk_meta_index, result_column);
+            break;
+        case TYPE_BIGINT:
+            _copy_off_heap_column<TYPE_BIGINT>(num_rows, chunk_meta_ptr, chunk_meta_index, result_column);
+            break;
+        case TYPE_FLOAT:
+            _copy_off_heap_column<TYPE_FLOAT>(num_rows, chunk_meta_ptr, chunk_meta_index, result_column);
+            break;
+        case TYPE_DOUBLE:
+            _copy_off_heap_column<TYPE_DOUBLE>(num_rows, chunk_meta_ptr, chunk_meta_index, result_column);
+            break;
+        case TYPE_VARCHAR:
+            _copy_off_heap_binary_column(num_rows, chunk_meta_ptr, chunk_meta_index, result_column);
+            break;
+        default:
+            return Status::InternalError(
+                    fmt::format("Type {} is not supported by JDBC scanner", _result_column_types[i]));
         }
     }
 
@@ -67,9 +67,17 @@ private:
 
     Status _has_next(bool* result);
 
-    Status _get_next_chunk(jobject* chunk, size_t* num_rows);
+    Status _get_next_off_heap_chunk(int64_t* chunk_meta);
 
-    Status _fill_chunk(jobject jchunk, size_t num_rows, ChunkPtr* chunk);
+    Status _release_off_heap_chunk();
+
+    template <PrimitiveType type>
+    void _copy_off_heap_column(size_t num_rows, const int64_t* chunk_meta_ptr, int& chunk_meta_index, Column* column);
+
+    void _copy_off_heap_binary_column(size_t num_rows, const int64_t* chunk_meta_ptr, int& chunk_meta_index,
+                                      Column* column);
+
+    Status _fill_chunk(int64_t chunk_meta, ChunkPtr* chunk);
 
     Status _close_jdbc_scanner();
 
@@ -89,8 +97,8 @@ private:
     std::unique_ptr<JVMClass> _jdbc_util_cls;
 
     jmethodID _scanner_has_next;
-    jmethodID _scanner_get_next_chunk;
-    jmethodID _scanner_result_rows;
+    jmethodID _scanner_get_next_off_heap_chunk;
+    jmethodID _scanner_release_off_heap_table;
     jmethodID _scanner_close;
     // JDBCUtil method
     jmethodID _util_format_date;
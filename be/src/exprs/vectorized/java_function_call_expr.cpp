@@ -65,6 +65,9 @@ struct UDFFunctionCallHelper {
         for (auto col : columns) {
             input_cols.emplace_back(col.get());
         }
+        if (call_desc->method_desc[0].is_array) {
+            return call_primitive_array(ctx, input_cols, size);
+        }
         // each input arguments as three local references (nullcolumn, offsetcolumn, bytescolumn)
         // result column as a ref
         env->PushLocalFrame((num_cols + 1) * 3 + 1);
@@ -81,6 +84,53 @@ struct UDFFunctionCallHelper {
         return result_cols;
     }
 
+    // R[] evaluate(int rows, T1[] a1, boolean[] nulls1, ...), the values and nulls of the columns are passed as
+    // primitive arrays, and the result row is null if any of the input rows is null
+    ColumnPtr call_primitive_array(FunctionContext* ctx, const std::vector<const Column*>& input_cols, size_t size) {
+        auto& helper = JVMFunctionHelper::getInstance();
+        JNIEnv* env = helper.getEnv();
+        int num_cols = input_cols.size();
+        for (auto col : input_cols) {
+            if (col->only_null()) {
+                return ColumnHelper::create_const_null_column(size);
+            }
+        }
+        std::vector<DirectByteBuffer> buffers;
+        // each input arguments as two local references (values, nulls), result column as a ref
+        env->PushLocalFrame(num_cols * 4 + 1);
+        std::vector<jobject> input_col_objs;
+        auto st = JavaDataTypeConverter::convert_to_native_array(
+                ctx, &buffers, const_cast<const Column**>(input_cols.data()), num_cols, size, &input_col_objs);
+        if (!st.ok()) {
+            ctx->set_error(st.get_error_msg().c_str());
+            env->PopLocalFrame(nullptr);
+            return ColumnHelper::create_const_null_column(size);
+        }
+        jobject res = helper.batch_call(fn_desc->call_stub.get(), input_col_objs.data(), input_col_objs.size(), size);
+        if (res == nullptr) {
+            env->PopLocalFrame(nullptr);
+            return ColumnHelper::create_const_null_column(size);
+        }
+
+        TypeDescriptor type_desc(call_desc->method_desc[0].type);
+        auto result = ColumnHelper::create_column(type_desc, true);
+        helper.get_result_from_primitive_array(ctx, type_desc.type, result.get(), res, size);
+        env->PopLocalFrame(nullptr);
+
+        auto* nullable_result = down_cast<NullableColumn*>(result.get());
+        auto& result_nulls = nullable_result->null_column_data();
+        for (auto col : input_cols) {
+            if (col->is_nullable()) {
+                const auto& nulls = down_cast<const NullableColumn*>(col)->immutable_null_column_data();
+                for (size_t i = 0; i < size; ++i) {
+                    result_nulls[i] |= nulls[i];
+                }
+            }
+        }
+        nullable_result->update_has_null();
+        return result;
+    }
+
     ColumnPtr get_boxed_result(FunctionContext* ctx, jobject result, size_t num_rows) {
         if (result == nullptr) {
             return ColumnHelper::create_const_null_column(num_rows);
@@ -278,4 +278,31 @@ void JavaDataTypeConverter::convert_to_boxed_array(FunctionContext* ctx, std::ve
         res->emplace_back(arg);
     }
 }
+
+// each column is converted to a primitive array of the values and a boolean array of the nulls,
+// the nulls are null if the column is not nullable. only_null and constant columns should be handled by the caller
+Status JavaDataTypeConverter::convert_to_native_array(FunctionContext* ctx, std::vector<DirectByteBuffer>* buffers,
+                                                      const Column** columns, int num_cols, int num_rows,
+                                                      std::vector<jobject>* res) {
+    auto& helper = JVMFunctionHelper::getInstance();
+    ConvertDirectBufferVistor vistor(*buffers);
+    for (int i = 0; i < num_cols; ++i) {
+        DCHECK(!columns[i]->only_null() && !columns[i]->is_constant());
+        PrimitiveType type = ctx->get_arg_type(i)->type;
+        int buffers_offset = buffers->size();
+        columns[i]->accept(&vistor);
+        // the buffers of a nullable column are the nulls and then the values
+        bool nullable = columns[i]->is_nullable();
+        DirectByteBuffer* data_buff = &(*buffers)[buffers_offset + (nullable ? 1 : 0)];
+        ASSIGN_OR_RETURN(auto values, helper.create_primitive_array(type, num_rows, data_buff));
+        res->emplace_back(values);
+        if (nullable) {
+            ASSIGN_OR_RETURN(auto nulls, helper.create_null_array(num_rows, &(*buffers)[buffers_offset]));
+            res->emplace_back(nulls);
+        } else {
+            res->emplace_back(nullptr);
+        }
+    }
+    return Status::OK();
+}
 } // namespace starrocks::vectorized
\ No newline at end of file
@@ -128,6 +128,9 @@ void JVMFunctionHelper::_init() {
     DCHECK_EQ(res, 0);
     _create_boxed_array = _env->GetStaticMethodID(_udf_helper_class, "createBoxedArray",
                                                   "(IIZ[Ljava/nio/ByteBuffer;)[Ljava/lang/Object;");
+    _create_primitive_array = _env->GetStaticMethodID(_udf_helper_class, "createPrimitiveArray",
+                                                      "(IILjava/nio/ByteBuffer;)Ljava/lang/Object;");
+    _create_null_array = _env->GetStaticMethodID(_udf_helper_class, "createNullArray", "(ILjava/nio/ByteBuffer;)[Z");
 
     _batch_update = _env->GetStaticMethodID(
             _udf_helper_class, "batchUpdate",
@@ -147,6 +150,8 @@ void JVMFunctionHelper::_init() {
                                               "([Ljava/lang/Object;Ljava/lang/reflect/Method;I)[I");
     _get_boxed_result =
             _env->GetStaticMethodID(_udf_helper_class, "getResultFromBoxedArray", "(IILjava/lang/Object;J)V");
+    _get_primitive_result =
+            _env->GetStaticMethodID(_udf_helper_class, "getResultFromPrimitiveArray", "(IILjava/lang/Object;J)V");
     _direct_buffer_class = JNI_FIND_CLASS("java/nio/ByteBuffer");
     _direct_buffer_clear = _env->GetMethodID(_direct_buffer_class, "clear", "()Ljava/nio/Buffer;");
     DCHECK(_batch_call);
@@ -154,6 +159,9 @@ void JVMFunctionHelper::_init() {
     DCHECK(_batch_update_state);
     DCHECK(_batch_update_if_not_null);
     DCHECK(_get_boxed_result);
+    DCHECK(_create_primitive_array);
+    DCHECK(_create_null_array);
+    DCHECK(_get_primitive_result);
     DCHECK(_direct_buffer_clear);
 
     _list_get = _env->GetMethodID(_list_class, "get", "(I)Ljava/lang/Object;");
@@ -279,6 +287,21 @@ jobject JVMFunctionHelper::create_boxed_array(int type, int num_rows, bool nulla
     return res;
 }
 
+StatusOr<jobject> JVMFunctionHelper::create_primitive_array(int type, int num_rows, DirectByteBuffer* data_buff) {
+    auto& helper = *this;
+    jobject res = _env->CallStaticObjectMethod(_udf_helper_class, _create_primitive_array, type, num_rows,
+                                               data_buff->handle());
+    RETURN_ERROR_IF_EXCEPTION(_env, "fail to create primitive array: {}");
+    return res;
+}
+
+StatusOr<jobject> JVMFunctionHelper::create_null_array(int num_rows, DirectByteBuffer* null_buff) {
+    auto& helper = *this;
+    jobject res = _env->CallStaticObjectMethod(_udf_helper_class, _create_null_array, num_rows, null_buff->handle());
+    RETURN_ERROR_IF_EXCEPTION(_env, "fail to create null array: {}");
+    return res;
+}
+
 jobject JVMFunctionHelper::create_object_array(jobject o, int num_rows) {
     jobjectArray res_arr = _env->NewObjectArray(num_rows, _object_array_class, o);
     return res_arr;
@@ -348,6 +371,14 @@ Status JVMFunctionHelper::get_result_from_boxed_array(int type, Column* col, job
     return Status::OK();
 }
 
+void JVMFunctionHelper::get_result_from_primitive_array(FunctionContext* ctx, int type, Column* col, jobject jcolumn,
+                                                        int rows) {
+    col->resize(rows);
+    _env->CallStaticVoidMethod(_udf_helper_class, _get_primitive_result, type, rows, jcolumn,
+                               reinterpret_cast<int64_t>(col));
+    CHECK_UDF_CALL_EXCEPTION(_env, ctx);
+}
+
 jobject JVMFunctionHelper::list_get(jobject obj, int idx) {
     return _env->CallObjectMethod(obj, _list_get, idx);
 }
@@ -701,17 +732,45 @@ Status ClassAnalyzer::get_method_desc(const std::string& sign, std::vector<Metho
       desc->emplace_back(MethodTypeDescriptor{TYPE, false});
 // clang-format on
 
+static PrimitiveType get_primitive_array_type(char element) {
+    switch (element) {
+    case 'Z':
+        return TYPE_BOOLEAN;
+    case 'B':
+        return TYPE_TINYINT;
+    case 'S':
+        return TYPE_SMALLINT;
+    case 'I':
+        return TYPE_INT;
+    case 'J':
+        return TYPE_BIGINT;
+    case 'F':
+        return TYPE_FLOAT;
+    case 'D':
+        return TYPE_DOUBLE;
+    default:
+        return INVALID_TYPE;
+    }
+}
+
 Status ClassAnalyzer::get_udaf_method_desc(const std::string& sign, std::vector<MethodTypeDescriptor>* desc) {
     for (int i = 0; i < sign.size(); ++i) {
         if (sign[i] == '(' || sign[i] == ')') {
             continue;
         }
         if (sign[i] == '[') {
+            if (i + 1 < sign.size() && sign[i + 1] != 'L' && sign[i + 1] != '[') {
+                // primitive array, eg: [I, used by the unboxed calling convention
+                i++;
+                desc->emplace_back(MethodTypeDescriptor{get_primitive_array_type(sign[i]), false, true});
+                continue;
+            }
             while (sign[i] != ';') {
                 i++;
             }
             // return Status::NotSupported("Not support Array Type");
-            desc->emplace_back(MethodTypeDescriptor{INVALID_TYPE, true});
+            desc->emplace_back(MethodTypeDescriptor{INVALID_TYPE, true, true});
+            continue;
         }
         if (sign[i] == 'L') {
             int st = i + 1;
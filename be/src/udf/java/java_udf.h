@@ -59,6 +59,10 @@ public:
     jobject create_boxed_array(int type, int num_rows, bool nullable, DirectByteBuffer* buffs, int sz);
     // create object array with the same elements
     jobject create_object_array(jobject o, int num_rows);
+    // convert the data of a fixed length column to Java primitive array, eg: int[]
+    StatusOr<jobject> create_primitive_array(int type, int num_rows, DirectByteBuffer* data_buff);
+    // convert the null column to Java boolean[]
+    StatusOr<jobject> create_null_array(int num_rows, DirectByteBuffer* null_buff);
 
     // batch update single
     void batch_update_single(AggBatchCallStub* stub, int state, jobject* input, int cols, int rows);
@@ -90,6 +94,11 @@ public:
 
     Status get_result_from_boxed_array(int type, Column* col, jobject jcolumn, int rows);
 
+    // type: PrimitiveType
+    // col: nullable result column, the nulls are reset
+    // jcolumn: int[]/long[]...
+    void get_result_from_primitive_array(FunctionContext* ctx, int type, Column* col, jobject jcolumn, int rows);
+
     // convert int handle to jobject
     // return a local ref
     jobject convert_handle_to_jobject(FunctionContext* ctx, int state);
@@ -156,6 +165,8 @@ private:
 
     jclass _udf_helper_class;
     jmethodID _create_boxed_array;
+    jmethodID _create_primitive_array;
+    jmethodID _create_null_array;
     jmethodID _batch_update_single;
     jmethodID _batch_update;
     jmethodID _batch_update_if_not_null;
@@ -164,6 +175,7 @@ private:
     jmethodID _batch_call_no_args;
     jmethodID _int_batch_call;
     jmethodID _get_boxed_result;
+    jmethodID _get_primitive_result;
     jclass _direct_buffer_class;
     jmethodID _direct_buffer_clear;
 
@@ -66,6 +66,7 @@ import com.starrocks.common.UserException;
 import com.starrocks.common.util.DynamicPartitionUtil;
 import com.starrocks.common.util.PropertyAnalyzer;
 import com.starrocks.common.util.TimeUtils;
+import com.starrocks.leader.ReportHandler;
 import com.starrocks.persist.AlterViewInfo;
 import com.starrocks.persist.BatchModifyPartitionsInfo;
 import com.starrocks.persist.ChangeMaterializedViewRefreshSchemeLog;
@@ -773,6 +774,11 @@ public class Alter {
         // log here
         BatchModifyPartitionsInfo info = new BatchModifyPartitionsInfo(modifyPartitionInfos);
         GlobalStateMgr.getCurrentState().getEditLog().logBatchModifyPartition(info);
+
+        // the storage medium and in memory of the tablets are synced to backends by the full tablet reports
+        if (newDataProperty != null || hasInMemory) {
+            ReportHandler.requestFullTabletReport();
+        }
     }
 
     public void replayModifyPartition(ModifyPartitionInfo info) {
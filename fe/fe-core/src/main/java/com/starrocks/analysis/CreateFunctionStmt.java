@@ -106,6 +106,18 @@ public class CreateFunctionStmt extends DdlStmt {
                     .put(PrimitiveType.VARCHAR, String.class)
                     .build();
 
+    // the types of the columns passed by the primitive-array evaluate method, see checkPrimitiveArrayEvaluate
+    private static final ImmutableMap<PrimitiveType, Class> PrimitiveTypeToJavaArrayType =
+            new ImmutableMap.Builder<PrimitiveType, Class>()
+                    .put(PrimitiveType.BOOLEAN, boolean[].class)
+                    .put(PrimitiveType.TINYINT, byte[].class)
+                    .put(PrimitiveType.SMALLINT, short[].class)
+                    .put(PrimitiveType.INT, int[].class)
+                    .put(PrimitiveType.FLOAT, float[].class)
+                    .put(PrimitiveType.DOUBLE, double[].class)
+                    .put(PrimitiveType.BIGINT, long[].class)
+                    .build();
+
     private static class UDFInternalClass {
         public Class clazz = null;
         public Map<String, Method> methods = null;
@@ -192,13 +204,18 @@ public class CreateFunctionStmt extends DdlStmt {
 
         private void checkUdfType(Method method, Type expType, Class ptype, String pname)
                 throws AnalysisException {
+            checkUdfType(method, expType, ptype, pname, PrimitiveTypeToJavaClassType);
+        }
+
+        private void checkUdfType(Method method, Type expType, Class ptype, String pname,
+                                  Map<PrimitiveType, Class> typeToJavaClass) throws AnalysisException {
             if (!(expType instanceof ScalarType)) {
                 throw new AnalysisException(
                         String.format("UDF class '%s' method '%s' does not support non-scalar type '%s'",
                                 clazz.getCanonicalName(), method.getName(), expType));
             }
             ScalarType scalarType = (ScalarType) expType;
-            Class cls = PrimitiveTypeToJavaClassType.get(scalarType.getPrimitiveType());
+            Class cls = typeToJavaClass.get(scalarType.getPrimitiveType());
             if (cls == null) {
                 throw new AnalysisException(
                         String.format("UDF class '%s' method '%s' does not support type '%s'",
@@ -352,6 +369,10 @@ public class CreateFunctionStmt extends DdlStmt {
             // RETURN_TYPE evaluate(...)
             Method method = mainClass.getMethod(EVAL_METHOD_NAME, true);
             mainClass.checkMethodNonStaticAndPublic(method);
+            if (isPrimitiveArrayEvaluate(method)) {
+                checkPrimitiveArrayEvaluate(method);
+                return;
+            }
             mainClass.checkArgumentCount(method, argsDef.getArgTypes().length);
             mainClass.checkReturnUdfType(method, returnType.getType());
             for (int i = 0; i < method.getParameters().length; i++) {
@@ -361,6 +382,51 @@ public class CreateFunctionStmt extends DdlStmt {
         }
     }
 
+    // the evaluate method called once for a batch of rows, taking the columns as primitive arrays
+    private static boolean isPrimitiveArrayEvaluate(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        return method.getReturnType().isArray() && parameterTypes.length > 0 && parameterTypes[0] == int.class;
+    }
+
+    // RETURN_TYPE[] evaluate(int rows, ARG_TYPE[] arg1, boolean[] nulls1, ...)
+    private void checkPrimitiveArrayEvaluate(Method method) throws AnalysisException {
+        Type[] argTypes = argsDef.getArgTypes();
+        if (argsDef.isVariadic()) {
+            throw new AnalysisException(
+                    String.format("UDF class '%s' method '%s' does not support variadic arguments by arrays",
+                            mainClass.getCanonicalName(), method.getName()));
+        }
+        mainClass.checkArgumentCount(method, argTypes.length * 2 + 1);
+        mainClass.checkUdfType(method, returnType.getType(), method.getReturnType(), RETURN_FIELD_NAME,
+                PrimitiveTypeToJavaArrayType);
+        for (int i = 0; i < argTypes.length; i++) {
+            Parameter values = method.getParameters()[i * 2 + 1];
+            mainClass.checkUdfType(method, argTypes[i], values.getType(), values.getName(),
+                    PrimitiveTypeToJavaArrayType);
+            Parameter nulls = method.getParameters()[i * 2 + 2];
+            if (nulls.getType() != boolean[].class) {
+                throw new AnalysisException(
+                        String.format("UDF class '%s' method '%s' parameter %s[%s] type does not match %s",
+                                mainClass.getCanonicalName(), method.getName(), nulls.getName(),
+                                nulls.getType().getCanonicalName(), boolean[].class.getCanonicalName()));
+            }
+        }
+    }
+
+    // the primitive-array convention is only supported by the evaluate method of scalar UDFs, the update of UDAFs
+    // is called row by row with the state of each row
+    private void checkNoPrimitiveArrayParameter(Method method) throws AnalysisException {
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (parameterType.isArray() && parameterType.getComponentType().isPrimitive()) {
+                throw new AnalysisException(
+                        String.format("UDF class '%s' method '%s' does not support primitive array parameter %s, " +
+                                        "which is only supported by the '%s' method of scalar UDFs",
+                                mainClass.getCanonicalName(), method.getName(), parameterType.getCanonicalName(),
+                                EVAL_METHOD_NAME));
+            }
+        }
+    }
+
     private void analyzeStarrocksJarUdf() throws AnalysisException {
         checkStarrocksJarUdfClass();
         function = ScalarFunction.createUdf(
@@ -409,6 +475,7 @@ public class CreateFunctionStmt extends DdlStmt {
             // void update(State, ....)
             Method method = mainClass.getMethod(UPDATE_METHOD_NAME, true);
             mainClass.checkMethodNonStaticAndPublic(method);
+            checkNoPrimitiveArrayParameter(method);
             mainClass.checkReturnJavaType(method, void.class);
             mainClass.checkArgumentCount(method, argsDef.getArgTypes().length + 1);
             mainClass.checkParamJavaType(method, udafStateClass.clazz, method.getParameters()[0]);
@@ -0,0 +1,95 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.analysis;
+
+import com.starrocks.common.AnalysisException;
+import com.starrocks.sql.ast.AstVisitor;
+import com.starrocks.thrift.TExprNode;
+
+import java.util.Objects;
+
+// Placeholder '?' of a server-side prepared statement.
+// The value is bound by COM_STMT_EXECUTE before the statement is analyzed, so the same parsed
+// statement can be executed many times with different values.
+public class Parameter extends Expr {
+    // the index of this placeholder in the statement, starting from 0
+    private final int slotId;
+    // the offset of this placeholder in the origin sql, used to build the sql with bound values
+    private final int position;
+    private Expr expr;
+
+    public Parameter(int slotId, int position) {
+        this.slotId = slotId;
+        this.position = position;
+    }
+
+    protected Parameter(Parameter other) {
+        super(other);
+        this.slotId = other.slotId;
+        this.position = other.position;
+        this.expr = other.expr;
+    }
+
+    public int getSlotId() {
+        return slotId;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public Expr getExpr() {
+        return expr;
+    }
+
+    public void setExpr(Expr expr) {
+        this.expr = expr;
+    }
+
+    @Override
+    protected void analyzeImpl(Analyzer analyzer) throws AnalysisException {
+        if (expr == null) {
+            throw new AnalysisException("Parameter " + (slotId + 1) + " is not bound");
+        }
+    }
+
+    @Override
+    protected String toSqlImpl() {
+        return expr == null ? "?" : expr.toSql();
+    }
+
+    @Override
+    protected void toThrift(TExprNode msg) {
+        expr.toThrift(msg);
+    }
+
+    @Override
+    public Expr clone() {
+        return new Parameter(this);
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitParameterExpr(this, context);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        Parameter that = (Parameter) o;
+        return slotId == that.slotId && Objects.equals(expr, that.expr);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), slotId, expr);
+    }
+}
@@ -32,6 +32,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -270,7 +271,7 @@ public class MaterializedView extends OlapTable implements GsonPostProcessable {
         Map<String, BasePartitionInfo> baseTableVisibleVersionMap = getRefreshScheme()
                 .getAsyncRefreshContext()
                 .getBaseTableVisibleVersionMap()
-                .computeIfAbsent(base.getId(), k -> Maps.newHashMap());
+                .getOrDefault(base.getId(), Collections.emptyMap());
         Set<String> result = Sets.newHashSet();
         // check whether there are partittions added
         for (String partitionName : base.getPartitionNames()) {
@@ -0,0 +1,113 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.starrocks.common.util.RangeUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable index of the partition ranges, sorted by the lower bound, to find the partitions intersecting
+ * a range by binary search.
+ * <p>
+ * The index of the formal partitions is built once by {@link RangePartitionInfo} when the partitions change and is
+ * shared by all the pruners, instead of building a TreeRangeMap for every query. The partition keys of multiple
+ * columns are compared as a whole, so they are indexed in the same way.
+ */
+public class PartitionRangeIndex {
+    private final long version;
+    private final long[] partitionIds;
+    private final List<Range<PartitionKey>> ranges;
+    // ranges of the formal partitions never overlap, but the ranges given by the user, e.g. formal and temp
+    // partitions, may overlap, then all ranges are checked one by one
+    private final boolean disjoint;
+
+    private PartitionRangeIndex(long version, long[] partitionIds, List<Range<PartitionKey>> ranges,
+                                boolean disjoint) {
+        this.version = version;
+        this.partitionIds = partitionIds;
+        this.ranges = ranges;
+        this.disjoint = disjoint;
+    }
+
+    public static PartitionRangeIndex build(Map<Long, Range<PartitionKey>> idToRange) {
+        return build(idToRange, -1);
+    }
+
+    static PartitionRangeIndex build(Map<Long, Range<PartitionKey>> idToRange, long version) {
+        List<Map.Entry<Long, Range<PartitionKey>>> entries = Lists.newArrayList(idToRange.entrySet());
+        entries.sort(RangeUtils.RANGE_MAP_ENTRY_COMPARATOR);
+
+        long[] partitionIds = new long[entries.size()];
+        List<Range<PartitionKey>> ranges = Lists.newArrayListWithCapacity(entries.size());
+        boolean disjoint = true;
+        for (int i = 0; i < entries.size(); i++) {
+            Range<PartitionKey> range = entries.get(i).getValue();
+            if (i > 0 && disjoint && !isBelow(ranges.get(i - 1), range)) {
+                disjoint = false;
+            }
+            partitionIds[i] = entries.get(i).getKey();
+            ranges.add(range);
+        }
+        return new PartitionRangeIndex(version, partitionIds, ranges, disjoint);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return partitionIds.length;
+    }
+
+    /**
+     * Return the ids of the partitions intersecting the range, in the order of the partition ranges.
+     */
+    public List<Long> getPartitionIds(Range<PartitionKey> range) {
+        List<Long> result = Lists.newArrayList();
+        if (range.isEmpty()) {
+            return result;
+        }
+        if (!disjoint) {
+            for (int i = 0; i < ranges.size(); i++) {
+                Range<PartitionKey> partitionRange = ranges.get(i);
+                if (partitionRange.isConnected(range) && !partitionRange.intersection(range).isEmpty()) {
+                    result.add(partitionIds[i]);
+                }
+            }
+            return result;
+        }
+
+        // the first range not below the given range
+        int low = 0;
+        int high = ranges.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isBelow(ranges.get(mid), range)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < ranges.size() && !isBelow(range, ranges.get(i)); i++) {
+            if (!ranges.get(i).isEmpty()) {
+                result.add(partitionIds[i]);
+            }
+        }
+        return result;
+    }
+
+    // whether the range is entirely below the other one, both are bounded on the compared side
+    private static boolean isBelow(Range<PartitionKey> range, Range<PartitionKey> other) {
+        if (!range.hasUpperBound() || !other.hasLowerBound()) {
+            return false;
+        }
+        int cmp = range.upperEndpoint().compareTo(other.lowerEndpoint());
+        return cmp < 0 || (cmp == 0
+                && (range.upperBoundType() == BoundType.OPEN || other.lowerBoundType() == BoundType.OPEN));
+    }
+}
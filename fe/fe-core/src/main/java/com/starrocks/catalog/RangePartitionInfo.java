@@ -64,6 +64,11 @@ public class RangePartitionInfo extends PartitionInfo {
     // temp partition id -> partition range
     private Map<Long, Range<PartitionKey>> idToTempRange = Maps.newHashMap();
 
+    // increased when the formal partition ranges change
+    private volatile long rangeVersion = 0;
+    // the index of the formal partition ranges, shared by the partition pruners
+    private volatile PartitionRangeIndex rangeIndex;
+
     // partitionId -> serialized Range<PartitionKey>
     // because Range<PartitionKey> and PartitionKey can not be serialized by gson
     // ATTN: call preSerialize before serialization and postDeserialized after deserialization
@@ -97,6 +102,7 @@ public class RangePartitionInfo extends PartitionInfo {
         super.dropPartition(partitionId);
         idToRange.remove(partitionId);
         idToTempRange.remove(partitionId);
+        rangeVersion++;
     }
 
     public void addPartition(long partitionId, boolean isTemp, Range<PartitionKey> range, DataProperty dataProperty,
@@ -267,6 +273,19 @@ public class RangePartitionInfo extends PartitionInfo {
         }
     }
 
+    /**
+     * Get the index of the formal partition ranges, it is rebuilt on demand after the ranges are changed.
+     */
+    public PartitionRangeIndex getRangeIndex() {
+        long version = rangeVersion;
+        PartitionRangeIndex index = rangeIndex;
+        if (index == null || index.getVersion() != version) {
+            index = PartitionRangeIndex.build(idToRange, version);
+            rangeIndex = index;
+        }
+        return index;
+    }
+
     public Range<PartitionKey> getRange(long partitionId) {
         Range<PartitionKey> range = idToRange.get(partitionId);
         if (range == null) {
@@ -346,6 +365,7 @@ public class RangePartitionInfo extends PartitionInfo {
             idToTempRange.put(partitionId, range);
         } else {
             idToRange.put(partitionId, range);
+            rangeVersion++;
         }
     }
 
@@ -353,6 +373,7 @@ public class RangePartitionInfo extends PartitionInfo {
         Range<PartitionKey> range = idToTempRange.remove(tempPartitionId);
         if (range != null) {
             idToRange.put(tempPartitionId, range);
+            rangeVersion++;
         }
     }
 
@@ -407,6 +428,7 @@ public class RangePartitionInfo extends PartitionInfo {
             }
             serializedIdToTempRange = null;
         }
+        rangeVersion++;
     }
 
     @Override
@@ -449,6 +471,7 @@ public class RangePartitionInfo extends PartitionInfo {
             Range<PartitionKey> range = RangeUtils.readRange(in);
             idToRange.put(partitionId, range);
         }
+        rangeVersion++;
 
         if (GlobalStateMgr.getCurrentStateJournalVersion() >= FeMetaVersion.VERSION_77) {
             counter = in.readInt();
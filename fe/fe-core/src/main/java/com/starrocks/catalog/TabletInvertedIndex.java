@@ -23,14 +23,13 @@ package com.starrocks.catalog;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Table;
 import com.starrocks.catalog.Replica.ReplicaState;
 import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
+import com.starrocks.common.util.LongHashMap;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Backend;
 import com.starrocks.thrift.TPartitionVersionInfo;
@@ -46,12 +45,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
 
 /*
  * this class stores a inverted index
@@ -67,37 +68,150 @@ public class TabletInvertedIndex {
     public static final TabletMeta NOT_EXIST_TABLET_META = new TabletMeta(NOT_EXIST_VALUE, NOT_EXIST_VALUE,
             NOT_EXIST_VALUE, NOT_EXIST_VALUE, NOT_EXIST_VALUE, TStorageMedium.HDD);
 
-    private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // the tablets and replicas are spread to the stripes by id, each stripe is guarded by its own lock,
+    // so the lookups of different tablets do not contend with each other and with the tablet reports.
+    // The replicas of a tablet are changed under the lock of the tablet stripe, which is held while the replica
+    // stripe and the backend map are updated as well, so the three are always changed together. The locks are
+    // always taken in the order: tablet stripe -> replica stripe -> backend replicas.
+    private static final int STRIPE_NUM = 128;
 
-    // tablet id -> tablet meta
-    private Map<Long, TabletMeta> tabletMetaMap = Maps.newHashMap();
+    private final Stripe[] stripes = new Stripe[STRIPE_NUM];
+    private final ReplicaStripe[] replicaStripes = new ReplicaStripe[STRIPE_NUM];
 
-    // replica id -> tablet id
-    private Map<Long, Long> replicaToTabletMap = Maps.newHashMap();
-
-    // tablet id -> (backend id -> replica)
-    private Table<Long, Long, Replica> replicaMetaTable = HashBasedTable.create();
-    // backing replica table, for visiting backend replicas faster.
-    // backend id -> (tablet id -> replica)
-    private Table<Long, Long, Replica> backingReplicaMetaTable = HashBasedTable.create();
+    // backend id -> (tablet id -> tablet entry), for visiting backend replicas faster.
+    private final Map<Long, BackendReplicas> backendReplicas = new ConcurrentHashMap<>();
 
     public TabletInvertedIndex() {
+        for (int i = 0; i < STRIPE_NUM; i++) {
+            stripes[i] = new Stripe();
+            replicaStripes[i] = new ReplicaStripe();
+        }
+    }
+
+    /*
+     * The entry of a tablet, shared by the tablet map, the replica map and the backend maps.
+     * The replicas are kept in a small copy-on-write array, a tablet usually has 3 replicas.
+     */
+    private static class TabletEntry {
+        private final long tabletId;
+        private final TabletMeta tabletMeta;
+        private volatile Replica[] replicas = new Replica[0];
+
+        TabletEntry(long tabletId, TabletMeta tabletMeta) {
+            this.tabletId = tabletId;
+            this.tabletMeta = tabletMeta;
+        }
+
+        Replica getReplica(long backendId) {
+            for (Replica replica : replicas) {
+                if (replica.getBackendId() == backendId) {
+                    return replica;
+                }
+            }
+            return null;
+        }
+
+        // must be called with the write lock of the tablet stripe, return the replaced replica
+        Replica putReplica(Replica replica) {
+            Replica[] current = replicas;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].getBackendId() == replica.getBackendId()) {
+                    Replica[] updated = current.clone();
+                    updated[i] = replica;
+                    replicas = updated;
+                    return current[i];
+                }
+            }
+            Replica[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = replica;
+            replicas = updated;
+            return null;
+        }
+
+        // must be called with the write lock of the tablet stripe, return the removed replica
+        Replica removeReplica(long backendId) {
+            Replica[] current = replicas;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].getBackendId() == backendId) {
+                    Replica[] updated = new Replica[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    replicas = updated;
+                    return current[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class Stripe {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // tablet id -> tablet entry, for the tablets of this stripe
+        private final LongHashMap<TabletEntry> tablets = new LongHashMap<>();
+    }
+
+    private static class ReplicaStripe {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // replica id -> tablet entry, for the replicas of this stripe
+        private final LongHashMap<TabletEntry> replicas = new LongHashMap<>();
+    }
+
+    private static class BackendReplicas {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongHashMap<TabletEntry> tablets = new LongHashMap<>();
+    }
+
+    private static int stripeIndex(long id) {
+        return (int) ((id ^ (id >>> 32)) & (STRIPE_NUM - 1));
+    }
+
+    private Stripe stripe(long tabletId) {
+        return stripes[stripeIndex(tabletId)];
     }
 
-    private void readLock() {
-        this.lock.readLock().lock();
+    private ReplicaStripe replicaStripe(long replicaId) {
+        return replicaStripes[stripeIndex(replicaId)];
     }
 
-    private void readUnlock() {
-        this.lock.readLock().unlock();
+    private TabletEntry getEntry(long tabletId) {
+        Stripe stripe = stripe(tabletId);
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.tablets.get(tabletId);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
     }
 
-    private void writeLock() {
-        this.lock.writeLock().lock();
+    // snapshot the tablets on the backend, so the backend map is not locked while visiting them
+    private List<TabletEntry> getEntriesOfBackend(long backendId) {
+        BackendReplicas replicas = backendReplicas.get(backendId);
+        if (replicas == null) {
+            return null;
+        }
+        replicas.lock.readLock().lock();
+        try {
+            List<TabletEntry> entries = new ArrayList<>(replicas.tablets.size());
+            replicas.tablets.forEach((tabletId, entry) -> entries.add(entry));
+            return entries;
+        } finally {
+            replicas.lock.readLock().unlock();
+        }
     }
 
-    private void writeUnlock() {
-        this.lock.writeLock().unlock();
+    // the entries of the tablets reported in a delta report, and of the tablets the backend reports as dropped
+    private List<TabletEntry> getEntriesOfTablets(long backendId, Collection<Long> reportedTabletIds,
+                                                  Collection<Long> droppedTabletIds) {
+        List<TabletEntry> entries = new ArrayList<>(reportedTabletIds.size() + droppedTabletIds.size());
+        for (Collection<Long> tabletIds : Arrays.asList(reportedTabletIds, droppedTabletIds)) {
+            for (long tabletId : tabletIds) {
+                TabletEntry entry = getEntry(tabletId);
+                if (entry != null && entry.getReplica(backendId) != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
     }
 
     public void tabletReport(long backendId, Map<Long, TTablet> backendTablets,
@@ -112,6 +226,30 @@ public class TabletInvertedIndex {
                              ListMultimap<Long, Long> transactionsToClear,
                              ListMultimap<Long, Long> tabletRecoveryMap,
                              Set<Pair<Long, Integer>> tabletWithoutPartitionId) {
+        tabletReport(backendId, backendTablets, null, storageMediumMap, tabletSyncMap, tabletDeleteFromMeta,
+                foundTabletsWithValidSchema, foundTabletsWithInvalidSchema, tabletMigrationMap, transactionsToPublish,
+                transactionsToCommitTime, transactionsToClear, tabletRecoveryMap, tabletWithoutPartitionId);
+    }
+
+    /**
+     * Diff the reported tablets with the meta.
+     * If droppedTabletIds is null, backendTablets is a full report and the replicas of the backend not reported
+     * are missing from the backend. Otherwise it is a delta report, only the reported tablets and the dropped
+     * tablets are diffed, the tablets not mentioned are unchanged since the last report.
+     */
+    public void tabletReport(long backendId, Map<Long, TTablet> backendTablets,
+                             Set<Long> droppedTabletIds,
+                             final HashMap<Long, TStorageMedium> storageMediumMap,
+                             ListMultimap<Long, Long> tabletSyncMap,
+                             ListMultimap<Long, Long> tabletDeleteFromMeta,
+                             Set<Long> foundTabletsWithValidSchema,
+                             Map<Long, TTabletInfo> foundTabletsWithInvalidSchema,
+                             ListMultimap<TStorageMedium, Long> tabletMigrationMap,
+                             Map<Long, ListMultimap<Long, TPartitionVersionInfo>> transactionsToPublish,
+                             Map<Long, Long> transactionsToCommitTime,
+                             ListMultimap<Long, Long> transactionsToClear,
+                             ListMultimap<Long, Long> tabletRecoveryMap,
+                             Set<Pair<Long, Integer>> tabletWithoutPartitionId) {
 
         for (TTablet backendTablet : backendTablets.values()) {
             for (TTabletInfo tabletInfo : backendTablet.tablet_infos) {
@@ -127,153 +265,153 @@ public class TabletInvertedIndex {
             backendStorageTypeCnt = be.getAvailableBackendStorageTypeCnt();
         }
 
-        readLock();
         long start = System.currentTimeMillis();
-        try {
-            LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                // traverse replicas in meta with this backend
-                for (Map.Entry<Long, Replica> entry : replicaMetaWithBackend.entrySet()) {
-                    long tabletId = entry.getKey();
-                    Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-                    TabletMeta tabletMeta = tabletMetaMap.get(tabletId);
-
-                    if (tabletMeta.isLakeTablet()) {
-                        continue;
-                    }
-
-                    if (backendTablets.containsKey(tabletId)) {
-                        TTablet backendTablet = backendTablets.get(tabletId);
-                        Replica replica = entry.getValue();
-                        for (TTabletInfo backendTabletInfo : backendTablet.getTablet_infos()) {
-                            if (tabletMeta.containsSchemaHash(backendTabletInfo.getSchema_hash())) {
-                                foundTabletsWithValidSchema.add(tabletId);
-                                // 1. (intersection)
-                                if (needSync(replica, backendTabletInfo)) {
-                                    // need sync
-                                    tabletSyncMap.put(tabletMeta.getDbId(), tabletId);
-                                }
-
-                                // check and set path
-                                // path info of replica is only saved in Leader FE
-                                if (backendTabletInfo.isSetPath_hash() &&
-                                        replica.getPathHash() != backendTabletInfo.getPath_hash()) {
-                                    replica.setPathHash(backendTabletInfo.getPath_hash());
-                                }
-
-                                if (backendTabletInfo.isSetSchema_hash() && replica.getState() == ReplicaState.NORMAL
-                                        && replica.getSchemaHash() != backendTabletInfo.getSchema_hash()) {
-                                    // update the schema hash only when replica is normal
-                                    replica.setSchemaHash(backendTabletInfo.getSchema_hash());
-                                }
+        LOG.info("begin to do tablet diff with backend[{}]. num: {}, incremental: {}",
+                backendId, backendTablets.size(), droppedTabletIds != null);
+        List<TabletEntry> replicaMetaWithBackend = droppedTabletIds == null ? getEntriesOfBackend(backendId) :
+                getEntriesOfTablets(backendId, backendTablets.keySet(), droppedTabletIds);
+        if (replicaMetaWithBackend != null) {
+            // traverse replicas in meta with this backend
+            for (TabletEntry entry : replicaMetaWithBackend) {
+                long tabletId = entry.tabletId;
+                TabletMeta tabletMeta = entry.tabletMeta;
+                Replica replica = entry.getReplica(backendId);
+                if (replica == null) {
+                    // the replica is deleted after the snapshot
+                    continue;
+                }
 
-                                if (needRecover(replica, tabletMeta.getOldSchemaHash(), backendTabletInfo)) {
-                                    LOG.warn("replica {} of tablet {} on backend {} need recovery. "
-                                                    + "replica in FE: {}, report version {}, report schema hash: {},"
-                                                    + " is bad: {}, is version missing: {}",
-                                            replica.getId(), tabletId, backendId, replica,
-                                            backendTabletInfo.getVersion(),
-                                            backendTabletInfo.getSchema_hash(),
-                                            backendTabletInfo.isSetUsed() ? backendTabletInfo.isUsed() : "unknown",
-                                            backendTabletInfo.isSetVersion_miss() ? backendTabletInfo.isVersion_miss() :
-                                                    "unset");
-                                    tabletRecoveryMap.put(tabletMeta.getDbId(), tabletId);
-                                }
+                if (tabletMeta.isLakeTablet()) {
+                    continue;
+                }
 
-                                // check if need migration
-                                long partitionId = tabletMeta.getPartitionId();
-                                TStorageMedium storageMedium = storageMediumMap.get(partitionId);
-                                if (storageMedium != null && backendTabletInfo.isSetStorage_medium()) {
-                                    // If storage medium is less than 1, there is no need to send migration tasks to BE.
-                                    // Because BE will ignore this request.
-                                    if (storageMedium != backendTabletInfo.getStorage_medium()) {
-                                        if (backendStorageTypeCnt <= 1) {
-                                            LOG.debug("available storage medium type count is less than 1, " +
-                                                            "no need to send migrate task. tabletId={}, backendId={}.",
-                                                    tabletId, backendId);
-                                        } else if (tabletMigrationMap.size() <=
-                                                Config.tablet_sched_max_migration_task_sent_once) {
-                                            tabletMigrationMap.put(storageMedium, tabletId);
-                                        }
-                                    }
-                                    if (storageMedium != tabletMeta.getStorageMedium()) {
-                                        tabletMeta.setStorageMedium(storageMedium);
+                if (backendTablets.containsKey(tabletId)) {
+                    TTablet backendTablet = backendTablets.get(tabletId);
+                    for (TTabletInfo backendTabletInfo : backendTablet.getTablet_infos()) {
+                        if (tabletMeta.containsSchemaHash(backendTabletInfo.getSchema_hash())) {
+                            foundTabletsWithValidSchema.add(tabletId);
+                            // 1. (intersection)
+                            if (needSync(replica, backendTabletInfo)) {
+                                // need sync
+                                tabletSyncMap.put(tabletMeta.getDbId(), tabletId);
+                            }
+
+                            // check and set path
+                            // path info of replica is only saved in Leader FE
+                            if (backendTabletInfo.isSetPath_hash() &&
+                                    replica.getPathHash() != backendTabletInfo.getPath_hash()) {
+                                replica.setPathHash(backendTabletInfo.getPath_hash());
+                            }
+
+                            if (backendTabletInfo.isSetSchema_hash() && replica.getState() == ReplicaState.NORMAL
+                                    && replica.getSchemaHash() != backendTabletInfo.getSchema_hash()) {
+                                // update the schema hash only when replica is normal
+                                replica.setSchemaHash(backendTabletInfo.getSchema_hash());
+                            }
+
+                            if (needRecover(replica, tabletMeta.getOldSchemaHash(), backendTabletInfo)) {
+                                LOG.warn("replica {} of tablet {} on backend {} need recovery. "
+                                                + "replica in FE: {}, report version {}, report schema hash: {},"
+                                                + " is bad: {}, is version missing: {}",
+                                        replica.getId(), tabletId, backendId, replica,
+                                        backendTabletInfo.getVersion(),
+                                        backendTabletInfo.getSchema_hash(),
+                                        backendTabletInfo.isSetUsed() ? backendTabletInfo.isUsed() : "unknown",
+                                        backendTabletInfo.isSetVersion_miss() ? backendTabletInfo.isVersion_miss() :
+                                                "unset");
+                                tabletRecoveryMap.put(tabletMeta.getDbId(), tabletId);
+                            }
+
+                            // check if need migration
+                            long partitionId = tabletMeta.getPartitionId();
+                            TStorageMedium storageMedium = storageMediumMap.get(partitionId);
+                            if (storageMedium != null && backendTabletInfo.isSetStorage_medium()) {
+                                // If storage medium is less than 1, there is no need to send migration tasks to BE.
+                                // Because BE will ignore this request.
+                                if (storageMedium != backendTabletInfo.getStorage_medium()) {
+                                    if (backendStorageTypeCnt <= 1) {
+                                        LOG.debug("available storage medium type count is less than 1, " +
+                                                        "no need to send migrate task. tabletId={}, backendId={}.",
+                                                tabletId, backendId);
+                                    } else if (tabletMigrationMap.size() <=
+                                            Config.tablet_sched_max_migration_task_sent_once) {
+                                        tabletMigrationMap.put(storageMedium, tabletId);
                                     }
                                 }
-                                // check if should clear transactions
-                                if (backendTabletInfo.isSetTransaction_ids()) {
-                                    List<Long> transactionIds = backendTabletInfo.getTransaction_ids();
-                                    GlobalTransactionMgr transactionMgr =
-                                            GlobalStateMgr.getCurrentGlobalTransactionMgr();
-                                    for (Long transactionId : transactionIds) {
-                                        TransactionState transactionState =
-                                                transactionMgr.getTransactionState(tabletMeta.getDbId(), transactionId);
-                                        if (transactionState == null ||
-                                                transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
-                                            transactionsToClear.put(transactionId, tabletMeta.getPartitionId());
-                                            LOG.debug("transaction id [{}] is not valid any more, "
-                                                    + "clear it from backend [{}]", transactionId, backendId);
-                                        } else if (transactionState.getTransactionStatus() ==
-                                                TransactionStatus.VISIBLE) {
-                                            TableCommitInfo tableCommitInfo =
-                                                    transactionState.getTableCommitInfo(tabletMeta.getTableId());
-                                            PartitionCommitInfo partitionCommitInfo =
-                                                    tableCommitInfo.getPartitionCommitInfo(partitionId);
-                                            if (partitionCommitInfo == null) {
-                                                /*
-                                                 * This may happen as follows:
-                                                 * 1. txn is committed on BE, and report commit info to FE
-                                                 * 2. FE received report and begin to assemble partitionCommitInfos.
-                                                 * 3. At the same time, some of partitions have been dropped, so
-                                                 *    partitionCommitInfos does not contain these partitions.
-                                                 * 4. So we will not able to get partitionCommitInfo here.
-                                                 *
-                                                 * Just print a log to observe
-                                                 */
-                                                LOG.info(
-                                                        "failed to find partition commit info. table: {}, " +
-                                                                "partition: {}, tablet: {}, txn_id: {}",
-                                                        tabletMeta.getTableId(), partitionId, tabletId,
-                                                        transactionState.getTransactionId());
-                                            } else {
-                                                TPartitionVersionInfo versionInfo =
-                                                        new TPartitionVersionInfo(tabletMeta.getPartitionId(),
-                                                                partitionCommitInfo.getVersion(), 0);
-                                                ListMultimap<Long, TPartitionVersionInfo> map =
-                                                        transactionsToPublish.get(transactionState.getDbId());
-                                                if (map == null) {
-                                                    map = ArrayListMultimap.create();
-                                                    transactionsToPublish.put(transactionState.getDbId(), map);
-                                                }
-                                                map.put(transactionId, versionInfo);
-                                                transactionsToCommitTime.put(transactionId,
-                                                        transactionState.getCommitTime());
+                                if (storageMedium != tabletMeta.getStorageMedium()) {
+                                    tabletMeta.setStorageMedium(storageMedium);
+                                }
+                            }
+                            // check if should clear transactions
+                            if (backendTabletInfo.isSetTransaction_ids()) {
+                                List<Long> transactionIds = backendTabletInfo.getTransaction_ids();
+                                GlobalTransactionMgr transactionMgr =
+                                        GlobalStateMgr.getCurrentGlobalTransactionMgr();
+                                for (Long transactionId : transactionIds) {
+                                    TransactionState transactionState =
+                                            transactionMgr.getTransactionState(tabletMeta.getDbId(), transactionId);
+                                    if (transactionState == null ||
+                                            transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
+                                        transactionsToClear.put(transactionId, tabletMeta.getPartitionId());
+                                        LOG.debug("transaction id [{}] is not valid any more, "
+                                                + "clear it from backend [{}]", transactionId, backendId);
+                                    } else if (transactionState.getTransactionStatus() ==
+                                            TransactionStatus.VISIBLE) {
+                                        TableCommitInfo tableCommitInfo =
+                                                transactionState.getTableCommitInfo(tabletMeta.getTableId());
+                                        PartitionCommitInfo partitionCommitInfo =
+                                                tableCommitInfo.getPartitionCommitInfo(partitionId);
+                                        if (partitionCommitInfo == null) {
+                                            /*
+                                             * This may happen as follows:
+                                             * 1. txn is committed on BE, and report commit info to FE
+                                             * 2. FE received report and begin to assemble partitionCommitInfos.
+                                             * 3. At the same time, some of partitions have been dropped, so
+                                             *    partitionCommitInfos does not contain these partitions.
+                                             * 4. So we will not able to get partitionCommitInfo here.
+                                             *
+                                             * Just print a log to observe
+                                             */
+                                            LOG.info(
+                                                    "failed to find partition commit info. table: {}, " +
+                                                            "partition: {}, tablet: {}, txn_id: {}",
+                                                    tabletMeta.getTableId(), partitionId, tabletId,
+                                                    transactionState.getTransactionId());
+                                        } else {
+                                            TPartitionVersionInfo versionInfo =
+                                                    new TPartitionVersionInfo(tabletMeta.getPartitionId(),
+                                                            partitionCommitInfo.getVersion(), 0);
+                                            ListMultimap<Long, TPartitionVersionInfo> map =
+                                                    transactionsToPublish.get(transactionState.getDbId());
+                                            if (map == null) {
+                                                map = ArrayListMultimap.create();
+                                                transactionsToPublish.put(transactionState.getDbId(), map);
                                             }
+                                            map.put(transactionId, versionInfo);
+                                            transactionsToCommitTime.put(transactionId,
+                                                    transactionState.getCommitTime());
                                         }
                                     }
-                                } // end for txn id
-
-                                // update replicas's version count
-                                // no need to write log, and no need to get db lock.
-                                if (backendTabletInfo.isSetVersion_count()) {
-                                    replica.setVersionCount(backendTabletInfo.getVersion_count());
                                 }
-                            } else {
-                                // tablet with invalid schemahash
-                                foundTabletsWithInvalidSchema.put(tabletId, backendTabletInfo);
-                            } // end for be tablet info
-                        }
-                    } else {
-                        // 2. (meta - be)
-                        // may need delete from meta
-                        LOG.debug("backend[{}] does not report tablet[{}-{}]", backendId, tabletId, tabletMeta);
-                        tabletDeleteFromMeta.put(tabletMeta.getDbId(), tabletId);
+                            } // end for txn id
+
+                            // update replicas's version count
+                            // no need to write log, and no need to get db lock.
+                            if (backendTabletInfo.isSetVersion_count()) {
+                                replica.setVersionCount(backendTabletInfo.getVersion_count());
+                            }
+                        } else {
+                            // tablet with invalid schemahash
+                            foundTabletsWithInvalidSchema.put(tabletId, backendTabletInfo);
+                        } // end for be tablet info
                     }
-                } // end for replicaMetaWithBackend
-            }
-        } finally {
-            readUnlock();
+                } else {
+                    // 2. (meta - be)
+                    // may need delete from meta, in a delta report only the dropped tablets get here
+                    LOG.debug("backend[{}] does not report tablet[{}-{}]", backendId, tabletId, tabletMeta);
+                    tabletDeleteFromMeta.put(tabletMeta.getDbId(), tabletId);
+                }
+            } // end for replicaMetaWithBackend
         }
 
         long end = System.currentTimeMillis();
@@ -285,34 +423,28 @@ public class TabletInvertedIndex {
     }
 
     public Long getTabletIdByReplica(long replicaId) {
-        readLock();
+        ReplicaStripe stripe = replicaStripe(replicaId);
+        stripe.lock.readLock().lock();
         try {
-            return replicaToTabletMap.get(replicaId);
+            TabletEntry entry = stripe.replicas.get(replicaId);
+            return entry == null ? null : entry.tabletId;
         } finally {
-            readUnlock();
+            stripe.lock.readLock().unlock();
         }
     }
 
     public TabletMeta getTabletMeta(long tabletId) {
-        readLock();
-        try {
-            return tabletMetaMap.get(tabletId);
-        } finally {
-            readUnlock();
-        }
+        TabletEntry entry = getEntry(tabletId);
+        return entry == null ? null : entry.tabletMeta;
     }
 
     public List<TabletMeta> getTabletMetaList(List<Long> tabletIdList) {
         List<TabletMeta> tabletMetaList = new ArrayList<>(tabletIdList.size());
-        readLock();
-        try {
-            for (Long tabletId : tabletIdList) {
-                tabletMetaList.add(tabletMetaMap.getOrDefault(tabletId, NOT_EXIST_TABLET_META));
-            }
-            return tabletMetaList;
-        } finally {
-            readUnlock();
+        for (Long tabletId : tabletIdList) {
+            TabletEntry entry = getEntry(tabletId);
+            tabletMetaList.add(entry == null ? NOT_EXIST_TABLET_META : entry.tabletMeta);
         }
+        return tabletMetaList;
     }
 
     private boolean needSync(Replica replicaInFe, TTabletInfo backendTabletInfo) {
@@ -396,13 +528,14 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Stripe stripe = stripe(tabletId);
+        stripe.lock.writeLock().lock();
         try {
-            tabletMetaMap.putIfAbsent(tabletId, tabletMeta);
+            stripe.tablets.putIfAbsent(tabletId, new TabletEntry(tabletId, tabletMeta));
 
             LOG.debug("add tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            stripe.lock.writeLock().unlock();
         }
     }
 
@@ -410,23 +543,19 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Stripe stripe = stripe(tabletId);
+        stripe.lock.writeLock().lock();
         try {
-            Map<Long, Replica> replicas = replicaMetaTable.rowMap().remove(tabletId);
-            if (replicas != null) {
-                for (Replica replica : replicas.values()) {
-                    replicaToTabletMap.remove(replica.getId());
-                }
-
-                for (long backendId : replicas.keySet()) {
-                    backingReplicaMetaTable.remove(backendId, tabletId);
-                }
+            TabletEntry entry = stripe.tablets.remove(tabletId);
+            if (entry == null) {
+                return;
+            }
+            for (Replica replica : entry.replicas) {
+                removeReplicaIndex(entry, replica);
             }
-            tabletMetaMap.remove(tabletId);
-
             LOG.debug("delete tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            stripe.lock.writeLock().unlock();
         }
     }
 
@@ -434,16 +563,34 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Stripe stripe = stripe(tabletId);
+        stripe.lock.writeLock().lock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            replicaMetaTable.put(tabletId, replica.getBackendId(), replica);
-            replicaToTabletMap.put(replica.getId(), tabletId);
-            backingReplicaMetaTable.put(replica.getBackendId(), tabletId, replica);
+            TabletEntry entry = stripe.tablets.get(tabletId);
+            Preconditions.checkState(entry != null);
+            Replica replaced = entry.putReplica(replica);
+            if (replaced != null && replaced.getId() != replica.getId()) {
+                removeReplicaId(entry, replaced.getId());
+            }
+            ReplicaStripe replicaStripe = replicaStripe(replica.getId());
+            replicaStripe.lock.writeLock().lock();
+            try {
+                replicaStripe.replicas.put(replica.getId(), entry);
+            } finally {
+                replicaStripe.lock.writeLock().unlock();
+            }
+            BackendReplicas replicas = backendReplicas.computeIfAbsent(replica.getBackendId(),
+                    k -> new BackendReplicas());
+            replicas.lock.writeLock().lock();
+            try {
+                replicas.tablets.put(tabletId, entry);
+            } finally {
+                replicas.lock.writeLock().unlock();
+            }
             LOG.debug("add replica {} of tablet {} in backend {}",
                     replica.getId(), tabletId, replica.getBackendId());
         } finally {
-            writeUnlock();
+            stripe.lock.writeLock().unlock();
         }
     }
 
@@ -451,14 +598,14 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Stripe stripe = stripe(tabletId);
+        stripe.lock.writeLock().lock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            if (replicaMetaTable.containsRow(tabletId)) {
-                Replica replica = replicaMetaTable.remove(tabletId, backendId);
-                replicaToTabletMap.remove(replica.getId());
-                replicaMetaTable.remove(tabletId, backendId);
-                backingReplicaMetaTable.remove(backendId, tabletId);
+            TabletEntry entry = stripe.tablets.get(tabletId);
+            Preconditions.checkState(entry != null);
+            Replica replica = entry.removeReplica(backendId);
+            if (replica != null) {
+                removeReplicaIndex(entry, replica);
                 LOG.debug("delete replica {} of tablet {} in backend {}",
                         replica.getId(), tabletId, backendId);
             } else {
@@ -467,29 +614,63 @@ public class TabletInvertedIndex {
                 LOG.error("tablet[{}] contains no replica in inverted index", tabletId);
             }
         } finally {
-            writeUnlock();
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    // remove the replica from the replica map and the backend map, with the write lock of the tablet stripe
+    private void removeReplicaIndex(TabletEntry entry, Replica replica) {
+        removeReplicaId(entry, replica.getId());
+        BackendReplicas replicas = backendReplicas.get(replica.getBackendId());
+        if (replicas != null) {
+            replicas.lock.writeLock().lock();
+            try {
+                if (replicas.tablets.get(entry.tabletId) == entry) {
+                    replicas.tablets.remove(entry.tabletId);
+                }
+            } finally {
+                replicas.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void removeReplicaId(TabletEntry entry, long replicaId) {
+        ReplicaStripe stripe = replicaStripe(replicaId);
+        stripe.lock.writeLock().lock();
+        try {
+            if (stripe.replicas.get(replicaId) == entry) {
+                stripe.replicas.remove(replicaId);
+            }
+        } finally {
+            stripe.lock.writeLock().unlock();
         }
     }
 
+    // the replicas are read with the read lock of the tablet stripe, so a replica being added or deleted is
+    // either in both the tablet and the backend map or in neither of them
     public Replica getReplica(long tabletId, long backendId) {
-        readLock();
+        Stripe stripe = stripe(tabletId);
+        stripe.lock.readLock().lock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId), tabletId);
-            return replicaMetaTable.get(tabletId, backendId);
+            TabletEntry entry = stripe.tablets.get(tabletId);
+            Preconditions.checkState(entry != null, tabletId);
+            return entry.getReplica(backendId);
         } finally {
-            readUnlock();
+            stripe.lock.readLock().unlock();
         }
     }
 
     public List<Replica> getReplicasByTabletId(long tabletId) {
-        readLock();
+        Stripe stripe = stripe(tabletId);
+        stripe.lock.readLock().lock();
         try {
-            if (replicaMetaTable.containsRow(tabletId)) {
-                return Lists.newArrayList(replicaMetaTable.row(tabletId).values());
+            TabletEntry entry = stripe.tablets.get(tabletId);
+            if (entry != null) {
+                return Lists.newArrayList(entry.replicas);
             }
             return Lists.newArrayList();
         } finally {
-            readUnlock();
+            stripe.lock.readLock().unlock();
         }
     }
 
@@ -501,95 +682,91 @@ public class TabletInvertedIndex {
      * @return list of replica or null if backend not found
      */
     public List<Replica> getReplicasOnBackendByTabletIds(List<Long> tabletIds, long backendId) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                List<Replica> replicas = Lists.newArrayList();
+        BackendReplicas replicaMetaWithBackend = backendReplicas.get(backendId);
+        if (replicaMetaWithBackend != null) {
+            List<Replica> replicas = Lists.newArrayList();
+            replicaMetaWithBackend.lock.readLock().lock();
+            try {
                 for (long tabletId : tabletIds) {
-                    replicas.add(replicaMetaWithBackend.get(tabletId));
+                    TabletEntry entry = replicaMetaWithBackend.tablets.get(tabletId);
+                    replicas.add(entry == null ? null : entry.getReplica(backendId));
                 }
-                return replicas;
+            } finally {
+                replicaMetaWithBackend.lock.readLock().unlock();
             }
-            return null;
-        } finally {
-            readUnlock();
+            return replicas;
         }
+        return null;
     }
 
     public List<Long> getTabletIdsByBackendId(long backendId) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds.addAll(replicaMetaWithBackend.keySet());
+        BackendReplicas replicaMetaWithBackend = backendReplicas.get(backendId);
+        if (replicaMetaWithBackend != null) {
+            replicaMetaWithBackend.lock.readLock().lock();
+            try {
+                replicaMetaWithBackend.tablets.forEach((tabletId, entry) -> tabletIds.add(tabletId));
+            } finally {
+                replicaMetaWithBackend.lock.readLock().unlock();
             }
-        } finally {
-            readUnlock();
         }
         return tabletIds;
     }
 
     public List<Long> getTabletIdsByBackendIdAndStorageMedium(long backendId, TStorageMedium storageMedium) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds = replicaMetaWithBackend.keySet().stream().filter(
-                        id -> tabletMetaMap.get(id).getStorageMedium() == storageMedium).collect(Collectors.toList());
+        List<TabletEntry> entries = getEntriesOfBackend(backendId);
+        if (entries != null) {
+            for (TabletEntry entry : entries) {
+                if (entry.tabletMeta.getStorageMedium() == storageMedium) {
+                    tabletIds.add(entry.tabletId);
+                }
             }
-        } finally {
-            readUnlock();
         }
         return tabletIds;
     }
 
     public long getTabletNumByBackendId(long backendId) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.size();
+        BackendReplicas replicaMetaWithBackend = backendReplicas.get(backendId);
+        if (replicaMetaWithBackend != null) {
+            replicaMetaWithBackend.lock.readLock().lock();
+            try {
+                return replicaMetaWithBackend.tablets.size();
+            } finally {
+                replicaMetaWithBackend.lock.readLock().unlock();
             }
-        } finally {
-            readUnlock();
         }
         return 0;
     }
 
     public long getTabletNumByBackendIdAndPathHash(long backendId, long pathHash) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.values().stream().filter(r -> r.getPathHash() == pathHash).count();
+        List<TabletEntry> entries = getEntriesOfBackend(backendId);
+        if (entries == null) {
+            return 0;
+        }
+        long num = 0;
+        for (TabletEntry entry : entries) {
+            Replica replica = entry.getReplica(backendId);
+            if (replica != null && replica.getPathHash() == pathHash) {
+                num++;
             }
-        } finally {
-            readUnlock();
         }
-        return 0;
+        return num;
     }
 
     public Map<TStorageMedium, Long> getReplicaNumByBeIdAndStorageMedium(long backendId) {
         Map<TStorageMedium, Long> replicaNumMap = Maps.newHashMap();
         long hddNum = 0;
         long ssdNum = 0;
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                for (long tabletId : replicaMetaWithBackend.keySet()) {
-                    if (tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
-                        hddNum++;
-                    } else {
-                        ssdNum++;
-                    }
+        List<TabletEntry> entries = getEntriesOfBackend(backendId);
+        if (entries != null) {
+            for (TabletEntry entry : entries) {
+                if (entry.tabletMeta.getStorageMedium() == TStorageMedium.HDD) {
+                    hddNum++;
+                } else {
+                    ssdNum++;
                 }
             }
-        } finally {
-            readUnlock();
         }
         replicaNumMap.put(TStorageMedium.HDD, hddNum);
         replicaNumMap.put(TStorageMedium.SSD, ssdNum);
@@ -598,15 +775,22 @@ public class TabletInvertedIndex {
 
     // just for test
     public void clear() {
-        writeLock();
-        try {
-            tabletMetaMap.clear();
-            replicaToTabletMap.clear();
-            replicaMetaTable.clear();
-            backingReplicaMetaTable.clear();
-        } finally {
-            writeUnlock();
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.tablets.clear();
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
         }
+        for (ReplicaStripe stripe : replicaStripes) {
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.replicas.clear();
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+        backendReplicas.clear();
     }
 }
-
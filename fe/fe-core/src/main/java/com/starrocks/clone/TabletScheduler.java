@@ -51,6 +51,7 @@ import com.starrocks.clone.TabletSchedCtx.Type;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.util.LeaderDaemon;
 import com.starrocks.persist.ReplicaPersistInfo;
 import com.starrocks.server.GlobalStateMgr;
@@ -72,6 +73,9 @@ import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -139,6 +143,13 @@ public class TabletScheduler extends LeaderDaemon {
     private TabletSchedulerStat stat;
     private Rebalancer rebalancer;
 
+    // schedule the repair tablets of different databases concurrently
+    private final ExecutorService scheduleExecutor = ThreadPoolManager.newDaemonFixedThreadPool(
+            Math.max(1, Config.tablet_sched_schedule_thread_num), Integer.MAX_VALUE, "tablet-schedule-pool", true);
+    // notified when a clone task finishes, so the slots freed can be used by the pending tablets at once
+    private final Object slotFreedSignal = new Object();
+    private boolean slotFreed = false;
+
     // result of adding a tablet to pendingTablets
     public enum AddResult {
         ADDED, // success to add
@@ -162,7 +173,8 @@ public class TabletScheduler extends LeaderDaemon {
     public TabletScheduler(GlobalStateMgr globalStateMgr, SystemInfoService infoService,
                            TabletInvertedIndex invertedIndex,
                            TabletSchedulerStat stat) {
-        super("tablet scheduler", SCHEDULE_INTERVAL_MS);
+        // no need to sleep between the cycles, each cycle waits for SCHEDULE_INTERVAL_MS itself
+        super("tablet scheduler", 0);
         this.globalStateMgr = globalStateMgr;
         this.infoService = infoService;
         this.invertedIndex = invertedIndex;
@@ -323,20 +335,33 @@ public class TabletScheduler extends LeaderDaemon {
      * 4. every pending task should has a max scheduled time, if schedule fails too many times, if should be removed.
      * 5. every running task should has a timeout, to avoid running forever.
      * 6. every running task should also has a max failure time, if clone task fails too many times, if should be removed.
+     * <p>
+     * Until the next round, the pending tablets are scheduled whenever some clone tasks finish, rather than leaving
+     * the slots of the finished tasks idle. Otherwise the repair of lots of small tablets, e.g. after a Backend is
+     * down, is limited by the interval of the rounds instead of the speed of cloning.
      */
     @Override
     protected void runAfterCatalogReady() {
-        if (!updateWorkingSlots()) {
-            return;
+        long nextRoundTime = System.currentTimeMillis() + SCHEDULE_INTERVAL_MS;
+        boolean schedulable = false;
+        try {
+            schedulable = updateWorkingSlots();
+            if (schedulable) {
+                runOneRound();
+            }
+        } finally {
+            scheduleUntil(nextRoundTime, schedulable);
         }
+    }
 
+    private void runOneRound() {
         boolean loadStatUpdated = false;
         if (System.currentTimeMillis() - lastStatUpdateTime > STAT_UPDATE_INTERVAL_MS) {
             updateClusterLoadStatisticsAndPriority();
             loadStatUpdated = true;
         }
 
-        schedulePendingTablets();
+        schedulePendingTablets(MIN_BATCH_NUM);
 
         handleRunningTablets();
 
@@ -365,6 +390,50 @@ public class TabletScheduler extends LeaderDaemon {
         stat.counterTabletScheduleRound.incrementAndGet();
     }
 
+    /*
+     * Wait until the time of the next round, and schedule the pending tablets once some clone tasks finish.
+     * Stop scheduling if no tablet can be scheduled, as the tablets failed to be scheduled should not be retried
+     * until the next round.
+     */
+    private void scheduleUntil(long nextRoundTime, boolean schedulable) {
+        long waitMs;
+        while ((waitMs = nextRoundTime - System.currentTimeMillis()) > 0) {
+            if (!waitForSlotFreed(waitMs) || !schedulable) {
+                continue;
+            }
+            try {
+                if (schedulePendingTablets(0) == 0) {
+                    schedulable = false;
+                }
+            } catch (Exception e) {
+                LOG.warn("failed to schedule pending tablets", e);
+                schedulable = false;
+            }
+        }
+    }
+
+    private boolean waitForSlotFreed(long waitMs) {
+        synchronized (slotFreedSignal) {
+            if (!slotFreed) {
+                try {
+                    slotFreedSignal.wait(waitMs);
+                } catch (InterruptedException e) {
+                    LOG.warn("interrupted while waiting for slot freed", e);
+                }
+            }
+            boolean freed = slotFreed;
+            slotFreed = false;
+            return freed;
+        }
+    }
+
+    private void notifySlotFreed() {
+        synchronized (slotFreedSignal) {
+            slotFreed = true;
+            slotFreedSignal.notifyAll();
+        }
+    }
+
     private void updateClusterLoadStatisticsAndPriority() {
         updateClusterLoadStatistic();
         rebalancer.updateLoadStatistic(loadStatistic);
@@ -459,17 +528,78 @@ public class TabletScheduler extends LeaderDaemon {
      * 3. or in pendingTablets with state PENDING, if failed to be scheduled.
      * <p>
      * if in schedHistory, it should be removed from allTabletIds.
+     * <p>
+     * A tablet is scheduled under the lock of its database, so the repair tablets of different databases are
+     * scheduled concurrently, and the clone tasks of all of them are sent to the backends in one batch.
+     * The balance tablets are scheduled by this thread only, as the rebalancer is not thread safe.
+     * <p>
+     * return the number of tablets starting to run.
      */
-    private void schedulePendingTablets() {
+    private int schedulePendingTablets(int minBatchNum) {
         long start = System.currentTimeMillis();
-        List<TabletSchedCtx> currentBatch = getNextTabletCtxBatch();
+        List<TabletSchedCtx> currentBatch = getNextTabletCtxBatch(minBatchNum);
         if (LOG.isDebugEnabled()) {
             debugLogPendingTabletsStats();
             LOG.debug("get {} tablets to schedule", currentBatch.size());
         }
+        if (currentBatch.isEmpty()) {
+            return 0;
+        }
 
-        AgentBatchTask batchTask = new AgentBatchTask();
+        List<TabletSchedCtx> balanceTablets = Lists.newArrayList();
+        Map<Long, List<TabletSchedCtx>> dbToRepairTablets = Maps.newLinkedHashMap();
         for (TabletSchedCtx tabletCtx : currentBatch) {
+            if (tabletCtx.getType() == Type.BALANCE) {
+                balanceTablets.add(tabletCtx);
+            } else {
+                dbToRepairTablets.computeIfAbsent(tabletCtx.getDbId(), k -> Lists.newArrayList()).add(tabletCtx);
+            }
+        }
+
+        AgentBatchTask batchTask = new AgentBatchTask();
+        if (Config.tablet_sched_schedule_thread_num > 1 && dbToRepairTablets.size() > 1) {
+            List<Future<AgentBatchTask>> futures = Lists.newArrayList();
+            for (List<TabletSchedCtx> tabletCtxs : dbToRepairTablets.values()) {
+                futures.add(scheduleExecutor.submit(() -> {
+                    AgentBatchTask dbBatchTask = new AgentBatchTask();
+                    scheduleTablets(tabletCtxs, dbBatchTask);
+                    return dbBatchTask;
+                }));
+            }
+            for (Future<AgentBatchTask> future : futures) {
+                try {
+                    for (AgentTask task : future.get().getAllTasks()) {
+                        batchTask.addTask(task);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    LOG.warn("failed to schedule tablets", e);
+                }
+            }
+        } else {
+            for (List<TabletSchedCtx> tabletCtxs : dbToRepairTablets.values()) {
+                scheduleTablets(tabletCtxs, batchTask);
+            }
+        }
+        scheduleTablets(balanceTablets, batchTask);
+
+        // must send task after adding tablet info to runningTablets.
+        for (AgentTask task : batchTask.getAllTasks()) {
+            if (AgentTaskQueue.addTask(task)) {
+                stat.counterCloneTask.incrementAndGet();
+            }
+            LOG.info("add clone task to agent task queue: {}", task);
+        }
+
+        // send task immediately
+        AgentTaskExecutor.submit(batchTask);
+
+        long cost = System.currentTimeMillis() - start;
+        stat.counterTabletScheduleCostMs.addAndGet(cost);
+        return (int) currentBatch.stream().filter(t -> t.getState() == TabletSchedCtx.State.RUNNING).count();
+    }
+
+    private void scheduleTablets(List<TabletSchedCtx> tabletCtxs, AgentBatchTask batchTask) {
+        for (TabletSchedCtx tabletCtx : tabletCtxs) {
             try {
                 // reset errMsg for new scheduler round
                 tabletCtx.setErrMsg(null);
@@ -522,26 +652,13 @@ public class TabletScheduler extends LeaderDaemon {
                         tabletCtx.getTabletId(), e);
                 stat.counterTabletScheduledFailed.incrementAndGet();
                 finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.UNEXPECTED, e.getMessage());
+                continue;
             }
 
             Preconditions.checkState(tabletCtx.getState() == TabletSchedCtx.State.RUNNING);
             stat.counterTabletScheduledSucceeded.incrementAndGet();
             addToRunningTablets(tabletCtx);
         }
-
-        // must send task after adding tablet info to runningTablets.
-        for (AgentTask task : batchTask.getAllTasks()) {
-            if (AgentTaskQueue.addTask(task)) {
-                stat.counterCloneTask.incrementAndGet();
-            }
-            LOG.info("add clone task to agent task queue: {}", task);
-        }
-
-        // send task immediately
-        AgentTaskExecutor.submit(batchTask);
-
-        long cost = System.currentTimeMillis() - start;
-        stat.counterTabletScheduleCostMs.addAndGet(cost);
     }
 
     private synchronized void addToRunningTablets(TabletSchedCtx tabletCtx) {
@@ -1332,9 +1449,9 @@ public class TabletScheduler extends LeaderDaemon {
     }
 
     // get next batch of tablets from queue.
-    private synchronized List<TabletSchedCtx> getNextTabletCtxBatch() {
+    private synchronized List<TabletSchedCtx> getNextTabletCtxBatch(int minBatchNum) {
         List<TabletSchedCtx> list = Lists.newArrayList();
-        int count = Math.max(MIN_BATCH_NUM, getCurrentAvailableSlotNum());
+        int count = Math.max(minBatchNum, getCurrentAvailableSlotNum());
         while (count > 0) {
             TabletSchedCtx tablet = pendingTablets.poll();
             if (tablet == null) {
@@ -1385,10 +1502,12 @@ public class TabletScheduler extends LeaderDaemon {
                 // unrecoverable
                 stat.counterTabletScheduledDiscard.incrementAndGet();
                 finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED, e.getMessage());
+                notifySlotFreed();
                 return true;
             } else if (e.getStatus() == Status.FINISHED) {
                 // tablet is already healthy, just remove
                 finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED, e.getMessage());
+                notifySlotFreed();
                 return true;
             }
         } catch (Exception e) {
@@ -1396,6 +1515,7 @@ public class TabletScheduler extends LeaderDaemon {
                     tabletCtx.getTabletId(), e);
             stat.counterTabletScheduledDiscard.incrementAndGet();
             finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.UNEXPECTED, e.getMessage());
+            notifySlotFreed();
             return true;
         }
 
@@ -1403,6 +1523,7 @@ public class TabletScheduler extends LeaderDaemon {
         stat.counterCloneTaskSucceeded.incrementAndGet();
         gatherStatistics(tabletCtx);
         finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.FINISHED, "finished");
+        notifySlotFreed();
         return true;
     }
 
@@ -262,6 +262,27 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int edit_log_roll_num = 50000;
 
+    /**
+     * The format of the image written by checkpoint.
+     * 1: the legacy format, the modules are written one by one in a single stream.
+     * 2: the modules are grouped into independently checksummed sections, which are written and loaded in parallel.
+     * Images of both formats can be loaded, but the FE of old versions can only load the format 1.
+     */
+    @ConfField(mutable = true)
+    public static int image_format_version = 1;
+
+    /**
+     * The number of threads to write or load the sections of an image of format 2.
+     */
+    @ConfField(mutable = true)
+    public static int image_section_parallelism = 8;
+
+    /**
+     * Whether to compress the sections of an image of format 2.
+     */
+    @ConfField(mutable = true)
+    public static boolean image_section_compression = false;
+
     /**
      * whether ignore unknown log id
      * when fe rolls back to low version, there may be log id that low version fe can not recognise
@@ -926,6 +947,33 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static boolean enable_sql_blacklist = false;
 
+    /**
+     * If set to true, the optimized plans of queries on native tables are cached by sql digest and literals,
+     * and repeated queries skip the cost based optimization.
+     * The executions of server-side prepared statements always use the plan cache.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_plan_cache = false;
+
+    /**
+     * The estimated memory used by the plan cache, the least recently used plans are evicted beyond it.
+     */
+    @ConfField
+    public static long plan_cache_max_memory_bytes = 64L * 1024 * 1024;
+
+    /**
+     * The memory used by the query result cache, the least recently used results are evicted beyond it.
+     * The cache is used by the sessions with enable_query_result_cache set to true.
+     */
+    @ConfField
+    public static long query_result_cache_max_memory_bytes = 256L * 1024 * 1024;
+
+    /**
+     * The results larger than it are not cached.
+     */
+    @ConfField(mutable = true)
+    public static long query_result_cache_max_entry_bytes = 4L * 1024 * 1024;
+
     /**
      * If set to true, dynamic partition feature will open
      */
@@ -1037,6 +1085,13 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, aliases = {"max_scheduling_tablets"})
     public static int tablet_sched_max_scheduling_tablets = 2000;
 
+    /**
+     * The number of threads scheduling the pending tablets of a round concurrently.
+     * The tablets of a database are always scheduled by one thread, as they are scheduled under the database lock.
+     */
+    @ConfField
+    public static int tablet_sched_schedule_thread_num = 4;
+
     /**
      * if set to true, TabletScheduler will not do balance.
      */
@@ -1123,6 +1178,13 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int report_queue_size = 100;
 
+    /**
+     * If set to false, the incremental tablet reports of backends are rejected and
+     * backends are asked to send full tablet reports.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_incremental_tablet_report = true;
+
     /**
      * If set to true, metric collector will be run as a daemon timer to collect metrics at fix interval
      */
@@ -1443,11 +1505,36 @@ public class Config extends ConfigBase {
     public static int hive_meta_cache_refresh_min_threads = 50;
 
     /**
-     * num of thread to handle hive meta load concurrency.
+     * Deprecated, the hive partitions are loaded by the pool sized by hive_file_listing_concurrency.
      */
+    @Deprecated
     @ConfField
     public static int hive_meta_load_concurrency = 4;
 
+    /**
+     * num of threads to list the files of hive partitions and to load the partitions from hive metastore,
+     * shared by all the hive resources and catalogs.
+     */
+    @ConfField
+    public static int hive_file_listing_concurrency = 32;
+
+    /**
+     * max number of partitions fetched from hive metastore by one get_partitions_by_names rpc.
+     */
+    @ConfField(mutable = true)
+    public static int hive_meta_get_partitions_batch_size = 1000;
+
+    /**
+     * If set to true, the files listed from the hive partitions on hdfs are also saved on the disk of fe, keyed by
+     * the partition location and the modification time of its directory, so a restarted fe does not need to list
+     * all the partitions from the name node again.
+     */
+    @ConfField
+    public static boolean enable_hive_file_status_cache = false;
+
+    @ConfField
+    public static String hive_file_status_cache_dir = StarRocksFE.STARROCKS_HOME_DIR + "/hive_file_status_cache";
+
     @ConfField
     public static long hive_meta_cache_refresh_interval_s = 3600L * 2L;
 
@@ -1566,9 +1653,39 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static boolean enable_routine_load_lag_metrics = false;
 
+    /**
+     * The max bytes of the compressed profiles of the recent queries kept in memory, the least recently used
+     * profiles are evicted first.
+     */
+    @ConfField(mutable = true)
+    public static long profile_max_memory_bytes = 128L * 1024 * 1024;
+
+    /**
+     * If set to true, the profiles evicted from memory are saved in profile_spill_dir, so that more history can be
+     * kept. The saved profiles are removed when fe restarts.
+     */
+    @ConfField
+    public static boolean enable_profile_spill = false;
+
+    @ConfField
+    public static String profile_spill_dir = StarRocksFE.STARROCKS_HOME_DIR + "/profile";
+
+    /**
+     * The max bytes of the profiles saved in profile_spill_dir, the oldest ones are removed first.
+     */
+    @ConfField(mutable = true)
+    public static long profile_spill_max_bytes = 1024L * 1024 * 1024;
+
     @ConfField(mutable = true)
     public static boolean enable_collect_query_detail_info = false;
 
+    /**
+     * The max number of query details kept for the monitors, rounded up to a power of 2.
+     * The query details are kept for 30 seconds if not exceeding this number.
+     */
+    @ConfField
+    public static int query_detail_queue_capacity = 1 << 19;
+
     /**
      * Min lag of routine load job to show in metrics
      * Only show the routine load job whose lag is larger than min_routine_load_lag_for_metrics
@@ -1608,6 +1725,12 @@ public class Config extends ConfigBase {
     public static String starmgr_s3_ak = "";
     @ConfField
     public static String starmgr_s3_sk = "";
+    /**
+     * The seconds to cache the backends of a shard got from StarMgr, 0 to disable the cache.
+     * The cache is also invalidated whenever a worker is added or removed.
+     */
+    @ConfField(mutable = true)
+    public static int starmgr_shard_location_cache_expire_seconds = 10;
 
     /**
      * default bucket number when create OLAP table without buckets info
@@ -1674,6 +1797,13 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int metadata_journal_max_batch_cnt = 100;
 
+    /**
+     * If true, the next batch of journals is written while the previous batch is being committed,
+     * and a batch keeps collecting journals until the previous one is committed.
+     **/
+    @ConfField
+    public static boolean metadata_journal_pipeline_commit = false;
+
     /**
      * Fqdn function switch,
      * this switch will be deleted after release the fqdn func
@@ -24,20 +24,30 @@ package com.starrocks.common.util;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.starrocks.common.Config;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
+import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /*
  * if you want to visit the atrribute(such as queryID,defaultDb)
@@ -47,11 +57,15 @@ import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
  * why the element in the finished profile arary is not RuntimeProfile,
  * the purpose is let coordinator can destruct earlier(the fragment profile is in Coordinator)
  *
+ * The profiles are kept deflated, as the text of a large profile may be several MB. They are limited by both the
+ * number and the bytes, and the least recently used ones are evicted first. The evicted profiles can be saved in
+ * the local directory Config.profile_spill_dir to keep more history, which are also limited by the bytes.
  */
 public class ProfileManager {
     private static final Logger LOG = LogManager.getLogger(ProfileManager.class);
     private static ProfileManager INSTANCE = null;
     private static final int ARRAY_SIZE = 1000;
+    private static final String SPILL_FILE_SUFFIX = ".profile";
     public static final String QUERY_ID = "Query ID";
     public static final String START_TIME = "Start Time";
     public static final String END_TIME = "End Time";
@@ -70,18 +84,26 @@ public class ProfileManager {
             Arrays.asList(QUERY_ID, USER, DEFAULT_DB, SQL_STATEMENT, QUERY_TYPE,
                     START_TIME, END_TIME, TOTAL_TIME, QUERY_STATE));
 
-    private class ProfileElement {
+    private static class ProfileElement {
         public Map<String, String> infoStrings = Maps.newHashMap();
-        public String profileContent;
+        // the order of pushing
+        private long seq;
+        private int size;
+        // the deflated profile content, which is null once saved in spillFile
+        private volatile byte[] content;
+        private volatile File spillFile;
     }
 
-    // only protect profileDeque; profileMap is concurrent, no need to protect
-    private ReentrantReadWriteLock lock;
-    private ReadLock readLock;
-    private WriteLock writeLock;
+    // protect all the fields below
+    private final ReentrantLock lock = new ReentrantLock();
 
-    private Deque<ProfileElement> profileDeque;
-    private Map<String, ProfileElement> profileMap; // from QueryId to RuntimeProfile
+    // from query id to the profiles in memory, in the access order
+    private final LinkedHashMap<String, ProfileElement> profileMap = new LinkedHashMap<>(16, 0.75f, true);
+    private long profileBytes = 0;
+    // from query id to the profiles saved in the spill dir, in the order of saving
+    private final LinkedHashMap<String, ProfileElement> spilledProfileMap = new LinkedHashMap<>();
+    private long spilledProfileBytes = 0;
+    private long nextSeq = 0;
 
     public static ProfileManager getInstance() {
         if (INSTANCE == null) {
@@ -91,20 +113,29 @@ public class ProfileManager {
     }
 
     private ProfileManager() {
-        lock = new ReentrantReadWriteLock(true);
-        readLock = lock.readLock();
-        writeLock = lock.writeLock();
-        profileDeque = new LinkedList<ProfileElement>();
-        profileMap = new ConcurrentHashMap<String, ProfileElement>();
+        if (Config.enable_profile_spill) {
+            // the profiles saved before restarting are not listed anymore, only remove the files saved by spill(),
+            // the dir is configurable and may be shared with other files
+            File spillDir = new File(Config.profile_spill_dir);
+            File[] files = spillDir.listFiles(file -> file.isFile() && file.getName().endsWith(SPILL_FILE_SUFFIX));
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            } else if (!spillDir.mkdirs()) {
+                LOG.warn("failed to create profile spill dir {}", spillDir.getAbsolutePath());
+            }
+        }
     }
 
-    public ProfileElement createElement(RuntimeProfile profile) {
+    public ProfileElement createElement(RuntimeProfile profile, String profileContent) {
         ProfileElement element = new ProfileElement();
         RuntimeProfile summaryProfile = profile.getChildList().get(0).first;
         for (String header : PROFILE_HEADERS) {
             element.infoStrings.put(header, summaryProfile.getInfoString(header));
         }
-        element.profileContent = profile.toString();
+        element.content = compress(profileContent);
+        element.size = element.content.length;
         return element;
     }
 
@@ -113,7 +144,8 @@ public class ProfileManager {
             return "";
         }
 
-        ProfileElement element = createElement(profile);
+        String profileContent = profile.toString();
+        ProfileElement element = createElement(profile, profileContent);
         String queryId = element.infoStrings.get(ProfileManager.QUERY_ID);
         // check when push in, which can ensure every element in the list has QUERY_ID column,
         // so there is no need to check when remove element from list.
@@ -122,53 +154,158 @@ public class ProfileManager {
                     + "may be forget to insert 'QUERY_ID' column into infoStrings");
         }
 
-        profileMap.put(queryId, element);
-        writeLock.lock();
+        List<ProfileElement> spilling = Lists.newArrayList();
+        List<ProfileElement> removed = Lists.newArrayList();
+        lock.lock();
         try {
-            if (profileDeque.size() >= ARRAY_SIZE) {
-                profileMap.remove(profileDeque.getFirst().infoStrings.get(QUERY_ID));
-                profileDeque.removeFirst();
+            element.seq = nextSeq++;
+            removeProfile(queryId, removed);
+            profileMap.put(queryId, element);
+            profileBytes += element.size;
+
+            // keep the newest one at least
+            Iterator<ProfileElement> iter = profileMap.values().iterator();
+            while ((profileMap.size() > ARRAY_SIZE || profileBytes > Config.profile_max_memory_bytes)
+                    && profileMap.size() > 1) {
+                ProfileElement eldest = iter.next();
+                iter.remove();
+                profileBytes -= eldest.size;
+                if (Config.enable_profile_spill) {
+                    spilledProfileMap.put(eldest.infoStrings.get(QUERY_ID), eldest);
+                    spilledProfileBytes += eldest.size;
+                    spilling.add(eldest);
+                }
+            }
+
+            iter = spilledProfileMap.values().iterator();
+            while (spilledProfileBytes > Config.profile_spill_max_bytes && iter.hasNext()) {
+                ProfileElement eldest = iter.next();
+                iter.remove();
+                spilledProfileBytes -= eldest.size;
+                removed.add(eldest);
             }
-            profileDeque.addLast(element);
         } finally {
-            writeLock.unlock();
+            lock.unlock();
+        }
+
+        for (ProfileElement spilled : spilling) {
+            spill(spilled);
+        }
+        for (ProfileElement spilled : removed) {
+            if (spilled.spillFile != null) {
+                spilled.spillFile.delete();
+            }
         }
+        return profileContent;
+    }
 
-        return element.profileContent;
+    // remove the profile pushed before for the same query, must hold the lock
+    private void removeProfile(String queryId, List<ProfileElement> removed) {
+        ProfileElement element = profileMap.remove(queryId);
+        if (element != null) {
+            profileBytes -= element.size;
+        }
+        element = spilledProfileMap.remove(queryId);
+        if (element != null) {
+            spilledProfileBytes -= element.size;
+            removed.add(element);
+        }
     }
 
-    public List<List<String>> getAllQueries() {
-        List<List<String>> result = Lists.newArrayList();
-        readLock.lock();
+    // the profile is written without holding the lock, and is still read from memory until written
+    private void spill(ProfileElement element) {
+        File file = new File(Config.profile_spill_dir, element.seq + SPILL_FILE_SUFFIX);
         try {
-            Iterator reverse = profileDeque.descendingIterator();
-            while (reverse.hasNext()) {
-                ProfileElement element = (ProfileElement) reverse.next();
-                Map<String, String> infoStrings = element.infoStrings;
-
-                List<String> row = Lists.newArrayList();
-                for (String str : PROFILE_HEADERS) {
-                    row.add(infoStrings.get(str));
-                }
-                result.add(row);
+            Files.write(file.toPath(), element.content);
+        } catch (IOException e) {
+            LOG.warn("failed to save profile {} in {}", element.infoStrings.get(QUERY_ID), file.getAbsolutePath(), e);
+            file.delete();
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (spilledProfileMap.get(element.infoStrings.get(QUERY_ID)) == element) {
+                element.spillFile = file;
+                element.content = null;
+                return;
             }
         } finally {
-            readLock.unlock();
+            lock.unlock();
+        }
+        // removed while writing
+        file.delete();
+    }
+
+    public List<List<String>> getAllQueries() {
+        List<ProfileElement> elements = Lists.newArrayList();
+        lock.lock();
+        try {
+            elements.addAll(profileMap.values());
+            elements.addAll(spilledProfileMap.values());
+        } finally {
+            lock.unlock();
+        }
+        // the newest first
+        elements.sort(Comparator.comparingLong((ProfileElement element) -> element.seq).reversed());
+
+        List<List<String>> result = Lists.newArrayListWithCapacity(elements.size());
+        for (ProfileElement element : elements) {
+            Map<String, String> infoStrings = element.infoStrings;
+            List<String> row = Lists.newArrayList();
+            for (String str : PROFILE_HEADERS) {
+                row.add(infoStrings.get(str));
+            }
+            result.add(row);
         }
         return result;
     }
 
     public String getProfile(String queryID) {
-        readLock.lock();
+        ProfileElement element;
+        lock.lock();
         try {
-            ProfileElement element = profileMap.get(queryID);
+            element = profileMap.get(queryID);
             if (element == null) {
-                return null;
+                element = spilledProfileMap.get(queryID);
             }
+        } finally {
+            lock.unlock();
+        }
+        if (element == null) {
+            return null;
+        }
 
-            return element.profileContent;
+        // the content is cleared after the spill file is set
+        byte[] content = element.content;
+        try {
+            if (content == null) {
+                content = Files.readAllBytes(element.spillFile.toPath());
+            }
+            return decompress(content);
+        } catch (IOException e) {
+            LOG.warn("failed to read profile of {}", queryID, e);
+            return null;
+        }
+    }
+
+    private static byte[] compress(String content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (OutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // never happens on byte array
+            throw new IllegalStateException(e);
         } finally {
-            readLock.unlock();
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String decompress(byte[] content) throws IOException {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(content))) {
+            return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
         }
     }
 }
@@ -0,0 +1,206 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+/**
+ * A hierarchical timer wheel tracking the deadlines of a large number of objects, e.g. the wait timeout and
+ * the query timeout of all the connections.
+ * <p>
+ * The time is divided into ticks. The wheel has 4 levels of 64 slots, a slot of level 0 holds the timers expiring
+ * at one tick, and a slot of level n holds the timers expiring in 64^n ticks, which are cascaded to the lower levels
+ * when their time comes. So scheduling or cancelling a timer is O(1), and advancing the wheel only visits the
+ * expired timers, besides cascading each timer at most 3 times.
+ * <p>
+ * A timer is only moved to an earlier deadline, never to a later one, which would make the wheel busy with the
+ * objects refreshing their deadlines all the time. So an expired timer is only a hint, the owner has to check
+ * whether it is really expired, and schedule the timer again if not. A deadline farther than the span of the wheel,
+ * about 194 days with 1 second ticks, is shortened to the span in the same way.
+ */
+public class TimerWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOT_NUM = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOT_NUM - 1;
+    private static final int LEVEL_NUM = 4;
+    private static final long MAX_TICKS = (1L << (SLOT_BITS * LEVEL_NUM)) - 1;
+
+    public static class Timer<T> {
+        private final T owner;
+        // the tick to expire at, valid only if scheduled
+        private volatile long expireTick;
+        private volatile boolean scheduled = false;
+        private boolean cancelled = false;
+        // the doubly linked list of the slot
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        public Timer(T owner) {
+            this.owner = owner;
+        }
+
+        public T getOwner() {
+            return owner;
+        }
+    }
+
+    private final long tickMs;
+    // the sentinel nodes of the slots
+    private final Timer<T>[][] slots;
+    // the next tick to process
+    private long currentTick;
+    private int size = 0;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMs, long nowMs) {
+        Preconditions.checkArgument(tickMs > 0);
+        this.tickMs = tickMs;
+        this.slots = new Timer[LEVEL_NUM][SLOT_NUM];
+        for (int level = 0; level < LEVEL_NUM; level++) {
+            for (int i = 0; i < SLOT_NUM; i++) {
+                Timer<T> sentinel = new Timer<>(null);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                slots[level][i] = sentinel;
+            }
+        }
+        this.currentTick = nowMs / tickMs;
+    }
+
+    /**
+     * Schedule the timer to expire at the deadline, unless it is already scheduled no later than the deadline,
+     * or it is cancelled.
+     */
+    public void schedule(Timer<T> timer, long deadlineMs) {
+        long tick = toTick(deadlineMs);
+        // most refreshes do not move the timer, so check it without the lock first
+        if (timer.scheduled && timer.expireTick <= tick) {
+            return;
+        }
+        synchronized (this) {
+            if (timer.cancelled || (timer.scheduled && timer.expireTick <= tick)) {
+                return;
+            }
+            if (timer.scheduled) {
+                unlink(timer);
+            } else {
+                size++;
+            }
+            timer.expireTick = tick;
+            timer.scheduled = true;
+            link(timer);
+        }
+    }
+
+    /**
+     * Remove the timer from the wheel, and never schedule it again.
+     */
+    public synchronized void cancel(Timer<T> timer) {
+        timer.cancelled = true;
+        if (timer.scheduled) {
+            unlink(timer);
+            timer.scheduled = false;
+            size--;
+        }
+    }
+
+    /**
+     * Advance the wheel to the time, and return the owners of the timers expired, which are removed from the wheel.
+     */
+    public synchronized List<T> advance(long nowMs) {
+        List<T> expired = Lists.newArrayList();
+        long nowTick = nowMs / tickMs;
+        if (nowTick < currentTick - 1) {
+            // the clock goes backwards, let the owners check their deadlines against the new time
+            for (int level = 0; level < LEVEL_NUM; level++) {
+                for (int i = 0; i < SLOT_NUM; i++) {
+                    expireSlot(slots[level][i], expired);
+                }
+            }
+            currentTick = nowTick;
+            return expired;
+        }
+        while (currentTick <= nowTick) {
+            int index = (int) (currentTick & SLOT_MASK);
+            // cascade the timers of the higher levels whose time comes
+            for (int level = 1; level < LEVEL_NUM; level++) {
+                if (index != 0) {
+                    break;
+                }
+                index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                cascade(slots[level][index]);
+            }
+            expireSlot(slots[0][(int) (currentTick & SLOT_MASK)], expired);
+            currentTick++;
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private long toTick(long deadlineMs) {
+        // round up, so a timer never expires before its deadline
+        return deadlineMs / tickMs + (deadlineMs % tickMs == 0 ? 0 : 1);
+    }
+
+    private void link(Timer<T> timer) {
+        long ticks = timer.expireTick - currentTick;
+        if (ticks < 0) {
+            ticks = 0;
+        } else if (ticks > MAX_TICKS) {
+            ticks = MAX_TICKS;
+        }
+        long tick = currentTick + ticks;
+        int level = 0;
+        while (level < LEVEL_NUM - 1 && ticks >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        Timer<T> sentinel = slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    private Timer<T> detachAll(Timer<T> sentinel) {
+        Timer<T> first = sentinel.next;
+        sentinel.prev.next = null;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return first == sentinel ? null : first;
+    }
+
+    private void cascade(Timer<T> sentinel) {
+        Timer<T> timer = detachAll(sentinel);
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            link(timer);
+            timer = next;
+        }
+    }
+
+    private void expireSlot(Timer<T> sentinel, List<T> expired) {
+        Timer<T> timer = detachAll(sentinel);
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            timer.scheduled = false;
+            size--;
+            expired.add(timer.owner);
+            timer = next;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.external.hive;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces the concurrent batch loads of the same keys, e.g. several queries missing the partitions of the same
+ * table in the cache at the same time. A key being loaded by one thread is not loaded again by the others, which
+ * wait for that load instead, so every missing partition costs one metastore request however many queries miss it.
+ * <p>
+ * A thread loads all the keys it owns before it waits for the others, so the threads never wait for each other.
+ */
+class BatchLoadCoalescer<K, V> {
+    interface BatchLoader<K, V> {
+        // return the values of all the keys
+        Map<K, V> loadAll(List<K> keys) throws Exception;
+    }
+
+    private final ConcurrentMap<K, CompletableFuture<V>> loadingKeys = new ConcurrentHashMap<>();
+
+    Map<K, V> loadAll(Iterable<? extends K> keys, BatchLoader<K, V> loader) throws Exception {
+        List<K> ownKeys = Lists.newArrayList();
+        List<CompletableFuture<V>> ownFutures = Lists.newArrayList();
+        Map<K, CompletableFuture<V>> otherFutures = Maps.newHashMap();
+        for (K key : keys) {
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> loadingFuture = loadingKeys.putIfAbsent(key, future);
+            if (loadingFuture == null) {
+                ownKeys.add(key);
+                ownFutures.add(future);
+            } else {
+                otherFutures.put(key, loadingFuture);
+            }
+        }
+
+        Map<K, V> result = Maps.newHashMap();
+        if (!ownKeys.isEmpty()) {
+            try {
+                Map<K, V> values = loader.loadAll(ownKeys);
+                for (int i = 0; i < ownKeys.size(); i++) {
+                    ownFutures.get(i).complete(values.get(ownKeys.get(i)));
+                }
+                result.putAll(values);
+            } catch (Throwable t) {
+                for (CompletableFuture<V> future : ownFutures) {
+                    future.completeExceptionally(t);
+                }
+                throw t;
+            } finally {
+                for (K key : ownKeys) {
+                    loadingKeys.remove(key);
+                }
+            }
+        }
+
+        for (Map.Entry<K, CompletableFuture<V>> entry : otherFutures.entrySet()) {
+            try {
+                result.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,209 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.external.hive;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.external.ObjectStorageUtils;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Lists the files of the hive partition directories.
+ * <p>
+ * All the directories of a batch are listed concurrently by a bounded pool shared by all the hive resources, so
+ * loading thousands of cold partitions does not list them one by one, and does not flood the name node either.
+ * The files listed from hdfs can also be saved in {@link HiveFileStatusCache} to survive the restart of fe.
+ */
+public class HiveFileListingService {
+    private static final HiveFileListingService INSTANCE = new HiveFileListingService();
+
+    public interface FileSystemProvider {
+        FileSystem get(URI uri) throws IOException;
+    }
+
+    public static class ListedBlock {
+        private final long offset;
+        private final long length;
+        // ip:port of the data nodes
+        private final String[] names;
+
+        public ListedBlock(long offset, long length, String[] names) {
+            this.offset = offset;
+            this.length = length;
+            this.names = names;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public String[] getNames() {
+            return names;
+        }
+    }
+
+    public static class ListedFile {
+        // relative to the directory
+        private final String name;
+        private final long length;
+        private final List<ListedBlock> blocks;
+
+        public ListedFile(String name, long length, List<ListedBlock> blocks) {
+            this.name = name;
+            this.length = length;
+            this.blocks = blocks;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public List<ListedBlock> getBlocks() {
+            return blocks;
+        }
+    }
+
+    private final ExecutorService executor = ThreadPoolManager.newDaemonFixedThreadPool(
+            Config.hive_file_listing_concurrency, Integer.MAX_VALUE, "hive-file-listing-pool", true);
+    private final HiveFileStatusCache fileStatusCache;
+
+    private HiveFileListingService() {
+        fileStatusCache = Config.enable_hive_file_status_cache ?
+                new HiveFileStatusCache(Config.hive_file_status_cache_dir) : null;
+    }
+
+    public static HiveFileListingService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * List the data files of the directories concurrently, the result is in the order of the directories.
+     * A directory not existing has no file, as hive may not create the directory of an empty partition.
+     */
+    public List<List<ListedFile>> listFiles(FileSystemProvider fileSystemProvider, List<String> dirPaths)
+            throws IOException {
+        List<Callable<List<ListedFile>>> tasks = Lists.newArrayListWithCapacity(dirPaths.size());
+        for (String dirPath : dirPaths) {
+            tasks.add(() -> listFiles(fileSystemProvider, dirPath));
+        }
+        try {
+            return invokeAll(tasks);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Run the tasks in the listing pool and wait for all of them, used to load the hive partitions concurrently.
+     */
+    <T> List<T> invokeAll(List<Callable<T>> tasks) throws Exception {
+        if (tasks.size() == 1) {
+            return Lists.newArrayList(tasks.get(0).call());
+        }
+        List<Future<T>> futures = Lists.newArrayListWithCapacity(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            List<T> results = Lists.newArrayListWithCapacity(tasks.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        } finally {
+            // the remaining tasks are useless once one of them fails
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private List<ListedFile> listFiles(FileSystemProvider fileSystemProvider, String dirPath) throws IOException {
+        URI uri = new Path(dirPath).toUri();
+        FileSystem fileSystem = fileSystemProvider.get(uri);
+        Path path = new Path(uri.getPath());
+        // the modification time of a directory on object storage is meaningless
+        boolean useCache = fileStatusCache != null && !ObjectStorageUtils.isObjectStorage(dirPath);
+        long modificationTime = 0;
+        if (useCache) {
+            try {
+                modificationTime = fileSystem.getFileStatus(path).getModificationTime();
+            } catch (FileNotFoundException e) {
+                return Lists.newArrayList();
+            }
+            List<ListedFile> files = fileStatusCache.get(dirPath, modificationTime);
+            if (files != null) {
+                return files;
+            }
+        }
+
+        List<ListedFile> files = Lists.newArrayList();
+        // fileSystem.listLocatedStatus is an api to list all statuses and
+        // block locations of the files in the given path in one operation.
+        // The performance is better than getting status and block location one by one.
+        try {
+            RemoteIterator<LocatedFileStatus> blockIterator = fileSystem.listLocatedStatus(path);
+            while (blockIterator.hasNext()) {
+                LocatedFileStatus locatedFileStatus = blockIterator.next();
+                if (!isValidDataFile(locatedFileStatus)) {
+                    continue;
+                }
+                String fileName = Utils.getSuffixName(dirPath, locatedFileStatus.getPath().toString());
+                List<ListedBlock> blocks = Lists.newArrayList();
+                for (BlockLocation blockLocation : locatedFileStatus.getBlockLocations()) {
+                    blocks.add(new ListedBlock(blockLocation.getOffset(), blockLocation.getLength(),
+                            blockLocation.getNames()));
+                }
+                files.add(new ListedFile(fileName, locatedFileStatus.getLen(), blocks));
+            }
+        } catch (FileNotFoundException ignored) {
+            // hive empty partition may not create directory
+            return files;
+        }
+
+        if (useCache) {
+            fileStatusCache.put(dirPath, modificationTime, files);
+        }
+        return files;
+    }
+
+    private static boolean isValidDataFile(FileStatus fileStatus) {
+        if (fileStatus.isDirectory()) {
+            return false;
+        }
+
+        String lcFileName = fileStatus.getPath().getName().toLowerCase();
+        return !(lcFileName.startsWith(".") || lcFileName.startsWith("_") ||
+                lcFileName.endsWith(".copying") || lcFileName.endsWith(".tmp"));
+    }
+}
@@ -0,0 +1,145 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.external.hive;
+
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.starrocks.common.Config;
+import com.starrocks.external.hive.HiveFileListingService.ListedBlock;
+import com.starrocks.external.hive.HiveFileListingService.ListedFile;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * The files listed from the hive partition directories, saved on the local disk of fe.
+ * <p>
+ * Every directory is saved in its own file, named by the hash of the directory location. An entry is valid only
+ * if the modification time of the directory is unchanged, which changes when a file is added, deleted or renamed
+ * in the directory. As a file appended in place is not detected in this way, the entries expire after
+ * hive_meta_cache_ttl_s just like the partitions cached in memory.
+ */
+public class HiveFileStatusCache {
+    private static final Logger LOG = LogManager.getLogger(HiveFileStatusCache.class);
+
+    private static final int VERSION = 1;
+
+    private final File dir;
+
+    public HiveFileStatusCache(String dirPath) {
+        this.dir = new File(dirPath);
+        if (!dir.exists() && !dir.mkdirs()) {
+            LOG.warn("failed to create hive file status cache dir {}", dirPath);
+        }
+        removeExpiredEntries();
+    }
+
+    /**
+     * Return the files of the directory, or null if the directory is not cached or has changed.
+     */
+    public List<ListedFile> get(String location, long modificationTime) {
+        File file = getFile(location);
+        if (!file.exists()) {
+            return null;
+        }
+        if (isExpired(file)) {
+            file.delete();
+            return null;
+        }
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (dis.readInt() != VERSION || !dis.readUTF().equals(location) || dis.readLong() != modificationTime) {
+                return null;
+            }
+            int fileNum = dis.readInt();
+            List<ListedFile> files = Lists.newArrayListWithCapacity(fileNum);
+            for (int i = 0; i < fileNum; i++) {
+                String name = dis.readUTF();
+                long length = dis.readLong();
+                int blockNum = dis.readInt();
+                List<ListedBlock> blocks = Lists.newArrayListWithCapacity(blockNum);
+                for (int j = 0; j < blockNum; j++) {
+                    long offset = dis.readLong();
+                    long blockLength = dis.readLong();
+                    String[] names = new String[dis.readInt()];
+                    for (int k = 0; k < names.length; k++) {
+                        names[k] = dis.readUTF();
+                    }
+                    blocks.add(new ListedBlock(offset, blockLength, names));
+                }
+                files.add(new ListedFile(name, length, blocks));
+            }
+            return files;
+        } catch (IOException e) {
+            LOG.warn("failed to read hive file status cache of {}", location, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    public void put(String location, long modificationTime, List<ListedFile> files) {
+        File file = getFile(location);
+        File tmpFile = new File(dir, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            try (DataOutputStream dos = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                dos.writeInt(VERSION);
+                dos.writeUTF(location);
+                dos.writeLong(modificationTime);
+                dos.writeInt(files.size());
+                for (ListedFile listedFile : files) {
+                    dos.writeUTF(listedFile.getName());
+                    dos.writeLong(listedFile.getLength());
+                    dos.writeInt(listedFile.getBlocks().size());
+                    for (ListedBlock block : listedFile.getBlocks()) {
+                        dos.writeLong(block.getOffset());
+                        dos.writeLong(block.getLength());
+                        dos.writeInt(block.getNames().length);
+                        for (String name : block.getNames()) {
+                            dos.writeUTF(name);
+                        }
+                    }
+                }
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("failed to write hive file status cache of {}", location, e);
+            tmpFile.delete();
+        }
+    }
+
+    private File getFile(String location) {
+        return new File(dir, Hashing.murmur3_128().hashString(location, StandardCharsets.UTF_8).toString());
+    }
+
+    private static boolean isExpired(File file) {
+        return System.currentTimeMillis() - file.lastModified() > Config.hive_meta_cache_ttl_s * 1000L;
+    }
+
+    // the partitions dropped are never read again, so remove their entries when fe starts
+    private void removeExpiredEntries() {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        int removed = 0;
+        for (File file : files) {
+            if ((file.getName().endsWith(".tmp") || isExpired(file)) && file.delete()) {
+                removed++;
+            }
+        }
+        LOG.info("removed {} expired entries from hive file status cache {}", removed, dir.getAbsolutePath());
+    }
+}
@@ -70,6 +70,10 @@ public class HiveMetaCache {
     LoadingCache<String, List<String>> databaseNamesCache;
     LoadingCache<String, List<String>> tableNamesCache;
 
+    private final BatchLoadCoalescer<HivePartitionKey, HivePartition> partitionsLoader = new BatchLoadCoalescer<>();
+    private final BatchLoadCoalescer<HivePartitionKey, HivePartitionStats> partitionStatsLoader =
+            new BatchLoadCoalescer<>();
+
 
     public HiveMetaCache(HiveMetaClient hiveMetaClient, Executor executor) {
         this(hiveMetaClient, executor, null);
@@ -96,6 +100,12 @@ public class HiveMetaCache {
                     public HivePartition load(HivePartitionKey key) throws Exception {
                         return loadPartition(key);
                     }
+
+                    @Override
+                    public Map<HivePartitionKey, HivePartition> loadAll(Iterable<? extends HivePartitionKey> keys)
+                            throws Exception {
+                        return partitionsLoader.loadAll(keys, HiveMetaCache.this::loadPartitions);
+                    }
                 }, executor));
 
         tableStatsCache = newCacheBuilder(MAX_TABLE_CACHE_SIZE)
@@ -112,6 +122,12 @@ public class HiveMetaCache {
                     public HivePartitionStats load(HivePartitionKey key) throws Exception {
                         return loadPartitionStats(key);
                     }
+
+                    @Override
+                    public Map<HivePartitionKey, HivePartitionStats> loadAll(
+                            Iterable<? extends HivePartitionKey> keys) throws Exception {
+                        return partitionStatsLoader.loadAll(keys, HiveMetaCache.this::loadPartitionsStats);
+                    }
                 }, executor));
 
         tableColumnStatsCache = newCacheBuilder(MAX_TABLE_CACHE_SIZE)
@@ -185,6 +201,62 @@ public class HiveMetaCache {
         }
     }
 
+    // load the missing partitions of a table together. the partitions of a hive table are fetched from hive
+    // metastore in batches and their files are listed concurrently, the partitions of a hudi table are loaded
+    // one per task concurrently
+    private Map<HivePartitionKey, HivePartition> loadPartitions(List<HivePartitionKey> keys) throws DdlException {
+        Map<HivePartitionKey, HivePartition> partitions = Maps.newHashMap();
+        for (Map.Entry<HiveTableKey, List<HivePartitionKey>> entry : groupByTable(keys).entrySet()) {
+            List<HivePartitionKey> tableKeys = entry.getValue();
+            List<List<String>> partValuesList = tableKeys.stream()
+                    .map(HivePartitionKey::getPartitionValues).collect(Collectors.toList());
+            List<HivePartition> tablePartitions;
+            if (tableKeys.get(0).getTableType() == Table.TableType.HUDI) {
+                tablePartitions = client.getHudiPartitions(entry.getKey().getDatabaseName(),
+                        entry.getKey().getTableName(), partValuesList);
+            } else {
+                tablePartitions = client.getPartitions(entry.getKey().getDatabaseName(),
+                        entry.getKey().getTableName(), partValuesList);
+            }
+            for (int i = 0; i < tableKeys.size(); i++) {
+                partitions.put(tableKeys.get(i), tablePartitions.get(i));
+            }
+        }
+        return partitions;
+    }
+
+    private Map<HivePartitionKey, HivePartitionStats> loadPartitionsStats(List<HivePartitionKey> keys)
+            throws Exception {
+        Map<HivePartitionKey, HivePartitionStats> partitionsStats = Maps.newHashMap();
+        for (Map.Entry<HiveTableKey, List<HivePartitionKey>> entry : groupByTable(keys).entrySet()) {
+            List<HivePartitionKey> tableKeys = entry.getValue();
+            List<List<String>> partValuesList = tableKeys.stream()
+                    .map(HivePartitionKey::getPartitionValues).collect(Collectors.toList());
+            List<HivePartitionStats> tableStats = client.getPartitionsStats(entry.getKey().getDatabaseName(),
+                    entry.getKey().getTableName(), partValuesList);
+            ImmutableMap<HivePartitionKey, HivePartition> partitions = partitionsCache.getAll(tableKeys);
+            for (int i = 0; i < tableKeys.size(); i++) {
+                HivePartitionStats partitionStats = tableStats.get(i);
+                long totalFileBytes = 0;
+                for (HdfsFileDesc fileDesc : partitions.get(tableKeys.get(i)).getFiles()) {
+                    totalFileBytes += fileDesc.getLength();
+                }
+                partitionStats.setTotalFileBytes(totalFileBytes);
+                partitionsStats.put(tableKeys.get(i), partitionStats);
+            }
+        }
+        return partitionsStats;
+    }
+
+    private static Map<HiveTableKey, List<HivePartitionKey>> groupByTable(List<HivePartitionKey> keys) {
+        Map<HiveTableKey, List<HivePartitionKey>> tableToKeys = Maps.newHashMap();
+        for (HivePartitionKey key : keys) {
+            tableToKeys.computeIfAbsent(HiveTableKey.gen(key.getDatabaseName(), key.getTableName()),
+                    k -> new ArrayList<>()).add(key);
+        }
+        return tableToKeys;
+    }
+
     private HiveTableStats loadTableStats(HiveTableKey key) throws DdlException {
         return client.getTableStats(key.getDatabaseName(), key.getTableName());
     }
@@ -244,6 +316,21 @@ public class HiveMetaCache {
         }
     }
 
+    public List<HivePartition> getPartitions(HiveMetaStoreTableInfo hmsTable,
+                                             List<PartitionKey> partitionKeys) throws DdlException {
+        List<HivePartitionKey> keys = new ArrayList<>(partitionKeys.size());
+        for (PartitionKey partitionKey : partitionKeys) {
+            keys.add(new HivePartitionKey(hmsTable.getDb(), hmsTable.getTable(), hmsTable.getTableType(),
+                    Utils.getPartitionValues(partitionKey, hmsTable.getTableType() == Table.TableType.HUDI)));
+        }
+        try {
+            ImmutableMap<HivePartitionKey, HivePartition> partitions = partitionsCache.getAll(keys);
+            return keys.stream().map(partitions::get).collect(Collectors.toList());
+        } catch (ExecutionException e) {
+            throw new DdlException("get partition detail failed: " + e.getMessage());
+        }
+    }
+
     public HiveTableStats getTableStats(String dbName, String tableName) throws DdlException {
         try {
             return tableStatsCache.get(new HiveTableKey(dbName, tableName));
@@ -265,6 +352,21 @@ public class HiveMetaCache {
         }
     }
 
+    public List<HivePartitionStats> getPartitionsStats(HiveMetaStoreTableInfo hmsTable,
+                                                       List<PartitionKey> partitionKeys) throws DdlException {
+        List<HivePartitionKey> keys = new ArrayList<>(partitionKeys.size());
+        for (PartitionKey partitionKey : partitionKeys) {
+            keys.add(new HivePartitionKey(hmsTable.getDb(), hmsTable.getTable(), hmsTable.getTableType(),
+                    Utils.getPartitionValues(partitionKey, hmsTable.getTableType() == Table.TableType.HUDI)));
+        }
+        try {
+            ImmutableMap<HivePartitionKey, HivePartitionStats> partitionsStats = partitionStatsCache.getAll(keys);
+            return keys.stream().map(partitionsStats::get).collect(Collectors.toList());
+        } catch (ExecutionException e) {
+            throw new DdlException("get table partition stats failed: " + e.getMessage());
+        }
+    }
+
     // NOTE: always using all column names in HiveTable as request param, this will get the best cache effect.
     // set all partitions keys to partitionKeys param, if table is partition table
     public ImmutableMap<String, HiveColumnStats> getTableLevelColumnStats(HiveMetaStoreTableInfo hmsTable)
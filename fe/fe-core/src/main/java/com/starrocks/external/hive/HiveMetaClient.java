@@ -15,14 +15,14 @@ import com.starrocks.catalog.Type;
 import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
 import com.starrocks.external.ObjectStorageUtils;
+import com.starrocks.external.hive.HiveFileListingService.ListedBlock;
+import com.starrocks.external.hive.HiveFileListingService.ListedFile;
 import com.starrocks.external.hive.text.TextFileFormatDesc;
+import com.starrocks.metric.MetricRepo;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.BlockLocation;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
-import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.hive.common.FileUtils;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.HiveMetaHookLoader;
@@ -31,6 +31,7 @@ import org.apache.hadoop.hive.metastore.RetryingMetaStoreClient;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.CurrentNotificationEventId;
 import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
@@ -52,9 +53,12 @@ import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TException;
 import org.apache.thrift.transport.TTransportException;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -63,6 +67,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -88,7 +93,7 @@ public class HiveMetaClient {
     // blockHost is ip:port
     private final Map<String, Long> blockHostToId = new ConcurrentHashMap<>();
     private final Map<Long, String> idToBlockHost = new ConcurrentHashMap<>();
-    private long hostId = 0;
+    private final AtomicLong hostIdGen = new AtomicLong(0L);
     private final Map<Integer, Long> storageHashToId = new ConcurrentHashMap<>();
     private long storageId = 0;
     private static final int UNKNOWN_STORAGE_ID = -1;
@@ -120,13 +125,15 @@ public class HiveMetaClient {
         private final IMetaStoreClient hiveClient;
 
         private AutoCloseClient(HiveConf conf) throws MetaException {
+            IMetaStoreClient metaStoreClient;
             if (!DLF_HIVE_METASTORE.equalsIgnoreCase(conf.get(HIVE_METASTORE_TYPE))) {
-                hiveClient = RetryingMetaStoreClient.getProxy(conf, dummyHookLoader,
+                metaStoreClient = RetryingMetaStoreClient.getProxy(conf, dummyHookLoader,
                         HiveMetaStoreThriftClient.class.getName());
             } else {
-                hiveClient = RetryingMetaStoreClient.getProxy(conf, dummyHookLoader,
+                metaStoreClient = RetryingMetaStoreClient.getProxy(conf, dummyHookLoader,
                         DLFProxyMetaStoreClient.class.getName());
             }
+            hiveClient = withRpcMetrics(metaStoreClient);
         }
 
         @Override
@@ -141,6 +148,30 @@ public class HiveMetaClient {
         }
     }
 
+    // count the rpc to hive metastore and their latency, by the name of the method called
+    private static IMetaStoreClient withRpcMetrics(IMetaStoreClient metaStoreClient) {
+        return (IMetaStoreClient) Proxy.newProxyInstance(IMetaStoreClient.class.getClassLoader(),
+                new Class<?>[] {IMetaStoreClient.class}, (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class || method.getName().equals("close")) {
+                        return invoke(metaStoreClient, method, args);
+                    }
+                    long start = System.currentTimeMillis();
+                    try {
+                        return invoke(metaStoreClient, method, args);
+                    } finally {
+                        MetricRepo.updateHmsRpcMetrics(method.getName(), System.currentTimeMillis() - start);
+                    }
+                });
+    }
+
+    private static Object invoke(IMetaStoreClient metaStoreClient, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(metaStoreClient, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
     private AutoCloseClient getClient() throws MetaException {
         // The MetaStoreClient c'tor relies on knowing the Hadoop version by asking
         // org.apache.hadoop.util.VersionInfo. The VersionInfo class relies on opening
@@ -245,6 +276,59 @@ public class HiveMetaClient {
     }
 
     public HivePartition getPartition(String dbName, String tableName, List<String> partValues) throws DdlException {
+        return getPartitions(dbName, tableName, Collections.singletonList(partValues)).get(0);
+    }
+
+    /**
+     * Get the partitions of a table, in the order of the partition values. The partitions are fetched from
+     * hive metastore in batches, and the files of their directories are listed concurrently by
+     * {@link HiveFileListingService}.
+     */
+    public List<HivePartition> getPartitions(String dbName, String tableName, List<List<String>> partValuesList)
+            throws DdlException {
+        HiveFileListingService listingService = HiveFileListingService.getInstance();
+        try {
+            List<StorageDescriptor> sds;
+            if (partValuesList.size() == 1) {
+                sds = Lists.newArrayList(getStorageDescriptor(dbName, tableName, partValuesList.get(0)));
+            } else {
+                sds = Lists.newArrayListWithCapacity(partValuesList.size());
+                Table table = getTable(dbName, tableName);
+                List<Partition> partitions = getPartitionsByValues(dbName, tableName, table, partValuesList);
+                for (int i = 0; i < partValuesList.size(); i++) {
+                    StorageDescriptor sd = partitions.isEmpty() ? table.getSd() : partitions.get(i).getSd();
+                    checkFileFormat(sd);
+                    sds.add(sd);
+                }
+            }
+
+            List<String> paths = Lists.newArrayListWithCapacity(sds.size());
+            for (StorageDescriptor sd : sds) {
+                paths.add(ObjectStorageUtils.formatObjectStoragePath(sd.getLocation()));
+            }
+            List<List<ListedFile>> listedFiles = listingService.listFiles(this::getFileSystem, paths);
+
+            List<HivePartition> partitions = Lists.newArrayListWithCapacity(sds.size());
+            for (int i = 0; i < sds.size(); i++) {
+                StorageDescriptor sd = sds.get(i);
+                String path = paths.get(i);
+                boolean isSplittable = ObjectStorageUtils.isObjectStorage(path) ||
+                        HdfsFileFormat.isSplittable(sd.getInputFormat());
+                List<HdfsFileDesc> fileDescs = toHdfsFileDescs(listedFiles.get(i), isSplittable, sd);
+                partitions.add(new HivePartition(HdfsFileFormat.fromHdfsInputFormatClass(sd.getInputFormat()),
+                        ImmutableList.copyOf(fileDescs), path));
+            }
+            return partitions;
+        } catch (DdlException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.warn("get partition failed", e);
+            throw new DdlException("get hive partition meta data failed: " + e.getMessage());
+        }
+    }
+
+    private StorageDescriptor getStorageDescriptor(String dbName, String tableName, List<String> partValues)
+            throws Exception {
         try (AutoCloseClient client = getClient()) {
             StorageDescriptor sd;
             if (partValues.size() > 0) {
@@ -254,23 +338,91 @@ public class HiveMetaClient {
                 Table table = client.hiveClient.getTable(dbName, tableName);
                 sd = table.getSd();
             }
-            HdfsFileFormat format = HdfsFileFormat.fromHdfsInputFormatClass(sd.getInputFormat());
-            if (format == null) {
-                throw new DdlException("unsupported file format [" + sd.getInputFormat() + "]");
-            }
-
-            String path = ObjectStorageUtils.formatObjectStoragePath(sd.getLocation());
-            List<HdfsFileDesc> fileDescs = getHdfsFileDescs(path,
-                    ObjectStorageUtils.isObjectStorage(path) || HdfsFileFormat.isSplittable(sd.getInputFormat()),
-                    sd);
-            return new HivePartition(format, ImmutableList.copyOf(fileDescs), path);
+            checkFileFormat(sd);
+            return sd;
         } catch (NoSuchObjectException e) {
             throw new DdlException("get hive partition meta data failed: "
                     + "partition not exists, partValues: "
                     + String.join(",", partValues));
+        }
+    }
+
+    private static void checkFileFormat(StorageDescriptor sd) throws DdlException {
+        if (HdfsFileFormat.fromHdfsInputFormatClass(sd.getInputFormat()) == null) {
+            throw new DdlException("unsupported file format [" + sd.getInputFormat() + "]");
+        }
+    }
+
+    /**
+     * Get the partitions from hive metastore by get_partitions_by_names, in batches of
+     * hive_meta_get_partitions_batch_size sent concurrently. The result is in the order of the partition values,
+     * and is empty for an unpartitioned table.
+     */
+    private List<Partition> getPartitionsByValues(String dbName, String tableName, Table table,
+                                                  List<List<String>> partValuesList) throws Exception {
+        if (table.getPartitionKeysSize() == 0) {
+            return Lists.newArrayList();
+        }
+        List<String> partColumnNames = table.getPartitionKeys().stream()
+                .map(FieldSchema::getName).collect(Collectors.toList());
+        List<String> partNames = Lists.newArrayListWithCapacity(partValuesList.size());
+        for (List<String> partValues : partValuesList) {
+            partNames.add(FileUtils.makePartName(partColumnNames, partValues));
+        }
+
+        List<Callable<List<Partition>>> tasks = Lists.newArrayList();
+        for (List<String> batch : Lists.partition(partNames, Math.max(1, Config.hive_meta_get_partitions_batch_size))) {
+            tasks.add(() -> getPartitionsByNames(dbName, tableName, batch));
+        }
+        Map<List<String>, Partition> valuesToPartition = Maps.newHashMapWithExpectedSize(partNames.size());
+        for (List<Partition> partitions : HiveFileListingService.getInstance().invokeAll(tasks)) {
+            for (Partition partition : partitions) {
+                valuesToPartition.put(partition.getValues(), partition);
+            }
+        }
+
+        List<Partition> result = Lists.newArrayListWithCapacity(partValuesList.size());
+        for (List<String> partValues : partValuesList) {
+            Partition partition = valuesToPartition.get(partValues);
+            if (partition == null) {
+                throw new DdlException("get hive partition meta data failed: "
+                        + "partition not exists, partValues: "
+                        + String.join(",", partValues));
+            }
+            result.add(partition);
+        }
+        return result;
+    }
+
+    private List<Partition> getPartitionsByNames(String dbName, String tableName, List<String> partNames)
+            throws Exception {
+        try (AutoCloseClient client = getClient()) {
+            return client.hiveClient.getPartitionsByNames(dbName, tableName, partNames);
+        } catch (TTransportException te) {
+            if (partNames.size() <= 1) {
+                throw te;
+            }
+            return getPartitionsWithRetry(dbName, tableName, partNames, 1);
+        }
+    }
+
+    /**
+     * Get the partitions of a hudi table concurrently in the pool of {@link HiveFileListingService},
+     * the result is in the order of the partition values.
+     */
+    public List<HivePartition> getHudiPartitions(String dbName, String tableName, List<List<String>> partValuesList)
+            throws DdlException {
+        List<Callable<HivePartition>> tasks = Lists.newArrayListWithCapacity(partValuesList.size());
+        for (List<String> partValues : partValuesList) {
+            tasks.add(() -> getHudiPartition(dbName, tableName, partValues));
+        }
+        try {
+            return HiveFileListingService.getInstance().invokeAll(tasks);
+        } catch (DdlException e) {
+            throw e;
         } catch (Exception e) {
-            LOG.warn("get partition failed", e);
-            throw new DdlException("get hive partition meta data failed: " + e.getMessage());
+            LOG.warn("get hudi partitions failed", e);
+            throw new DdlException("Get hudi partition meta data failed: " + e.getMessage());
         }
     }
 
@@ -368,6 +520,32 @@ public class HiveMetaClient {
         }
     }
 
+    /**
+     * Get the stats of the partitions of a table, in the order of the partition values.
+     */
+    public List<HivePartitionStats> getPartitionsStats(String dbName, String tableName,
+                                                       List<List<String>> partValuesList) throws DdlException {
+        if (partValuesList.size() == 1) {
+            return Lists.newArrayList(getPartitionStats(dbName, tableName, partValuesList.get(0)));
+        }
+        try {
+            Table table = getTable(dbName, tableName);
+            List<Partition> partitions = getPartitionsByValues(dbName, tableName, table, partValuesList);
+            List<HivePartitionStats> result = Lists.newArrayListWithCapacity(partValuesList.size());
+            for (int i = 0; i < partValuesList.size(); i++) {
+                Map<String, String> parameters =
+                        partitions.isEmpty() ? table.getParameters() : partitions.get(i).getParameters();
+                result.add(new HivePartitionStats(Utils.getRowCount(parameters)));
+            }
+            return result;
+        } catch (DdlException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.warn("get partitions stats failed", e);
+            throw new DdlException("get hive partition stats from hive metastore failed: " + e.getMessage());
+        }
+    }
+
     // columnName -> HiveColumnStats
     public Map<String, HiveColumnStats> getTableLevelColumnStatsForUnpartTable(String dbName, String tableName,
                                                                                List<String> columnNames)
@@ -665,29 +843,20 @@ public class HiveMetaClient {
 
     public List<HdfsFileDesc> getHdfsFileDescs(String dirPath, boolean isSplittable,
                                                StorageDescriptor sd) throws Exception {
-        URI uri = new Path(dirPath).toUri();
-        FileSystem fileSystem = getFileSystem(uri);
-        List<HdfsFileDesc> fileDescs = Lists.newArrayList();
+        List<ListedFile> listedFiles = HiveFileListingService.getInstance()
+                .listFiles(this::getFileSystem, Collections.singletonList(dirPath)).get(0);
+        return toHdfsFileDescs(listedFiles, isSplittable, sd);
+    }
 
-        // fileSystem.listLocatedStatus is an api to list all statuses and
-        // block locations of the files in the given path in one operation.
-        // The performance is better than getting status and block location one by one.
-        try {
-            RemoteIterator<LocatedFileStatus> blockIterator = fileSystem.listLocatedStatus(new Path(uri.getPath()));
-            while (blockIterator.hasNext()) {
-                LocatedFileStatus locatedFileStatus = blockIterator.next();
-                if (!isValidDataFile(locatedFileStatus)) {
-                    continue;
-                }
-                String fileName = Utils.getSuffixName(dirPath, locatedFileStatus.getPath().toString());
-                BlockLocation[] blockLocations = locatedFileStatus.getBlockLocations();
-                List<HdfsFileBlockDesc> fileBlockDescs = getHdfsFileBlockDescs(blockLocations);
-                fileDescs.add(new HdfsFileDesc(fileName, "", locatedFileStatus.getLen(),
-                        ImmutableList.copyOf(fileBlockDescs), ImmutableList.of(),
-                        isSplittable, getTextFileFormatDesc(sd)));
-            }
-        } catch (FileNotFoundException ignored) {
-            // hive empty partition may not create directory
+    private List<HdfsFileDesc> toHdfsFileDescs(List<ListedFile> listedFiles, boolean isSplittable,
+                                               StorageDescriptor sd) {
+        TextFileFormatDesc textFileFormatDesc = getTextFileFormatDesc(sd);
+        List<HdfsFileDesc> fileDescs = Lists.newArrayListWithCapacity(listedFiles.size());
+        for (ListedFile listedFile : listedFiles) {
+            List<HdfsFileBlockDesc> fileBlockDescs = getHdfsFileBlockDescs(listedFile.getBlocks());
+            fileDescs.add(new HdfsFileDesc(listedFile.getName(), "", listedFile.getLength(),
+                    ImmutableList.copyOf(fileBlockDescs), ImmutableList.of(),
+                    isSplittable, textFileFormatDesc));
         }
         return fileDescs;
     }
@@ -711,19 +880,9 @@ public class HiveMetaClient {
         }
     }
 
-    private boolean isValidDataFile(FileStatus fileStatus) {
-        if (fileStatus.isDirectory()) {
-            return false;
-        }
-
-        String lcFileName = fileStatus.getPath().getName().toLowerCase();
-        return !(lcFileName.startsWith(".") || lcFileName.startsWith("_") ||
-                lcFileName.endsWith(".copying") || lcFileName.endsWith(".tmp"));
-    }
-
-    private List<HdfsFileBlockDesc> getHdfsFileBlockDescs(BlockLocation[] blockLocations) throws IOException {
+    private List<HdfsFileBlockDesc> getHdfsFileBlockDescs(List<ListedBlock> blockLocations) {
         List<HdfsFileBlockDesc> fileBlockDescs = Lists.newArrayList();
-        for (BlockLocation blockLocation : blockLocations) {
+        for (ListedBlock blockLocation : blockLocations) {
             fileBlockDescs.add(buildHdfsFileBlockDesc(
                     blockLocation.getOffset(),
                     blockLocation.getLength(),
@@ -780,7 +939,7 @@ public class HiveMetaClient {
 
     private long getHostId(String hostName) {
         return blockHostToId.computeIfAbsent(hostName, k -> {
-            long newId = hostId++;
+            long newId = hostIdGen.getAndIncrement();
             idToBlockHost.put(newId, hostName);
             return newId;
         });
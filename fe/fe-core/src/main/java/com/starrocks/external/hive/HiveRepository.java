@@ -3,7 +3,6 @@
 package com.starrocks.external.hive;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.starrocks.catalog.HiveMetaStoreTableInfo;
@@ -12,9 +11,7 @@ import com.starrocks.catalog.HudiResource;
 import com.starrocks.catalog.PartitionKey;
 import com.starrocks.catalog.Resource;
 import com.starrocks.catalog.Resource.ResourceType;
-import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
-import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.server.GlobalStateMgr;
 import org.apache.hadoop.hive.metastore.api.Table;
@@ -28,9 +25,7 @@ import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -51,9 +46,6 @@ public class HiveRepository {
             new ThreadFactoryBuilder().setNameFormat("hive-metastore-refresh-%d").build());
 
     private static final Logger LOG = LogManager.getLogger(HiveRepository.class);
-    private final ExecutorService partitionDaemonExecutor =
-            ThreadPoolManager.newDaemonFixedThreadPool(Config.hive_meta_load_concurrency,
-                    Integer.MAX_VALUE, "hive-meta-concurrency-pool", true);
 
     public HiveMetaClient getClient(String resourceName) throws DdlException {
         boolean isInternalCatalog = isInternalCatalog(resourceName);
@@ -143,22 +135,13 @@ public class HiveRepository {
     public List<HivePartition> getPartitions(HiveMetaStoreTableInfo hmsTable, List<PartitionKey> partitionKeys)
             throws DdlException {
         HiveMetaCache metaCache = getMetaCache(hmsTable.getResourceName());
-        List<Future<HivePartition>> futures = Lists.newArrayList();
-        for (PartitionKey partitionKey : partitionKeys) {
-            Future<HivePartition> future = partitionDaemonExecutor
-                    .submit(() -> metaCache.getPartition(hmsTable, partitionKey));
-            futures.add(future);
-        }
-        List<HivePartition> result = Lists.newArrayList();
-        for (Future<HivePartition> future : futures) {
-            try {
-                result.add(future.get());
-            } catch (InterruptedException | ExecutionException e) {
-                LOG.warn("get table {}.{} partition meta info failed.", hmsTable.getDb(), hmsTable.getTable(), e);
-                throw new DdlException(e.getMessage());
-            }
+        // the missing partitions are loaded together, and their files are listed concurrently
+        try {
+            return metaCache.getPartitions(hmsTable, partitionKeys);
+        } catch (DdlException e) {
+            LOG.warn("get table {}.{} partition meta info failed.", hmsTable.getDb(), hmsTable.getTable(), e);
+            throw e;
         }
-        return result;
     }
 
     public HiveTableStats getTableStats(String resourceName, String dbName, String tableName) throws DdlException {
@@ -169,20 +152,13 @@ public class HiveRepository {
     public List<HivePartitionStats> getPartitionsStats(HiveMetaStoreTableInfo hmsTable,
                                                        List<PartitionKey> partitionKeys) throws DdlException {
         HiveMetaCache metaCache = getMetaCache(hmsTable.getResourceName());
-        List<Future<HivePartitionStats>> futures = Lists.newArrayList();
-        for (PartitionKey partitionKey : partitionKeys) {
-            Future<HivePartitionStats> future = partitionDaemonExecutor.
-                    submit(() -> metaCache.getPartitionStats(hmsTable, partitionKey));
-            futures.add(future);
-        }
-        List<HivePartitionStats> result = Lists.newArrayList();
-        for (Future<HivePartitionStats> future : futures) {
-            try {
-                result.add(future.get());
-            } catch (InterruptedException | ExecutionException e) {
-                LOG.warn("get table {}.{} partition stats meta info failed.", hmsTable.getDb(), hmsTable.getTable(), e);
-                throw new DdlException(e.getMessage());
-            }
+        // the missing partitions are fetched from hive metastore in batches
+        List<HivePartitionStats> result;
+        try {
+            result = metaCache.getPartitionsStats(hmsTable, partitionKeys);
+        } catch (DdlException e) {
+            LOG.warn("get table {}.{} partition stats meta info failed.", hmsTable.getDb(), hmsTable.getTable(), e);
+            throw e;
         }
 
         Map<PartitionKey, HivePartitionStats> partitionStatsMaps = Maps.newHashMap();
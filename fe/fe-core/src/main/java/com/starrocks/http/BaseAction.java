@@ -129,6 +129,23 @@ public abstract class BaseAction implements IAction {
         }
     }
 
+    // Write the headers of a chunked response, the content is written to the returned stream then.
+    protected HttpChunkedOutputStream writeChunkedResponse(BaseRequest request, BaseResponse response,
+                                                          HttpResponseStatus status) {
+        HttpResponse responseObj = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
+        checkDefaultContentTypeHeader(response, responseObj);
+        writeCustomHeaders(response, responseObj);
+        writeCookies(response, responseObj);
+        HttpUtil.setTransferEncodingChunked(responseObj, true);
+
+        boolean keepAlive = HttpUtil.isKeepAlive(request.getRequest());
+        if (keepAlive) {
+            responseObj.headers().set(HttpHeaderNames.CONNECTION.toString(), HttpHeaderValues.KEEP_ALIVE.toString());
+        }
+        request.getContext().write(responseObj);
+        return new HttpChunkedOutputStream(request.getContext(), keepAlive);
+    }
+
     // Object only support File or byte[]
     protected void writeObjectResponse(BaseRequest request, BaseResponse response, HttpResponseStatus status,
                                        Object obj, String fileName, boolean isOctStream) {
@@ -0,0 +1,98 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import java.io.OutputStream;
+
+/**
+ * The content of a chunked http response, whose headers have been written by
+ * {@link BaseAction#writeChunkedResponse}.
+ * <p>
+ * The bytes are collected in a buffer allocated from the channel, which is sent as a chunk once it is full, so the
+ * content is never held in the heap as a whole. The last chunk is sent on close.
+ */
+public class HttpChunkedOutputStream extends OutputStream {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final ChannelHandlerContext context;
+    private final boolean keepAlive;
+    private ByteBuf chunk;
+    private boolean closed = false;
+
+    public HttpChunkedOutputStream(ChannelHandlerContext context, boolean keepAlive) {
+        this.context = context;
+        this.keepAlive = keepAlive;
+    }
+
+    @Override
+    public void write(int b) {
+        ensureWritable().writeByte(b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            ByteBuf buf = ensureWritable();
+            int n = Math.min(length, buf.writableBytes());
+            buf.writeBytes(bytes, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (chunk != null && chunk.isReadable()) {
+            context.writeAndFlush(new DefaultHttpContent(chunk));
+            chunk = null;
+        }
+    }
+
+    // send the remaining content and end the response
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flush();
+        if (chunk != null) {
+            chunk.release();
+            chunk = null;
+        }
+        if (keepAlive) {
+            context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+        } else {
+            context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    // the headers have been sent, so the only way to report an error is to close the connection
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (chunk != null) {
+            chunk.release();
+            chunk = null;
+        }
+        context.close();
+    }
+
+    private ByteBuf ensureWritable() {
+        if (chunk != null && !chunk.isWritable()) {
+            flush();
+        }
+        if (chunk == null) {
+            chunk = context.alloc().buffer(CHUNK_SIZE, CHUNK_SIZE);
+        }
+        return chunk;
+    }
+}
@@ -22,11 +22,13 @@
 package com.starrocks.http.rest;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Sets;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.common.DdlException;
 import com.starrocks.http.ActionController;
 import com.starrocks.http.BaseRequest;
 import com.starrocks.http.BaseResponse;
+import com.starrocks.http.HttpChunkedOutputStream;
 import com.starrocks.http.IllegalArgException;
 import com.starrocks.metric.JsonMetricVisitor;
 import com.starrocks.metric.MetricRepo;
@@ -35,16 +37,23 @@ import com.starrocks.metric.PrometheusMetricVisitor;
 import com.starrocks.metric.SimpleCoreMetricVisitor;
 import com.starrocks.mysql.privilege.PrivPredicate;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
+import java.util.List;
+import java.util.Set;
+
 //fehost:port/metrics
 //fehost:port/metrics?type=core
 //fehost:port/metrics?type=json
+//fehost:port/metrics?name[]=starrocks_fe_query_total&name[]=jvm_thread
 public class MetricsAction extends RestBaseAction {
 
     private static final Logger LOG = LogManager.getLogger(MetricsAction.class);
     private static final String TYPE_PARAM = "type";
+    // the metric families to return, all the metric families are returned by default
+    private static final String NAME_PARAM = "name[]";
     // `with_table_metrics=minified` : without tables that have empty values
     // `with_table_metrics=all` : with all table metrics
     protected static final String WITH_TABLE_METRICS_PARAM = "with_table_metrics";
@@ -68,8 +77,6 @@ public class MetricsAction extends RestBaseAction {
             visitor = new SimpleCoreMetricVisitor("starrocks_fe");
         } else if (!Strings.isNullOrEmpty(type) && type.equalsIgnoreCase("json")) {
             visitor = new JsonMetricVisitor("starrocks_fe");
-        } else {
-            visitor = new PrometheusMetricVisitor("starrocks_fe");
         }
         boolean collectTableMetrics = false;
         boolean minifyTableMetrics = true;
@@ -90,7 +97,24 @@ public class MetricsAction extends RestBaseAction {
             }
         }
         response.setContentType("text/plain");
-        response.getContent().append(MetricRepo.getMetric(visitor, collectTableMetrics, minifyTableMetrics));
-        sendResult(request, response);
+        if (visitor != null) {
+            response.getContent().append(MetricRepo.getMetric(visitor, collectTableMetrics, minifyTableMetrics));
+            sendResult(request, response);
+            return;
+        }
+
+        // the prometheus metrics may be tens of MB with the table metrics, so they are streamed to the client
+        List<String> names = request.getArrayParameter(NAME_PARAM);
+        Set<String> families = names == null || names.isEmpty() ? null : Sets.newHashSet(names);
+        HttpChunkedOutputStream out = writeChunkedResponse(request, response, HttpResponseStatus.OK);
+        try {
+            visitor = new PrometheusMetricVisitor("starrocks_fe", out, families);
+            MetricRepo.visitMetrics(visitor, collectTableMetrics, minifyTableMetrics);
+            visitor.build();
+            out.close();
+        } catch (Exception e) {
+            LOG.warn("failed to write metrics", e);
+            out.abort();
+        }
     }
 }
@@ -62,5 +62,11 @@ public interface Journal {
     // abort current batch
     public void batchWriteAbort() throws InterruptedException, JournalException;
 
+    // hand over current batch to the returned journal, which can commit or abort it in another thread while
+    // the next batch begins on this journal. return null if not supported.
+    public default Journal batchWriteDetach() throws JournalException {
+        return null;
+    }
+
     public String getPrefix();
 }
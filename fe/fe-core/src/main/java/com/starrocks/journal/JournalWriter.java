@@ -12,13 +12,19 @@ import org.mortbay.log.Log;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An independent thread to write journals by batch asynchronously.
  * Each thread that needs to write a log can put the log in a blocking queue, while JournalWriter constantly gets as
  * many logs as possible from the queue and write them all in one batch.
  * After committing, JournalWriter will notify the caller thread for consistency.
+ * <p>
+ * If metadata_journal_pipeline_commit is set, the batches are committed by another thread, and the next batch is
+ * written while the previous one is being committed. The next batch keeps collecting journals until the previous one
+ * is committed, so its size adapts to the commit latency and the number of journals waiting in the queue.
  */
 public class JournalWriter {
     public static final Logger LOG = LogManager.getLogger(JournalWriter.class);
@@ -30,7 +36,15 @@ public class JournalWriter {
     protected long rollJournalCounter = 0;
     // increment journal id
     // this is the persist journal id
-    protected long nextVisibleJournalId = -1;
+    protected volatile long nextVisibleJournalId = -1;
+    // the id of the next journal to write in pipeline mode, ahead of nextVisibleJournalId when a batch is committing
+    protected long nextAppendJournalId = -1;
+
+    // pipeline mode: the batches written and waiting to be committed
+    private final BlockingQueue<PendingBatch> commitQueue = new ArrayBlockingQueue<>(1);
+    private final Object commitLock = new Object();
+    // guarded by commitLock
+    private int uncommittedBatchNum = 0;
 
     // belows are variables that will reset every batch
     // store journal tasks of this batch
@@ -42,6 +56,24 @@ public class JournalWriter {
     // batch size in bytes
     private long uncommittedEstimatedBytes;
 
+    // a batch written by the writer thread, to be committed by the committer thread
+    private static class PendingBatch {
+        private final Journal journal;
+        private final List<JournalTask> tasks;
+        private final long nextJournalId;
+        private final long startTimeNano;
+        private final long estimatedBytes;
+
+        private PendingBatch(Journal journal, List<JournalTask> tasks, long nextJournalId, long startTimeNano,
+                             long estimatedBytes) {
+            this.journal = journal;
+            this.tasks = tasks;
+            this.nextJournalId = nextJournalId;
+            this.startTimeNano = startTimeNano;
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
+
     public JournalWriter(Journal journal, BlockingQueue<JournalTask> journalQueue) {
         this.journal = journal;
         this.journalQueue = journalQueue;
@@ -52,17 +84,39 @@ public class JournalWriter {
      */
     public void init(long maxJournalId) throws JournalException {
         this.nextVisibleJournalId = maxJournalId + 1;
+        this.nextAppendJournalId = this.nextVisibleJournalId;
         this.journal.rollJournal(this.nextVisibleJournalId);
     }
 
     public void startDaemon() {
         // ensure init() is called.
         assert (nextVisibleJournalId > 0);
+        boolean pipelineCommit = Config.metadata_journal_pipeline_commit;
+        if (pipelineCommit) {
+            Daemon committer = new Daemon("JournalCommitter", 0L) {
+                @Override
+                protected void runOneCycle() {
+                    try {
+                        commitOnePipelinedBatch();
+                    } catch (InterruptedException e) {
+                        String msg = "got interrupted exception when trying to commit one batch, will exit now.";
+                        LOG.error(msg, e);
+                        Util.stdoutWithTime(msg);
+                        System.exit(-1);
+                    }
+                }
+            };
+            committer.start();
+        }
         Daemon d = new Daemon("JournalWriter", 0L) {
             @Override
             protected void runOneCycle() {
                 try {
-                    writeOneBatch();
+                    if (pipelineCommit) {
+                        writeOnePipelinedBatch();
+                    } else {
+                        writeOneBatch();
+                    }
                 } catch (InterruptedException e) {
                     String msg = "got interrupted exception when trying to write one batch, will exit now.";
                     LOG.error(msg, e);
@@ -100,6 +154,7 @@ public class JournalWriter {
             LOG.warn("failed to write batch, will abort current journal {} and commit", currentJournal, e);
             abortJournalTask(currentJournal, e.getMessage());
         } finally {
+            long commitStartNano = System.nanoTime();
             try {
                 // commit
                 journal.batchWriteCommit();
@@ -117,11 +172,135 @@ public class JournalWriter {
                 }
                 abortCurrentBatch(e.getMessage());
             }
+            updateCommitMetrics(commitStartNano);
         }
 
         rollJournalAfterBatch();
 
-        updateBatchMetrics();
+        updateBatchMetrics(currentBatchTasks, startTimeNano, uncommittedEstimatedBytes);
+    }
+
+    /**
+     * Write one batch and hand it over to the committer thread, the batch keeps collecting journals
+     * while the previous batch is being committed.
+     */
+    protected void writeOnePipelinedBatch() throws InterruptedException {
+        currentJournal = journalQueue.take();
+        long nextJournalId = nextAppendJournalId;
+        startTimeNano = System.nanoTime();
+        uncommittedEstimatedBytes = 0;
+        // the list is handed over to the committer with the batch
+        currentBatchTasks = new ArrayList<>();
+
+        try {
+            this.journal.batchWriteBegin();
+
+            while (true) {
+                journal.batchWriteAppend(nextJournalId, currentJournal.getBuffer());
+                currentBatchTasks.add(currentJournal);
+                nextJournalId += 1;
+
+                if (reachBatchLimit()) {
+                    break;
+                }
+
+                JournalTask next = pollJournalForPipelinedBatch();
+                if (next == null) {
+                    break;
+                }
+                currentJournal = next;
+            }
+        } catch (JournalException e) {
+            // abort current task
+            LOG.warn("failed to write batch, will abort current journal {} and commit", currentJournal, e);
+            abortJournalTask(currentJournal, e.getMessage());
+        }
+
+        Journal detached = null;
+        try {
+            detached = journal.batchWriteDetach();
+        } catch (JournalException e) {
+            LOG.warn("failed to detach batch, will commit it in the writer thread", e);
+        }
+        nextAppendJournalId = nextJournalId;
+        PendingBatch batch = new PendingBatch(detached == null ? journal : detached, currentBatchTasks,
+                nextJournalId, startTimeNano, uncommittedEstimatedBytes);
+        if (detached == null) {
+            // keep the order of the commits
+            waitForPipelinedBatches();
+            commitBatch(batch);
+        } else {
+            synchronized (commitLock) {
+                uncommittedBatchNum++;
+            }
+            commitQueue.put(batch);
+        }
+
+        rollJournalCounter += batch.tasks.size();
+        if (rollJournalCounter >= Config.edit_log_roll_num) {
+            // the batches being committed must be committed to the current journal db
+            waitForPipelinedBatches();
+            rollJournal();
+        }
+    }
+
+    // the next journal to add into the pipelined batch, or null if the batch should be committed now
+    private JournalTask pollJournalForPipelinedBatch() throws InterruptedException {
+        JournalTask task = journalQueue.poll();
+        while (task == null && !isPipelineIdle()) {
+            task = journalQueue.poll(1, TimeUnit.MILLISECONDS);
+        }
+        return task;
+    }
+
+    private boolean isPipelineIdle() {
+        synchronized (commitLock) {
+            return uncommittedBatchNum == 0;
+        }
+    }
+
+    private void waitForPipelinedBatches() throws InterruptedException {
+        synchronized (commitLock) {
+            while (uncommittedBatchNum > 0) {
+                commitLock.wait();
+            }
+        }
+    }
+
+    protected void commitOnePipelinedBatch() throws InterruptedException {
+        PendingBatch batch = commitQueue.take();
+        try {
+            commitBatch(batch);
+        } finally {
+            synchronized (commitLock) {
+                uncommittedBatchNum--;
+                commitLock.notifyAll();
+            }
+        }
+    }
+
+    private void commitBatch(PendingBatch batch) throws InterruptedException {
+        long commitStartNano = System.nanoTime();
+        try {
+            batch.journal.batchWriteCommit();
+            LOG.debug("batch write commit success, from {} - {}", nextVisibleJournalId, batch.nextJournalId);
+            nextVisibleJournalId = batch.nextJournalId;
+            for (JournalTask t : batch.tasks) {
+                t.markSucceed();
+            }
+        } catch (JournalException e) {
+            LOG.warn("failed to commit batch, will abort current {} journals.", batch.tasks.size(), e);
+            try {
+                batch.journal.batchWriteAbort();
+            } catch (JournalException e2) {
+                LOG.warn("failed to abort batch, will ignore and continue.", e);
+            }
+            for (JournalTask t : batch.tasks) {
+                abortJournalTask(t, e.getMessage());
+            }
+        }
+        updateCommitMetrics(commitStartNano);
+        updateBatchMetrics(batch.tasks, batch.startTimeNano, batch.estimatedBytes);
     }
 
     private void initBatch() {
@@ -157,6 +336,15 @@ public class JournalWriter {
     }
 
     private boolean shouldCommitNow() {
+        if (reachBatchLimit()) {
+            return true;
+        }
+
+        // 4. no more journal in queue
+        return journalQueue.peek() == null;
+    }
+
+    private boolean reachBatchLimit() {
         // 1. check if is an emergency journal
         if (currentJournal.getBetterCommitBeforeTime() > 0) {
             long delayMillis = (System.nanoTime() - currentJournal.getBetterCommitBeforeTime()) / 1000000;
@@ -181,23 +369,27 @@ public class JournalWriter {
                     uncommittedEstimatedBytes, Config.metadata_journal_max_batch_size_mb);
             return true;
         }
+        return false;
+    }
 
-        // 4. no more journal in queue
-        return journalQueue.peek() == null;
+    private void updateCommitMetrics(long commitStartNano) {
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_JOURNAL_COMMIT_LATENCY.update((System.nanoTime() - commitStartNano) / 1000000);
+        }
     }
 
     /**
      * update all metrics after batch write
      */
-    private void updateBatchMetrics() {
+    private void updateBatchMetrics(List<JournalTask> batchTasks, long batchStartTimeNano, long batchEstimatedBytes) {
         if (MetricRepo.isInit) {
-            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase((long) currentBatchTasks.size());
-            MetricRepo.HISTO_JOURNAL_WRITE_LATENCY.update((System.nanoTime() - startTimeNano) / 1000000);
-            MetricRepo.HISTO_JOURNAL_WRITE_BATCH.update(currentBatchTasks.size());
-            MetricRepo.HISTO_JOURNAL_WRITE_BYTES.update(uncommittedEstimatedBytes);
+            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase((long) batchTasks.size());
+            MetricRepo.HISTO_JOURNAL_WRITE_LATENCY.update((System.nanoTime() - batchStartTimeNano) / 1000000);
+            MetricRepo.HISTO_JOURNAL_WRITE_BATCH.update(batchTasks.size());
+            MetricRepo.HISTO_JOURNAL_WRITE_BYTES.update(batchEstimatedBytes);
             MetricRepo.GAUGE_STACKED_JOURNAL_NUM.setValue((long) journalQueue.size());
 
-            for (JournalTask e : currentBatchTasks) {
+            for (JournalTask e : batchTasks) {
                 MetricRepo.COUNTER_EDIT_LOG_SIZE_BYTES.increase(e.estimatedSizeByte());
             }
         }
@@ -209,18 +401,22 @@ public class JournalWriter {
     private void rollJournalAfterBatch() {
         rollJournalCounter += currentBatchTasks.size();
         if (rollJournalCounter >= Config.edit_log_roll_num) {
-            try {
-                journal.rollJournal(nextVisibleJournalId);
-            } catch (JournalException e) {
-                String msg = String.format("failed to roll journal %d, will exit", nextVisibleJournalId);
-                LOG.error(msg, e);
-                Util.stdoutWithTime(msg);
-                // TODO exit gracefully
-                System.exit(-1);
-            }
-            LOG.info("rolled edig log because rollEditCounter {} >= edit_log_roll_num {}.",
-                    rollJournalCounter, Config.edit_log_roll_num);
-            rollJournalCounter = 0;
+            rollJournal();
+        }
+    }
+
+    private void rollJournal() {
+        try {
+            journal.rollJournal(nextVisibleJournalId);
+        } catch (JournalException e) {
+            String msg = String.format("failed to roll journal %d, will exit", nextVisibleJournalId);
+            LOG.error(msg, e);
+            Util.stdoutWithTime(msg);
+            // TODO exit gracefully
+            System.exit(-1);
         }
+        LOG.info("rolled edig log because rollEditCounter {} >= edit_log_roll_num {}.",
+                rollJournalCounter, Config.edit_log_roll_num);
+        rollJournalCounter = 0;
     }
 }
@@ -470,6 +470,23 @@ public class BDBJEJournal implements Journal {
         }
     }
 
+    /**
+     * hand over current batch to a new journal on the same db
+     * for bdb: the transaction can be committed in another thread, while a new transaction is running
+     */
+    @Override
+    public Journal batchWriteDetach() throws JournalException {
+        if (currentTrasaction == null) {
+            throw new JournalException("failed to detach because no running txn!");
+        }
+        BDBJEJournal detached = new BDBJEJournal(bdbEnvironment, currentJournalDB);
+        detached.currentTrasaction = currentTrasaction;
+        detached.uncommitedDatas = uncommitedDatas;
+        currentTrasaction = null;
+        uncommitedDatas = new ArrayList<>();
+        return detached;
+    }
+
     private String getFullDatabaseName(long dbId) {
         return prefix + Long.toString(dbId);
     }
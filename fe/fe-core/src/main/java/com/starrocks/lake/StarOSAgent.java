@@ -25,9 +25,13 @@ import com.starrocks.server.GlobalStateMgr;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
@@ -35,6 +39,7 @@ import java.util.stream.Collectors;
  * StarOSAgent is responsible for
  * 1. Encapsulation of StarClient api.
  * 2. Maintenance of StarOS worker to StarRocks backend map.
+ * 3. Cache of the backends of the shards, which is read without any lock.
  */
 public class StarOSAgent {
     private static final Logger LOG = LogManager.getLogger(StarOSAgent.class);
@@ -42,15 +47,58 @@ public class StarOSAgent {
     public static final String SERVICE_NAME = "starrocks";
 
     private StarClient client;
-    private String serviceId;
+    private volatile String serviceId;
     private Map<String, Long> workerToId;
+    // read without the lock, and written with the write lock
     private Map<Long, Long> workerToBackend;
     private ReentrantReadWriteLock rwLock;
 
+    // the backends of the shards got from StarMgr
+    private final Map<Long, ShardLocation> shardLocations = new ConcurrentHashMap<>();
+    // increased whenever the workers change, which invalidates all the shard locations cached before
+    private final AtomicLong workerVersion = new AtomicLong(0);
+
+    private static class ShardLocation {
+        // -1 if the shard has no primary replica
+        private final long primaryWorkerId;
+        // -1 if the backend of the primary worker is not found
+        private final long primaryBackendId;
+        // the backends of all the replicas found
+        private final Set<Long> backendIds;
+        // whether the backends of all the replicas are found, only the complete location is cached
+        private final boolean complete;
+        private final long workerVersion;
+        private final long expireTime;
+
+        ShardLocation(long primaryWorkerId, long primaryBackendId, Set<Long> backendIds, boolean complete,
+                      long workerVersion, long expireTime) {
+            this.primaryWorkerId = primaryWorkerId;
+            this.primaryBackendId = primaryBackendId;
+            this.backendIds = Collections.unmodifiableSet(backendIds);
+            this.complete = complete;
+            this.workerVersion = workerVersion;
+            this.expireTime = expireTime;
+        }
+
+        boolean isValid(long currentWorkerVersion, long now) {
+            return workerVersion == currentWorkerVersion && now < expireTime;
+        }
+
+        long getPrimaryBackendId(long shardId) throws UserException {
+            if (primaryWorkerId == -1) {
+                throw new UserException("Failed to get primary backend. shard id: " + shardId);
+            }
+            if (primaryBackendId == -1) {
+                throw new UserException("Failed to get backend by worker. worker id: " + primaryWorkerId);
+            }
+            return primaryBackendId;
+        }
+    }
+
     public StarOSAgent() {
         serviceId = "";
         workerToId = Maps.newHashMap();
-        workerToBackend = Maps.newHashMap();
+        workerToBackend = new ConcurrentHashMap<>();
         rwLock = new ReentrantReadWriteLock();
     }
 
@@ -74,6 +122,9 @@ public class StarOSAgent {
     }
 
     private void prepare() {
+        if (!serviceId.equals("")) {
+            return;
+        }
         try (LockCloseable lock = new LockCloseable(rwLock.writeLock())) {
             if (serviceId.equals("")) {
                 getServiceId();
@@ -198,6 +249,7 @@ public class StarOSAgent {
             }
             workerToId.put(workerIpPort, workerId);
             workerToBackend.put(workerId, backendId);
+            invalidateShardLocations();
             LOG.info("add worker {} success, backendId is {}", workerId, backendId);
         }
     }
@@ -225,6 +277,7 @@ public class StarOSAgent {
         try (LockCloseable lock = new LockCloseable(rwLock.writeLock())) {
             workerToBackend.remove(workerId);
             workerToId.remove(workerIpPort);
+            invalidateShardLocations();
         }
 
         LOG.info("remove worker {} success from StarMgr", workerIpPort);
@@ -247,6 +300,7 @@ public class StarOSAgent {
         prepare();
         try {
             client.deleteShard(serviceId, shardIds);
+            shardLocations.keySet().removeAll(shardIds);
         } catch (StarClientException e) {
             LOG.warn("Failed to delete shards. error: {}", e.getMessage());
             throw new DdlException("Failed to delete shards. error: " + e.getMessage());
@@ -267,79 +321,116 @@ public class StarOSAgent {
         return shardInfos.stream().map(ShardInfo::getShardId).collect(Collectors.toList());
     }
 
-    private List<ReplicaInfo> getShardReplicas(long shardId) throws UserException {
-        prepare();
-        try {
-            List<ShardInfo> shardInfos = client.getShardInfo(serviceId, Lists.newArrayList(shardId));
-            Preconditions.checkState(shardInfos.size() == 1);
-            return shardInfos.get(0).getReplicaInfoList();
-        } catch (StarClientException e) {
-            throw new UserException("Failed to get shard info. error: " + e.getMessage());
-        }
+    private void invalidateShardLocations() {
+        workerVersion.incrementAndGet();
+        shardLocations.clear();
     }
 
     public long getPrimaryBackendIdByShard(long shardId) throws UserException {
-        List<ReplicaInfo> replicas = getShardReplicas(shardId);
+        return getShardLocations(Lists.newArrayList(shardId)).get(shardId).getPrimaryBackendId(shardId);
+    }
 
-        try (LockCloseable lock = new LockCloseable(rwLock.writeLock())) {
-            for (ReplicaInfo replicaInfo : replicas) {
-                if (replicaInfo.getReplicaRole() == ReplicaRole.PRIMARY) {
-                    WorkerInfo workerInfo = replicaInfo.getWorkerInfo();
-                    long workerId = workerInfo.getWorkerId();
-                    if (!workerToBackend.containsKey(workerId)) {
-                        // get backendId from system info by host & starletPort
-                        String workerAddr = workerInfo.getIpPort();
-                        String[] pair = workerAddr.split(":");
-                        long backendId = GlobalStateMgr.getCurrentSystemInfo()
-                                .getBackendIdWithStarletPort(pair[0], Integer.parseInt(pair[1]));
-
-                        if (backendId == -1L) {
-                            throw new UserException("Failed to get backend by worker. worker id: " + workerId);
-                        }
-
-                        // put it into map
-                        workerToId.put(workerAddr, workerId);
-                        workerToBackend.put(workerId, backendId);
-                        return backendId;
-                    }
+    public Set<Long> getBackendIdsByShard(long shardId) throws UserException {
+        return Sets.newHashSet(getShardLocations(Lists.newArrayList(shardId)).get(shardId).backendIds);
+    }
 
-                    return workerToBackend.get(workerId);
-                }
+    /**
+     * Get the backends of all the shards, e.g. all the tablets of a scan, by one request to StarMgr for the shards
+     * not cached. The replicas whose backend is not found are ignored, the same as {@link #getBackendIdsByShard}.
+     */
+    public Map<Long, Set<Long>> getBackendIdsByShards(Collection<Long> shardIds) throws UserException {
+        Map<Long, Set<Long>> backendIds = Maps.newHashMapWithExpectedSize(shardIds.size());
+        for (Map.Entry<Long, ShardLocation> entry : getShardLocations(shardIds).entrySet()) {
+            backendIds.put(entry.getKey(), entry.getValue().backendIds);
+        }
+        return backendIds;
+    }
+
+    private Map<Long, ShardLocation> getShardLocations(Collection<Long> shardIds) throws UserException {
+        Map<Long, ShardLocation> locations = Maps.newHashMapWithExpectedSize(shardIds.size());
+        Set<Long> missingShardIds = Sets.newLinkedHashSet();
+        // get the version before getting the replicas, so the locations got are invalid if the workers change
+        long version = workerVersion.get();
+        long now = System.currentTimeMillis();
+        for (long shardId : shardIds) {
+            ShardLocation location = shardLocations.get(shardId);
+            if (location != null && location.isValid(version, now)) {
+                locations.put(shardId, location);
+            } else {
+                missingShardIds.add(shardId);
+            }
+        }
+        if (missingShardIds.isEmpty()) {
+            return locations;
+        }
+
+        long expireTime = now + Config.starmgr_shard_location_cache_expire_seconds * 1000L;
+        for (ShardInfo shardInfo : getShardInfos(Lists.newArrayList(missingShardIds))) {
+            ShardLocation location = getShardLocation(shardInfo.getReplicaInfoList(), version, expireTime);
+            if (location.complete && expireTime > now) {
+                shardLocations.put(shardInfo.getShardId(), location);
+            }
+            locations.put(shardInfo.getShardId(), location);
+        }
+        for (long shardId : missingShardIds) {
+            if (!locations.containsKey(shardId)) {
+                throw new UserException("Failed to get shard info. shard id: " + shardId);
             }
         }
-        throw new UserException("Failed to get primary backend. shard id: " + shardId);
+        return locations;
     }
 
-    public Set<Long> getBackendIdsByShard(long shardId) throws UserException {
-        List<ReplicaInfo> replicas = getShardReplicas(shardId);
+    private List<ShardInfo> getShardInfos(List<Long> shardIds) throws UserException {
+        prepare();
+        try {
+            return client.getShardInfo(serviceId, shardIds);
+        } catch (StarClientException e) {
+            throw new UserException("Failed to get shard info. error: " + e.getMessage());
+        }
+    }
 
+    private ShardLocation getShardLocation(List<ReplicaInfo> replicas, long version, long expireTime) {
+        long primaryWorkerId = -1;
+        long primaryBackendId = -1;
         Set<Long> backendIds = Sets.newHashSet();
-        try (LockCloseable lock = new LockCloseable(rwLock.writeLock())) {
-            for (ReplicaInfo replicaInfo : replicas) {
-                // TODO: check worker state
-                WorkerInfo workerInfo = replicaInfo.getWorkerInfo();
-                long workerId = workerInfo.getWorkerId();
-                if (!workerToBackend.containsKey(workerId)) {
-                    // get backendId from system info
-                    String workerAddr = workerInfo.getIpPort();
-                    String[] pair = workerAddr.split(":");
-                    long backendId = GlobalStateMgr.getCurrentSystemInfo()
-                            .getBackendIdWithStarletPort(pair[0], Integer.parseInt(pair[1]));
-
-                    if (backendId == -1L) {
-                        LOG.warn("backendId for {} is -1", workerAddr);
-                        continue;
-                    }
+        boolean complete = true;
+        for (ReplicaInfo replicaInfo : replicas) {
+            // TODO: check worker state
+            WorkerInfo workerInfo = replicaInfo.getWorkerInfo();
+            long backendId = getBackendIdByWorker(workerInfo);
+            if (backendId == -1L) {
+                LOG.warn("backendId for {} is -1", workerInfo.getIpPort());
+                complete = false;
+            } else {
+                backendIds.add(backendId);
+            }
+            if (primaryWorkerId == -1 && replicaInfo.getReplicaRole() == ReplicaRole.PRIMARY) {
+                primaryWorkerId = workerInfo.getWorkerId();
+                primaryBackendId = backendId;
+            }
+        }
+        return new ShardLocation(primaryWorkerId, primaryBackendId, backendIds, complete, version, expireTime);
+    }
 
-                    // put it into map
-                    workerToId.put(workerAddr, workerId);
-                    workerToBackend.put(workerId, backendId);
-                    backendIds.add(backendId);
-                } else {
-                    backendIds.add(workerToBackend.get(workerId));
-                }
+    // return -1 if not found
+    private long getBackendIdByWorker(WorkerInfo workerInfo) {
+        long workerId = workerInfo.getWorkerId();
+        Long backendId = workerToBackend.get(workerId);
+        if (backendId != null) {
+            return backendId;
+        }
+
+        // get backendId from system info by host & starletPort
+        String workerAddr = workerInfo.getIpPort();
+        String[] pair = workerAddr.split(":");
+        long id = GlobalStateMgr.getCurrentSystemInfo().getBackendIdWithStarletPort(pair[0], Integer.parseInt(pair[1]));
+        if (id != -1L) {
+            // put it into map
+            try (LockCloseable lock = new LockCloseable(rwLock.writeLock())) {
+                workerToId.put(workerAddr, workerId);
+                workerToBackend.put(workerId, id);
             }
         }
-        return backendIds;
+        return id;
     }
 }
@@ -113,6 +113,25 @@ public class ReportHandler extends Daemon {
 
     private Map<ReportType, Map<Long, ReportTask>> pendingTaskMap = Maps.newHashMap();
 
+    // backend id -> the leader epoch in which the last full tablet report of the backend is received.
+    // an incremental tablet report is a diff against the state of the last report, it can only be applied
+    // after a full report is received by the current leader. removing a backend asks it for a full report.
+    private static final Map<Long, Long> fullTabletReportEpochs = Maps.newConcurrentMap();
+
+    /**
+     * Ask the backend to send a full tablet report, so all its tablets are checked against the meta again.
+     * An incremental report only contains the tablets changed on the backend, the tablets whose meta is changed
+     * by FE, or left mismatched by the last report, are only checked again by a full report.
+     * The next incremental report of the backend is rejected, and the backend sends a full report right away.
+     */
+    public static void requestFullTabletReport(long backendId) {
+        fullTabletReportEpochs.remove(backendId);
+    }
+
+    public static void requestFullTabletReport() {
+        fullTabletReportEpochs.clear();
+    }
+
     public ReportHandler() {
         super("ReportHandler");
         GaugeMetric<Long> gaugeQueueSize = new GaugeMetric<Long>(
@@ -151,6 +170,7 @@ public class ReportHandler extends Daemon {
         Map<TTaskType, Set<Long>> tasks = null;
         Map<String, TDisk> disks = null;
         Map<Long, TTablet> tablets = null;
+        Set<Long> droppedTabletIds = null;
         List<TWorkGroup> activeWorkGroups = null;
         long reportVersion = -1;
 
@@ -191,6 +211,22 @@ public class ReportHandler extends Daemon {
             reportType = ReportType.TABLET_REPORT;
         }
 
+        if (reportType == ReportType.TABLET_REPORT) {
+            long epoch = GlobalStateMgr.getCurrentState().getEpoch();
+            if (request.isSetIncremental_tablet_report() && request.isIncremental_tablet_report()) {
+                if (!Config.enable_incremental_tablet_report ||
+                        !Long.valueOf(epoch).equals(fullTabletReportEpochs.get(beId))) {
+                    LOG.info("ignore incremental tablet report from be {}, ask for a full report", beId);
+                    result.setNeed_full_tablet_report(true);
+                    return result;
+                }
+                droppedTabletIds = request.isSetDropped_tablet_ids() ?
+                        Sets.newHashSet(request.getDropped_tablet_ids()) : Sets.newHashSet();
+            } else {
+                fullTabletReportEpochs.put(beId, epoch);
+            }
+        }
+
         if (request.isSetTablet_max_compaction_score()) {
             backend.setTabletMaxCompactionScore(request.getTablet_max_compaction_score());
         }
@@ -208,8 +244,8 @@ public class ReportHandler extends Daemon {
                 GlobalStateMgr.getCurrentState().getResourceGroupMgr().getResourceGroupsNeedToDeliver(beId);
         result.setWorkgroup_ops(workGroupOps);
 
-        ReportTask reportTask =
-                new ReportTask(beId, reportType, tasks, disks, tablets, reportVersion, activeWorkGroups);
+        ReportTask reportTask = new ReportTask(beId, reportType, tasks, disks, tablets, droppedTabletIds,
+                reportVersion, activeWorkGroups);
         try {
             putToQueue(reportTask);
         } catch (Exception e) {
@@ -246,6 +282,10 @@ public class ReportHandler extends Daemon {
                 reportQueue.put(reportTask);
             } else {
                 LOG.info("update be {} report task {}", oldTask.beId, oldTask);
+                if (reportTask.isIncrementalTabletReport()) {
+                    // the pending report is not handled yet, the new delta is applied on top of it
+                    reportTask.mergePendingTabletReport(oldTask);
+                }
             }
             pendingTaskMap.get(reportTask.type).put(reportTask.beId, reportTask);
         }
@@ -270,22 +310,45 @@ public class ReportHandler extends Daemon {
         private Map<TTaskType, Set<Long>> tasks;
         private Map<String, TDisk> disks;
         private Map<Long, TTablet> tablets;
+        // not null if the tablets is an incremental report
+        private Set<Long> droppedTabletIds;
         private long reportVersion;
         private List<TWorkGroup> activeWorkGroups;
 
         public ReportTask(long beId, ReportType type, Map<TTaskType, Set<Long>> tasks,
                           Map<String, TDisk> disks,
-                          Map<Long, TTablet> tablets, long reportVersion,
+                          Map<Long, TTablet> tablets, Set<Long> droppedTabletIds, long reportVersion,
                           List<TWorkGroup> activeWorkGroups) {
             this.beId = beId;
             this.type = type;
             this.tasks = tasks;
             this.disks = disks;
             this.tablets = tablets;
+            this.droppedTabletIds = droppedTabletIds;
             this.reportVersion = reportVersion;
             this.activeWorkGroups = activeWorkGroups;
         }
 
+        public boolean isIncrementalTabletReport() {
+            return tablets != null && droppedTabletIds != null;
+        }
+
+        // the result of applying this report on the pending one is a full report if the pending one is full
+        public void mergePendingTabletReport(ReportTask pending) {
+            Map<Long, TTablet> mergedTablets = Maps.newHashMap(pending.tablets);
+            mergedTablets.keySet().removeAll(droppedTabletIds);
+            mergedTablets.putAll(tablets);
+            if (pending.droppedTabletIds != null) {
+                Set<Long> mergedDroppedTabletIds = Sets.newHashSet(pending.droppedTabletIds);
+                mergedDroppedTabletIds.removeAll(tablets.keySet());
+                mergedDroppedTabletIds.addAll(droppedTabletIds);
+                droppedTabletIds = mergedDroppedTabletIds;
+            } else {
+                droppedTabletIds = null;
+            }
+            tablets = mergedTablets;
+        }
+
         @Override
         protected void exec() {
             if (tasks != null) {
@@ -295,7 +358,7 @@ public class ReportHandler extends Daemon {
                 ReportHandler.diskReport(beId, disks);
             }
             if (tablets != null) {
-                ReportHandler.tabletReport(beId, tablets, reportVersion);
+                ReportHandler.tabletReport(beId, tablets, droppedTabletIds, reportVersion);
             }
             if (activeWorkGroups != null) {
                 ReportHandler.workgroupReport(beId, activeWorkGroups);
@@ -303,10 +366,13 @@ public class ReportHandler extends Daemon {
         }
     }
 
-    private static void tabletReport(long backendId, Map<Long, TTablet> backendTablets, long backendReportVersion) {
+    private static void tabletReport(long backendId, Map<Long, TTablet> backendTablets, Set<Long> droppedTabletIds,
+                                     long backendReportVersion) {
         long start = System.currentTimeMillis();
-        LOG.info("backend[{}] reports {} tablet(s). report version: {}",
-                backendId, backendTablets.size(), backendReportVersion);
+        boolean incremental = droppedTabletIds != null;
+        LOG.info("backend[{}] reports {} tablet(s), dropped {} tablet(s). report version: {}, incremental: {}",
+                backendId, backendTablets.size(), incremental ? droppedTabletIds.size() : 0, backendReportVersion,
+                incremental);
 
         // storage medium map
         HashMap<Long, TStorageMedium> storageMediumMap =
@@ -334,7 +400,8 @@ public class ReportHandler extends Daemon {
         Set<Pair<Long, Integer>> tabletWithoutPartitionId = Sets.newHashSet();
 
         // 1. do the diff. find out (intersection) / (be - meta) / (meta - be)
-        GlobalStateMgr.getCurrentInvertedIndex().tabletReport(backendId, backendTablets, storageMediumMap,
+        GlobalStateMgr.getCurrentInvertedIndex().tabletReport(backendId, backendTablets, droppedTabletIds,
+                storageMediumMap,
                 tabletSyncMap,
                 tabletDeleteFromMeta,
                 foundTabletsWithValidSchema,
@@ -372,19 +439,30 @@ public class ReportHandler extends Daemon {
         handleSetTabletPartitionId(backendId, tabletWithoutPartitionId);
 
         // 10. send set tablet in memory to be
-        handleSetTabletInMemory(backendId, backendTablets);
+        boolean inMemoryMismatched = handleSetTabletInMemory(backendId, backendTablets);
 
         // 11. send set tablet enable persistent index to be
-        handleSetTabletEnablePersistentIndex(backendId, backendTablets);
+        boolean persistentIndexMismatched = handleSetTabletEnablePersistentIndex(backendId, backendTablets);
+
+        // 12. the tablets fixed by the tasks above may be unchanged on the backend if the tasks fail, and the
+        // tablets deleted from meta or set bad are not reported, check them all again by a full report
+        if (!tabletDeleteFromMeta.isEmpty() || foundTabletsWithValidSchema.size() < backendTablets.size()
+                || !tabletMigrationMap.isEmpty() || !tabletRecoveryMap.isEmpty() || !tabletWithoutPartitionId.isEmpty()
+                || inMemoryMismatched || persistentIndexMismatched) {
+            LOG.info("tablet report from backend[{}] has mismatched tablets, ask for a full report", backendId);
+            requestFullTabletReport(backendId);
+        }
 
+        long end = System.currentTimeMillis();
         final SystemInfoService currentSystemInfo = GlobalStateMgr.getCurrentSystemInfo();
         Backend reportBackend = currentSystemInfo.getBackend(backendId);
         if (reportBackend != null) {
             BackendStatus backendStatus = reportBackend.getBackendStatus();
             backendStatus.lastSuccessReportTabletsTime = TimeUtils.longToTimeString(start);
+            backendStatus.lastTabletReportType = incremental ? "INCREMENTAL" : "FULL";
+            backendStatus.lastTabletReportCostMs = end - start;
         }
 
-        long end = System.currentTimeMillis();
         LOG.info("tablet report from backend[{}] cost: {} ms", backendId, (end - start));
     }
 
@@ -1032,7 +1110,8 @@ public class ReportHandler extends Daemon {
         AgentTaskExecutor.submit(batchTask);
     }
 
-    private static void handleSetTabletInMemory(long backendId, Map<Long, TTablet> backendTablets) {
+    // return true if the in memory meta of some tablets mismatch
+    private static boolean handleSetTabletInMemory(long backendId, Map<Long, TTablet> backendTablets) {
         // <tablet id, tablet schema hash, tablet in memory>
         List<Triple<Long, Integer, Boolean>> tabletToInMemory = Lists.newArrayList();
 
@@ -1083,13 +1162,15 @@ public class ReportHandler extends Daemon {
             batchTask.addTask(task);
             AgentTaskExecutor.submit(batchTask);
         }
+        return !tabletToInMemory.isEmpty();
     }
 
     public static void testHandleSetTabletEnablePersistentIndex(long backendId, Map<Long, TTablet> backendTablets) {
         handleSetTabletEnablePersistentIndex(backendId, backendTablets);
     }
 
-    private static void handleSetTabletEnablePersistentIndex(long backendId, Map<Long, TTablet> backendTablets) {
+    // return true if the enable persistent index meta of some tablets mismatch
+    private static boolean handleSetTabletEnablePersistentIndex(long backendId, Map<Long, TTablet> backendTablets) {
         List<Triple<Long, Integer, Boolean>> tabletToEnablePersistentIndex = Lists.newArrayList();
 
         TabletInvertedIndex invertedIndex = GlobalStateMgr.getCurrentInvertedIndex();
@@ -1135,6 +1216,7 @@ public class ReportHandler extends Daemon {
                 AgentTaskExecutor.submit(batchTask);
             }
         }
+        return !tabletToEnablePersistentIndex.isEmpty();
     }
 
     private static void handleClearTransactions(ListMultimap<Long, Long> transactionsToClear, long backendId) {
@@ -2,15 +2,16 @@
 
 package com.starrocks.meta;
 
+import com.google.common.collect.Lists;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.ErrorCode;
 import com.starrocks.common.ErrorReport;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 // Used by sql's blacklist
@@ -22,29 +23,40 @@ public class SqlBlackList {
     }
 
     public static void verifying(String sql) throws AnalysisException {
-        for (BlackListSql patternAndId : getInstance().sqlBlackListMap.values()) {
-            Matcher m = patternAndId.pattern.matcher(sql);
-            if (m.find()) {
-                ErrorReport.reportAnalysisException(ErrorCode.ERR_SQL_IN_BLACKLIST_ERROR);
-            }
+        if (getInstance().matches(sql)) {
+            ErrorReport.reportAnalysisException(ErrorCode.ERR_SQL_IN_BLACKLIST_ERROR);
         }
     }
 
+    boolean matches(String sql) {
+        return matcher.matches(sql);
+    }
+
     // we use string of sql as key, and (pattern, id) as value.
-    public void put(Pattern pattern) {
+    public synchronized void put(Pattern pattern) {
         if (!sqlBlackListMap.containsKey(pattern.toString())) {
             long id = ids.getAndIncrement();
             sqlBlackListMap.putIfAbsent(pattern.toString(), new BlackListSql(pattern, id));
+            rebuildMatcher();
         }
     }
 
     // we delete sql's regular expression use id, so we iterate this map.
-    public void delete(long id) {
+    public synchronized void delete(long id) {
         for (Map.Entry<String, BlackListSql> entry : sqlBlackListMap.entrySet()) {
             if (entry.getValue().id == id) {
                 sqlBlackListMap.remove(entry.getKey());
             }
         }
+        rebuildMatcher();
+    }
+
+    private void rebuildMatcher() {
+        List<Pattern> patterns = Lists.newArrayList();
+        for (BlackListSql blackListSql : sqlBlackListMap.values()) {
+            patterns.add(blackListSql.pattern);
+        }
+        matcher = new SqlBlackListMatcher(patterns);
     }
 
     // sqlBlackListMap: key is String(sql), value is BlackListSql.
@@ -53,5 +65,8 @@ public class SqlBlackList {
 
     // ids used in sql blacklist
     public AtomicLong ids = new AtomicLong();
+
+    // all the patterns of sqlBlackListMap, replaced as a whole when the blacklist changes
+    private volatile SqlBlackListMatcher matcher = SqlBlackListMatcher.EMPTY;
 }
 
@@ -0,0 +1,370 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.meta;
+
+import com.google.common.collect.Lists;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Matches a sql against all the patterns of the blacklist in one pass.
+ * <p>
+ * Most of the blacklist patterns contain a literal that every matched sql must contain, e.g. "select k1 from "
+ * of "select k1 from .+". The required literals of all the patterns are compiled into an Aho-Corasick automaton,
+ * which finds all the literals contained in the sql by scanning it only once. Only the patterns whose literal is
+ * found, and the patterns without a required literal, are then matched by the regular expression, so the result
+ * is exactly the same as matching all the patterns one by one.
+ * <p>
+ * The matcher is immutable, and is rebuilt whenever the blacklist changes.
+ */
+public class SqlBlackListMatcher {
+    public static final SqlBlackListMatcher EMPTY = new SqlBlackListMatcher(Lists.newArrayList());
+
+    private final Pattern[] patterns;
+    // the patterns to match whatever the sql is
+    private final int[] uncheckedPatterns;
+
+    // the automaton, the children of a node are sorted by the chars
+    private final char[][] childChars;
+    private final int[][] children;
+    private final int[] fails;
+    // the patterns whose literal ends at the node
+    private final int[][] outputs;
+
+    public SqlBlackListMatcher(Collection<Pattern> patterns) {
+        this.patterns = patterns.toArray(new Pattern[0]);
+
+        List<Integer> unchecked = Lists.newArrayList();
+        List<TreeMap<Character, Integer>> trie = Lists.newArrayList();
+        List<List<Integer>> nodeOutputs = Lists.newArrayList();
+        trie.add(new TreeMap<>());
+        nodeOutputs.add(Lists.newArrayList());
+        for (int i = 0; i < this.patterns.length; i++) {
+            String literal = getRequiredLiteral(this.patterns[i]);
+            if (literal == null || literal.isEmpty()) {
+                unchecked.add(i);
+                continue;
+            }
+            int node = 0;
+            for (int j = 0; j < literal.length(); j++) {
+                Integer child = trie.get(node).get(literal.charAt(j));
+                if (child == null) {
+                    child = trie.size();
+                    trie.get(node).put(literal.charAt(j), child);
+                    trie.add(new TreeMap<>());
+                    nodeOutputs.add(Lists.newArrayList());
+                }
+                node = child;
+            }
+            nodeOutputs.get(node).add(i);
+        }
+        uncheckedPatterns = unchecked.stream().mapToInt(Integer::intValue).toArray();
+
+        int nodeNum = trie.size();
+        childChars = new char[nodeNum][];
+        children = new int[nodeNum][];
+        for (int node = 0; node < nodeNum; node++) {
+            TreeMap<Character, Integer> nodeChildren = trie.get(node);
+            childChars[node] = new char[nodeChildren.size()];
+            children[node] = new int[nodeChildren.size()];
+            int k = 0;
+            for (Map.Entry<Character, Integer> entry : nodeChildren.entrySet()) {
+                childChars[node][k] = entry.getKey();
+                children[node][k] = entry.getValue();
+                k++;
+            }
+        }
+
+        // build the failure links breadth first, so the outputs of the failure node are complete when merged
+        fails = new int[nodeNum];
+        outputs = new int[nodeNum][];
+        outputs[0] = new int[0];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : children[0]) {
+            fails[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            List<Integer> nodeOutput = nodeOutputs.get(node);
+            int[] merged = new int[nodeOutput.size() + outputs[fails[node]].length];
+            for (int k = 0; k < nodeOutput.size(); k++) {
+                merged[k] = nodeOutput.get(k);
+            }
+            System.arraycopy(outputs[fails[node]], 0, merged, nodeOutput.size(), outputs[fails[node]].length);
+            outputs[node] = merged;
+
+            for (int k = 0; k < children[node].length; k++) {
+                int child = children[node][k];
+                int fail = fails[node];
+                int next = step(fail, childChars[node][k]);
+                while (next < 0 && fail != 0) {
+                    fail = fails[fail];
+                    next = step(fail, childChars[node][k]);
+                }
+                fails[child] = next < 0 ? 0 : next;
+                queue.add(child);
+            }
+        }
+    }
+
+    public int size() {
+        return patterns.length;
+    }
+
+    public boolean matches(String sql) {
+        BitSet candidates = null;
+        int node = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            int next = step(node, c);
+            while (next < 0 && node != 0) {
+                node = fails[node];
+                next = step(node, c);
+            }
+            node = next < 0 ? 0 : next;
+            if (outputs[node].length > 0) {
+                if (candidates == null) {
+                    candidates = new BitSet(patterns.length);
+                }
+                for (int output : outputs[node]) {
+                    candidates.set(output);
+                }
+            }
+        }
+
+        for (int i : uncheckedPatterns) {
+            if (patterns[i].matcher(sql).find()) {
+                return true;
+            }
+        }
+        if (candidates != null) {
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (patterns[i].matcher(sql).find()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // return the child of the node by the char, or -1 if not exists
+    private int step(int node, char c) {
+        char[] chars = childChars[node];
+        int low = 0;
+        int high = chars.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (chars[mid] < c) {
+                low = mid + 1;
+            } else if (chars[mid] > c) {
+                high = mid - 1;
+            } else {
+                return children[node][mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the longest literal that every string found by the pattern must contain, or null if not sure.
+     * <p>
+     * Only the top level of the pattern is analyzed, a group, a class or any other construct simply ends the
+     * literal. The patterns with alternations, flags or the constructs not understood here have no literal, and
+     * are always matched by the regular expression.
+     */
+    static String getRequiredLiteral(Pattern pattern) {
+        if (pattern.flags() != 0) {
+            return null;
+        }
+        try {
+            return new LiteralExtractor(pattern.pattern()).extract();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static class LiteralExtractor {
+        // the escaped letters matching a char or an empty string without any argument, e.g. \d and \b
+        private static final String SIMPLE_ESCAPES = "dDwWsSbBAzZGtnrfeaRhHvVX";
+
+        private final String regex;
+        private int pos = 0;
+
+        private String longest = "";
+        private final StringBuilder current = new StringBuilder();
+
+        LiteralExtractor(String regex) {
+            this.regex = regex;
+        }
+
+        String extract() {
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos);
+                // a literal char, or -1 for any other construct
+                int literal = -1;
+                switch (c) {
+                    case '\\': {
+                        char next = charAt(pos + 1);
+                        if (!Character.isLetterOrDigit(next)) {
+                            literal = next;
+                        } else if (SIMPLE_ESCAPES.indexOf(next) < 0) {
+                            throw new IllegalArgumentException();
+                        }
+                        pos += 2;
+                        break;
+                    }
+                    case '[':
+                        pos = skipClass(pos);
+                        break;
+                    case '(':
+                        pos = skipGroup(pos);
+                        break;
+                    case '.':
+                    case '^':
+                    case '$':
+                        pos++;
+                        break;
+                    case '|':
+                    case ')':
+                    case '*':
+                    case '+':
+                    case '?':
+                    case '{':
+                        throw new IllegalArgumentException();
+                    default:
+                        literal = Character.isSurrogate(c) ? -1 : c;
+                        pos++;
+                        break;
+                }
+
+                int minRepeat = parseQuantifier();
+                if (literal < 0 || minRepeat == 0) {
+                    endLiteral();
+                } else {
+                    current.append((char) literal);
+                    // a char repeated more than once is required, but nothing following it
+                    if (minRepeat > 1) {
+                        endLiteral();
+                    }
+                }
+            }
+            endLiteral();
+            return longest;
+        }
+
+        private char charAt(int index) {
+            if (index >= regex.length()) {
+                throw new IllegalArgumentException();
+            }
+            return regex.charAt(index);
+        }
+
+        private void endLiteral() {
+            if (current.length() > longest.length()) {
+                longest = current.toString();
+            }
+            current.setLength(0);
+        }
+
+        // return 1 if no quantifier, 0 if the atom may be absent, or 2 if the atom may be repeated
+        private int parseQuantifier() {
+            if (pos >= regex.length()) {
+                return 1;
+            }
+            int minRepeat;
+            char c = regex.charAt(pos);
+            if (c == '?' || c == '*') {
+                minRepeat = 0;
+                pos++;
+            } else if (c == '+') {
+                minRepeat = 2;
+                pos++;
+            } else if (c == '{') {
+                int end = regex.indexOf('}', pos);
+                if (end < 0) {
+                    throw new IllegalArgumentException();
+                }
+                String min = regex.substring(pos + 1, end).split(",", -1)[0].trim();
+                if (min.isEmpty() || !min.chars().allMatch(Character::isDigit)) {
+                    throw new IllegalArgumentException();
+                }
+                minRepeat = Integer.parseInt(min) == 0 ? 0 : 2;
+                pos = end + 1;
+            } else {
+                return 1;
+            }
+            // lazy or possessive quantifier
+            if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+                pos++;
+            }
+            return minRepeat;
+        }
+
+        // return the position after the class starting at start
+        private int skipClass(int start) {
+            int i = start + 1;
+            if (charAt(i) == '^') {
+                i++;
+            }
+            if (charAt(i) == ']') {
+                throw new IllegalArgumentException();
+            }
+            while (true) {
+                char c = charAt(i);
+                if (c == '\\') {
+                    if (charAt(i + 1) == 'Q') {
+                        throw new IllegalArgumentException();
+                    }
+                    i += 2;
+                } else if (c == '[') {
+                    // nested classes
+                    throw new IllegalArgumentException();
+                } else if (c == ']') {
+                    return i + 1;
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        // return the position after the group starting at start
+        private int skipGroup(int start) {
+            int depth = 0;
+            int i = start;
+            while (true) {
+                char c = charAt(i);
+                if (c == '\\') {
+                    if (charAt(i + 1) == 'Q') {
+                        throw new IllegalArgumentException();
+                    }
+                    i += 2;
+                } else if (c == '[') {
+                    i = skipClass(i);
+                } else if (c == '(') {
+                    // the flags change the meaning of the literals, e.g. (?i)
+                    if (i + 1 < regex.length() && regex.charAt(i + 1) == '?' && ":=!<>".indexOf(charAt(i + 2)) < 0) {
+                        throw new IllegalArgumentException();
+                    }
+                    depth++;
+                    i++;
+                } else if (c == ')') {
+                    depth--;
+                    i++;
+                    if (depth == 0) {
+                        return i;
+                    }
+                } else {
+                    i++;
+                }
+            }
+        }
+    }
+}
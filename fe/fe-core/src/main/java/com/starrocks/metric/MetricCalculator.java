@@ -24,6 +24,7 @@ package com.starrocks.metric;
 import com.starrocks.common.Config;
 import com.starrocks.qe.QueryDetail;
 import com.starrocks.qe.QueryDetailQueue;
+import com.starrocks.server.GlobalStateMgr;
 
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -40,6 +41,7 @@ public class MetricCalculator extends TimerTask {
     private long lastRequestCounter = -1;
     private long lastQueryErrCounter = -1;
     private long lastQueryEventTime = -1;
+    private long lastTabletCloneCounter = -1;
 
     @Override
     public void run() {
@@ -54,6 +56,7 @@ public class MetricCalculator extends TimerTask {
             lastRequestCounter = MetricRepo.COUNTER_REQUEST_ALL.getValue();
             lastQueryErrCounter = MetricRepo.COUNTER_QUERY_ERR.getValue();
             lastQueryEventTime = System.currentTimeMillis() * 1000000;
+            lastTabletCloneCounter = getTabletCloneCounter();
             return;
         }
 
@@ -77,6 +80,12 @@ public class MetricCalculator extends TimerTask {
         MetricRepo.GAUGE_QUERY_ERR_RATE.setValue(errRate < 0 ? 0.0 : errRate);
         lastQueryErrCounter = currentErrCounter;
 
+        // tablet clone rate, i.e. how fast the tablets are repaired or balanced
+        long currentTabletCloneCounter = getTabletCloneCounter();
+        double cloneRate = (double) (currentTabletCloneCounter - lastTabletCloneCounter) / interval;
+        MetricRepo.GAUGE_TABLET_CLONE_PER_SECOND.setValue(cloneRate < 0 ? 0.0 : cloneRate);
+        lastTabletCloneCounter = currentTabletCloneCounter;
+
         lastTs = currentTs;
 
         // max tablet compaction score of all backends
@@ -133,4 +142,11 @@ public class MetricCalculator extends TimerTask {
             MetricRepo.updateRoutineLoadProcessMetrics();
         }
     }
+
+    private static long getTabletCloneCounter() {
+        if (GlobalStateMgr.getCurrentState().getTabletScheduler() == null) {
+            return 0L;
+        }
+        return GlobalStateMgr.getCurrentState().getTabletScheduler().getStat().counterCloneTaskSucceeded.get();
+    }
 }
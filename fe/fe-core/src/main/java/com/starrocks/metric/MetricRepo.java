@@ -30,6 +30,7 @@ import com.starrocks.alter.AlterJobV2;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.Table;
 import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.clone.TabletScheduler;
 import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.ThreadPoolManager;
@@ -48,6 +49,7 @@ import com.starrocks.monitor.jvm.JvmService;
 import com.starrocks.monitor.jvm.JvmStats;
 import com.starrocks.proto.PKafkaOffsetProxyRequest;
 import com.starrocks.proto.PKafkaOffsetProxyResult;
+import com.starrocks.qe.QueryResultCache;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.service.ExecuteEnv;
 import com.starrocks.system.Backend;
@@ -74,6 +76,7 @@ public final class MetricRepo {
 
     public static final String TABLET_NUM = "tablet_num";
     public static final String TABLET_MAX_COMPACTION_SCORE = "tablet_max_compaction_score";
+    public static final String TABLET_REPORT_LATENCY = "tablet_report_latency_ms";
 
     public static LongCounterMetric COUNTER_REQUEST_ALL;
     public static LongCounterMetric COUNTER_QUERY_ALL;
@@ -81,6 +84,10 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_QUERY_TIMEOUT;
     public static LongCounterMetric COUNTER_QUERY_SUCCESS;
     public static LongCounterMetric COUNTER_SLOW_QUERY;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_HIT;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_MISS;
+    public static LongCounterMetric COUNTER_QUERY_RESULT_CACHE_HIT;
+    public static LongCounterMetric COUNTER_QUERY_RESULT_CACHE_MISS;
     public static LongCounterMetric COUNTER_LOAD_ADD;
     public static LongCounterMetric COUNTER_LOAD_FINISHED;
     public static LongCounterMetric COUNTER_EDIT_LOG_WRITE;
@@ -96,12 +103,14 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_RECEIVED_BYTES;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_ERROR_ROWS;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_PAUSED;
+    public static LongCounterMetric COUNTER_HMS_RPC;
 
     public static Histogram HISTO_QUERY_LATENCY;
     public static Histogram HISTO_EDIT_LOG_WRITE_LATENCY;
     public static Histogram HISTO_JOURNAL_WRITE_LATENCY;
     public static Histogram HISTO_JOURNAL_WRITE_BATCH;
     public static Histogram HISTO_JOURNAL_WRITE_BYTES;
+    public static Histogram HISTO_JOURNAL_COMMIT_LATENCY;
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -117,6 +126,7 @@ public final class MetricRepo {
     public static GaugeMetricImpl<Double> GAUGE_QUERY_LATENCY_P999;
     public static GaugeMetricImpl<Long> GAUGE_MAX_TABLET_COMPACTION_SCORE;
     public static GaugeMetricImpl<Long> GAUGE_STACKED_JOURNAL_NUM;
+    public static GaugeMetricImpl<Double> GAUGE_TABLET_CLONE_PER_SECOND;
 
     public static List<GaugeMetricImpl<Long>> GAUGE_ROUTINE_LOAD_LAGS;
 
@@ -220,6 +230,24 @@ public final class MetricRepo {
         };
         STARROCKS_METRIC_REGISTER.addMetric(metaLogCount);
 
+        // query result cache
+        GaugeMetric<Double> queryResultCacheHitRatio = new GaugeMetric<Double>(
+                "query_result_cache_hit_ratio", MetricUnit.PERCENT, "hit ratio of query result cache") {
+            @Override
+            public Double getValue() {
+                return QueryResultCache.getInstance().hitRatio();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(queryResultCacheHitRatio);
+        GaugeMetric<Long> queryResultCacheBytes = new GaugeMetric<Long>(
+                "query_result_cache_bytes", MetricUnit.BYTES, "memory used by query result cache") {
+            @Override
+            public Long getValue() {
+                return QueryResultCache.getInstance().usedBytes();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(queryResultCacheBytes);
+
         // scheduled tablet num
         GaugeMetric<Long> scheduledTabletNum = (GaugeMetric<Long>) new GaugeMetric<Long>(
                 "scheduled_tablet_num", MetricUnit.NOUNIT, "number of tablets being scheduled") {
@@ -233,6 +261,24 @@ public final class MetricRepo {
         };
         STARROCKS_METRIC_REGISTER.addMetric(scheduledTabletNum);
 
+        // pending and running tablets of tablet scheduler
+        for (String state : new String[] {"pending", "running"}) {
+            GaugeMetric<Long> gauge = new GaugeMetric<Long>("tablet_sched_tablet_num",
+                    MetricUnit.NOUNIT, "number of tablets pending or running in tablet scheduler") {
+                @Override
+                public Long getValue() {
+                    if (!GlobalStateMgr.getCurrentState().isLeader()) {
+                        return 0L;
+                    }
+                    TabletScheduler tabletScheduler = GlobalStateMgr.getCurrentState().getTabletScheduler();
+                    return (long) (state.equals("pending") ? tabletScheduler.getPendingNum() :
+                            tabletScheduler.getRunningNum());
+                }
+            };
+            gauge.addLabel(new MetricLabel("state", state));
+            STARROCKS_METRIC_REGISTER.addMetric(gauge);
+        }
+
         // routine load jobs
         RoutineLoadManager routineLoadManger = GlobalStateMgr.getCurrentState().getRoutineLoadManager();
         for (RoutineLoadJob.JobState state : RoutineLoadJob.JobState.values()) {
@@ -264,6 +310,11 @@ public final class MetricRepo {
         GAUGE_QUERY_ERR_RATE.setValue(0.0);
         STARROCKS_METRIC_REGISTER.addMetric(GAUGE_QUERY_ERR_RATE);
 
+        GAUGE_TABLET_CLONE_PER_SECOND = new GaugeMetricImpl<>("tablet_sched_clone_per_second",
+                MetricUnit.NOUNIT, "clone tasks of tablet scheduler finished successfully per second");
+        GAUGE_TABLET_CLONE_PER_SECOND.setValue(0.0);
+        STARROCKS_METRIC_REGISTER.addMetric(GAUGE_TABLET_CLONE_PER_SECOND);
+
         GAUGE_MAX_TABLET_COMPACTION_SCORE = new GaugeMetricImpl<>("max_tablet_compaction_score",
                 MetricUnit.NOUNIT, "max tablet compaction score of all backends");
         GAUGE_MAX_TABLET_COMPACTION_SCORE.setValue(0L);
@@ -327,6 +378,18 @@ public final class MetricRepo {
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_TIMEOUT);
         COUNTER_QUERY_SUCCESS = new LongCounterMetric("query_success", MetricUnit.REQUESTS, "total success query");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_SUCCESS);
+        COUNTER_PLAN_CACHE_HIT = new LongCounterMetric("plan_cache_hit", MetricUnit.REQUESTS,
+                "total query plans found in plan cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_HIT);
+        COUNTER_PLAN_CACHE_MISS = new LongCounterMetric("plan_cache_miss", MetricUnit.REQUESTS,
+                "total cacheable query plans not found in plan cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_MISS);
+        COUNTER_QUERY_RESULT_CACHE_HIT = new LongCounterMetric("query_result_cache_hit", MetricUnit.REQUESTS,
+                "total query results found in query result cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_RESULT_CACHE_HIT);
+        COUNTER_QUERY_RESULT_CACHE_MISS = new LongCounterMetric("query_result_cache_miss", MetricUnit.REQUESTS,
+                "total cacheable query results not found in query result cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_RESULT_CACHE_MISS);
         COUNTER_SLOW_QUERY = new LongCounterMetric("slow_query", MetricUnit.REQUESTS, "total slow query");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_SLOW_QUERY);
         COUNTER_LOAD_ADD = new LongCounterMetric("load_add", MetricUnit.REQUESTS, "total load submit");
@@ -371,6 +434,9 @@ public final class MetricRepo {
         COUNTER_ROUTINE_LOAD_ERROR_ROWS = new LongCounterMetric("routine_load_error_rows", MetricUnit.ROWS,
                 "total error rows of routine load");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_ROUTINE_LOAD_ERROR_ROWS);
+        COUNTER_HMS_RPC = new LongCounterMetric("hms_rpc_total", MetricUnit.REQUESTS,
+                "total rpc sent to hive metastore");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_HMS_RPC);
 
         // 3. histogram
         HISTO_QUERY_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("query", "latency", "ms"));
@@ -382,6 +448,8 @@ public final class MetricRepo {
                 METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "batch"));
         HISTO_JOURNAL_WRITE_BYTES =
                 METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "bytes"));
+        HISTO_JOURNAL_COMMIT_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("journal", "commit", "latency", "ms"));
 
         // init system metrics
         initSystemMetrics();
@@ -447,6 +515,7 @@ public final class MetricRepo {
         // remove all previous 'tablet' metric
         STARROCKS_METRIC_REGISTER.removeMetrics(TABLET_NUM);
         STARROCKS_METRIC_REGISTER.removeMetrics(TABLET_MAX_COMPACTION_SCORE);
+        STARROCKS_METRIC_REGISTER.removeMetrics(TABLET_REPORT_LATENCY);
 
         SystemInfoService infoService = GlobalStateMgr.getCurrentSystemInfo();
         TabletInvertedIndex invertedIndex = GlobalStateMgr.getCurrentInvertedIndex();
@@ -486,9 +555,42 @@ public final class MetricRepo {
             tabletMaxCompactionScore.addLabel(new MetricLabel("backend", be.getHost() + ":" + be.getHeartbeatPort()));
             STARROCKS_METRIC_REGISTER.addMetric(tabletMaxCompactionScore);
 
+            // time cost of handling the last tablet report of each backends
+            GaugeMetric<Long> tabletReportLatency = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                    TABLET_REPORT_LATENCY, MetricUnit.MILLISECONDS,
+                    "time cost of handling the last tablet report") {
+                @Override
+                public Long getValue() {
+                    if (!GlobalStateMgr.getCurrentState().isLeader()) {
+                        return 0L;
+                    }
+                    return be.getBackendStatus().lastTabletReportCostMs;
+                }
+            };
+            tabletReportLatency.addLabel(new MetricLabel("backend", be.getHost() + ":" + be.getHeartbeatPort()));
+            STARROCKS_METRIC_REGISTER.addMetric(tabletReportLatency);
+
         } // end for backends
     }
 
+    // the latency of writing or loading a section of the image, op is write or load
+    public static void updateImageSectionLatency(String section, String op, long latencyMs) {
+        if (!isInit) {
+            return;
+        }
+        METRIC_REGISTER.histogram(MetricRegistry.name("image", "section", op, section, "latency", "ms"))
+                .update(latencyMs);
+    }
+
+    // the rpc sent to hive metastore, method is the name of the metastore client method called
+    public static void updateHmsRpcMetrics(String method, long latencyMs) {
+        if (!isInit) {
+            return;
+        }
+        COUNTER_HMS_RPC.increase(1L);
+        METRIC_REGISTER.histogram(MetricRegistry.name("hms", "rpc", method, "latency", "ms")).update(latencyMs);
+    }
+
     public static void updateRoutineLoadProcessMetrics() {
         List<RoutineLoadJob> jobs = GlobalStateMgr.getCurrentState().getRoutineLoadManager().getRoutineLoadJobByState(
                 Sets.newHashSet(RoutineLoadJob.JobState.NEED_SCHEDULE, RoutineLoadJob.JobState.RUNNING));
@@ -569,6 +671,16 @@ public final class MetricRepo {
         if (!isInit) {
             return "";
         }
+        visitMetrics(visitor, collectTableMetrics, minifyTableMetrics);
+        return visitor.build();
+    }
+
+    // visit all the metrics without building the result, for the visitor streaming the metrics by itself
+    public static synchronized void visitMetrics(MetricVisitor visitor, boolean collectTableMetrics,
+                                                 boolean minifyTableMetrics) {
+        if (!isInit) {
+            return;
+        }
 
         // update the metrics first
         updateMetrics();
@@ -602,7 +714,6 @@ public final class MetricRepo {
 
         // node info
         visitor.getNodeInfo();
-        return visitor.build();
     }
 
     // update some metrics to make a ready to be visited
@@ -23,7 +23,6 @@ package com.starrocks.metric;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Snapshot;
-import com.google.common.base.Joiner;
 import com.starrocks.monitor.jvm.JvmStats;
 import com.starrocks.monitor.jvm.JvmStats.BufferPool;
 import com.starrocks.monitor.jvm.JvmStats.GarbageCollector;
@@ -31,17 +30,29 @@ import com.starrocks.monitor.jvm.JvmStats.MemoryPool;
 import com.starrocks.monitor.jvm.JvmStats.Threads;
 import com.starrocks.server.GlobalStateMgr;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /*
  * Like this:
  * # HELP starrocks_fe_job_load_broker_cost_ms starrocks_fe_job_load_broker_cost_ms
  * # TYPE starrocks_fe_job_load_broker_cost_ms gauge
  * starrocks_fe_job{job="load", type="mini", state="pending"} 0
+ *
+ * The metrics are encoded in utf-8 directly into a small buffer, which is written to the output stream whenever
+ * it is full, so a scrape of a lot of table metrics can be streamed to the client without building the whole
+ * text in memory. The metric names and label keys are encoded only once and shared by all the scrapes.
  */
 public class PrometheusMetricVisitor extends MetricVisitor {
     // jvm
@@ -53,59 +64,82 @@ public class PrometheusMetricVisitor extends MetricVisitor {
     private static final String JVM_YOUNG_GC = "jvm_young_gc";
     private static final String JVM_OLD_GC = "jvm_old_gc";
     private static final String JVM_THREAD = "jvm_thread";
+    private static final String NODE_INFO = "node_info";
 
     private static final String HELP = "# HELP ";
     private static final String TYPE = "# TYPE ";
 
-    private StringBuilder sb;
-    private Set<String> metricNames = new HashSet();
+    private static final int BUFFER_SIZE = 8192;
+
+    // prefix -> metric name -> encoded full name of the metric
+    private static final ConcurrentMap<String, ConcurrentMap<String, byte[]>> ENCODED_NAMES =
+            new ConcurrentHashMap<>();
+    // label key -> encoded `key="`
+    private static final ConcurrentMap<String, byte[]> ENCODED_LABEL_KEYS = new ConcurrentHashMap<>();
+
+    private final OutputStream out;
+    // the metrics built in memory, or null if written to the output stream given by the caller
+    private final ByteArrayOutputStream builtOut;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPos = 0;
+
+    // the full names of the metric families to visit, or null for all
+    private final Set<String> families;
+    // metric name -> whether the metric family is visited
+    private final Map<String, Boolean> visitedNames = new HashMap<>();
+    private final ConcurrentMap<String, byte[]> encodedNames;
+    private final Set<String> metricNames = new HashSet<>();
 
     public PrometheusMetricVisitor(String prefix) {
         super(prefix);
-        sb = new StringBuilder();
+        this.builtOut = new ByteArrayOutputStream();
+        this.out = builtOut;
+        this.families = null;
+        this.encodedNames = ENCODED_NAMES.computeIfAbsent(prefix, k -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Write the metrics to the output stream while visiting them, only the metric families in families are
+     * written if it is not null.
+     */
+    public PrometheusMetricVisitor(String prefix, OutputStream out, Set<String> families) {
+        super(prefix);
+        this.builtOut = null;
+        this.out = out;
+        this.families = families;
+        this.encodedNames = ENCODED_NAMES.computeIfAbsent(prefix, k -> new ConcurrentHashMap<>());
     }
 
     @Override
     public void visitJvm(JvmStats jvmStats) {
         // heap
-        sb.append(Joiner.on(" ").join(HELP, JVM_HEAP_SIZE_BYTES, "jvm heap stat\n"));
-        sb.append(Joiner.on(" ").join(TYPE, JVM_HEAP_SIZE_BYTES, "gauge\n"));
-        sb.append(JVM_HEAP_SIZE_BYTES).append("{type=\"max\"} ").append(jvmStats.getMem().getHeapMax().getBytes())
-                .append("\n");
-        sb.append(JVM_HEAP_SIZE_BYTES).append("{type=\"committed\"} ")
-                .append(jvmStats.getMem().getHeapCommitted().getBytes()).append("\n");
-        sb.append(JVM_HEAP_SIZE_BYTES).append("{type=\"used\"} ").append(jvmStats.getMem().getHeapUsed().getBytes())
-                .append("\n");
+        if (isVisited(JVM_HEAP_SIZE_BYTES)) {
+            appendJvmHeader(JVM_HEAP_SIZE_BYTES, "jvm heap stat");
+            appendJvmValue(JVM_HEAP_SIZE_BYTES, "max", jvmStats.getMem().getHeapMax().getBytes());
+            appendJvmValue(JVM_HEAP_SIZE_BYTES, "committed", jvmStats.getMem().getHeapCommitted().getBytes());
+            appendJvmValue(JVM_HEAP_SIZE_BYTES, "used", jvmStats.getMem().getHeapUsed().getBytes());
+        }
         // non heap
-        sb.append(Joiner.on(" ").join(HELP, JVM_NON_HEAP_SIZE_BYTES, "jvm non heap stat\n"));
-        sb.append(Joiner.on(" ").join(TYPE, JVM_NON_HEAP_SIZE_BYTES, "gauge\n"));
-        sb.append(JVM_NON_HEAP_SIZE_BYTES).append("{type=\"committed\"} ")
-                .append(jvmStats.getMem().getNonHeapCommitted().getBytes()).append("\n");
-        sb.append(JVM_NON_HEAP_SIZE_BYTES).append("{type=\"used\"} ")
-                .append(jvmStats.getMem().getNonHeapUsed().getBytes()).append("\n");
+        if (isVisited(JVM_NON_HEAP_SIZE_BYTES)) {
+            appendJvmHeader(JVM_NON_HEAP_SIZE_BYTES, "jvm non heap stat");
+            appendJvmValue(JVM_NON_HEAP_SIZE_BYTES, "committed", jvmStats.getMem().getNonHeapCommitted().getBytes());
+            appendJvmValue(JVM_NON_HEAP_SIZE_BYTES, "used", jvmStats.getMem().getNonHeapUsed().getBytes());
+        }
 
         // mem pool
         Iterator<MemoryPool> memIter = jvmStats.getMem().iterator();
         while (memIter.hasNext()) {
             MemoryPool memPool = memIter.next();
-            if (memPool.getName().equalsIgnoreCase("young")) {
-                sb.append(Joiner.on(" ").join(HELP, JVM_YOUNG_SIZE_BYTES, "jvm young mem pool stat\n"));
-                sb.append(Joiner.on(" ").join(TYPE, JVM_YOUNG_SIZE_BYTES, "gauge\n"));
-                sb.append(JVM_YOUNG_SIZE_BYTES).append("{type=\"used\"} ").append(memPool.getUsed().getBytes())
-                        .append("\n");
-                sb.append(JVM_YOUNG_SIZE_BYTES).append("{type=\"peak_used\"} ").append(memPool.getPeakUsed().getBytes())
-                        .append("\n");
-                sb.append(JVM_YOUNG_SIZE_BYTES).append("{type=\"max\"} ").append(memPool.getMax().getBytes())
-                        .append("\n");
-            } else if (memPool.getName().equalsIgnoreCase("old")) {
-                sb.append(Joiner.on(" ").join(HELP, JVM_OLD_SIZE_BYTES, "jvm old mem pool stat\n"));
-                sb.append(Joiner.on(" ").join(TYPE, JVM_OLD_SIZE_BYTES, "gauge\n"));
-                sb.append(JVM_OLD_SIZE_BYTES).append("{type=\"used\"} ").append(memPool.getUsed().getBytes())
-                        .append("\n");
-                sb.append(JVM_OLD_SIZE_BYTES).append("{type=\"peak_used\"} ").append(memPool.getPeakUsed().getBytes())
-                        .append("\n");
-                sb.append(JVM_OLD_SIZE_BYTES).append("{type=\"max\"} ").append(memPool.getMax().getBytes())
-                        .append("\n");
+            if (memPool.getName().equalsIgnoreCase("young") && isVisited(JVM_YOUNG_SIZE_BYTES)) {
+                appendJvmHeader(JVM_YOUNG_SIZE_BYTES, "jvm young mem pool stat");
+                appendJvmValue(JVM_YOUNG_SIZE_BYTES, "used", memPool.getUsed().getBytes());
+                appendJvmValue(JVM_YOUNG_SIZE_BYTES, "peak_used", memPool.getPeakUsed().getBytes());
+                appendJvmValue(JVM_YOUNG_SIZE_BYTES, "max", memPool.getMax().getBytes());
+            } else if (memPool.getName().equalsIgnoreCase("old") && isVisited(JVM_OLD_SIZE_BYTES)) {
+                appendJvmHeader(JVM_OLD_SIZE_BYTES, "jvm old mem pool stat");
+                appendJvmValue(JVM_OLD_SIZE_BYTES, "used", memPool.getUsed().getBytes());
+                appendJvmValue(JVM_OLD_SIZE_BYTES, "peak_used", memPool.getPeakUsed().getBytes());
+                appendJvmValue(JVM_OLD_SIZE_BYTES, "max", memPool.getMax().getBytes());
             }
         }
 
@@ -113,16 +147,11 @@ public class PrometheusMetricVisitor extends MetricVisitor {
         Iterator<BufferPool> poolIter = jvmStats.getBufferPools().iterator();
         while (poolIter.hasNext()) {
             BufferPool pool = poolIter.next();
-            if (pool.getName().equalsIgnoreCase("direct")) {
-                sb.append(Joiner.on(" ").join(HELP, JVM_DIRECT_BUFFER_POOL_SIZE_BYTES,
-                        "jvm direct buffer pool stat\n"));
-                sb.append(Joiner.on(" ").join(TYPE, JVM_DIRECT_BUFFER_POOL_SIZE_BYTES, "gauge\n"));
-                sb.append(JVM_DIRECT_BUFFER_POOL_SIZE_BYTES).append("{type=\"count\"} ").append(pool.getCount())
-                        .append("\n");
-                sb.append(JVM_DIRECT_BUFFER_POOL_SIZE_BYTES).append("{type=\"used\"} ")
-                        .append(pool.getUsed().getBytes()).append("\n");
-                sb.append(JVM_DIRECT_BUFFER_POOL_SIZE_BYTES).append("{type=\"capacity\"} ")
-                        .append(pool.getTotalCapacity().getBytes()).append("\n");
+            if (pool.getName().equalsIgnoreCase("direct") && isVisited(JVM_DIRECT_BUFFER_POOL_SIZE_BYTES)) {
+                appendJvmHeader(JVM_DIRECT_BUFFER_POOL_SIZE_BYTES, "jvm direct buffer pool stat");
+                appendJvmValue(JVM_DIRECT_BUFFER_POOL_SIZE_BYTES, "count", pool.getCount());
+                appendJvmValue(JVM_DIRECT_BUFFER_POOL_SIZE_BYTES, "used", pool.getUsed().getBytes());
+                appendJvmValue(JVM_DIRECT_BUFFER_POOL_SIZE_BYTES, "capacity", pool.getTotalCapacity().getBytes());
             }
         }
 
@@ -130,102 +159,217 @@ public class PrometheusMetricVisitor extends MetricVisitor {
         Iterator<GarbageCollector> gcIter = jvmStats.getGc().iterator();
         while (gcIter.hasNext()) {
             GarbageCollector gc = gcIter.next();
-            if (gc.getName().equalsIgnoreCase("young")) {
-                sb.append(Joiner.on(" ").join(HELP, JVM_YOUNG_GC, "jvm young gc stat\n"));
-                sb.append(Joiner.on(" ").join(TYPE, JVM_YOUNG_GC, "gauge\n"));
-                sb.append(JVM_YOUNG_GC).append("{type=\"count\"} ").append(gc.getCollectionCount()).append("\n");
-                sb.append(JVM_YOUNG_GC).append("{type=\"time\"} ").append(gc.getCollectionTime().getMillis())
-                        .append("\n");
-            } else if (gc.getName().equalsIgnoreCase("old")) {
-                sb.append(Joiner.on(" ").join(HELP, JVM_OLD_GC, "jvm old gc stat\n"));
-                sb.append(Joiner.on(" ").join(TYPE, JVM_OLD_GC, "gauge\n"));
-                sb.append(JVM_OLD_GC).append("{type=\"count\"} ").append(gc.getCollectionCount()).append("\n");
-                sb.append(JVM_OLD_GC).append("{type=\"time\"} ").append(gc.getCollectionTime().getMillis())
-                        .append("\n");
+            if (gc.getName().equalsIgnoreCase("young") && isVisited(JVM_YOUNG_GC)) {
+                appendJvmHeader(JVM_YOUNG_GC, "jvm young gc stat");
+                appendJvmValue(JVM_YOUNG_GC, "count", gc.getCollectionCount());
+                appendJvmValue(JVM_YOUNG_GC, "time", gc.getCollectionTime().getMillis());
+            } else if (gc.getName().equalsIgnoreCase("old") && isVisited(JVM_OLD_GC)) {
+                appendJvmHeader(JVM_OLD_GC, "jvm old gc stat");
+                appendJvmValue(JVM_OLD_GC, "count", gc.getCollectionCount());
+                appendJvmValue(JVM_OLD_GC, "time", gc.getCollectionTime().getMillis());
             }
         }
 
         // threads
-        Threads threads = jvmStats.getThreads();
-        sb.append(Joiner.on(" ").join(HELP, JVM_THREAD, "jvm thread stat\n"));
-        sb.append(Joiner.on(" ").join(TYPE, JVM_THREAD, "gauge\n"));
-        sb.append(JVM_THREAD).append("{type=\"count\"} ").append(threads.getCount()).append("\n");
-        sb.append(JVM_THREAD).append("{type=\"peak_count\"} ").append(threads.getPeakCount()).append("\n");
-        return;
+        if (isVisited(JVM_THREAD)) {
+            Threads threads = jvmStats.getThreads();
+            appendJvmHeader(JVM_THREAD, "jvm thread stat");
+            appendJvmValue(JVM_THREAD, "count", threads.getCount());
+            appendJvmValue(JVM_THREAD, "peak_count", threads.getPeakCount());
+        }
+    }
+
+    private void appendJvmHeader(String name, String help) {
+        append(HELP).append(" ").append(name).append(" ").append(help).append("\n");
+        append(TYPE).append(" ").append(name).append(" gauge\n");
+    }
+
+    private void appendJvmValue(String name, String type, long value) {
+        append(name).append("{type=\"").append(type).append("\"} ").append(value).append("\n");
     }
 
     @Override
     public void visit(@SuppressWarnings("rawtypes") Metric metric) {
+        final String name = metric.getName();
+        Boolean visited = visitedNames.get(name);
+        if (visited == null) {
+            visited = isVisited(prefix + "_" + name);
+            visitedNames.put(name, visited);
+        }
+        if (!visited) {
+            return;
+        }
+
         // title
-        final String fullName = prefix + "_" + metric.getName();
+        byte[] fullName = encodedNames.computeIfAbsent(name, k -> encode(prefix + "_" + k));
         // SR-57 : Fix prometheus parse error : 'second HELP line for metric name ..'
-        if (!metricNames.contains(fullName)) {
-            sb.append(HELP).append(fullName).append(" ").append(metric.getDescription()).append("\n");
-            sb.append(TYPE).append(fullName).append(" ").append(metric.getType().name().toLowerCase()).append("\n");
-            metricNames.add(fullName);
+        if (metricNames.add(name)) {
+            append(HELP).append(fullName).append(" ").append(metric.getDescription()).append("\n");
+            append(TYPE).append(fullName).append(" ").append(metric.getType().name().toLowerCase()).append("\n");
         }
-        sb.append(fullName);
+        append(fullName);
 
         // name
         @SuppressWarnings("unchecked")
         List<MetricLabel> labels = metric.getLabels();
         if (!labels.isEmpty()) {
-            sb.append("{");
-            List<String> labelStrs = labels.stream().map(l -> l.getKey() + "=\"" + l.getValue()
-                    + "\"").collect(Collectors.toList());
-            sb.append(Joiner.on(", ").join(labelStrs));
-            sb.append("}");
+            append("{");
+            for (int i = 0; i < labels.size(); i++) {
+                MetricLabel label = labels.get(i);
+                if (i > 0) {
+                    append(", ");
+                }
+                append(ENCODED_LABEL_KEYS.computeIfAbsent(label.getKey(), k -> encode(k + "=\"")))
+                        .append(label.getValue()).append("\"");
+            }
+            append("}");
         }
 
         // value
-        sb.append(" ").append(metric.getValue().toString()).append("\n");
-        return;
+        Object value = metric.getValue();
+        append(" ");
+        if (value instanceof Long || value instanceof Integer) {
+            append(((Number) value).longValue());
+        } else {
+            append(String.valueOf(value));
+        }
+        append("\n");
     }
 
     @Override
     public void visitHistogram(String name, Histogram histogram) {
         final String fullName = prefix + "_" + name.replaceAll("\\.", "_");
-        sb.append(HELP).append(fullName).append(" ").append("\n");
-        sb.append(TYPE).append(fullName).append(" ").append("summary\n");
+        if (!isVisited(fullName)) {
+            return;
+        }
+        append(HELP).append(fullName).append(" ").append("\n");
+        append(TYPE).append(fullName).append(" ").append("summary\n");
 
         Snapshot snapshot = histogram.getSnapshot();
-        sb.append(fullName).append("{quantile=\"0.75\"} ").append(snapshot.get75thPercentile()).append("\n");
-        sb.append(fullName).append("{quantile=\"0.95\"} ").append(snapshot.get95thPercentile()).append("\n");
-        sb.append(fullName).append("{quantile=\"0.98\"} ").append(snapshot.get98thPercentile()).append("\n");
-        sb.append(fullName).append("{quantile=\"0.99\"} ").append(snapshot.get99thPercentile()).append("\n");
-        sb.append(fullName).append("{quantile=\"0.999\"} ").append(snapshot.get999thPercentile()).append("\n");
-        sb.append(fullName).append("_sum ").append(histogram.getCount() * snapshot.getMean()).append("\n");
-        sb.append(fullName).append("_count ").append(histogram.getCount()).append("\n");
-        return;
+        append(fullName).append("{quantile=\"0.75\"} ").append(snapshot.get75thPercentile()).append("\n");
+        append(fullName).append("{quantile=\"0.95\"} ").append(snapshot.get95thPercentile()).append("\n");
+        append(fullName).append("{quantile=\"0.98\"} ").append(snapshot.get98thPercentile()).append("\n");
+        append(fullName).append("{quantile=\"0.99\"} ").append(snapshot.get99thPercentile()).append("\n");
+        append(fullName).append("{quantile=\"0.999\"} ").append(snapshot.get999thPercentile()).append("\n");
+        append(fullName).append("_sum ").append(histogram.getCount() * snapshot.getMean()).append("\n");
+        append(fullName).append("_count ").append(histogram.getCount()).append("\n");
     }
 
     @Override
     public void getNodeInfo() {
-        final String NODE_INFO = "node_info";
-        sb.append(Joiner.on(" ").join(TYPE, NODE_INFO, "gauge\n"));
-        sb.append(NODE_INFO).append("{type=\"fe_node_num\", state=\"total\"} ")
+        if (!isVisited(NODE_INFO)) {
+            return;
+        }
+        append(TYPE).append(" ").append(NODE_INFO).append(" gauge\n");
+        append(NODE_INFO).append("{type=\"fe_node_num\", state=\"total\"} ")
                 .append(GlobalStateMgr.getCurrentState().getFrontends(null).size()).append("\n");
-        sb.append(NODE_INFO).append("{type=\"be_node_num\", state=\"total\"} ")
+        append(NODE_INFO).append("{type=\"be_node_num\", state=\"total\"} ")
                 .append(GlobalStateMgr.getCurrentSystemInfo().getTotalBackendNumber()).append("\n");
-        sb.append(NODE_INFO).append("{type=\"be_node_num\", state=\"alive\"} ")
+        append(NODE_INFO).append("{type=\"be_node_num\", state=\"alive\"} ")
                 .append(GlobalStateMgr.getCurrentSystemInfo().getAliveBackendNumber()).append("\n");
-        sb.append(NODE_INFO).append("{type=\"be_node_num\", state=\"decommissioned\"} ")
+        append(NODE_INFO).append("{type=\"be_node_num\", state=\"decommissioned\"} ")
                 .append(GlobalStateMgr.getCurrentSystemInfo().getDecommissionedBackendIds().size()).append("\n");
-        sb.append(NODE_INFO).append("{type=\"broker_node_num\", state=\"dead\"} ").append(
+        append(NODE_INFO).append("{type=\"broker_node_num\", state=\"dead\"} ").append(
                         GlobalStateMgr.getCurrentState().getBrokerMgr().getAllBrokers().stream().filter(b -> !b.isAlive)
                                 .count())
                 .append("\n");
 
         // only master FE has this metrics, to help the Grafana knows who is the leader
         if (GlobalStateMgr.getCurrentState().isLeader()) {
-            sb.append(NODE_INFO).append("{type=\"is_master\"} ").append(1).append("\n");
+            append(NODE_INFO).append("{type=\"is_master\"} ").append(1).append("\n");
         }
-        return;
     }
 
+    /**
+     * Write the remaining metrics to the output stream, and return the text of all the metrics if they are not
+     * written to an output stream given by the caller.
+     */
     @Override
     public String build() {
-        return sb.toString();
+        flushBuffer();
+        return builtOut == null ? "" : new String(builtOut.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private boolean isVisited(String family) {
+        return families == null || families.contains(family);
+    }
+
+    private static byte[] encode(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private PrometheusMetricVisitor append(byte[] bytes) {
+        if (bytes.length > buffer.length - bufferPos) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                writeOut(bytes, bytes.length);
+                return this;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, bufferPos, bytes.length);
+        bufferPos += bytes.length;
+        return this;
+    }
+
+    private PrometheusMetricVisitor append(String str) {
+        if (str == null) {
+            str = "null";
+        }
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (c >= 0x80) {
+                // not ascii, rarely happens
+                return append(encode(str.substring(i)));
+            }
+            if (bufferPos == buffer.length) {
+                flushBuffer();
+            }
+            buffer[bufferPos++] = (byte) c;
+        }
+        return this;
+    }
+
+    private PrometheusMetricVisitor append(long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return append(Long.toString(value));
+            }
+            append("-");
+            value = -value;
+        }
+        // at most 19 digits
+        if (buffer.length - bufferPos < 19) {
+            flushBuffer();
+        }
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        for (int i = bufferPos + digits - 1; i >= bufferPos; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        bufferPos += digits;
+        return this;
+    }
+
+    private PrometheusMetricVisitor append(double value) {
+        return append(Double.toString(value));
     }
-}
 
+    private void flushBuffer() {
+        if (bufferPos > 0) {
+            writeOut(buffer, bufferPos);
+            bufferPos = 0;
+        }
+    }
+
+    private void writeOut(byte[] bytes, int length) {
+        try {
+            out.write(bytes, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.mysql;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Convert a row of the text protocol (ProtocolText::ResultsetRow) to the binary protocol
+ * (ProtocolBinary::ResultsetRow), which is required by the result set of COM_STMT_EXECUTE.
+ * See https://dev.mysql.com/doc/internals/en/binary-protocol-resultset-row.html
+ * <p>
+ * The column types must be the same as the types sent in the column definitions.
+ */
+public class MysqlBinaryRowConverter {
+    private static final int NULL_VALUE = 251;
+    // the first two bits of the null bitmap are reserved in the binary result set row
+    private static final int NULL_BITMAP_OFFSET = 2;
+
+    public static ByteBuffer convert(MysqlSerializer serializer, ByteBuffer textRow, List<MysqlColType> columnTypes) {
+        ByteBuffer row = textRow.duplicate();
+        int numColumns = columnTypes.size();
+        byte[][] values = new byte[numColumns][];
+        byte[] nullBitmap = new byte[(numColumns + 7 + NULL_BITMAP_OFFSET) / 8];
+        for (int i = 0; i < numColumns; i++) {
+            if ((row.get(row.position()) & 0xFF) == NULL_VALUE) {
+                row.get();
+                int bit = i + NULL_BITMAP_OFFSET;
+                nullBitmap[bit / 8] |= (byte) (1 << (bit % 8));
+            } else {
+                values[i] = MysqlProto.readLenEncodedString(row);
+            }
+        }
+
+        serializer.reset();
+        // packet header
+        serializer.writeInt1(0x00);
+        serializer.writeBytes(nullBitmap);
+        for (int i = 0; i < numColumns; i++) {
+            if (values[i] != null) {
+                writeValue(serializer, columnTypes.get(i), new String(values[i], StandardCharsets.UTF_8), values[i]);
+            }
+        }
+        return serializer.toByteBuffer();
+    }
+
+    private static void writeValue(MysqlSerializer serializer, MysqlColType type, String text, byte[] bytes) {
+        switch (type) {
+            case MYSQL_TYPE_TINY:
+                serializer.writeInt1((int) parseLong(text));
+                break;
+            case MYSQL_TYPE_SHORT:
+            case MYSQL_TYPE_YEAR:
+                serializer.writeInt2((int) parseLong(text));
+                break;
+            case MYSQL_TYPE_LONG:
+            case MYSQL_TYPE_INT24:
+                serializer.writeInt4((int) parseLong(text));
+                break;
+            case MYSQL_TYPE_LONGLONG:
+                serializer.writeInt8(parseLong(text));
+                break;
+            case MYSQL_TYPE_FLOAT:
+                serializer.writeInt4(Float.floatToIntBits((float) parseDouble(text)));
+                break;
+            case MYSQL_TYPE_DOUBLE:
+                serializer.writeInt8(Double.doubleToLongBits(parseDouble(text)));
+                break;
+            case MYSQL_TYPE_DATE:
+            case MYSQL_TYPE_DATETIME:
+            case MYSQL_TYPE_TIMESTAMP:
+                writeDatetime(serializer, text);
+                break;
+            case MYSQL_TYPE_TIME:
+                writeTime(serializer, text);
+                break;
+            default:
+                // decimal, string and all the other types are length encoded strings in both protocols
+                serializer.writeVInt(bytes.length);
+                serializer.writeBytes(bytes);
+                break;
+        }
+    }
+
+    private static long parseLong(String text) {
+        // boolean is sent as tinyint
+        if (text.equalsIgnoreCase("true")) {
+            return 1;
+        } else if (text.equalsIgnoreCase("false")) {
+            return 0;
+        }
+        return Long.parseLong(text);
+    }
+
+    private static double parseDouble(String text) {
+        switch (text.toLowerCase()) {
+            case "inf":
+            case "infinity":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+            case "-infinity":
+                return Double.NEGATIVE_INFINITY;
+            case "nan":
+                return Double.NaN;
+            default:
+                return Double.parseDouble(text);
+        }
+    }
+
+    // yyyy-MM-dd[ HH:mm:ss[.ffffff]]
+    private static void writeDatetime(MysqlSerializer serializer, String text) {
+        int year = Integer.parseInt(text.substring(0, 4));
+        int month = Integer.parseInt(text.substring(5, 7));
+        int day = Integer.parseInt(text.substring(8, 10));
+        if (text.length() < 19) {
+            serializer.writeInt1(4);
+            serializer.writeInt2(year);
+            serializer.writeInt1(month);
+            serializer.writeInt1(day);
+            return;
+        }
+        int hour = Integer.parseInt(text.substring(11, 13));
+        int minute = Integer.parseInt(text.substring(14, 16));
+        int second = Integer.parseInt(text.substring(17, 19));
+        int microsecond = text.length() > 20 ? parseMicrosecond(text.substring(20)) : 0;
+        serializer.writeInt1(microsecond == 0 ? 7 : 11);
+        serializer.writeInt2(year);
+        serializer.writeInt1(month);
+        serializer.writeInt1(day);
+        serializer.writeInt1(hour);
+        serializer.writeInt1(minute);
+        serializer.writeInt1(second);
+        if (microsecond != 0) {
+            serializer.writeInt4(microsecond);
+        }
+    }
+
+    // [-]HH:mm:ss[.ffffff], the hour part may be larger than 24
+    private static void writeTime(MysqlSerializer serializer, String text) {
+        boolean negative = text.startsWith("-");
+        String[] parts = (negative ? text.substring(1) : text).split(":");
+        long hours = Long.parseLong(parts[0]);
+        int minute = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+        int second = 0;
+        int microsecond = 0;
+        if (parts.length > 2) {
+            String[] secondParts = parts[2].split("\\.");
+            second = Integer.parseInt(secondParts[0]);
+            if (secondParts.length > 1) {
+                microsecond = parseMicrosecond(secondParts[1]);
+            }
+        }
+        serializer.writeInt1(microsecond == 0 ? 8 : 12);
+        serializer.writeInt1(negative ? 1 : 0);
+        serializer.writeInt4((int) (hours / 24));
+        serializer.writeInt1((int) (hours % 24));
+        serializer.writeInt1(minute);
+        serializer.writeInt1(second);
+        if (microsecond != 0) {
+            serializer.writeInt4(microsecond);
+        }
+    }
+
+    private static int parseMicrosecond(String fraction) {
+        StringBuilder sb = new StringBuilder(fraction);
+        while (sb.length() < 6) {
+            sb.append('0');
+        }
+        return Integer.parseInt(sb.substring(0, 6));
+    }
+}
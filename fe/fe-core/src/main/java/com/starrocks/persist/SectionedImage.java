@@ -0,0 +1,341 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.server.GlobalStateMgr;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The image made of independent sections, each section holds the meta of some modules.
+ * <p>
+ * Layout:
+ * <pre>
+ * header            same as the header of the legacy image, but the flag is SECTIONED_IMAGE_FLAG
+ * header checksum   long
+ * compressed        boolean, whether the sections are deflated
+ * section number    int
+ * section index     for every section: name (utf), length (long), crc32 of the stored bytes (long),
+ *                   checksum of the modules in the section (long)
+ * sections          the stored bytes of the sections, in the order of the index
+ * </pre>
+ * The sections are written to temporary files in parallel and then concatenated, and they are loaded in
+ * parallel by reading the file at their own offset, except the ones depending on each other, which are loaded
+ * in order by {@link Reader#loadInOrder}. A section missing in the image is skipped when loading,
+ * and a section unknown to the loader is ignored, so modules can be added without breaking the format.
+ */
+public class SectionedImage {
+    private static final Logger LOG = LogManager.getLogger(SectionedImage.class);
+
+    // the flag of the legacy image is -1
+    public static final int SECTIONED_IMAGE_FLAG = -2;
+
+    private static final String SECTION_DIR = "ckpt_sections";
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    public interface HeaderWriter {
+        long write(DataOutputStream dos, long checksum) throws IOException;
+    }
+
+    public interface HeaderReader {
+        long read(DataInputStream dis, long checksum) throws IOException;
+    }
+
+    public interface SectionWriter {
+        long write(DataOutputStream dos, long checksum) throws IOException;
+    }
+
+    public interface SectionReader {
+        long read(DataInputStream dis, long checksum) throws IOException, DdlException;
+    }
+
+    public static boolean isSectionedImage(File file) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+            return file.length() >= Integer.BYTES && dis.readInt() == SECTIONED_IMAGE_FLAG;
+        }
+    }
+
+    private static class SectionInfo {
+        private final String name;
+        private long offset;
+        private long length;
+        private long crc;
+        private long checksum;
+
+        private SectionInfo(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Writer {
+        private final Map<String, SectionWriter> sections = Maps.newLinkedHashMap();
+
+        public Writer addSection(String name, SectionWriter writer) {
+            sections.put(name, writer);
+            return this;
+        }
+
+        /**
+         * Write the image. Must be called on a consistent state of the meta, i.e. by the checkpoint thread
+         * while no journal is replayed.
+         */
+        public long write(File file, HeaderWriter headerWriter) throws IOException {
+            boolean compressed = Config.image_section_compression;
+            File sectionDir = new File(file.getParentFile(), SECTION_DIR);
+            deleteDir(sectionDir);
+            if (!sectionDir.mkdirs()) {
+                throw new IOException("failed to create dir " + sectionDir.getAbsolutePath());
+            }
+
+            try {
+                List<Callable<SectionInfo>> tasks = Lists.newArrayList();
+                for (Map.Entry<String, SectionWriter> entry : sections.entrySet()) {
+                    File sectionFile = new File(sectionDir, entry.getKey());
+                    tasks.add(() -> writeSection(entry.getKey(), entry.getValue(), sectionFile, compressed));
+                }
+                List<SectionInfo> infos = runInParallel(tasks, "image-section-writer");
+
+                long checksum;
+                try (DataOutputStream dos = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE))) {
+                    checksum = headerWriter.write(dos, 0);
+                    dos.writeLong(checksum);
+                    dos.writeBoolean(compressed);
+                    dos.writeInt(infos.size());
+                    for (SectionInfo info : infos) {
+                        dos.writeUTF(info.name);
+                        dos.writeLong(info.length);
+                        dos.writeLong(info.crc);
+                        dos.writeLong(info.checksum);
+                        checksum ^= info.checksum;
+                    }
+                    for (SectionInfo info : infos) {
+                        Files.copy(new File(sectionDir, info.name).toPath(), dos);
+                    }
+                }
+                return checksum;
+            } finally {
+                deleteDir(sectionDir);
+            }
+        }
+
+        private static SectionInfo writeSection(String name, SectionWriter writer, File sectionFile,
+                                                boolean compressed) throws IOException {
+            long start = System.currentTimeMillis();
+            SectionInfo info = new SectionInfo(name);
+            CheckedOutputStream checkedStream = new CheckedOutputStream(new FileOutputStream(sectionFile), new CRC32());
+            OutputStream out = checkedStream;
+            Deflater deflater = null;
+            if (compressed) {
+                deflater = new Deflater(Deflater.BEST_SPEED);
+                out = new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+            }
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE))) {
+                info.checksum = writer.write(dos, 0);
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+            info.length = sectionFile.length();
+            info.crc = checkedStream.getChecksum().getValue();
+            long cost = System.currentTimeMillis() - start;
+            MetricRepo.updateImageSectionLatency(name, "write", cost);
+            LOG.info("finished save image section {}, {} bytes in {} ms", name, info.length, cost);
+            return info;
+        }
+
+        private static void deleteDir(File dir) {
+            File[] children = dir.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    child.delete();
+                }
+            }
+            dir.delete();
+        }
+    }
+
+    public static class Reader {
+        private final File file;
+        private final Map<String, SectionInfo> sections = Maps.newLinkedHashMap();
+        private boolean compressed;
+        private long checksum;
+
+        public Reader(File file) {
+            this.file = file;
+        }
+
+        public void readHeader(HeaderReader headerReader) throws IOException {
+            try (CountingInputStream countingStream = new CountingInputStream(
+                    new BufferedInputStream(new FileInputStream(file)))) {
+                DataInputStream dis = new DataInputStream(countingStream);
+                checksum = headerReader.read(dis, 0);
+                long remoteChecksum = dis.readLong();
+                if (remoteChecksum != checksum) {
+                    throw new IOException("image header checksum mismatch, " + remoteChecksum + " vs. " + checksum);
+                }
+                compressed = dis.readBoolean();
+                int sectionNum = dis.readInt();
+                List<SectionInfo> infos = Lists.newArrayListWithCapacity(sectionNum);
+                for (int i = 0; i < sectionNum; i++) {
+                    SectionInfo info = new SectionInfo(dis.readUTF());
+                    info.length = dis.readLong();
+                    info.crc = dis.readLong();
+                    info.checksum = dis.readLong();
+                    infos.add(info);
+                }
+                long offset = countingStream.getCount();
+                for (SectionInfo info : infos) {
+                    info.offset = offset;
+                    offset += info.length;
+                    sections.put(info.name, info);
+                }
+                if (offset != file.length()) {
+                    throw new IOException("image is truncated, expect " + offset + " bytes, actual " + file.length());
+                }
+            }
+        }
+
+        /**
+         * Load the sections in parallel, the readers of the sections must not depend on each other.
+         */
+        public void load(Map<String, SectionReader> readers) throws IOException {
+            List<Callable<SectionInfo>> tasks = Lists.newArrayList();
+            for (Map.Entry<String, SectionReader> entry : readers.entrySet()) {
+                SectionInfo info = sections.get(entry.getKey());
+                if (info == null) {
+                    LOG.info("image section {} does not exist, skip it", entry.getKey());
+                    continue;
+                }
+                tasks.add(() -> loadSection(info, entry.getValue()));
+            }
+            runInParallel(tasks, "image-section-loader");
+        }
+
+        /**
+         * Load the sections one by one in the order of the readers, in the caller thread.
+         */
+        public void loadInOrder(Map<String, SectionReader> readers) throws IOException {
+            for (Map.Entry<String, SectionReader> entry : readers.entrySet()) {
+                SectionInfo info = sections.get(entry.getKey());
+                if (info == null) {
+                    LOG.info("image section {} does not exist, skip it", entry.getKey());
+                    continue;
+                }
+                try {
+                    loadSection(info, entry.getValue());
+                } catch (DdlException e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        private SectionInfo loadSection(SectionInfo info, SectionReader reader) throws IOException, DdlException {
+            long start = System.currentTimeMillis();
+            try (FileInputStream fileStream = new FileInputStream(file)) {
+                fileStream.getChannel().position(info.offset);
+                CheckedInputStream checkedStream =
+                        new CheckedInputStream(ByteStreams.limit(fileStream, info.length), new CRC32());
+                InputStream in = new BufferedInputStream(checkedStream, BUFFER_SIZE);
+                if (compressed) {
+                    in = new BufferedInputStream(new InflaterInputStream(in), BUFFER_SIZE);
+                }
+                DataInputStream dis = new DataInputStream(in);
+                long sectionChecksum = reader.read(dis, 0);
+                ByteStreams.exhaust(dis);
+                ByteStreams.exhaust(checkedStream);
+                if (checkedStream.getChecksum().getValue() != info.crc) {
+                    throw new IOException("crc of image section " + info.name + " mismatch");
+                }
+                if (sectionChecksum != info.checksum) {
+                    throw new IOException("checksum of image section " + info.name + " mismatch, "
+                            + info.checksum + " vs. " + sectionChecksum);
+                }
+            }
+            long cost = System.currentTimeMillis() - start;
+            MetricRepo.updateImageSectionLatency(info.name, "load", cost);
+            LOG.info("finished load image section {}, {} bytes in {} ms", info.name, info.length, cost);
+            return info;
+        }
+    }
+
+    // run the tasks in threads acting as the caller, so they see the same GlobalStateMgr and meta version
+    private static <T> List<T> runInParallel(List<Callable<T>> tasks, String poolName) throws IOException {
+        if (tasks.isEmpty()) {
+            return Lists.newArrayList();
+        }
+        boolean isCheckpoint = GlobalStateMgr.isCheckpointThread();
+        MetaContext metaContext = MetaContext.get();
+        int parallelism = Math.max(1, Math.min(Config.image_section_parallelism, tasks.size()));
+        ExecutorService executor = ThreadPoolManager.newDaemonFixedThreadPool(parallelism, tasks.size(),
+                poolName, false);
+        try {
+            List<Future<T>> futures = Lists.newArrayList();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    if (metaContext != null) {
+                        metaContext.setThreadLocalInfo();
+                    }
+                    if (isCheckpoint) {
+                        GlobalStateMgr.setCheckpointWorker(true);
+                    }
+                    try {
+                        return task.call();
+                    } finally {
+                        GlobalStateMgr.setCheckpointWorker(false);
+                        MetaContext.remove();
+                    }
+                }));
+            }
+            List<T> results = Lists.newArrayList();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.base.Preconditions;
+import com.starrocks.thrift.TExecBatchPlanFragmentsParams;
+import com.starrocks.thrift.TExecPlanFragmentParams;
+import com.starrocks.thrift.TPlanFragmentExecParams;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TList;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TStruct;
+import org.apache.thrift.protocol.TType;
+import org.apache.thrift.transport.TIOStreamTransport;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Serializes the batch requests delivering the instances of a fragment to the hosts, i.e.
+ * TExecBatchPlanFragmentsParams, by TBinaryProtocol as the backends expect.
+ * <p>
+ * The common params of a fragment are the same for all the hosts, except the descriptor table, which is only sent
+ * in the first request to a host, and the number of instances on the host. So the common params are serialized once
+ * without these two fields, and the bytes are reused for every host, followed by the two fields of the host. The
+ * descriptor table is serialized once for the whole query as well. Only the order of the fields differs from
+ * serializing the whole request, which does not matter to thrift.
+ */
+class BatchFragmentsSerializer {
+    private static final TStruct STRUCT = new TStruct("");
+    private static final TField COMMON_PARAM_FIELD = new TField("", TType.STRUCT,
+            TExecBatchPlanFragmentsParams._Fields.COMMON_PARAM.getThriftFieldId());
+    private static final TField UNIQUE_PARAM_PER_INSTANCE_FIELD = new TField("", TType.LIST,
+            TExecBatchPlanFragmentsParams._Fields.UNIQUE_PARAM_PER_INSTANCE.getThriftFieldId());
+    private static final TField DESC_TBL_FIELD = new TField("", TType.STRUCT,
+            TExecPlanFragmentParams._Fields.DESC_TBL.getThriftFieldId());
+    private static final TField PARAMS_FIELD = new TField("", TType.STRUCT,
+            TExecPlanFragmentParams._Fields.PARAMS.getThriftFieldId());
+    private static final TField INSTANCES_NUMBER_FIELD = new TField("", TType.I32,
+            TPlanFragmentExecParams._Fields.INSTANCES_NUMBER.getThriftFieldId());
+
+    // the fields of the common params except desc_tbl and params
+    private final byte[] commonFields;
+    // the fields of the common params.params except instances_number
+    private final byte[] commonExecParamsFields;
+
+    /**
+     * @param commonParams The common params of the fragment, without desc_tbl and params.instances_number.
+     */
+    BatchFragmentsSerializer(TExecPlanFragmentParams commonParams) throws TException {
+        Preconditions.checkArgument(!commonParams.isSetDesc_tbl());
+        Preconditions.checkArgument(commonParams.isSetParams() && !commonParams.getParams().isSetInstances_number());
+        TPlanFragmentExecParams execParams = commonParams.getParams();
+        commonParams.unsetParams();
+        try {
+            commonFields = serializeFields(commonParams);
+        } finally {
+            commonParams.setParams(execParams);
+        }
+        commonExecParamsFields = serializeFields(execParams);
+    }
+
+    static byte[] serialize(TBase<?, ?> struct) throws TException {
+        return new TSerializer(new TBinaryProtocol.Factory()).serialize(struct);
+    }
+
+    /**
+     * Serialize the request of the instances to a host.
+     *
+     * @param serializedDescTable The descriptor table serialized by {@link #serialize(TBase)}.
+     * @param instancesNumber     The number of all the instances of the fragment on the host.
+     * @param uniqueParamsList    The unique params of the instances in this request.
+     */
+    byte[] serialize(byte[] serializedDescTable, int instancesNumber, List<TExecPlanFragmentParams> uniqueParamsList)
+            throws TException {
+        int size = commonFields.length + commonExecParamsFields.length + serializedDescTable.length + 64;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + uniqueParamsList.size() * 256);
+        TProtocol protocol = new TBinaryProtocol(new TIOStreamTransport(out));
+        // the transport writes through to the stream, so the serialized bytes can be written to the stream directly
+        protocol.writeStructBegin(STRUCT);
+
+        protocol.writeFieldBegin(COMMON_PARAM_FIELD);
+        out.write(commonFields, 0, commonFields.length);
+        protocol.writeFieldBegin(DESC_TBL_FIELD);
+        out.write(serializedDescTable, 0, serializedDescTable.length);
+        protocol.writeFieldBegin(PARAMS_FIELD);
+        out.write(commonExecParamsFields, 0, commonExecParamsFields.length);
+        protocol.writeFieldBegin(INSTANCES_NUMBER_FIELD);
+        protocol.writeI32(instancesNumber);
+        protocol.writeFieldStop();
+        protocol.writeFieldStop();
+
+        protocol.writeFieldBegin(UNIQUE_PARAM_PER_INSTANCE_FIELD);
+        protocol.writeListBegin(new TList(TType.STRUCT, uniqueParamsList.size()));
+        for (TExecPlanFragmentParams uniqueParams : uniqueParamsList) {
+            uniqueParams.write(protocol);
+        }
+        protocol.writeListEnd();
+
+        protocol.writeFieldStop();
+        protocol.writeStructEnd();
+        return out.toByteArray();
+    }
+
+    // serialize the fields of the struct, without the stop mark of the struct, so more fields can be appended
+    private static byte[] serializeFields(TBase<?, ?> struct) throws TException {
+        byte[] bytes = serialize(struct);
+        Preconditions.checkState(bytes.length > 0 && bytes[bytes.length - 1] == TType.STOP);
+        return Arrays.copyOf(bytes, bytes.length - 1);
+    }
+}
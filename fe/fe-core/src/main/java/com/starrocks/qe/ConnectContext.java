@@ -23,15 +23,18 @@ package com.starrocks.qe;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.SetStmt;
 import com.starrocks.analysis.SetType;
 import com.starrocks.analysis.SetVar;
+import com.starrocks.analysis.StatementBase;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.InternalCatalog;
 import com.starrocks.catalog.ResourceGroup;
 import com.starrocks.cluster.ClusterNamespace;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.util.TimeUtils;
+import com.starrocks.common.util.TimerWheel;
 import com.starrocks.mysql.MysqlCapability;
 import com.starrocks.mysql.MysqlChannel;
 import com.starrocks.mysql.MysqlCommand;
@@ -122,8 +125,13 @@ public class ConnectContext {
     protected Map<String, SetVar> modifiedSessionVariables = new HashMap<>();
     // user define variable in this session
     protected HashMap<String, UserVariable> userVariables;
+    // server-side prepared statements of this session, keyed by statement id
+    protected Map<Integer, PrepareStmtContext> preparedStmts = new HashMap<>();
+    protected int nextPreparedStmtId = 1;
     // Scheduler this connection belongs to
     protected ConnectScheduler connectScheduler;
+    // Timer of the wait timeout or query timeout in the scheduler, null if not registered
+    protected volatile TimerWheel.Timer<ConnectContext> timeoutTimer;
     // Executor
     protected StmtExecutor executor;
     // Command this connection is processing.
@@ -299,6 +307,28 @@ public class ConnectContext {
         return userVariables.get(variable);
     }
 
+    public PrepareStmtContext addPreparedStmt(StatementBase stmt, List<Parameter> parameters) {
+        if (preparedStmts.size() >= 1024) {
+            throw new SemanticException("Prepared statement exceeds the maximum limit of 1024");
+        }
+        PrepareStmtContext prepareStmtContext = new PrepareStmtContext(nextPreparedStmtId++, stmt, parameters,
+                sessionVariable.getSqlMode());
+        preparedStmts.put(prepareStmtContext.getStmtId(), prepareStmtContext);
+        return prepareStmtContext;
+    }
+
+    public PrepareStmtContext getPreparedStmt(int stmtId) {
+        return preparedStmts.get(stmtId);
+    }
+
+    public void removePreparedStmt(int stmtId) {
+        preparedStmts.remove(stmtId);
+    }
+
+    public void clearPreparedStmts() {
+        preparedStmts.clear();
+    }
+
     public void resetSessionVariable() {
         this.sessionVariable = VariableMgr.newSessionVariable();
         modifiedSessionVariables.clear();
@@ -322,6 +352,7 @@ public class ConnectContext {
 
     public void setCommand(MysqlCommand command) {
         this.command = command;
+        refreshTimeout();
     }
 
     public long getStartTime() {
@@ -331,6 +362,22 @@ public class ConnectContext {
     public void setStartTime() {
         startTime = System.currentTimeMillis();
         returnRows = 0;
+        refreshTimeout();
+    }
+
+    public TimerWheel.Timer<ConnectContext> getTimeoutTimer() {
+        return timeoutTimer;
+    }
+
+    public void setTimeoutTimer(TimerWheel.Timer<ConnectContext> timeoutTimer) {
+        this.timeoutTimer = timeoutTimer;
+    }
+
+    // let the scheduler know the deadline may be earlier after the command or its start time changes
+    private void refreshTimeout() {
+        if (connectScheduler != null && timeoutTimer != null) {
+            connectScheduler.refreshTimeout(this);
+        }
     }
 
     public void updateReturnRows(int returnRows) {
@@ -531,6 +578,17 @@ public class ConnectContext {
         }
     }
 
+    // Return the time in millisecond this connection will time out at, if it is sleeping,
+    // or the current query will time out at.
+    public long getTimeoutDeadline() {
+        if (startTime <= 0) {
+            return Long.MAX_VALUE;
+        }
+        long timeoutS = command == MysqlCommand.COM_SLEEP ? sessionVariable.getWaitTimeoutS() :
+                sessionVariable.getQueryTimeoutS();
+        return startTime + timeoutS * 1000L + 1;
+    }
+
     public void checkTimeout(long now) {
         if (startTime <= 0) {
             return;
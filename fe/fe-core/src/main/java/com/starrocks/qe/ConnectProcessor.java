@@ -23,13 +23,17 @@ package com.starrocks.qe;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.Expr;
 import com.starrocks.analysis.KillStmt;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.StatementBase;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.ResourceGroup;
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.ErrorCode;
@@ -42,6 +46,7 @@ import com.starrocks.metric.MetricRepo;
 import com.starrocks.metric.ResourceGroupMetricMgr;
 import com.starrocks.mysql.MysqlChannel;
 import com.starrocks.mysql.MysqlCommand;
+import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlPacket;
 import com.starrocks.mysql.MysqlProto;
 import com.starrocks.mysql.MysqlSerializer;
@@ -50,9 +55,12 @@ import com.starrocks.plugin.AuditEvent.EventType;
 import com.starrocks.proto.PQueryStatistics;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.service.FrontendOptions;
+import com.starrocks.sql.analyzer.SemanticException;
+import com.starrocks.sql.ast.QueryRelation;
 import com.starrocks.sql.ast.QueryStatement;
 import com.starrocks.sql.common.SqlDigestBuilder;
 import com.starrocks.sql.parser.ParsingException;
+import com.starrocks.sql.parser.SqlParser;
 import com.starrocks.thrift.TMasterOpRequest;
 import com.starrocks.thrift.TMasterOpResult;
 import com.starrocks.thrift.TQueryOptions;
@@ -136,6 +144,8 @@ public class ConnectProcessor {
         ctx.getSerializer().setCapability(ctx.getCapability());
         // reset session variable
         ctx.resetSessionVariable();
+        // deallocate prepared statements
+        ctx.clearPreparedStmts();
     }
 
     public void auditAfterExec(String origStmt, StatementBase parsedStmt, PQueryStatistics statistics) {
@@ -269,13 +279,7 @@ public class ConnectProcessor {
             ending--;
         }
         originStmt = new String(bytes, 1, ending, StandardCharsets.UTF_8);
-        ctx.getAuditEventBuilder().reset();
-        ctx.getAuditEventBuilder()
-                .setTimestamp(System.currentTimeMillis())
-                .setClientIp(ctx.getMysqlChannel().getRemoteHostPortString())
-                .setUser(ctx.getQualifiedUser())
-                .setDb(ctx.getDatabase())
-                .setCatalog(ctx.getCurrentCatalog());
+        resetAuditEvent();
         ctx.getPlannerProfile().reset();
 
         // execute this query.
@@ -325,16 +329,45 @@ public class ConnectProcessor {
                     finalizeCommand();
                 }
             }
-        } catch (IOException e) {
+        } catch (Throwable e) {
+            handleQueryException(e, parsedStmt);
+        }
+
+        // audit after exec
+        // replace '\n' to '\\n' to make string in one line
+        // TODO(cmy): when user send multi-statement, the executor is the last statement's executor.
+        // We may need to find some way to resolve this.
+        if (executor != null) {
+            auditAfterExec(originStmt, executor.getParsedStmt(), executor.getQueryStatisticsForAuditLog());
+        } else {
+            // executor can be null if we encounter analysis error.
+            auditAfterExec(originStmt, null, null);
+        }
+
+        addFinishedQueryDetail();
+    }
+
+    private void resetAuditEvent() {
+        ctx.getAuditEventBuilder().reset();
+        ctx.getAuditEventBuilder()
+                .setTimestamp(System.currentTimeMillis())
+                .setClientIp(ctx.getMysqlChannel().getRemoteHostPortString())
+                .setUser(ctx.getQualifiedUser())
+                .setDb(ctx.getDatabase())
+                .setCatalog(ctx.getCurrentCatalog());
+    }
+
+    private void handleQueryException(Throwable e, StatementBase parsedStmt) {
+        if (e instanceof IOException) {
             // Client failed.
             LOG.warn("Process one query failed because IOException: ", e);
             ctx.getState().setError("StarRocks process failed");
-        } catch (UserException e) {
+        } else if (e instanceof UserException) {
             LOG.warn("Process one query failed because.", e);
             ctx.getState().setError(e.getMessage());
             // set is as ANALYSIS_ERR so that it won't be treated as a query failure.
             ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
-        } catch (Throwable e) {
+        } else {
             // Catch all throwable.
             // If reach here, maybe StarRocks bug.
             LOG.warn("Process one query failed because unknown reason: ", e);
@@ -344,21 +377,158 @@ public class ConnectProcessor {
                 ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
             }
         }
+    }
+
+    // COM_STMT_PREPARE: parse the statement and keep it in this session, reply with the statement id,
+    // the '?' placeholders and the columns of the result set.
+    // See https://dev.mysql.com/doc/internals/en/com-stmt-prepare-response.html
+    private void handleStmtPrepare() throws IOException {
+        String sql = new String(MysqlProto.readEofString(packetBuf), StandardCharsets.UTF_8);
+        List<Parameter> parameters = Lists.newArrayList();
+        PrepareStmtContext prepareStmtContext = null;
+        QueryRelation queryRelation;
+        try {
+            StatementBase stmt =
+                    SqlParser.parsePrepareStatement(sql, ctx.getSessionVariable().getSqlMode(), parameters);
+            prepareStmtContext = ctx.addPreparedStmt(stmt, parameters);
+            queryRelation = prepareStmtContext.analyzeQuery(ctx);
+        } catch (Exception e) {
+            if (prepareStmtContext != null) {
+                ctx.removePreparedStmt(prepareStmtContext.getStmtId());
+            }
+            ctx.getState().setError(e.getMessage());
+            return;
+        }
+        List<String> colNames = Lists.newArrayList();
+        List<Type> colTypes = Lists.newArrayList();
+        if (queryRelation != null) {
+            colNames.addAll(queryRelation.getColumnOutputNames());
+            for (Expr expr : queryRelation.getOutputExpression()) {
+                colTypes.add(expr.getType());
+            }
+        }
+
+        MysqlSerializer serializer = ctx.getSerializer();
+        MysqlChannel channel = ctx.getMysqlChannel();
+        serializer.reset();
+        // status
+        serializer.writeInt1(0);
+        serializer.writeInt4(prepareStmtContext.getStmtId());
+        serializer.writeInt2(colNames.size());
+        serializer.writeInt2(parameters.size());
+        // reserved
+        serializer.writeInt1(0);
+        // warning count
+        serializer.writeInt2(0);
+        channel.sendOnePacket(serializer.toByteBuffer());
+
+        if (!parameters.isEmpty()) {
+            for (int i = 0; i < parameters.size(); i++) {
+                serializer.reset();
+                serializer.writeField("?", Type.VARCHAR);
+                channel.sendOnePacket(serializer.toByteBuffer());
+            }
+            sendEofPacket(serializer, channel);
+        }
+        if (!colNames.isEmpty()) {
+            for (int i = 0; i < colNames.size(); i++) {
+                serializer.reset();
+                serializer.writeField(colNames.get(i), colTypes.get(i));
+                channel.sendOnePacket(serializer.toByteBuffer());
+            }
+            sendEofPacket(serializer, channel);
+        }
+        channel.flush();
+        // response has been sent
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    private void sendEofPacket(MysqlSerializer serializer, MysqlChannel channel) throws IOException {
+        serializer.reset();
+        MysqlEofPacket eofPacket = new MysqlEofPacket(ctx.getState());
+        eofPacket.writeTo(serializer);
+        channel.sendOnePacket(serializer.toByteBuffer());
+    }
+
+    // COM_STMT_EXECUTE: bind the parameters to the query analyzed by the previous execution and execute it,
+    // the optimized plan of the same values is reused through the plan cache.
+    private void handleStmtExecute() {
+        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        PrepareStmtContext prepareStmtContext = ctx.getPreparedStmt(stmtId);
+        if (prepareStmtContext == null) {
+            ctx.getState().setError("Unknown prepared statement handler (" + stmtId + ") given to COM_STMT_EXECUTE");
+            return;
+        }
+        // flags and iteration count, cursors are not supported
+        MysqlProto.readInt1(packetBuf);
+        MysqlProto.readInt4(packetBuf);
+
+        resetAuditEvent();
+        ctx.getPlannerProfile().reset();
+
+        String originStmt = prepareStmtContext.getOriginStmt().originStmt;
+        StatementBase parsedStmt = null;
+        try {
+            ctx.setQueryId(UUIDUtil.genUUID());
+            parsedStmt = prepareStmtContext.bindParameters(prepareStmtContext.readParameters(packetBuf), ctx);
+            originStmt = parsedStmt.getOrigStmt().originStmt;
+            addRunningQueryDetail(parsedStmt);
+
+            executor = new StmtExecutor(ctx, parsedStmt);
+            executor.setParsedStmtAnalyzed(PrepareStmtContext.isAnalyzedQuery(parsedStmt));
+            ctx.setExecutor(executor);
+            ctx.setIsLastStmt(true);
+            executor.execute();
+        } catch (SemanticException e) {
+            // the query is analyzed when it is bound
+            handleQueryException(new AnalysisException(e.getMessage()), parsedStmt);
+        } catch (Throwable e) {
+            handleQueryException(e, parsedStmt);
+        }
 
-        // audit after exec
-        // replace '\n' to '\\n' to make string in one line
-        // TODO(cmy): when user send multi-statement, the executor is the last statement's executor.
-        // We may need to find some way to resolve this.
         if (executor != null) {
             auditAfterExec(originStmt, executor.getParsedStmt(), executor.getQueryStatisticsForAuditLog());
         } else {
-            // executor can be null if we encounter analysis error.
             auditAfterExec(originStmt, null, null);
         }
-
         addFinishedQueryDetail();
     }
 
+    // COM_STMT_SEND_LONG_DATA: append data to a parameter before COM_STMT_EXECUTE, no response is sent
+    private void handleStmtSendLongData() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        int paramId = MysqlProto.readInt2(packetBuf);
+        PrepareStmtContext prepareStmtContext = ctx.getPreparedStmt(stmtId);
+        if (prepareStmtContext != null) {
+            try {
+                prepareStmtContext.appendLongData(paramId, MysqlProto.readEofString(packetBuf));
+            } catch (AnalysisException e) {
+                LOG.warn("Failed to execute command `Send long data`.", e);
+            }
+        }
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    // COM_STMT_CLOSE: deallocate the prepared statement, no response is sent
+    private void handleStmtClose() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        ctx.removePreparedStmt(stmtId);
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    // COM_STMT_RESET: discard the data sent by COM_STMT_SEND_LONG_DATA
+    private void handleStmtReset() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        PrepareStmtContext prepareStmtContext = ctx.getPreparedStmt(stmtId);
+        if (prepareStmtContext == null) {
+            ctx.getState().setError("Unknown prepared statement handler (" + stmtId + ") given to COM_STMT_RESET");
+            return;
+        }
+        prepareStmtContext.resetLongData();
+        ctx.getState().setOk();
+    }
+
     // Get the column definitions of a table
     private void handleFieldList() throws IOException {
         // Already get command code.
@@ -439,6 +609,22 @@ public class ConnectProcessor {
             case COM_PING:
                 handlePing();
                 break;
+            case COM_STMT_PREPARE:
+                handleStmtPrepare();
+                break;
+            case COM_STMT_EXECUTE:
+                handleStmtExecute();
+                ctx.setStartTime();
+                break;
+            case COM_STMT_SEND_LONG_DATA:
+                handleStmtSendLongData();
+                break;
+            case COM_STMT_CLOSE:
+                handleStmtClose();
+                break;
+            case COM_STMT_RESET:
+                handleStmtReset();
+                break;
             default:
                 ctx.getState().setError("Unsupported command(" + command + ")");
                 LOG.warn("Unsupported command(" + command + ")");
@@ -509,8 +695,8 @@ public class ConnectProcessor {
         MysqlChannel channel = ctx.getMysqlChannel();
         channel.sendAndFlush(packet);
 
-        // only change lastQueryId when current command is COM_QUERY
-        if (ctx.getCommand() == MysqlCommand.COM_QUERY) {
+        // only change lastQueryId when current command is COM_QUERY or COM_STMT_EXECUTE
+        if (ctx.getCommand() == MysqlCommand.COM_QUERY || ctx.getCommand() == MysqlCommand.COM_STMT_EXECUTE) {
             ctx.setLastQueryId(ctx.queryId);
             ctx.setQueryId(null);
         }
@@ -25,6 +25,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.common.Config;
 import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.common.util.TimerWheel;
 import com.starrocks.mysql.MysqlProto;
 import com.starrocks.mysql.nio.NConnectContext;
 import com.starrocks.mysql.privilege.PrivPredicate;
@@ -32,7 +33,6 @@ import com.starrocks.server.GlobalStateMgr;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TimerTask;
@@ -43,6 +43,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class ConnectScheduler {
     private static final Logger LOG = LogManager.getLogger(ConnectScheduler.class);
+    private static final long TIMEOUT_CHECK_INTERVAL_MS = 1000L;
     private final AtomicInteger maxConnections;
     private final AtomicInteger numberConnection;
     private final AtomicInteger nextConnectionId;
@@ -51,6 +52,9 @@ public class ConnectScheduler {
     private final Map<String, AtomicInteger> connByUser = Maps.newConcurrentMap();
     private final ExecutorService executor = ThreadPoolManager
             .newDaemonCacheThreadPool(Config.max_connection_scheduler_threads_num, "connect-scheduler-pool", true);
+    // the deadlines of the connections, so the timeout checker only visits the connections timed out
+    private final TimerWheel<ConnectContext> timeoutWheel =
+            new TimerWheel<>(TIMEOUT_CHECK_INTERVAL_MS, System.currentTimeMillis());
 
     public ConnectScheduler(int maxConnections) {
         this.maxConnections = new AtomicInteger(maxConnections);
@@ -60,27 +64,17 @@ public class ConnectScheduler {
         // 1. If use a scheduler, the task maybe a huge number when query is messy.
         //    Let timeout is 10m, and 5000 qps, then there are up to 3000000 tasks in scheduler.
         // 2. Use a thread to poll maybe lose some accurate, but is enough to us.
+        // The deadlines are kept in a timer wheel, so the thread does not scan all the connections every time.
         ScheduledExecutorService checkTimer = ThreadPoolManager.newDaemonScheduledThreadPool(1,
                 "Connect-Scheduler-Check-Timer", true);
-        checkTimer.scheduleAtFixedRate(new TimeoutChecker(), 0, 1000L, TimeUnit.MILLISECONDS);
+        checkTimer.scheduleAtFixedRate(new TimeoutChecker(), 0, TIMEOUT_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
 
     private class TimeoutChecker extends TimerTask {
         @Override
         public void run() {
             try {
-                long now = System.currentTimeMillis();
-                synchronized (ConnectScheduler.this) {
-                    //Because unregisterConnection will be callback in NMysqlChannel's close,
-                    //unregisterConnection will remove connectionMap (in the same thread)
-                    //This will result in a concurrentModifyException.
-                    //So here we copied the connectionIds to avoid removing iterator during operate iterator
-                    ArrayList<Long> connectionIds = new ArrayList<>(connectionMap.keySet());
-                    for (Long connectId : connectionIds) {
-                        ConnectContext connectContext = connectionMap.get(connectId);
-                        connectContext.checkTimeout(now);
-                    }
-                }
+                checkTimeout(System.currentTimeMillis());
             } catch (Throwable e) {
                 //Catch Exception to avoid thread exit
                 LOG.warn("Timeout checker exception, Internal error : " + e.getMessage());
@@ -88,6 +82,32 @@ public class ConnectScheduler {
         }
     }
 
+    // Check the connections whose timer expires. The timers are moved to earlier deadlines only, so a connection
+    // may not be timed out yet, and is scheduled again with its current deadline.
+    void checkTimeout(long now) {
+        // the connections are checked out of the wheel, because killing a connection may unregister it
+        for (ConnectContext connectContext : timeoutWheel.advance(now)) {
+            try {
+                connectContext.checkTimeout(now);
+            } catch (Throwable e) {
+                LOG.warn("check timeout of connection {} failed", connectContext.getConnectionId(), e);
+            }
+            // no-op if the connection has been unregistered
+            timeoutWheel.schedule(connectContext.getTimeoutTimer(), connectContext.getTimeoutDeadline());
+        }
+    }
+
+    void refreshTimeout(ConnectContext ctx) {
+        TimerWheel.Timer<ConnectContext> timer = ctx.getTimeoutTimer();
+        if (timer != null) {
+            timeoutWheel.schedule(timer, ctx.getTimeoutDeadline());
+        }
+    }
+
+    int getTimeoutTimerNum() {
+        return timeoutWheel.size();
+    }
+
     // submit one MysqlContext to this scheduler.
     // return true, if this connection has been successfully submitted, otherwise return false.
     // Caller should close ConnectContext if return false.
@@ -125,11 +145,18 @@ public class ConnectScheduler {
         numberConnection.incrementAndGet();
         connByUser.get(ctx.getQualifiedUser()).incrementAndGet();
         connectionMap.put((long) ctx.getConnectionId(), ctx);
+        TimerWheel.Timer<ConnectContext> timer = new TimerWheel.Timer<>(ctx);
+        ctx.setTimeoutTimer(timer);
+        timeoutWheel.schedule(timer, ctx.getTimeoutDeadline());
         return true;
     }
 
     public void unregisterConnection(ConnectContext ctx) {
         if (connectionMap.remove((long) ctx.getConnectionId()) != null) {
+            TimerWheel.Timer<ConnectContext> timer = ctx.getTimeoutTimer();
+            if (timer != null) {
+                timeoutWheel.cancel(timer);
+            }
             numberConnection.decrementAndGet();
             AtomicInteger conns = connByUser.get(ctx.getQualifiedUser());
             if (conns != null) {
@@ -635,11 +635,13 @@ public class Coordinator {
         boolean enableDeliverBatchFragments = enablePipelineEngine
                 && connectContext.getSessionVariable().isEnableDeliverBatchFragments();
 
+        long deployStartTime = System.nanoTime();
         if (enableDeliverBatchFragments) {
             deliverExecBatchFragmentsRequests(enablePipelineEngine);
         } else {
             deliverExecFragmentRequests(enablePipelineEngine);
         }
+        queryProfile.addCounter("DeployTime", TUnit.TIME_NS).setValue(System.nanoTime() - deployStartTime);
     }
 
     private void deliverExecFragmentRequests(boolean enablePipelineEngine) throws Exception {
@@ -900,6 +902,10 @@ public class Coordinator {
             TDescriptorTable emptyDescTable = new TDescriptorTable();
             emptyDescTable.setIs_cached(true);
             emptyDescTable.setTupleDescriptors(Collections.emptyList());
+            // serialize the descriptor tables once for all the requests
+            byte[] serializedDescTable = BatchFragmentsSerializer.serialize(this.descTable);
+            byte[] serializedEmptyDescTable = BatchFragmentsSerializer.serialize(emptyDescTable);
+            long deployDataSize = 0;
 
             // Record the first groupIndex of each host.
             // Each host only sends descTable once in the first batch request.
@@ -912,7 +918,7 @@ public class Coordinator {
                 // Otherwise, the request will be in the first stage, including
                 // - the request need send descTable.
                 // - the request to the host, where some request in the previous group has already sent descTable.
-                List<List<Pair<List<BackendExecState>, TExecBatchPlanFragmentsParams>>> inflightRequestsList =
+                List<List<Pair<List<BackendExecState>, byte[]>>> inflightRequestsList =
                         ImmutableList.of(new ArrayList<>(), new ArrayList<>());
                 for (PlanFragment fragment : fragmentGroup) {
                     FragmentExecParams params = fragmentExecParamsMap.get(fragment.getFragmentId());
@@ -941,7 +947,7 @@ public class Coordinator {
                         }
 
                         int inflightIndex = 0;
-                        TDescriptorTable curDescTable = this.descTable;
+                        byte[] curDescTable = serializedDescTable;
                         if (enablePipelineEngine) {
                             Integer firstGroupIndex = host2firstGroupIndex.get(host);
                             if (firstGroupIndex == null) {
@@ -951,12 +957,12 @@ public class Coordinator {
                             } else if (firstGroupIndex < groupIndex) {
                                 // Has sent descTable for this host in the previous fragment group,
                                 // so needn't wait and use cached descTable.
-                                curDescTable = emptyDescTable;
+                                curDescTable = serializedEmptyDescTable;
                             } else {
                                 // The previous fragment for this host int the current fragment group will send descTable,
                                 // so this fragment need wait until the previous one finishes delivering.
                                 inflightIndex = 1;
-                                curDescTable = emptyDescTable;
+                                curDescTable = serializedEmptyDescTable;
                             }
                         }
 
@@ -964,10 +970,12 @@ public class Coordinator {
                                 .map(FInstanceExecParam::getInstanceId)
                                 .collect(Collectors.toSet());
                         TExecBatchPlanFragmentsParams tRequest =
-                                params.toThriftInBatch(curInstanceIds, host, curDescTable, dbIds, enablePipelineEngine);
+                                params.toThriftInBatch(curInstanceIds, host, dbIds, enablePipelineEngine);
                         TExecPlanFragmentParams tCommonParams = tRequest.getCommon_param();
                         List<TExecPlanFragmentParams> tUniqueParamsList = tRequest.getUnique_param_per_instance();
                         Preconditions.checkState(!tUniqueParamsList.isEmpty());
+                        byte[] serializedRequest = params.serializeInBatch(tRequest, host, curDescTable);
+                        deployDataSize += serializedRequest.length;
 
                         // this is a load process, and it is the first fragment.
                         // we should add all BackendExecState of this fragment to needCheckBackendExecStates,
@@ -993,15 +1001,15 @@ public class Coordinator {
                             }
                         }
 
-                        inflightRequestsList.get(inflightIndex).add(Pair.create(execStates, tRequest));
+                        inflightRequestsList.get(inflightIndex).add(Pair.create(execStates, serializedRequest));
                     }
 
                     profileFragmentId += 1;
                 }
 
-                for (List<Pair<List<BackendExecState>, TExecBatchPlanFragmentsParams>> inflightRequests : inflightRequestsList) {
+                for (List<Pair<List<BackendExecState>, byte[]>> inflightRequests : inflightRequestsList) {
                     List<Pair<BackendExecState, Future<PExecBatchPlanFragmentsResult>>> futures = Lists.newArrayList();
-                    for (Pair<List<BackendExecState>, TExecBatchPlanFragmentsParams> inflightRequest : inflightRequests) {
+                    for (Pair<List<BackendExecState>, byte[]> inflightRequest : inflightRequests) {
                         List<BackendExecState> execStates = inflightRequest.first;
                         execStates.forEach(execState -> execState.setInitiated(true));
 
@@ -1056,6 +1064,7 @@ public class Coordinator {
                 }
             }
 
+            queryProfile.addCounter("DeployDataSize", TUnit.BYTES).setValue(deployDataSize);
             attachInstanceProfileToFragmentProfile();
         } finally {
             unlock();
@@ -2674,7 +2683,7 @@ public class Coordinator {
         }
 
         public Future<PExecBatchPlanFragmentsResult> execRemoteBatchFragmentsAsync(
-                TExecBatchPlanFragmentsParams tRequest) throws TException {
+                byte[] serializedRequest) throws TException {
             TNetworkAddress brpcAddress;
             try {
                 brpcAddress = new TNetworkAddress(backend.getHost(), backend.getBrpcPort());
@@ -2683,7 +2692,7 @@ public class Coordinator {
             }
             this.initiated = true;
             try {
-                return BackendServiceClient.getInstance().execBatchPlanFragmentsAsync(brpcAddress, tRequest);
+                return BackendServiceClient.getInstance().execBatchPlanFragmentsAsync(brpcAddress, serializedRequest);
             } catch (RpcException e) {
                 // DO NOT throw exception here, return a complete future with error code,
                 // so that the following logic will cancel the fragment.
@@ -2751,6 +2760,10 @@ public class Coordinator {
         TRuntimeFilterParams runtimeFilterParams = new TRuntimeFilterParams();
         public boolean bucketSeqToInstanceForFilterIsSet = false;
 
+        // the common params of the batch requests to all the hosts, and their serializer, see toThriftInBatch
+        private TExecPlanFragmentParams commonParamsInBatch;
+        private BatchFragmentsSerializer batchSerializer;
+
         public FragmentExecParams(PlanFragment fragment) {
             this.fragment = fragment;
         }
@@ -2778,7 +2791,8 @@ public class Coordinator {
          * @param commonParams           The destination common thrift params.
          * @param destHost               The destination host to delivery these instances.
          * @param descTable              The descriptor table, empty for the non-first instance
-         *                               when enable pipeline and disable multi fragments in one request.
+         *                               when enable pipeline and disable multi fragments in one request,
+         *                               or null if serialized separately.
          * @param isEnablePipelineEngine Whether enable pipeline engine.
          */
         private void toThriftForCommonParams(TExecPlanFragmentParams commonParams,
@@ -2958,14 +2972,24 @@ public class Coordinator {
             return paramsList;
         }
 
+        /**
+         * Build the batch request of the instances to the destination host, whose common params are shared by the
+         * requests to all the hosts, without desc_tbl and params.instances_number, which differ between the hosts.
+         * The request can only be sent after serialized by {@link #serializeInBatch}.
+         */
         TExecBatchPlanFragmentsParams toThriftInBatch(
-                Set<TUniqueId> inFlightInstanceIds, TNetworkAddress destHost, TDescriptorTable descTable,
+                Set<TUniqueId> inFlightInstanceIds, TNetworkAddress destHost,
                 Set<Long> dbIds, boolean enablePipelineEngine) throws Exception {
             setBucketSeqToInstanceForRuntimeFilters();
 
-            TExecPlanFragmentParams commonParams = new TExecPlanFragmentParams();
-            toThriftForCommonParams(commonParams, destHost, descTable, enablePipelineEngine);
-            fillRequiredFieldsToThrift(commonParams);
+            if (commonParamsInBatch == null) {
+                TExecPlanFragmentParams commonParams = new TExecPlanFragmentParams();
+                toThriftForCommonParams(commonParams, destHost, null, enablePipelineEngine);
+                fillRequiredFieldsToThrift(commonParams);
+                commonParams.getParams().unsetInstances_number();
+                batchSerializer = new BatchFragmentsSerializer(commonParams);
+                commonParamsInBatch = commonParams;
+            }
 
             List<TExecPlanFragmentParams> uniqueParamsList = Lists.newArrayList();
             for (int i = 0; i < instanceExecParams.size(); ++i) {
@@ -2982,11 +3006,22 @@ public class Coordinator {
             }
 
             TExecBatchPlanFragmentsParams request = new TExecBatchPlanFragmentsParams();
-            request.setCommon_param(commonParams);
+            request.setCommon_param(commonParamsInBatch);
             request.setUnique_param_per_instance(uniqueParamsList);
             return request;
         }
 
+        /**
+         * Serialize the batch request built by {@link #toThriftInBatch}, reusing the serialized common params.
+         *
+         * @param serializedDescTable The serialized descriptor table to send to the destination host.
+         */
+        byte[] serializeInBatch(TExecBatchPlanFragmentsParams request, TNetworkAddress destHost,
+                                byte[] serializedDescTable) throws TException {
+            return batchSerializer.serialize(serializedDescTable, hostToNumbers.get(destHost),
+                    request.getUnique_param_per_instance());
+        }
+
         // Append range information
         // [tablet_id(version),tablet_id(version)]
         public void appendScanRange(StringBuilder sb, List<TScanRangeParams> params) {
@@ -0,0 +1,427 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.starrocks.analysis.DateLiteral;
+import com.starrocks.analysis.DecimalLiteral;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.FloatLiteral;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LargeIntLiteral;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.analysis.TableName;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedIndexMeta;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.catalog.View;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlProto;
+import com.starrocks.sql.PlanCache;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.analyzer.AnalyzerUtils;
+import com.starrocks.sql.analyzer.PrivilegeChecker;
+import com.starrocks.sql.ast.QueryRelation;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.common.SqlDigestBuilder;
+import com.starrocks.sql.parser.SqlParser;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Server-side prepared statement of one connection, created by COM_STMT_PREPARE.
+ * COM_STMT_EXECUTE reads the values of the '?' placeholders sent in the binary protocol and binds them to the
+ * query analyzed by the previous execution, so the executions with new values skip the parser and the analyzer.
+ * The query is parsed and analyzed again when the types of the values, the session or the tables change.
+ * The optimized plan is reused through the plan cache, which is keyed by the bound values and the versions
+ * of the referenced tables.
+ */
+public class PrepareStmtContext {
+    // the second byte of a parameter type, set when the value is unsigned
+    private static final int UNSIGNED_FLAG = 0x80;
+
+    private final int stmtId;
+    private final OriginStatement originStmt;
+    // sql mode of COM_STMT_PREPARE, every execution parses the sql in the same mode
+    private final long sqlMode;
+    // placeholders of the statement parsed by COM_STMT_PREPARE, they are never bound
+    private final List<Parameter> parameters;
+    // types sent by the last COM_STMT_EXECUTE with new-params-bound-flag, reused when the flag is not set
+    private int[] paramTypes;
+    // values sent by COM_STMT_SEND_LONG_DATA, cleared after each execution
+    private final ByteArrayOutputStream[] longData;
+    // the query analyzed by a previous execution, null if it can not be reused
+    private AnalyzedQuery analyzedQuery;
+
+    public PrepareStmtContext(int stmtId, StatementBase stmt, List<Parameter> parameters, long sqlMode) {
+        this.stmtId = stmtId;
+        this.originStmt = stmt.getOrigStmt();
+        this.sqlMode = sqlMode;
+        this.parameters = parameters;
+        this.longData = new ByteArrayOutputStream[parameters.size()];
+    }
+
+    public int getStmtId() {
+        return stmtId;
+    }
+
+    public OriginStatement getOriginStmt() {
+        return originStmt;
+    }
+
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+
+    public void appendLongData(int paramId, byte[] data) throws AnalysisException {
+        if (paramId < 0 || paramId >= parameters.size()) {
+            throw new AnalysisException("Invalid parameter number " + paramId + " in COM_STMT_SEND_LONG_DATA");
+        }
+        if (longData[paramId] == null) {
+            longData[paramId] = new ByteArrayOutputStream();
+        }
+        longData[paramId].write(data, 0, data.length);
+    }
+
+    public void resetLongData() {
+        for (int i = 0; i < longData.length; i++) {
+            longData[i] = null;
+        }
+    }
+
+    /**
+     * Read the parameter values of a COM_STMT_EXECUTE packet, the buffer is positioned at the null bitmap.
+     * See https://dev.mysql.com/doc/internals/en/com-stmt-execute.html
+     */
+    public List<Expr> readParameters(ByteBuffer packet) throws AnalysisException {
+        int numParams = parameters.size();
+        List<Expr> values = new ArrayList<>(numParams);
+        if (numParams == 0) {
+            return values;
+        }
+        byte[] nullBitmap = MysqlProto.readFixedString(packet, (numParams + 7) / 8);
+        int newParamsBoundFlag = MysqlProto.readInt1(packet);
+        if (newParamsBoundFlag == 1) {
+            paramTypes = new int[numParams];
+            for (int i = 0; i < numParams; i++) {
+                paramTypes[i] = MysqlProto.readInt2(packet);
+            }
+        } else if (paramTypes == null) {
+            throw new AnalysisException("Parameter types of prepared statement " + stmtId + " are not sent");
+        }
+
+        try {
+            for (int i = 0; i < numParams; i++) {
+                Expr value;
+                if (longData[i] != null) {
+                    value = new StringLiteral(new String(longData[i].toByteArray(), StandardCharsets.UTF_8));
+                } else if ((nullBitmap[i / 8] & (1 << (i % 8))) != 0) {
+                    value = new NullLiteral();
+                } else {
+                    value = readParameterValue(packet, paramTypes[i]);
+                }
+                values.add(value);
+            }
+        } catch (RuntimeException e) {
+            throw new AnalysisException("Malformed COM_STMT_EXECUTE packet: " + e.getMessage());
+        } finally {
+            resetLongData();
+        }
+        return values;
+    }
+
+    /**
+     * Parse a new statement from the prepared sql and bind the values to its placeholders.
+     */
+    public StatementBase bindParameters(List<Expr> values) {
+        return bindParameters(values, new ArrayList<>(parameters.size()));
+    }
+
+    private StatementBase bindParameters(List<Expr> values, List<Parameter> boundParameters) {
+        StatementBase stmt = SqlParser.parsePrepareStatement(originStmt.originStmt, sqlMode, boundParameters);
+        for (int i = 0; i < boundParameters.size(); i++) {
+            boundParameters.get(i).setExpr(values.get(i));
+        }
+        // keep the bound values in the sql, it is used by audit log and forwarding to leader
+        stmt.setOrigStmt(new OriginStatement(toBoundSql(values), originStmt.idx));
+        return stmt;
+    }
+
+    /**
+     * Bind the values to the statement of an execution, a query is returned analyzed, see isAnalyzedQuery().
+     * The query analyzed by a previous execution is reused with the values substituted, if the types of the
+     * values, the session and the tables are not changed. Otherwise the prepared sql is parsed again and the
+     * analyzed query is kept for the following executions.
+     */
+    public StatementBase bindParameters(List<Expr> values, ConnectContext session) {
+        if (analyzedQuery != null && analyzedQuery.isValid(values, session)) {
+            for (int i = 0; i < values.size(); i++) {
+                analyzedQuery.parameters.get(i).setExpr(values.get(i));
+            }
+            analyzedQuery.stmt.setOrigStmt(new OriginStatement(toBoundSql(values), originStmt.idx));
+            return analyzedQuery.stmt;
+        }
+        analyzedQuery = null;
+        List<Parameter> boundParameters = new ArrayList<>(parameters.size());
+        StatementBase stmt = bindParameters(values, boundParameters);
+        if (isAnalyzedQuery(stmt)) {
+            Analyzer.analyze(stmt, session);
+            analyzedQuery = AnalyzedQuery.create((QueryStatement) stmt, boundParameters, values, session);
+        }
+        return stmt;
+    }
+
+    // the statements returned analyzed by bindParameters(), the other statements are analyzed by the executor
+    public static boolean isAnalyzedQuery(StatementBase stmt) {
+        return stmt instanceof QueryStatement && !stmt.isExplain();
+    }
+
+    /**
+     * Analyze the prepared query with NULL values to get the columns of its result set,
+     * return null if the statement is not a query.
+     */
+    public QueryRelation analyzeQuery(ConnectContext session) {
+        List<Expr> values = new ArrayList<>(parameters.size());
+        for (int i = 0; i < parameters.size(); i++) {
+            values.add(new NullLiteral());
+        }
+        StatementBase stmt = bindParameters(values);
+        if (!isAnalyzedQuery(stmt)) {
+            return null;
+        }
+        Analyzer.analyze(stmt, session);
+        PrivilegeChecker.check(stmt, session);
+        return ((QueryStatement) stmt).getQueryRelation();
+    }
+
+    private static Expr readParameterValue(ByteBuffer packet, int paramType) throws AnalysisException {
+        int typeCode = paramType & 0xFF;
+        boolean unsigned = ((paramType >> 8) & UNSIGNED_FLAG) != 0;
+        if (typeCode == MysqlColType.MYSQL_TYPE_TINY.getCode()) {
+            int value = MysqlProto.readInt1(packet);
+            return unsigned ? new IntLiteral(value, Type.SMALLINT) : new IntLiteral((byte) value, Type.TINYINT);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_SHORT.getCode() ||
+                typeCode == MysqlColType.MYSQL_TYPE_YEAR.getCode()) {
+            int value = MysqlProto.readInt2(packet);
+            return unsigned ? new IntLiteral(value, Type.INT) : new IntLiteral((short) value, Type.SMALLINT);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_LONG.getCode() ||
+                typeCode == MysqlColType.MYSQL_TYPE_INT24.getCode()) {
+            int value = MysqlProto.readInt4(packet);
+            return unsigned ? new IntLiteral(value & 0xFFFFFFFFL, Type.BIGINT) : new IntLiteral(value, Type.INT);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_LONGLONG.getCode()) {
+            long value = MysqlProto.readInt8(packet);
+            if (unsigned && value < 0) {
+                return new LargeIntLiteral(Long.toUnsignedString(value));
+            }
+            return new IntLiteral(value, Type.BIGINT);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_FLOAT.getCode()) {
+            float value = Float.intBitsToFloat(MysqlProto.readInt4(packet));
+            // use the shortest decimal representation of the float, e.g. 0.1 instead of 0.10000000149011612
+            return new FloatLiteral(Double.parseDouble(Float.toString(value)), Type.DOUBLE);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_DOUBLE.getCode()) {
+            return new FloatLiteral(Double.longBitsToDouble(MysqlProto.readInt8(packet)), Type.DOUBLE);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_DATE.getCode()) {
+            return readDateValue(packet, false);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_DATETIME.getCode() ||
+                typeCode == MysqlColType.MYSQL_TYPE_TIMESTAMP.getCode()) {
+            return readDateValue(packet, true);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_TIME.getCode()) {
+            return readTimeValue(packet);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_NULL.getCode()) {
+            return new NullLiteral();
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_DECIMAL.getCode() ||
+                typeCode == MysqlColType.MYSQL_TYPE_NEWDECIMAL.getCode()) {
+            return new DecimalLiteral(new String(MysqlProto.readLenEncodedString(packet), StandardCharsets.UTF_8));
+        } else {
+            // string, blob and all the other types are sent as length encoded strings
+            return new StringLiteral(new String(MysqlProto.readLenEncodedString(packet), StandardCharsets.UTF_8));
+        }
+    }
+
+    // length(1) [year(2) month(1) day(1) [hour(1) minute(1) second(1) [microsecond(4)]]]
+    private static Expr readDateValue(ByteBuffer packet, boolean isDatetime) throws AnalysisException {
+        int length = MysqlProto.readInt1(packet);
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 4) {
+            year = MysqlProto.readInt2(packet);
+            month = MysqlProto.readInt1(packet);
+            day = MysqlProto.readInt1(packet);
+        }
+        if (length >= 7) {
+            hour = MysqlProto.readInt1(packet);
+            minute = MysqlProto.readInt1(packet);
+            second = MysqlProto.readInt1(packet);
+        }
+        if (length >= 11) {
+            microsecond = MysqlProto.readInt4(packet);
+        }
+        if (!isDatetime) {
+            return new DateLiteral(year, month, day);
+        }
+        if (microsecond == 0) {
+            return new DateLiteral(year, month, day, hour, minute, second);
+        }
+        return new DateLiteral(String.format("%04d-%02d-%02d %02d:%02d:%02d.%06d",
+                year, month, day, hour, minute, second, microsecond), Type.DATETIME);
+    }
+
+    // length(1) [is_negative(1) days(4) hour(1) minute(1) second(1) [microsecond(4)]]
+    private static Expr readTimeValue(ByteBuffer packet) {
+        int length = MysqlProto.readInt1(packet);
+        boolean negative = false;
+        long hours = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 8) {
+            negative = MysqlProto.readInt1(packet) == 1;
+            hours = (MysqlProto.readInt4(packet) & 0xFFFFFFFFL) * 24 + MysqlProto.readInt1(packet);
+            minute = MysqlProto.readInt1(packet);
+            second = MysqlProto.readInt1(packet);
+        }
+        if (length >= 12) {
+            microsecond = MysqlProto.readInt4(packet);
+        }
+        StringBuilder sb = new StringBuilder();
+        if (negative) {
+            sb.append('-');
+        }
+        sb.append(String.format("%02d:%02d:%02d", hours, minute, second));
+        if (microsecond != 0) {
+            sb.append(String.format(".%06d", microsecond));
+        }
+        return new StringLiteral(sb.toString());
+    }
+
+    // replace the placeholders in the origin sql with the sql of the bound values
+    private String toBoundSql(List<Expr> values) {
+        String sql = originStmt.originStmt;
+        StringBuilder sb = new StringBuilder(sql.length());
+        int last = 0;
+        for (int i = 0; i < parameters.size(); i++) {
+            Parameter parameter = parameters.get(i);
+            sb.append(sql, last, parameter.getPosition());
+            Expr value = values.get(i);
+            if (value instanceof StringLiteral) {
+                String str = ((StringLiteral) value).getStringValue();
+                sb.append('\'').append(str.replace("\\", "\\\\").replace("'", "\\'")).append('\'');
+            } else {
+                sb.append(value.toSql());
+            }
+            last = parameter.getPosition() + 1;
+        }
+        sb.append(sql.substring(last));
+        return sb.toString();
+    }
+
+    /**
+     * An analyzed query of this prepared statement. The analyzer resolves the names of the tables and columns
+     * and types the expressions by the types of the values, so the query is valid for the values of the same
+     * types in the same session, as long as the tables are the same objects with the same names and schema.
+     * The plan depends on the values, e.g. by partition pruning, so it is still optimized for every execution,
+     * and only reused by the plan cache for the same values.
+     */
+    private static class AnalyzedQuery {
+        private final QueryStatement stmt;
+        private final List<Parameter> parameters;
+        private final List<Type> types;
+        private final String catalog;
+        private final String database;
+        private final long sqlMode;
+        private final Map<TableName, Table> tables;
+        private final HashCode schema;
+
+        private AnalyzedQuery(QueryStatement stmt, List<Parameter> parameters, List<Type> types, ConnectContext session,
+                              Map<TableName, Table> tables, HashCode schema) {
+            this.stmt = stmt;
+            this.parameters = parameters;
+            this.types = types;
+            this.catalog = session.getCurrentCatalog();
+            this.database = session.getDatabase();
+            this.sqlMode = session.getSessionVariable().getSqlMode();
+            this.tables = tables;
+            this.schema = schema;
+        }
+
+        // return null if the query can not be reused, e.g. it refers to variables evaluated by the analyzer,
+        // or to the external tables whose changes are unknown
+        private static AnalyzedQuery create(QueryStatement stmt, List<Parameter> parameters, List<Expr> values,
+                                            ConnectContext session) {
+            String digest = SqlDigestBuilder.build(stmt);
+            if (digest == null || !PlanCache.isCacheableDigest(digest)) {
+                return null;
+            }
+            Map<TableName, Table> tables = AnalyzerUtils.collectAllTableAndView(stmt);
+            for (Map.Entry<TableName, Table> entry : tables.entrySet()) {
+                Table table = entry.getValue();
+                if (entry.getKey().getDb() == null || !(table instanceof View || table.isNativeTable())) {
+                    return null;
+                }
+            }
+            List<Type> types = values.stream().map(Expr::getType).collect(Collectors.toList());
+            return new AnalyzedQuery(stmt, parameters, types, session, tables, schema(tables.values()));
+        }
+
+        private boolean isValid(List<Expr> values, ConnectContext session) {
+            for (int i = 0; i < values.size(); i++) {
+                if (!values.get(i).getType().equals(types.get(i))) {
+                    return false;
+                }
+            }
+            if (!Objects.equals(catalog, session.getCurrentCatalog()) ||
+                    !Objects.equals(database, session.getDatabase()) ||
+                    sqlMode != session.getSessionVariable().getSqlMode()) {
+                return false;
+            }
+            // a table dropped or replaced by the same name, e.g. by restore or swap, is a new object
+            for (Map.Entry<TableName, Table> entry : tables.entrySet()) {
+                Database db = session.getGlobalStateMgr().getDb(entry.getKey().getDb());
+                if (db == null || db.getTable(entry.getKey().getTbl()) != entry.getValue()) {
+                    return false;
+                }
+            }
+            return schema.equals(schema(tables.values()));
+        }
+
+        // the names and schema of the tables, and the definitions of the views
+        private static HashCode schema(Collection<Table> tables) {
+            Hasher hasher = Hashing.murmur3_128().newHasher();
+            for (Table table : tables) {
+                hasher.putLong(table.getId());
+                hasher.putString(table.getName(), StandardCharsets.UTF_8);
+                if (table instanceof View) {
+                    hasher.putString(((View) table).getInlineViewDef(), StandardCharsets.UTF_8);
+                } else {
+                    for (MaterializedIndexMeta indexMeta : ((OlapTable) table).getIndexIdToMeta().values()) {
+                        hasher.putLong(indexMeta.getIndexId());
+                        hasher.putInt(indexMeta.getSchemaHash());
+                        hasher.putInt(indexMeta.getSchemaVersion());
+                    }
+                }
+            }
+            return hasher.hash();
+        }
+    }
+}
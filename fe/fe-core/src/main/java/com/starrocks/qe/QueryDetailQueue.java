@@ -22,62 +22,155 @@
 package com.starrocks.qe;
 
 import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 // Queue of QueryDetail.
 // It's used to collect queries for monitor.
+//
+// The query details are kept in a bounded ring buffer without any lock, as every query adds its details here,
+// while the monitors poll them every second. The details are in the order of event time, so a reader finds the
+// details after its cursor by binary search instead of scanning all of them.
 public class QueryDetailQueue {
-    private static final LinkedList<QueryDetail> totalQueries = new LinkedList<QueryDetail>();
-
     //starrocks-manager pull queries every 1 second
     //metrics calculate query latency every 15 second
     //do not set cacheTime lower than these time
     private static final long cacheTimeNS = 30000000000L;
-    private static long latestMS;
-    private static long latestMSCnt;
 
-    public static synchronized void addAndRemoveTimeoutQueryDetail(QueryDetail queryDetail) {
+    // the last sequence and event time claimed by the writers, claimed together to keep them in the same order
+    private static class Claim {
+        private final long seq;
+        private final long eventTime;
+
+        private Claim(long seq, long eventTime) {
+            this.seq = seq;
+            this.eventTime = eventTime;
+        }
+    }
+
+    // created on the first use, as the details are not collected by default
+    private static class RingBuffer {
+        private static final RingBuffer INSTANCE = new RingBuffer(Config.query_detail_queue_capacity);
+
+        private final int capacity;
+        private final int mask;
+        private final AtomicReferenceArray<QueryDetail> details;
+        // the sequence of the detail in the slot, or -1 if being written
+        private final AtomicLongArray sequences;
+        private final AtomicReference<Claim> lastClaim = new AtomicReference<>(new Claim(-1, 0));
+        // the sequence of the oldest detail not timeout
+        private final AtomicLong tail = new AtomicLong(0);
+
+        private RingBuffer(int minCapacity) {
+            capacity = minCapacity <= 1 ? 1 : Integer.highestOneBit(minCapacity - 1) << 1;
+            mask = capacity - 1;
+            details = new AtomicReferenceArray<>(capacity);
+            long[] initSequences = new long[capacity];
+            Arrays.fill(initSequences, -1);
+            sequences = new AtomicLongArray(initSequences);
+        }
+    }
+
+    public static void addAndRemoveTimeoutQueryDetail(QueryDetail queryDetail) {
+        RingBuffer ring = RingBuffer.INSTANCE;
         //set event time here to guarantee order
-        long now = getCurrentTimeNS();
-        queryDetail.setEventTime(now);
-        totalQueries.add(queryDetail);
-
-        Iterator<QueryDetail> it = totalQueries.iterator();
-        long deleteTime = now - cacheTimeNS;
-        while (it.hasNext()) {
-            QueryDetail detail = it.next();
-            if (detail.getEventTime() < deleteTime) {
-                it.remove();
-            } else {
+        //NOTICE: this is not precise nano seconds, but good enough to make eventTime in order and unique
+        Claim claim;
+        while (true) {
+            Claim last = ring.lastClaim.get();
+            claim = new Claim(last.seq + 1, Math.max(System.currentTimeMillis() * 1000000, last.eventTime + 1));
+            if (ring.lastClaim.compareAndSet(last, claim)) {
                 break;
             }
         }
+        queryDetail.setEventTime(claim.eventTime);
+
+        int index = (int) (claim.seq & ring.mask);
+        // readers check the sequence before and after reading the detail, so the detail is published only if the
+        // sequence is unchanged
+        ring.sequences.set(index, -1);
+        ring.details.set(index, queryDetail);
+        ring.sequences.set(index, claim.seq);
+
+        removeTimeoutQueryDetails(ring, claim.seq, claim.eventTime - cacheTimeNS);
     }
 
-    public static synchronized List<QueryDetail> getQueryDetailsAfterTime(long eventTime) {
-        List<QueryDetail> results = Lists.newArrayList();
-        for (QueryDetail queryDetail : totalQueries) {
-            if (queryDetail.getEventTime() > eventTime) {
-                results.add(queryDetail);
+    // release the details timeout, which are skipped by the readers
+    private static void removeTimeoutQueryDetails(RingBuffer ring, long seq, long deleteTime) {
+        while (true) {
+            long oldest = ring.tail.get();
+            if (oldest >= seq) {
+                return;
+            }
+            if (oldest <= seq - ring.capacity) {
+                // overwritten
+                ring.tail.compareAndSet(oldest, seq - ring.capacity + 1);
+                continue;
+            }
+            int index = (int) (oldest & ring.mask);
+            if (ring.sequences.get(index) != oldest) {
+                // not published yet, or overwritten by a later one
+                return;
+            }
+            QueryDetail detail = ring.details.get(index);
+            if (detail != null && detail.getEventTime() >= deleteTime) {
+                return;
+            }
+            if (ring.tail.compareAndSet(oldest, oldest + 1) && detail != null) {
+                ring.details.compareAndSet(index, detail, null);
             }
         }
-        return results;
     }
 
-    //must get lock before call
-    //NOTICE: this is not precise nano seconds, but good enough to make eventTime in order and unique
-    private static long getCurrentTimeNS() {
-        long ms = System.currentTimeMillis();
-        if (ms == latestMS) {
-            latestMSCnt++;
-            return ms * 1000000 + latestMSCnt;
-        } else {
-            latestMS = ms;
-            latestMSCnt = 0;
-            return ms * 1000000;
+    public static List<QueryDetail> getQueryDetailsAfterTime(long eventTime) {
+        RingBuffer ring = RingBuffer.INSTANCE;
+        long newest = ring.lastClaim.get().seq;
+        long oldest = Math.max(ring.tail.get(), newest + 1 - ring.capacity);
+
+        // the first detail after eventTime
+        long low = oldest;
+        long high = newest + 1;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            int index = (int) (mid & ring.mask);
+            long seq = ring.sequences.get(index);
+            QueryDetail detail = ring.details.get(index);
+            boolean after;
+            if (seq != mid) {
+                // not published yet if the slot has not been written since the last round, or overwritten
+                after = seq < mid;
+            } else {
+                after = detail != null && ring.sequences.get(index) == mid && detail.getEventTime() > eventTime;
+            }
+            if (after) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        List<QueryDetail> results = Lists.newArrayList();
+        for (long seq = low; seq <= newest; seq++) {
+            int index = (int) (seq & ring.mask);
+            long slotSeq = ring.sequences.get(index);
+            if (slotSeq < seq) {
+                // stop at the detail not published yet, so that the cursor of the reader does not skip it
+                break;
+            }
+            QueryDetail detail = ring.details.get(index);
+            if (slotSeq > seq || detail == null || ring.sequences.get(index) != seq) {
+                continue;
+            }
+            if (detail.getEventTime() > eventTime) {
+                results.add(detail);
+            }
         }
+        return results;
     }
 };
@@ -0,0 +1,309 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.qe;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.MaterializedIndexMeta;
+import com.starrocks.common.Config;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.ScanNode;
+import com.starrocks.sql.PlanCache;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.common.SqlDigestBuilder;
+import com.starrocks.sql.plan.ExecPlan;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * FE-wide cache of the result rows of read-only queries.
+ * <p>
+ * A result is cached by the sql digest of the statement together with its literals, the session variables and
+ * the visible version of every scanned partition. The versions are the ones the plan reads, so a result can
+ * only be returned to the queries reading exactly the same data. The results of a table are dropped when
+ * the publish of a new version finishes, the stale results left on the other frontends can not be hit any
+ * more and are evicted by LRU.
+ * <p>
+ * The rows are stored in the text protocol as received from the backends.
+ */
+public class QueryResultCache {
+    private static final Logger LOG = LogManager.getLogger(QueryResultCache.class);
+
+    private static final QueryResultCache INSTANCE = new QueryResultCache(Config.query_result_cache_max_memory_bytes);
+
+    // rough memory of the byte array and the list slot of one row
+    private static final long ROW_OVERHEAD_BYTES = 32;
+
+    // the functions returning a different value for every call
+    private static final Pattern NON_DETERMINISTIC_EXPR = Pattern.compile(
+            "(?i)\\b(" + String.join("|", FunctionSet.nonDeterministicFunctions) + ")\\s*\\(");
+
+    private final Cache<Key, CachedResult> cache;
+    // table id -> the keys of the results scanning the table
+    private final Map<Long, Set<Key>> tableToKeys = new ConcurrentHashMap<>();
+
+    private final AtomicLong lookupCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+
+    public static QueryResultCache getInstance() {
+        return INSTANCE;
+    }
+
+    QueryResultCache(long maxMemoryBytes) {
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxMemoryBytes)
+                .weigher((Key key, CachedResult result) -> (int) Math.min(Integer.MAX_VALUE,
+                        key.estimatedBytes() + result.bytes))
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    /**
+     * Build the cache key of a planned query, return null if the result of the query can not be cached.
+     */
+    public Key buildKey(QueryStatement stmt, ExecPlan plan, ConnectContext session) {
+        if (stmt.isExplain() || stmt.hasOutFileClause()) {
+            return null;
+        }
+        List<String> literals = Lists.newArrayList();
+        String digest = SqlDigestBuilder.build(stmt, literals);
+        if (digest == null || !PlanCache.isCacheableDigest(digest) || NON_DETERMINISTIC_EXPR.matcher(digest).find()) {
+            return null;
+        }
+
+        List<ScanNode> scanNodes = plan.getScanNodes();
+        if (scanNodes.isEmpty()) {
+            return null;
+        }
+        List<Long> partitionVersions = Lists.newArrayList();
+        Set<Long> tableIds = Sets.newHashSet();
+        for (ScanNode scanNode : scanNodes) {
+            if (!(scanNode instanceof OlapScanNode)) {
+                return null;
+            }
+            OlapScanNode olapScanNode = (OlapScanNode) scanNode;
+            Collection<Long> partitionIds = olapScanNode.getSelectedPartitionIds();
+            Collection<Long> versions = olapScanNode.getSelectedPartitionVersions();
+            if (partitionIds.size() != versions.size()) {
+                return null;
+            }
+            MaterializedIndexMeta indexMeta =
+                    olapScanNode.getOlapTable().getIndexMetaByIndexId(olapScanNode.getSelectedIndexId());
+            if (indexMeta == null) {
+                return null;
+            }
+            long tableId = olapScanNode.getOlapTable().getId();
+            tableIds.add(tableId);
+            partitionVersions.add(tableId);
+            partitionVersions.add(indexMeta.getIndexId());
+            partitionVersions.add((long) indexMeta.getSchemaHash());
+            partitionVersions.add((long) indexMeta.getSchemaVersion());
+            Iterator<Long> versionIter = versions.iterator();
+            for (long partitionId : partitionIds) {
+                partitionVersions.add(partitionId);
+                partitionVersions.add(versionIter.next());
+            }
+        }
+
+        String sessionVariables;
+        try {
+            sessionVariables = session.getSessionVariable().getJsonString();
+        } catch (Exception e) {
+            LOG.debug("failed to serialize session variables, skip query result cache", e);
+            return null;
+        }
+        return new Key(digest, literals, session.getCurrentCatalog(), session.getDatabase(),
+                Hashing.murmur3_128().hashString(sessionVariables, StandardCharsets.UTF_8),
+                partitionVersions, tableIds);
+    }
+
+    /**
+     * Return the cached rows of the query, or null if the result is not cached.
+     */
+    public List<ByteBuffer> get(Key key) {
+        lookupCount.incrementAndGet();
+        CachedResult result = cache.getIfPresent(key);
+        if (result == null) {
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_QUERY_RESULT_CACHE_MISS.increase(1L);
+            }
+            return null;
+        }
+        hitCount.incrementAndGet();
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_QUERY_RESULT_CACHE_HIT.increase(1L);
+        }
+        List<ByteBuffer> rows = Lists.newArrayListWithCapacity(result.rows.size());
+        for (byte[] row : result.rows) {
+            rows.add(ByteBuffer.wrap(row));
+        }
+        return rows;
+    }
+
+    public void put(Key key, ResultBuilder builder) {
+        if (builder.isOverflow()) {
+            return;
+        }
+        for (long tableId : key.tableIds) {
+            tableToKeys.computeIfAbsent(tableId, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        cache.put(key, new CachedResult(builder.rows, builder.bytes));
+    }
+
+    /**
+     * Drop the cached results scanning the tables, called when new versions of the tables are visible.
+     */
+    public void invalidate(Collection<Long> tableIds) {
+        for (long tableId : tableIds) {
+            Set<Key> keys = tableToKeys.remove(tableId);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        tableToKeys.clear();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public long usedBytes() {
+        long bytes = 0;
+        for (Map.Entry<Key, CachedResult> entry : cache.asMap().entrySet()) {
+            bytes += entry.getKey().estimatedBytes() + entry.getValue().bytes;
+        }
+        return bytes;
+    }
+
+    // the percentage of the lookups found in the cache
+    public double hitRatio() {
+        long lookups = lookupCount.get();
+        return lookups == 0 ? 0 : hitCount.get() * 100.0 / lookups;
+    }
+
+    private void onRemoval(RemovalNotification<Key, CachedResult> notification) {
+        // the replaced key is equal to the new one, which is still in the cache
+        Key key = notification.getKey();
+        if (key == null || notification.getCause() == RemovalCause.REPLACED) {
+            return;
+        }
+        for (long tableId : key.tableIds) {
+            Set<Key> keys = tableToKeys.get(tableId);
+            if (keys != null) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Collect the rows of a query while they are sent to the client, the rows beyond
+     * query_result_cache_max_entry_bytes are not collected and the result is not cached.
+     */
+    public static class ResultBuilder {
+        private final long maxBytes = Config.query_result_cache_max_entry_bytes;
+        private List<byte[]> rows = Lists.newArrayList();
+        private long bytes = 0;
+
+        public void addRow(ByteBuffer row) {
+            if (rows == null) {
+                return;
+            }
+            bytes += row.remaining() + ROW_OVERHEAD_BYTES;
+            if (bytes > maxBytes) {
+                rows = null;
+                return;
+            }
+            byte[] data = new byte[row.remaining()];
+            row.duplicate().get(data);
+            rows.add(data);
+        }
+
+        public boolean isOverflow() {
+            return rows == null;
+        }
+    }
+
+    public static class Key {
+        private final String digest;
+        private final List<String> literals;
+        private final String catalog;
+        private final String database;
+        private final HashCode sessionVariables;
+        // table id, index id, schema hash and schema version of every scan,
+        // followed by the id and visible version of the scanned partitions
+        private final List<Long> partitionVersions;
+        private final Set<Long> tableIds;
+
+        private Key(String digest, List<String> literals, String catalog, String database,
+                    HashCode sessionVariables, List<Long> partitionVersions, Set<Long> tableIds) {
+            this.digest = digest;
+            this.literals = literals;
+            this.catalog = catalog;
+            this.database = database;
+            this.sessionVariables = sessionVariables;
+            this.partitionVersions = partitionVersions;
+            this.tableIds = tableIds;
+        }
+
+        private long estimatedBytes() {
+            long bytes = digest.length() * 2L + partitionVersions.size() * 24L;
+            for (String literal : literals) {
+                bytes += literal.length() * 2L;
+            }
+            return bytes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(digest, key.digest) && Objects.equals(literals, key.literals) &&
+                    Objects.equals(catalog, key.catalog) && Objects.equals(database, key.database) &&
+                    Objects.equals(sessionVariables, key.sessionVariables) &&
+                    Objects.equals(partitionVersions, key.partitionVersions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(digest, literals, catalog, database, sessionVariables, partitionVersions);
+        }
+    }
+
+    private static class CachedResult {
+        private final List<byte[]> rows;
+        private final long bytes;
+
+        private CachedResult(List<byte[]> rows, long bytes) {
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -199,11 +199,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String NEW_PLANNER_OPTIMIZER_TIMEOUT = "new_planner_optimize_timeout";
     public static final String ENABLE_GROUPBY_USE_OUTPUT_ALIAS = "enable_groupby_use_output_alias";
     public static final String ENABLE_QUERY_DUMP = "enable_query_dump";
+    public static final String ENABLE_QUERY_RESULT_CACHE = "enable_query_result_cache";
 
     public static final String CBO_MAX_REORDER_NODE_USE_EXHAUSTIVE = "cbo_max_reorder_node_use_exhaustive";
     public static final String CBO_ENABLE_DP_JOIN_REORDER = "cbo_enable_dp_join_reorder";
     public static final String CBO_MAX_REORDER_NODE_USE_DP = "cbo_max_reorder_node_use_dp";
     public static final String CBO_ENABLE_GREEDY_JOIN_REORDER = "cbo_enable_greedy_join_reorder";
+    public static final String CBO_ENABLE_PARALLEL_JOIN_REORDER = "cbo_enable_parallel_join_reorder";
+    public static final String CBO_JOIN_REORDER_PARALLELISM = "cbo_join_reorder_parallelism";
     public static final String CBO_ENABLE_REPLICATED_JOIN = "cbo_enable_replicated_join";
     public static final String CBO_USE_CORRELATED_JOIN_ESTIMATE = "cbo_use_correlated_join_estimate";
     public static final String CBO_ENABLE_LOW_CARDINALITY_OPTIMIZE = "cbo_enable_low_cardinality_optimize";
@@ -211,6 +214,8 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String CBO_CTE_REUSE = "cbo_cte_reuse";
     public static final String CBO_CTE_REUSE_RATE = "cbo_cte_reuse_rate";
     public static final String CBO_CTE_MAX_LIMIT = "cbo_cte_max_limit";
+
+    public static final String ENABLE_MATERIALIZED_VIEW_REWRITE = "enable_materialized_view_rewrite";
     public static final String ENABLE_SQL_DIGEST = "enable_sql_digest";
     public static final String CBO_MAX_REORDER_NODE = "cbo_max_reorder_node";
     public static final String CBO_PRUNE_SHUFFLE_COLUMN_RATE = "cbo_prune_shuffle_column_rate";
@@ -512,6 +517,18 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = CBO_ENABLE_GREEDY_JOIN_REORDER, flag = VariableMgr.INVISIBLE)
     private boolean cboEnableGreedyJoinReorder = true;
 
+    // Estimate the candidate join orders of one join level concurrently, only used by greedy join reorder
+    @VariableMgr.VarAttr(name = CBO_ENABLE_PARALLEL_JOIN_REORDER)
+    private boolean cboEnableParallelJoinReorder = false;
+
+    @VariableMgr.VarAttr(name = CBO_JOIN_REORDER_PARALLELISM)
+    private int cboJoinReorderParallelism = 4;
+
+    // Rewrite the queries over base tables onto the asynchronous materialized views, off by default because
+    // the rewrite matches every query block against the views of its tables during optimization
+    @VariableMgr.VarAttr(name = ENABLE_MATERIALIZED_VIEW_REWRITE)
+    private boolean enableMaterializedViewRewrite = false;
+
     @VariableMgr.VarAttr(name = CBO_DEBUG_ALIVE_BACKEND_NUMBER, flag = VariableMgr.INVISIBLE)
     private int cboDebugAliveBackendNumber = 0;
 
@@ -533,6 +550,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = ENABLE_QUERY_DUMP)
     private boolean enableQueryDump = false;
 
+    // Return the cached result of the query if the scanned partitions are not changed
+    @VariableMgr.VarAttr(name = ENABLE_QUERY_RESULT_CACHE)
+    private boolean enableQueryResultCache = false;
+
     @VariableMgr.VarAttr(name = CBO_ENABLE_LOW_CARDINALITY_OPTIMIZE)
     private boolean enableLowCardinalityOptimize = true;
 
@@ -853,6 +874,30 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         this.cboEnableGreedyJoinReorder = true;
     }
 
+    public boolean isCboEnableParallelJoinReorder() {
+        return cboEnableParallelJoinReorder;
+    }
+
+    public void setCboEnableParallelJoinReorder(boolean cboEnableParallelJoinReorder) {
+        this.cboEnableParallelJoinReorder = cboEnableParallelJoinReorder;
+    }
+
+    public int getCboJoinReorderParallelism() {
+        return cboJoinReorderParallelism;
+    }
+
+    public void setCboJoinReorderParallelism(int cboJoinReorderParallelism) {
+        this.cboJoinReorderParallelism = cboJoinReorderParallelism;
+    }
+
+    public boolean isEnableMaterializedViewRewrite() {
+        return enableMaterializedViewRewrite;
+    }
+
+    public void setEnableMaterializedViewRewrite(boolean enableMaterializedViewRewrite) {
+        this.enableMaterializedViewRewrite = enableMaterializedViewRewrite;
+    }
+
     public int getCboMaxReorderNode() {
         return cboMaxReorderNode;
     }
@@ -917,6 +962,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return enableQueryDump;
     }
 
+    public boolean isEnableQueryResultCache() {
+        return enableQueryResultCache;
+    }
+
+    public void setEnableQueryResultCache(boolean enableQueryResultCache) {
+        this.enableQueryResultCache = enableQueryResultCache;
+    }
+
     public boolean getEnableGlobalRuntimeFilter() {
         return enableGlobalRuntimeFilter;
     }
@@ -75,7 +75,10 @@ import com.starrocks.meta.SqlBlackList;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.metric.TableMetricsEntity;
 import com.starrocks.metric.TableMetricsRegistry;
+import com.starrocks.mysql.MysqlBinaryRowConverter;
 import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlCommand;
 import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlSerializer;
 import com.starrocks.mysql.privilege.PrivPredicate;
@@ -161,6 +164,10 @@ public class StmtExecutor {
     private final boolean isProxy;
     private ShowResultSet proxyResultSet = null;
     private PQueryStatistics statisticsForAuditLog;
+    // column types of the result set of COM_STMT_EXECUTE, whose rows are sent in the binary protocol
+    private List<MysqlColType> binaryRowColumnTypes = null;
+    // the parsed statement is a query analyzed before, e.g. the query of a prepared statement
+    private boolean parsedStmtAnalyzed = false;
 
     // this constructor is mainly for proxy
     public StmtExecutor(ConnectContext context, OriginStatement originStmt, boolean isProxy) {
@@ -282,6 +289,10 @@ public class StmtExecutor {
         return parsedStmt;
     }
 
+    public void setParsedStmtAnalyzed(boolean parsedStmtAnalyzed) {
+        this.parsedStmtAnalyzed = parsedStmtAnalyzed;
+    }
+
     // Execute one statement.
     // Exception:
     //  IOException: talk with client failed.
@@ -337,6 +348,8 @@ public class StmtExecutor {
                                 parsedStmt = selectStmt;
                                 execPlan = StatementPlanner.plan(parsedStmt, context);
                             }
+                        } else if (parsedStmtAnalyzed) {
+                            execPlan = StatementPlanner.planAnalyzedQuery((QueryStatement) parsedStmt, context);
                         } else {
                             execPlan = StatementPlanner.plan(parsedStmt, context);
                         }
@@ -570,8 +583,6 @@ public class StmtExecutor {
         profile.getChildMap().get("Summary")
                 .addInfoString(ProfileManager.PROFILE_TIME,
                         DebugUtil.getPrettyStringMs(profileEndTime - profileBeginTime));
-        StringBuilder builder = new StringBuilder();
-        profile.prettyPrint(builder, "");
         String profileContent = ProfileManager.getInstance().pushProfile(profile);
         if (context.getQueryDetail() != null) {
             context.getQueryDetail().setProfile(profileContent);
@@ -686,6 +697,20 @@ public class StmtExecutor {
         List<String> colNames = execPlan.getColNames();
         List<Expr> outputExprs = execPlan.getOutputExprs();
 
+        QueryResultCache.Key resultCacheKey = null;
+        QueryResultCache.ResultBuilder resultBuilder = null;
+        if (context.getSessionVariable().isEnableQueryResultCache() && queryStmt instanceof QueryStatement) {
+            resultCacheKey = QueryResultCache.getInstance().buildKey((QueryStatement) queryStmt, execPlan, context);
+            if (resultCacheKey != null) {
+                List<ByteBuffer> cachedRows = QueryResultCache.getInstance().get(resultCacheKey);
+                if (cachedRows != null) {
+                    sendCachedResult(cachedRows, colNames, outputExprs);
+                    return;
+                }
+                resultBuilder = new QueryResultCache.ResultBuilder();
+            }
+        }
+
         coord = new Coordinator(context, fragments, scanNodes, descTable);
 
         QeProcessorImpl.INSTANCE.registerQuery(context.getExecutionId(),
@@ -728,7 +753,10 @@ public class StmtExecutor {
                 }
 
                 for (ByteBuffer row : batch.getBatch().getRows()) {
-                    channel.sendOnePacket(row);
+                    if (resultBuilder != null) {
+                        resultBuilder.addRow(row);
+                    }
+                    sendResultRow(row);
                 }
                 context.updateReturnRows(batch.getBatch().getRows().size());
             }
@@ -739,6 +767,9 @@ public class StmtExecutor {
         if (!isSendFields && !isOutfileQuery) {
             sendFields(colNames, outputExprs);
         }
+        if (resultBuilder != null) {
+            QueryResultCache.getInstance().put(resultCacheKey, resultBuilder);
+        }
 
         statisticsForAuditLog = batch.getQueryStatistics();
         if (!isOutfileQuery) {
@@ -764,6 +795,16 @@ public class StmtExecutor {
         }
     }
 
+    private void sendCachedResult(List<ByteBuffer> rows, List<String> colNames, List<Expr> outputExprs)
+            throws IOException {
+        sendFields(colNames, outputExprs);
+        for (ByteBuffer row : rows) {
+            sendResultRow(row);
+        }
+        context.updateReturnRows(rows.size());
+        context.getState().setEof();
+    }
+
     private void handleAnalyzeStmt() throws IOException {
         AnalyzeStmt analyzeStmt = (AnalyzeStmt) parsedStmt;
         Database db = MetaUtils.getDatabase(context, analyzeStmt.getTableName());
@@ -880,6 +921,10 @@ public class StmtExecutor {
             serializer.writeField(col.getName(), col.getType());
             context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
         }
+        if (isBinaryRowFormat()) {
+            binaryRowColumnTypes = metaData.getColumns().stream()
+                    .map(col -> col.getType().getMysqlResultType()).collect(Collectors.toList());
+        }
         // send EOF
         serializer.reset();
         MysqlEofPacket eofPacket = new MysqlEofPacket(context.getState());
@@ -898,6 +943,10 @@ public class StmtExecutor {
             serializer.writeField(colNames.get(i), exprs.get(i).getOriginType());
             context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
         }
+        if (isBinaryRowFormat()) {
+            binaryRowColumnTypes = exprs.stream()
+                    .map(expr -> expr.getOriginType().getMysqlResultType()).collect(Collectors.toList());
+        }
         // send EOF
         serializer.reset();
         MysqlEofPacket eofPacket = new MysqlEofPacket(context.getState());
@@ -920,12 +969,24 @@ public class StmtExecutor {
                     serializer.writeLenEncodedString(item);
                 }
             }
-            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+            sendResultRow(serializer.toByteBuffer());
         }
 
         context.getState().setEof();
     }
 
+    // the result set of COM_STMT_EXECUTE must be in the binary protocol
+    private boolean isBinaryRowFormat() {
+        return context.getCommand() == MysqlCommand.COM_STMT_EXECUTE;
+    }
+
+    private void sendResultRow(ByteBuffer row) throws IOException {
+        if (binaryRowColumnTypes != null) {
+            row = MysqlBinaryRowConverter.convert(serializer, row, binaryRowColumnTypes);
+        }
+        context.getMysqlChannel().sendOnePacket(row);
+    }
+
     // Process show statement
     private void handleShow() throws IOException, AnalysisException, DdlException {
         ShowExecutor executor = new ShowExecutor(context, (ShowStmt) parsedStmt);
@@ -958,7 +1019,7 @@ public class StmtExecutor {
         for (String item : explainString.split("\n")) {
             serializer.reset();
             serializer.writeLenEncodedString(item);
-            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+            sendResultRow(serializer.toByteBuffer());
         }
         context.getState().setEof();
     }
@@ -99,9 +99,16 @@ public class BackendServiceClient {
     public Future<PExecBatchPlanFragmentsResult> execBatchPlanFragmentsAsync(
             TNetworkAddress address, TExecBatchPlanFragmentsParams tRequest)
             throws TException, RpcException {
-        final PExecBatchPlanFragmentsRequest pRequest = new PExecBatchPlanFragmentsRequest();
         TSerializer serializer = new TSerializer();
-        byte[] serializedRequest = serializer.serialize(tRequest);
+        return execBatchPlanFragmentsAsync(address, serializer.serialize(tRequest));
+    }
+
+    /**
+     * @param serializedRequest The TExecBatchPlanFragmentsParams serialized by TBinaryProtocol.
+     */
+    public Future<PExecBatchPlanFragmentsResult> execBatchPlanFragmentsAsync(
+            TNetworkAddress address, byte[] serializedRequest) throws RpcException {
+        final PExecBatchPlanFragmentsRequest pRequest = new PExecBatchPlanFragmentsRequest();
         RpcContext rpcContext = RpcContext.getContext();
         rpcContext.setReadTimeoutMillis(600000);
         rpcContext.setRequestBinaryAttachment(serializedRequest);
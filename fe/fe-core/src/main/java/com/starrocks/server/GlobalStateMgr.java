@@ -181,6 +181,7 @@ import com.starrocks.persist.RecoverInfo;
 import com.starrocks.persist.RenameMaterializedViewLog;
 import com.starrocks.persist.ReplacePartitionOperationLog;
 import com.starrocks.persist.ReplicaPersistInfo;
+import com.starrocks.persist.SectionedImage;
 import com.starrocks.persist.SetReplicaStatusOperationLog;
 import com.starrocks.persist.Storage;
 import com.starrocks.persist.TableInfo;
@@ -262,6 +263,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class GlobalStateMgr {
@@ -335,6 +337,9 @@ public class GlobalStateMgr {
 
     private static GlobalStateMgr CHECKPOINT = null;
     private static long checkpointThreadId = -1;
+    // the threads saving or loading the image sections on behalf of the checkpoint thread
+    private static final ThreadLocal<Boolean> IS_CHECKPOINT_WORKER = new ThreadLocal<>();
+    private static final AtomicInteger checkpointWorkerNum = new AtomicInteger(0);
     private Checkpoint checkpointer;
 
     private HAProtocol haProtocol = null;
@@ -718,7 +723,19 @@ public class GlobalStateMgr {
     }
 
     public static boolean isCheckpointThread() {
-        return Thread.currentThread().getId() == checkpointThreadId;
+        return Thread.currentThread().getId() == checkpointThreadId ||
+                (checkpointWorkerNum.get() > 0 && IS_CHECKPOINT_WORKER.get() != null);
+    }
+
+    // mark the current thread as working for the checkpoint thread, so it sees the checkpoint state
+    public static void setCheckpointWorker(boolean isWorker) {
+        if (isWorker && IS_CHECKPOINT_WORKER.get() == null) {
+            IS_CHECKPOINT_WORKER.set(true);
+            checkpointWorkerNum.incrementAndGet();
+        } else if (!isWorker && IS_CHECKPOINT_WORKER.get() != null) {
+            IS_CHECKPOINT_WORKER.remove();
+            checkpointWorkerNum.decrementAndGet();
+        }
     }
 
     public static PluginMgr getCurrentPluginMgr() {
@@ -1137,6 +1154,18 @@ public class GlobalStateMgr {
         LOG.info("start load image from {}. is ckpt: {}", curFile.getAbsolutePath(),
                 GlobalStateMgr.isCheckpointThread());
         long loadImageStartTime = System.currentTimeMillis();
+        if (SectionedImage.isSectionedImage(curFile)) {
+            loadSectionedImage(curFile);
+        } else {
+            loadLegacyImage(curFile);
+        }
+
+        long loadImageEndTime = System.currentTimeMillis();
+        this.imageJournalId = storage.getImageJournalId();
+        LOG.info("finished to load image in " + (loadImageEndTime - loadImageStartTime) + " ms");
+    }
+
+    private void loadLegacyImage(File curFile) throws IOException, DdlException {
         DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(curFile)));
 
         long checksum = 0;
@@ -1193,10 +1222,70 @@ public class GlobalStateMgr {
         }
 
         Preconditions.checkState(remoteChecksum == checksum, remoteChecksum + " vs. " + checksum);
+    }
 
-        long loadImageEndTime = System.currentTimeMillis();
-        this.imageJournalId = storage.getImageJournalId();
-        LOG.info("finished to load image in " + (loadImageEndTime - loadImageStartTime) + " ms");
+    private void loadSectionedImage(File curFile) throws IOException {
+        SectionedImage.Reader reader = new SectionedImage.Reader(curFile);
+        reader.readHeader(this::loadHeader);
+
+        // independent sections, loaded in parallel: node, db and variable
+        Map<String, SectionedImage.SectionReader> sections = Maps.newLinkedHashMap();
+        sections.put("node", (dis, checksum) -> {
+            checksum = nodeMgr.loadLeaderInfo(dis, checksum);
+            checksum = nodeMgr.loadFrontends(dis, checksum);
+            checksum = nodeMgr.loadBackends(dis, checksum);
+            checksum = nodeMgr.loadBrokers(dis, checksum);
+            return nodeMgr.loadComputeNodes(dis, checksum);
+        });
+        sections.put("db", (dis, checksum) -> {
+            checksum = localMetastore.loadDb(dis, checksum);
+            return localMetastore.loadCluster(dis, checksum);
+        });
+        sections.put("variable", VariableMgr::loadGlobalVariable);
+        reader.load(sections);
+
+        // ATTN: this should be done after load Db, and before loadAlterJob
+        localMetastore.recreateTabletInvertIndex();
+        // rebuild es state state
+        esRepository.loadTableFromCatalog();
+        starRocksRepository.loadTableFromCatalog();
+
+        // dependent sections, loaded one by one in the legacy order: the pending rollup and schema change jobs
+        // and the recycle bin add their tablets to the TabletInvertedIndex, and the catalogs refer to the
+        // resources
+        sections = Maps.newLinkedHashMap();
+        sections.put("alter", this::loadAlterJob);
+        sections.put("recycle_bin", recycleBin::loadRecycleBin);
+        sections.put("resource", this::loadResources);
+        sections.put("catalog", catalogMgr::loadCatalogs);
+        reader.loadInOrder(sections);
+
+        // independent sections, loaded in parallel: load, export, backup, auth, transaction, colocate,
+        // small_file, plugin, delete_handler, analyze, resource_group, task, insert_overwrite and shard_manager
+        sections = Maps.newLinkedHashMap();
+        sections.put("load", load::loadLoadJob);
+        sections.put("export", exportMgr::loadExportJob);
+        sections.put("backup", (dis, checksum) -> backupHandler.loadBackupHandler(dis, checksum, this));
+        sections.put("auth", (dis, checksum) -> {
+            checksum = auth.loadAuth(dis, checksum);
+            return auth.readAsGson(dis, checksum);
+        });
+        // global transaction must be replayed before load jobs v2
+        sections.put("transaction", (dis, checksum) -> {
+            checksum = globalTransactionMgr.loadTransactionState(dis, checksum);
+            checksum = routineLoadManager.loadRoutineLoadJobs(dis, checksum);
+            return loadManager.loadLoadJobsV2(dis, checksum);
+        });
+        sections.put("colocate", colocateTableIndex::loadColocateTableIndex);
+        sections.put("small_file", smallFileMgr::loadSmallFiles);
+        sections.put("plugin", pluginMgr::loadPlugins);
+        sections.put("delete_handler", this::loadDeleteHandler);
+        sections.put("analyze", analyzeManager::loadAnalyze);
+        sections.put("resource_group", resourceGroupMgr::loadResourceGroups);
+        sections.put("task", taskManager::loadTasks);
+        sections.put("insert_overwrite", this::loadInsertOverwriteJobs);
+        sections.put("shard_manager", this::loadShardManager);
+        reader.load(sections);
     }
 
     public long loadHeader(DataInputStream dis, long checksum) throws IOException {
@@ -1376,6 +1465,19 @@ public class GlobalStateMgr {
 
         long checksum = 0;
         long saveImageStartTime = System.currentTimeMillis();
+        if (Config.image_format_version >= 2) {
+            checksum = saveSectionedImage(curFile, replayedJournalId);
+        } else {
+            checksum = saveLegacyImage(curFile, replayedJournalId);
+        }
+
+        long saveImageEndTime = System.currentTimeMillis();
+        LOG.info("finished save image {} in {} ms. checksum is {}",
+                curFile.getAbsolutePath(), (saveImageEndTime - saveImageStartTime), checksum);
+    }
+
+    private long saveLegacyImage(File curFile, long replayedJournalId) throws IOException {
+        long checksum = 0;
         try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(curFile))) {
             checksum = saveHeader(dos, replayedJournalId, checksum);
             checksum = nodeMgr.saveLeaderInfo(dos, checksum);
@@ -1415,17 +1517,63 @@ public class GlobalStateMgr {
             checksum = shardManager.saveShardManager(dos, checksum);
             dos.writeLong(checksum);
         }
+        return checksum;
+    }
 
-        long saveImageEndTime = System.currentTimeMillis();
-        LOG.info("finished save image {} in {} ms. checksum is {}",
-                curFile.getAbsolutePath(), (saveImageEndTime - saveImageStartTime), checksum);
+    // the sections must match the ones loaded in loadSectionedImage
+    private long saveSectionedImage(File curFile, long replayedJournalId) throws IOException {
+        SectionedImage.Writer writer = new SectionedImage.Writer()
+                .addSection("node", (dos, checksum) -> {
+                    checksum = nodeMgr.saveLeaderInfo(dos, checksum);
+                    checksum = nodeMgr.saveFrontends(dos, checksum);
+                    checksum = nodeMgr.saveBackends(dos, checksum);
+                    checksum = nodeMgr.saveBrokers(dos, checksum);
+                    return nodeMgr.saveComputeNodes(dos, checksum);
+                })
+                .addSection("db", (dos, checksum) -> {
+                    checksum = localMetastore.saveDb(dos, checksum);
+                    return localMetastore.saveCluster(dos, checksum);
+                })
+                .addSection("variable", VariableMgr::saveGlobalVariable)
+                .addSection("load", load::saveLoadJob)
+                .addSection("alter", this::saveAlterJob)
+                .addSection("recycle_bin", recycleBin::saveRecycleBin)
+                .addSection("resource", resourceMgr::saveResources)
+                .addSection("export", exportMgr::saveExportJob)
+                .addSection("backup", backupHandler::saveBackupHandler)
+                .addSection("auth", (dos, checksum) -> {
+                    checksum = auth.saveAuth(dos, checksum);
+                    return auth.writeAsGson(dos, checksum);
+                })
+                .addSection("transaction", (dos, checksum) -> {
+                    checksum = globalTransactionMgr.saveTransactionState(dos, checksum);
+                    checksum = routineLoadManager.saveRoutineLoadJobs(dos, checksum);
+                    return loadManager.saveLoadJobsV2(dos, checksum);
+                })
+                .addSection("colocate", colocateTableIndex::saveColocateTableIndex)
+                .addSection("small_file", smallFileMgr::saveSmallFiles)
+                .addSection("plugin", pluginMgr::savePlugins)
+                .addSection("delete_handler", deleteHandler::saveDeleteHandler)
+                .addSection("analyze", analyzeManager::saveAnalyze)
+                .addSection("resource_group", resourceGroupMgr::saveResourceGroups)
+                .addSection("task", taskManager::saveTasks)
+                .addSection("catalog", catalogMgr::saveCatalogs)
+                .addSection("insert_overwrite", this::saveInsertOverwriteJobs)
+                .addSection("shard_manager", shardManager::saveShardManager);
+        return writer.write(curFile, (dos, checksum) ->
+                saveHeader(dos, replayedJournalId, checksum, SectionedImage.SECTIONED_IMAGE_FLAG));
     }
 
     public long saveHeader(DataOutputStream dos, long replayedJournalId, long checksum) throws IOException {
-        // Write meta version
         // community meta version is a positive integer, so we write -1 to distinguish old image structure
-        checksum ^= -1;
-        dos.writeInt(-1);
+        return saveHeader(dos, replayedJournalId, checksum, -1);
+    }
+
+    private long saveHeader(DataOutputStream dos, long replayedJournalId, long checksum, int flag)
+            throws IOException {
+        // Write meta version
+        checksum ^= flag;
+        dos.writeInt(flag);
         checksum ^= FeConstants.meta_version;
         dos.writeInt(FeConstants.meta_version);
         checksum ^= FeConstants.starrocks_meta_version;
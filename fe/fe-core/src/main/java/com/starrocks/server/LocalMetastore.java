@@ -127,6 +127,7 @@ import com.starrocks.connector.ConnectorMetadata;
 import com.starrocks.lake.LakeTable;
 import com.starrocks.lake.LakeTablet;
 import com.starrocks.lake.StorageInfo;
+import com.starrocks.leader.ReportHandler;
 import com.starrocks.meta.MetaContext;
 import com.starrocks.persist.AddPartitionsInfo;
 import com.starrocks.persist.AddPartitionsInfoV2;
@@ -3050,6 +3051,8 @@ public class LocalMetastore implements ConnectorMetadata {
                                             (short) -1,
                                             partitionInfo.getIsInMemory(partition.getId()));
                             editLog.logModifyPartition(info);
+                            // the tablets are migrated by the full tablet reports
+                            ReportHandler.requestFullTabletReport();
                         }
                     } // end for partitions
                 } // end for tables
@@ -3740,7 +3743,8 @@ public class LocalMetastore implements ConnectorMetadata {
         ModifyTablePropertyOperationLog info =
                 new ModifyTablePropertyOperationLog(db.getId(), table.getId(), properties);
         editLog.logModifyEnablePersistentIndex(info);
-
+        // the backends missing the meta update are synced by the full tablet reports
+        ReportHandler.requestFullTabletReport();
     }
 
     // The caller need to hold the db write lock
@@ -3763,6 +3767,8 @@ public class LocalMetastore implements ConnectorMetadata {
         ModifyTablePropertyOperationLog info =
                 new ModifyTablePropertyOperationLog(db.getId(), table.getId(), properties);
         editLog.logModifyInMemory(info);
+        // the backends missing the meta update are synced by the full tablet reports
+        ReportHandler.requestFullTabletReport();
     }
 
     public void modifyTableMeta(Database db, OlapTable table, Map<String, String> properties,
@@ -0,0 +1,303 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.sql;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.starrocks.catalog.MaterializedIndexMeta;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.View;
+import com.starrocks.common.Config;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.analyzer.AnalyzerUtils;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.common.SqlDigestBuilder;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalScanOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanFragmentBuilder;
+import com.starrocks.statistic.BasicStatsMeta;
+import com.starrocks.statistic.HistogramStatsMeta;
+import com.starrocks.thrift.TResultSinkType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * FE-wide cache of optimized query plans.
+ * <p>
+ * A plan is cached by the sql digest of the analyzed statement together with its literals, the session
+ * variables and a fingerprint of the referenced tables. The fingerprint covers the schema, the partitions
+ * and their visible versions, and the statistics update time of every table, so a DDL, a partition change,
+ * a load or a new statistics collection builds a new key and the stale plans are evicted by LRU.
+ * <p>
+ * Only the optimized physical plan is cached. The plan fragments hold the partition versions and are
+ * modified during scheduling, so they are rebuilt from the cached plan for every query.
+ */
+public class PlanCache {
+    private static final Logger LOG = LogManager.getLogger(PlanCache.class);
+
+    private static final PlanCache INSTANCE = new PlanCache(Config.plan_cache_max_memory_bytes);
+
+    // rough memory of one plan node, including the operator, the scalar operators and the statistics
+    private static final long ESTIMATED_NODE_BYTES = 2048;
+
+    // the functions evaluated by FE during optimization, their results depend on the time or the session,
+    // and the session/user variables whose values are not part of the digest
+    private static final Pattern NON_CACHEABLE_EXPR = Pattern.compile("@|(?i)\\b(now|current_timestamp|localtime|" +
+            "localtimestamp|curdate|current_date|curtime|current_time|utc_timestamp|unix_timestamp|sysdate|" +
+            "database|schema|user|current_user|session_user|system_user|connection_id|current_role)\\s*\\(");
+
+    private final Cache<Key, CachedPlan> cache;
+
+    public static PlanCache getInstance() {
+        return INSTANCE;
+    }
+
+    PlanCache(long maxMemoryBytes) {
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxMemoryBytes)
+                .weigher((Key key, CachedPlan plan) -> (int) Math.min(Integer.MAX_VALUE,
+                        key.estimatedBytes() + plan.estimatedBytes()))
+                .build();
+    }
+
+    /**
+     * Build the cache key of an analyzed query, return null if the plan of the query can not be cached.
+     */
+    public Key buildKey(QueryStatement stmt, ConnectContext session, TResultSinkType resultSinkType) {
+        if (stmt.isExplain()) {
+            return null;
+        }
+        List<String> literals = Lists.newArrayList();
+        String digest = SqlDigestBuilder.build(stmt, literals);
+        if (digest == null || !isCacheableDigest(digest)) {
+            return null;
+        }
+
+        List<Table> tables = AnalyzerUtils.collectAllTableAndView(stmt).values().stream()
+                .distinct()
+                .sorted(Comparator.comparingLong(Table::getId))
+                .collect(Collectors.toList());
+        if (tables.isEmpty()) {
+            return null;
+        }
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (Table table : tables) {
+            if (!fingerprint(table, hasher)) {
+                return null;
+            }
+        }
+
+        String sessionVariables;
+        try {
+            sessionVariables = session.getSessionVariable().getJsonString();
+        } catch (Exception e) {
+            LOG.debug("failed to serialize session variables, skip plan cache", e);
+            return null;
+        }
+        Set<Long> tableIds = tables.stream().map(Table::getId).collect(Collectors.toSet());
+        return new Key(digest, literals, session.getCurrentCatalog(), session.getDatabase(),
+                Hashing.murmur3_128().hashString(sessionVariables, StandardCharsets.UTF_8),
+                hasher.hash(), resultSinkType, tableIds);
+    }
+
+    /**
+     * Return false if the statement calls the functions evaluated during optimization, or refers to variables.
+     */
+    public static boolean isCacheableDigest(String digest) {
+        return !NON_CACHEABLE_EXPR.matcher(digest).find();
+    }
+
+    // Put the schema, partitions and statistics version of the table into the fingerprint,
+    // return false if the table is not supported.
+    private static boolean fingerprint(Table table, Hasher hasher) {
+        hasher.putLong(table.getId());
+        if (table instanceof View) {
+            hasher.putString(((View) table).getInlineViewDef(), StandardCharsets.UTF_8);
+            return true;
+        }
+        if (!table.isNativeTable()) {
+            return false;
+        }
+
+        OlapTable olapTable = (OlapTable) table;
+        hasher.putInt(olapTable.getState().ordinal());
+        hasher.putLong(olapTable.getBaseIndexId());
+        for (MaterializedIndexMeta indexMeta : olapTable.getIndexIdToMeta().values()) {
+            hasher.putLong(indexMeta.getIndexId());
+            hasher.putInt(indexMeta.getSchemaHash());
+            hasher.putInt(indexMeta.getSchemaVersion());
+        }
+        // the partitions without data are pruned, and the tablets are pruned by the row counts,
+        // so a load into the table changes the plan
+        for (Partition partition : olapTable.getAllPartitions()) {
+            hasher.putLong(partition.getId());
+            hasher.putLong(partition.getVisibleVersion());
+        }
+
+        BasicStatsMeta basicStatsMeta =
+                GlobalStateMgr.getCurrentAnalyzeMgr().getBasicStatsMetaMap().get(table.getId());
+        if (basicStatsMeta != null) {
+            hasher.putString(basicStatsMeta.getUpdateTime().toString(), StandardCharsets.UTF_8);
+        }
+        for (HistogramStatsMeta histogramStatsMeta :
+                GlobalStateMgr.getCurrentAnalyzeMgr().getHistogramStatsMetaMap().values()) {
+            if (histogramStatsMeta.getTableId() == table.getId()) {
+                hasher.putString(histogramStatsMeta.getColumn(), StandardCharsets.UTF_8);
+                hasher.putString(histogramStatsMeta.getUpdateTime().toString(), StandardCharsets.UTF_8);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Build the exec plan from the cached plan, return null if the plan is not cached.
+     */
+    public ExecPlan get(Key key, ConnectContext session) {
+        CachedPlan cachedPlan = cache.getIfPresent(key);
+        if (cachedPlan == null) {
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_PLAN_CACHE_MISS.increase(1L);
+            }
+            return null;
+        }
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_PLAN_CACHE_HIT.increase(1L);
+        }
+        // The fragment builder temporarily changes the plan tree, e.g. the children of merge join,
+        // so the fragments of one cached plan are built one by one.
+        synchronized (cachedPlan) {
+            return new PlanFragmentBuilder().createPhysicalPlan(cachedPlan.plan, session, cachedPlan.outputColumns,
+                    cachedPlan.columnRefFactory, cachedPlan.colNames, key.resultSinkType,
+                    !session.getSessionVariable().isSingleNodeExecPlan());
+        }
+    }
+
+    public void put(Key key, OptExpression plan, ColumnRefFactory columnRefFactory,
+                    List<ColumnRefOperator> outputColumns, List<String> colNames) {
+        // the plan may be rewritten to scan the tables not in the statement, e.g. materialized views,
+        // whose changes are not covered by the fingerprint
+        if (!scansOnlyTables(plan, key.tableIds)) {
+            return;
+        }
+        cache.put(key, new CachedPlan(plan, columnRefFactory, outputColumns, colNames));
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static boolean scansOnlyTables(OptExpression expression, Set<Long> tableIds) {
+        if (expression.getOp() instanceof PhysicalScanOperator &&
+                !tableIds.contains(((PhysicalScanOperator) expression.getOp()).getTable().getId())) {
+            return false;
+        }
+        for (OptExpression input : expression.getInputs()) {
+            if (!scansOnlyTables(input, tableIds)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long countNodes(OptExpression expression) {
+        long count = 1;
+        for (OptExpression input : expression.getInputs()) {
+            count += countNodes(input);
+        }
+        return count;
+    }
+
+    public static class Key {
+        private final String digest;
+        private final List<String> literals;
+        private final String catalog;
+        private final String database;
+        private final HashCode sessionVariables;
+        private final HashCode tables;
+        private final TResultSinkType resultSinkType;
+        private final Set<Long> tableIds;
+
+        private Key(String digest, List<String> literals, String catalog, String database,
+                    HashCode sessionVariables, HashCode tables, TResultSinkType resultSinkType, Set<Long> tableIds) {
+            this.digest = digest;
+            this.literals = literals;
+            this.catalog = catalog;
+            this.database = database;
+            this.sessionVariables = sessionVariables;
+            this.tables = tables;
+            this.resultSinkType = resultSinkType;
+            this.tableIds = tableIds;
+        }
+
+        private long estimatedBytes() {
+            long bytes = digest.length() * 2L;
+            for (String literal : literals) {
+                bytes += literal.length() * 2L;
+            }
+            return bytes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(digest, key.digest) && Objects.equals(literals, key.literals) &&
+                    Objects.equals(catalog, key.catalog) && Objects.equals(database, key.database) &&
+                    Objects.equals(sessionVariables, key.sessionVariables) && Objects.equals(tables, key.tables) &&
+                    resultSinkType == key.resultSinkType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(digest, literals, catalog, database, sessionVariables, tables, resultSinkType);
+        }
+    }
+
+    private static class CachedPlan {
+        private final OptExpression plan;
+        private final ColumnRefFactory columnRefFactory;
+        private final List<ColumnRefOperator> outputColumns;
+        private final List<String> colNames;
+        private final long nodes;
+
+        private CachedPlan(OptExpression plan, ColumnRefFactory columnRefFactory,
+                           List<ColumnRefOperator> outputColumns, List<String> colNames) {
+            this.plan = plan;
+            this.columnRefFactory = columnRefFactory;
+            this.outputColumns = outputColumns;
+            this.colNames = colNames;
+            this.nodes = countNodes(plan);
+        }
+
+        private long estimatedBytes() {
+            return nodes * ESTIMATED_NODE_BYTES;
+        }
+    }
+}
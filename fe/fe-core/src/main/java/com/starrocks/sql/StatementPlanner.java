@@ -8,6 +8,8 @@ import com.starrocks.analysis.DmlStmt;
 import com.starrocks.analysis.StatementBase;
 import com.starrocks.analysis.UpdateStmt;
 import com.starrocks.catalog.Database;
+import com.starrocks.common.Config;
+import com.starrocks.mysql.MysqlCommand;
 import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.ResultSink;
 import com.starrocks.qe.ConnectContext;
@@ -51,21 +53,7 @@ public class StatementPlanner {
         }
 
         if (stmt instanceof QueryStatement) {
-            Map<String, Database> dbs = AnalyzerUtils.collectAllDatabase(session, stmt);
-            Map<String, Database> dbLocks = null;
-            if (lockDb) {
-                dbLocks = dbs;
-            }
-            try {
-                lock(dbLocks);
-                session.setCurrentSqlDbIds(dbs.values().stream().map(Database::getId).collect(Collectors.toSet()));
-                ExecPlan plan = createQueryPlan(((QueryStatement) stmt).getQueryRelation(), session, resultSinkType);
-                setOutfileSink((QueryStatement) stmt, plan);
-
-                return plan;
-            } finally {
-                unLock(dbLocks);
-            }
+            return planQuery((QueryStatement) stmt, session, lockDb, resultSinkType);
         } else if (stmt instanceof DmlStmt) {
             Map<String, Database> dbs = null;
             if (lockDb) {
@@ -87,8 +75,56 @@ public class StatementPlanner {
         return null;
     }
 
+    /**
+     * Plan a query analyzed before, e.g. the query of a prepared statement bound to new parameter values.
+     * The privileges are checked again, as they may be revoked since the query is analyzed.
+     */
+    public static ExecPlan planAnalyzedQuery(QueryStatement stmt, ConnectContext session) {
+        PrivilegeChecker.check(stmt, session);
+        return planQuery(stmt, session, true, TResultSinkType.MYSQL_PROTOCAL);
+    }
+
+    private static ExecPlan planQuery(QueryStatement stmt, ConnectContext session, boolean lockDb,
+                                      TResultSinkType resultSinkType) {
+        Map<String, Database> dbs = AnalyzerUtils.collectAllDatabase(session, stmt);
+        Map<String, Database> dbLocks = null;
+        if (lockDb) {
+            dbLocks = dbs;
+        }
+        try {
+            lock(dbLocks);
+            session.setCurrentSqlDbIds(dbs.values().stream().map(Database::getId).collect(Collectors.toSet()));
+            ExecPlan plan = createQueryPlanWithCache(stmt, session, resultSinkType);
+            setOutfileSink(stmt, plan);
+
+            return plan;
+        } finally {
+            unLock(dbLocks);
+        }
+    }
+
+    private static ExecPlan createQueryPlanWithCache(QueryStatement stmt, ConnectContext session,
+                                                     TResultSinkType resultSinkType) {
+        PlanCache.Key cacheKey = null;
+        // a prepared statement is executed to reuse its plan
+        if (Config.enable_plan_cache || session.getCommand() == MysqlCommand.COM_STMT_EXECUTE) {
+            cacheKey = PlanCache.getInstance().buildKey(stmt, session, resultSinkType);
+            if (cacheKey != null) {
+                ExecPlan plan = PlanCache.getInstance().get(cacheKey, session);
+                if (plan != null) {
+                    return plan;
+                }
+            }
+        }
+        return createQueryPlan(stmt.getQueryRelation(), session, resultSinkType, cacheKey);
+    }
 
     public static ExecPlan createQueryPlan(Relation relation, ConnectContext session, TResultSinkType resultSinkType) {
+        return createQueryPlan(relation, session, resultSinkType, null);
+    }
+
+    private static ExecPlan createQueryPlan(Relation relation, ConnectContext session, TResultSinkType resultSinkType,
+                                            PlanCache.Key cacheKey) {
         QueryRelation query = (QueryRelation) relation;
         List<String> colNames = query.getColumnOutputNames();
 
@@ -111,10 +147,17 @@ public class StatementPlanner {
          * currently only used in Spark/Flink Connector
          * Because the connector sends only simple queries, it only needs to remove the output fragment
          */
-        return new PlanFragmentBuilder().createPhysicalPlan(
+        ExecPlan execPlan = new PlanFragmentBuilder().createPhysicalPlan(
                 optimizedPlan, session, logicalPlan.getOutputColumn(), columnRefFactory, colNames,
                 resultSinkType,
                 !session.getSessionVariable().isSingleNodeExecPlan());
+
+        //4. Cache the optimized plan, the fragments are rebuilt from it by the following same queries
+        if (cacheKey != null) {
+            PlanCache.getInstance().put(cacheKey, optimizedPlan, columnRefFactory,
+                    logicalPlan.getOutputColumn(), colNames);
+        }
+        return execPlan;
     }
 
     // Lock all database before analyze
@@ -28,6 +28,7 @@ import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LimitElement;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.SelectList;
 import com.starrocks.analysis.SelectListItem;
@@ -541,6 +542,11 @@ public class AST2SQL {
             return visitExpression(node, context);
         }
 
+        @Override
+        public String visitParameterExpr(Parameter node, Void context) {
+            return visitExpression(node, context);
+        }
+
         @Override
         public String visitTimestampArithmeticExpr(TimestampArithmeticExpr node, Void context) {
             String funcName = node.getFuncName();
@@ -24,6 +24,7 @@ import com.starrocks.analysis.IsNullPredicate;
 import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.Subquery;
@@ -287,5 +288,10 @@ public class AggregationAnalyzer {
         public Boolean visitCloneExpr(CloneExpr node, Void context) {
             return visit(node.getChild(0));
         }
+
+        @Override
+        public Boolean visitParameterExpr(Parameter node, Void context) {
+            return true;
+        }
     }
 }
@@ -294,6 +294,13 @@ public class AnalyzerUtils {
         return tables;
     }
 
+    //Get all the table and view used, including the tables referenced by the views
+    public static Map<TableName, Table> collectAllTableAndView(StatementBase statementBase) {
+        Map<TableName, Table> tables = Maps.newHashMap();
+        new AnalyzerUtils.TableAndViewCollector(tables).visit(statementBase);
+        return tables;
+    }
+
     public static Map<String, TableRelation> collectAllTableRelation(StatementBase statementBase) {
         Map<String, TableRelation> tableRelations = Maps.newHashMap();
         new AnalyzerUtils.TableRelationCollector(tableRelations).visit(statementBase);
@@ -331,6 +338,18 @@ public class AnalyzerUtils {
         }
     }
 
+    private static class TableAndViewCollector extends TableCollector {
+        public TableAndViewCollector(Map<TableName, Table> dbs) {
+            super(dbs);
+        }
+
+        @Override
+        public Void visitView(ViewRelation node, Void context) {
+            tables.put(node.getResolveTableName(), node.getView());
+            return super.visitView(node, context);
+        }
+    }
+
     private static class TableRelationCollector extends TableCollector {
 
         private final Map<String, TableRelation> tableRelations;
@@ -31,6 +31,7 @@ import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.Predicate;
 import com.starrocks.analysis.SetType;
 import com.starrocks.analysis.SlotRef;
@@ -902,6 +903,15 @@ public class ExpressionAnalyzer {
         public Void visitCloneExpr(CloneExpr node, Scope context) {
             return null;
         }
+
+        @Override
+        public Void visitParameterExpr(Parameter node, Scope context) {
+            if (node.getExpr() == null) {
+                throw new SemanticException("Parameter %d of prepared statement is not bound", node.getSlotId() + 1);
+            }
+            node.setType(node.getExpr().getType());
+            return null;
+        }
     }
 
     static class IgnoreSlotVisitor extends Visitor {
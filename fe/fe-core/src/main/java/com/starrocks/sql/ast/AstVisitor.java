@@ -56,6 +56,7 @@ import com.starrocks.analysis.ModifyFrontendAddressClause;
 import com.starrocks.analysis.ModifyPartitionClause;
 import com.starrocks.analysis.ModifyTablePropertiesClause;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.PauseRoutineLoadStmt;
 import com.starrocks.analysis.RecoverPartitionStmt;
@@ -777,6 +778,10 @@ public abstract class AstVisitor<R, C> {
     public R visitCloneExpr(CloneExpr node, C context) {
         return visitExpression(node, context);
     }
+
+    public R visitParameterExpr(Parameter node, C context) {
+        return visitExpression(node, context);
+    }
     // ----------------- AST ---------------
 
     public R visitLimitElement(LimitElement node, C context) {
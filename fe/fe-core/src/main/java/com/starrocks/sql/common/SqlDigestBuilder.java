@@ -3,18 +3,44 @@ package com.starrocks.sql.common;
 
 import com.starrocks.analysis.LimitElement;
 import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.StatementBase;
 import com.starrocks.sql.analyzer.AST2SQL;
 
+import java.util.List;
+
 //Used to build sql digests
 public class SqlDigestBuilder {
     public static String build(StatementBase statement) {
-        return new SqlDigestBuilderVisitor().visit(statement);
+        return new SqlDigestBuilderVisitor(null).visit(statement);
+    }
+
+    // Build the digest and collect the normalized literals in the order they appear in the digest,
+    // the digest together with the literals identifies the statement.
+    public static String build(StatementBase statement, List<String> literals) {
+        return new SqlDigestBuilderVisitor(literals).visit(statement);
     }
 
     private static class SqlDigestBuilderVisitor extends AST2SQL.SQLBuilder {
+        private final List<String> literals;
+
+        SqlDigestBuilderVisitor(List<String> literals) {
+            this.literals = literals;
+        }
+
         @Override
         public String visitLiteral(LiteralExpr expr, Void context) {
+            if (literals != null) {
+                literals.add(expr.getType() + ":" + super.visitLiteral(expr, context));
+            }
+            return "?";
+        }
+
+        @Override
+        public String visitParameterExpr(Parameter expr, Void context) {
+            if (literals != null && expr.getExpr() != null) {
+                literals.add(expr.getExpr().getType() + ":" + expr.getExpr().toSql());
+            }
             return "?";
         }
 
@@ -23,6 +49,9 @@ public class SqlDigestBuilder {
             if (node.getLimit() == -1) {
                 return "";
             }
+            if (literals != null) {
+                literals.add(node.getOffset() + "," + node.getLimit());
+            }
             StringBuilder sb = new StringBuilder(" LIMIT ");
             if (node.getOffset() != 0) {
                 sb.append(" ?, ");
@@ -21,6 +21,7 @@ import com.starrocks.sql.optimizer.rule.Rule;
 import com.starrocks.sql.optimizer.rule.RuleSetType;
 import com.starrocks.sql.optimizer.rule.implementation.PreAggregateTurnOnRule;
 import com.starrocks.sql.optimizer.rule.join.ReorderJoinRule;
+import com.starrocks.sql.optimizer.rule.mv.AsyncMaterializedViewRewriter;
 import com.starrocks.sql.optimizer.rule.mv.MaterializedViewRule;
 import com.starrocks.sql.optimizer.rule.transformation.GroupByCountDistinctRewriteRule;
 import com.starrocks.sql.optimizer.rule.transformation.LimitPruneTabletsRule;
@@ -147,6 +148,12 @@ public class Optimizer {
             }
         }
 
+        // Add the plans on asynchronous materialized views, they are chosen by cost
+        List<GroupExpression> mvExpressions = Collections.emptyList();
+        if (sessionVariable.isEnableMaterializedViewRewrite()) {
+            mvExpressions = new AsyncMaterializedViewRewriter(context, connectContext).rewrite(tree);
+        }
+
         //add join implementRule
         String joinImplementationMode = ConnectContext.get().getSessionVariable().getJoinImplementationMode();
         if ("merge".equalsIgnoreCase(joinImplementationMode)) {
@@ -164,6 +171,9 @@ public class Optimizer {
 
         context.getTaskScheduler().pushTask(new DeriveStatsTask(
                 rootTaskContext, memo.getRootGroup().getFirstLogicalExpression()));
+        for (GroupExpression mvExpression : mvExpressions) {
+            context.getTaskScheduler().pushTask(new DeriveStatsTask(rootTaskContext, mvExpression));
+        }
 
         context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
     }
@@ -6,6 +6,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.analysis.JoinOperator;
 import com.starrocks.common.Pair;
+import com.starrocks.qe.ConnectContext;
 import com.starrocks.sql.optimizer.ExpressionContext;
 import com.starrocks.sql.optimizer.Group;
 import com.starrocks.sql.optimizer.OptExpression;
@@ -28,6 +29,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 public abstract class JoinOrder {
     /**
@@ -115,6 +119,17 @@ public abstract class JoinOrder {
         }
     }
 
+    // Shared by all queries, the parallelism of one query is limited by the session variable
+    // cbo_join_reorder_parallelism
+    private static final ForkJoinPool ESTIMATE_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("join-reorder-estimate-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+    // Too small batch of join expressions is not worth a task
+    private static final int MIN_EXPRS_PER_ESTIMATE_TASK = 16;
+
     public JoinOrder(OptimizerContext context) {
         this.context = context;
     }
@@ -230,6 +245,59 @@ public abstract class JoinOrder {
         expr.setStatistics(expressionContext.getStatistics());
     }
 
+    /**
+     * Derive the logical property, statistics and cost of the new join expressions.
+     * The join expressions are independent of each other, so they are estimated concurrently if
+     * cbo_enable_parallel_join_reorder is set. The children statistics are calculated in the current thread
+     * first, because the statistics of a scan may be recorded in the shared dump info.
+     */
+    protected void estimateJoinExprs(List<ExpressionInfo> joinExprs) {
+        for (ExpressionInfo joinExpr : joinExprs) {
+            joinExpr.expr.getInputs().forEach(this::calculateStatistics);
+        }
+
+        int parallelism = 1;
+        if (context.getSessionVariable().isCboEnableParallelJoinReorder()) {
+            parallelism = Math.min(context.getSessionVariable().getCboJoinReorderParallelism(),
+                    joinExprs.size() / MIN_EXPRS_PER_ESTIMATE_TASK);
+        }
+        if (parallelism <= 1) {
+            joinExprs.forEach(this::estimateJoinExpr);
+            return;
+        }
+
+        // StatisticsCalculator reads the session variables from the thread local connect context
+        ConnectContext connectContext = ConnectContext.get();
+        int batchSize = (joinExprs.size() + parallelism - 1) / parallelism;
+        List<ForkJoinTask<?>> tasks = Lists.newArrayList();
+        for (int start = 0; start < joinExprs.size(); start += batchSize) {
+            List<ExpressionInfo> batch = joinExprs.subList(start, Math.min(start + batchSize, joinExprs.size()));
+            tasks.add(ESTIMATE_POOL.submit(() -> {
+                // the task may be executed by the current thread when it is joined, so restore the context
+                ConnectContext previous = ConnectContext.get();
+                if (connectContext != null) {
+                    connectContext.setThreadLocalInfo();
+                }
+                try {
+                    batch.forEach(this::estimateJoinExpr);
+                } finally {
+                    if (previous != null) {
+                        previous.setThreadLocalInfo();
+                    } else {
+                        ConnectContext.remove();
+                    }
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+    }
+
+    private void estimateJoinExpr(ExpressionInfo joinExpr) {
+        joinExpr.expr.deriveLogicalPropertyItself();
+        calculateStatistics(joinExpr.expr);
+        computeCost(joinExpr, true);
+    }
+
     protected void computeCost(ExpressionInfo exprInfo, boolean penaltyCross) {
         double cost = exprInfo.expr.getStatistics().getOutputRowCount();
         exprInfo.rowCount = cost;
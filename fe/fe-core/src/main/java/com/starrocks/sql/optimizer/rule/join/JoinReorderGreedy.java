@@ -70,32 +70,28 @@ public class JoinReorderGreedy extends JoinOrder {
         List<GroupInfo> rightGroupInfos = getGroupForLevel(rightLevel);
         JoinLevel curLevel = joinLevels.get(leftLevel + rightLevel);
         List<GroupInfo> bestLeftGroups = getBestGroupList(leftGroupInfos, curLevel);
+        List<ExpressionInfo> joinExprs = Lists.newArrayList();
         for (GroupInfo leftGroup : bestLeftGroups) {
             BitSet leftBitset = leftGroup.atoms;
-            double bestCost = Double.MAX_VALUE;
-
             for (GroupInfo rightGroup : rightGroupInfos) {
                 BitSet rightBitset = rightGroup.atoms;
                 if (leftBitset.intersects(rightBitset)) {
                     continue;
                 }
-
-                ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
-                joinExpr.expr.deriveLogicalPropertyItself();
-                calculateStatistics(joinExpr.expr);
-
-                BitSet joinBitSet = new BitSet();
-                joinBitSet.or(leftBitset);
-                joinBitSet.or(rightBitset);
-
-                computeCost(joinExpr, true);
-                GroupInfo groupInfo = getOrCreateGroupInfo(curLevel, joinBitSet, joinExpr);
-                double joinCost = joinExpr.cost;
-                if (joinCost < bestCost) {
-                    bestCost = joinCost;
-                }
+                joinExprs.add(buildJoinExpr(leftGroup, rightGroup));
             }
         }
+
+        // The groups of the current level are not used to build the join expressions of the current level,
+        // so all the join expressions could be estimated before added to the groups, and they are added
+        // in the same order as they are built to keep the result deterministic.
+        estimateJoinExprs(joinExprs);
+        for (ExpressionInfo joinExpr : joinExprs) {
+            BitSet joinBitSet = new BitSet();
+            joinBitSet.or(joinExpr.leftChildExpr.atoms);
+            joinBitSet.or(joinExpr.rightChildExpr.atoms);
+            getOrCreateGroupInfo(curLevel, joinBitSet, joinExpr);
+        }
     }
 
     private List<GroupInfo> getBestGroupList(List<GroupInfo> groupInfos, JoinLevel curLevel) {
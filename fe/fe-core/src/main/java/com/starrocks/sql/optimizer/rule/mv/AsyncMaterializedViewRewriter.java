@@ -0,0 +1,942 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.PartitionNames;
+import com.starrocks.analysis.SlotRef;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.DistributionInfo;
+import com.starrocks.catalog.ExpressionRangePartitionInfo;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.HashDistributionInfo;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.Pair;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.analyzer.AnalyzerUtils;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.TableRelation;
+import com.starrocks.sql.common.SyncPartitionUtils;
+import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.base.DistributionSpec;
+import com.starrocks.sql.optimizer.base.HashDistributionDesc;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.Projection;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalUnionOperator;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+import com.starrocks.sql.optimizer.rewrite.ScalarOperatorRewriter;
+import com.starrocks.sql.optimizer.rule.transformation.DistributionPruneRule;
+import com.starrocks.sql.optimizer.rule.transformation.PartitionPruneRule;
+import com.starrocks.sql.optimizer.transformer.LogicalPlan;
+import com.starrocks.sql.optimizer.transformer.RelationTransformer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.starrocks.catalog.Function.CompareMode.IS_IDENTICAL;
+
+/**
+ * Rewrite the select-project-join-group by (SPJG) blocks of a query onto the asynchronous materialized views
+ * of the scanned tables.
+ * <p>
+ * Both the query block and the view definition are normalized to a set of tables, a list of conjuncts and the
+ * output expressions over one column reference per table column. A view matches a query block when they join
+ * the same tables, the conjuncts of the view are a subset of the conjuncts of the query, and the remaining
+ * conjuncts, the group by keys and the aggregations of the query can be computed from the view outputs.
+ * The aggregations are rolled up when the view groups by more keys than the query.
+ * <p>
+ * If some partitions of the partition-by table of the view are changed after the last refresh, the fresh
+ * view partitions are unioned with the view definition evaluated on the changed base partitions.
+ * <p>
+ * The rewritten plans are added into the group of the query block, so the memo picks the cheaper one of the
+ * base tables and the views.
+ */
+public class AsyncMaterializedViewRewriter {
+    private static final Logger LOG = LogManager.getLogger(AsyncMaterializedViewRewriter.class);
+
+    private final OptimizerContext context;
+    private final ColumnRefFactory columnRefFactory;
+    private final ConnectContext connectContext;
+    private final ScalarOperatorRewriter scalarRewriter = new ScalarOperatorRewriter();
+    // one column reference for each column of the base tables, shared by the query and the views
+    private final Map<Pair<Long, String>, ColumnRefOperator> baseColumnRefs = Maps.newHashMap();
+    private final Map<Long, MvPlan> mvPlans = Maps.newHashMap();
+    private final List<GroupExpression> rewrittenExpressions = Lists.newArrayList();
+
+    public AsyncMaterializedViewRewriter(OptimizerContext context, ConnectContext connectContext) {
+        this.context = context;
+        this.columnRefFactory = context.getColumnRefFactory();
+        this.connectContext = connectContext;
+    }
+
+    /**
+     * Add the plans on materialized views into the memo groups of the logical tree.
+     *
+     * @return the new group expressions, whose statistics need to be derived
+     */
+    public List<GroupExpression> rewrite(OptExpression tree) {
+        List<MaterializedView> mvs = collectMaterializedViews(tree);
+        if (mvs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        visit(tree, mvs, false);
+        return rewrittenExpressions;
+    }
+
+    private List<MaterializedView> collectMaterializedViews(OptExpression tree) {
+        List<LogicalOlapScanOperator> scans = Lists.newArrayList();
+        Utils.extractOlapScanOperator(tree.getGroupExpression(), scans);
+        Set<Long> mvIds = Sets.newHashSet();
+        for (LogicalOlapScanOperator scan : scans) {
+            mvIds.addAll(((OlapTable) scan.getTable()).getRelatedMaterializedViews());
+        }
+        if (mvIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // the materialized view is in the same database with its base tables
+        List<Database> dbs = Lists.newArrayList();
+        if (connectContext.getCurrentSqlDbIds() != null && !connectContext.getCurrentSqlDbIds().isEmpty()) {
+            for (long dbId : connectContext.getCurrentSqlDbIds()) {
+                Database db = GlobalStateMgr.getCurrentState().getDb(dbId);
+                if (db != null) {
+                    dbs.add(db);
+                }
+            }
+        } else if (connectContext.getDatabase() != null) {
+            Database db = GlobalStateMgr.getCurrentState().getDb(connectContext.getDatabase());
+            if (db != null) {
+                dbs.add(db);
+            }
+        }
+
+        List<MaterializedView> mvs = Lists.newArrayList();
+        for (long mvId : mvIds) {
+            for (Database db : dbs) {
+                Table table = db.getTable(mvId);
+                if (table instanceof MaterializedView && ((MaterializedView) table).isActive()) {
+                    mvs.add((MaterializedView) table);
+                    break;
+                }
+            }
+        }
+        return mvs;
+    }
+
+    private void visit(OptExpression expression, List<MaterializedView> mvs, boolean parentIsSpj) {
+        Operator op = expression.getOp();
+        boolean isSpj = isSpjOperator(op);
+        if (op instanceof LogicalAggregationOperator) {
+            rewriteAggregation(expression, mvs);
+        } else if (op instanceof LogicalJoinOperator && !parentIsSpj) {
+            rewriteSpj(expression, mvs);
+        }
+        for (OptExpression input : expression.getInputs()) {
+            visit(input, mvs, isSpj);
+        }
+    }
+
+    private static boolean isSpjOperator(Operator op) {
+        return op instanceof LogicalOlapScanOperator || op instanceof LogicalJoinOperator ||
+                op instanceof LogicalFilterOperator || op instanceof LogicalProjectOperator;
+    }
+
+    // Rewrite the join tree which is not under an aggregation
+    private void rewriteSpj(OptExpression expression, List<MaterializedView> mvs) {
+        Spjg query = new Spjg();
+        if (!normalize(expression, query, false)) {
+            return;
+        }
+        ColumnRefSet groupOutputs = expression.getGroupExpression().getGroup().getLogicalProperty().getOutputColumns();
+        Map<ColumnRefOperator, ScalarOperator> outputs = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : query.outputs.entrySet()) {
+            if (groupOutputs.contains(entry.getKey())) {
+                outputs.put(entry.getKey(), canonicalize(entry.getValue()));
+            }
+        }
+        if (outputs.size() != groupOutputs.cardinality()) {
+            return;
+        }
+
+        for (MaterializedView mv : mvs) {
+            MvPlan mvPlan = getMvPlan(mv);
+            if (mvPlan == null || mvPlan.spjg.aggregations != null) {
+                continue;
+            }
+            MvRewriteContext rewriteContext = match(query, mvPlan);
+            if (rewriteContext == null) {
+                continue;
+            }
+
+            Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : outputs.entrySet()) {
+                ScalarOperator rewritten = rewriteContext.rewrite(entry.getValue());
+                if (rewritten == null) {
+                    break;
+                }
+                projection.put(entry.getKey(), rewritten);
+            }
+            if (projection.size() != outputs.size()) {
+                continue;
+            }
+
+            OptExpression relation = rewriteContext.buildRelation();
+            if (relation != null) {
+                copyIn(expression, OptExpression.create(new LogicalProjectOperator(projection), relation));
+            }
+        }
+    }
+
+    private void rewriteAggregation(OptExpression expression, List<MaterializedView> mvs) {
+        LogicalAggregationOperator aggregation = (LogicalAggregationOperator) expression.getOp();
+        if (aggregation.getType() != AggType.GLOBAL || aggregation.isSplit() ||
+                aggregation.getLimit() != Operator.DEFAULT_LIMIT) {
+            return;
+        }
+        Spjg query = new Spjg();
+        if (!normalize(expression.inputAt(0), query, false)) {
+            return;
+        }
+        ReplaceColumnRefRewriter rewriter = new ReplaceColumnRefRewriter(query.outputs);
+        Map<ColumnRefOperator, ScalarOperator> groupKeys = Maps.newLinkedHashMap();
+        for (ColumnRefOperator key : aggregation.getGroupingKeys()) {
+            groupKeys.put(key, canonicalize(rewriter.rewrite(key)));
+        }
+        Map<ColumnRefOperator, CallOperator> aggregations = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregation.getAggregations().entrySet()) {
+            ScalarOperator call = canonicalize(rewriter.rewrite(entry.getValue()));
+            if (!(call instanceof CallOperator)) {
+                return;
+            }
+            aggregations.put(entry.getKey(), (CallOperator) call);
+        }
+
+        for (MaterializedView mv : mvs) {
+            MvPlan mvPlan = getMvPlan(mv);
+            if (mvPlan == null) {
+                continue;
+            }
+            MvRewriteContext rewriteContext = match(query, mvPlan);
+            if (rewriteContext == null) {
+                continue;
+            }
+            OptExpression rewritten;
+            if (mvPlan.spjg.aggregations == null) {
+                rewritten = aggregateOnSpjView(expression, groupKeys, aggregations, rewriteContext);
+            } else {
+                rewritten = aggregateOnAggregatedView(expression, groupKeys, aggregations, rewriteContext);
+            }
+            if (rewritten != null) {
+                copyIn(expression, rewritten);
+            }
+        }
+    }
+
+    // The view has no aggregation, aggregate the view outputs the same as the query
+    private OptExpression aggregateOnSpjView(OptExpression expression, Map<ColumnRefOperator, ScalarOperator> groupKeys,
+                                             Map<ColumnRefOperator, CallOperator> aggregations,
+                                             MvRewriteContext rewriteContext) {
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        if (!rewriteGroupKeys(groupKeys, rewriteContext, projection)) {
+            return null;
+        }
+        Map<ColumnRefOperator, CallOperator> newAggregations = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregations.entrySet()) {
+            CallOperator call = entry.getValue();
+            List<ScalarOperator> arguments = Lists.newArrayList();
+            for (ScalarOperator argument : call.getChildren()) {
+                ScalarOperator rewritten = rewriteContext.rewrite(argument);
+                if (rewritten == null) {
+                    return null;
+                }
+                arguments.add(projectArgument(rewritten, projection));
+            }
+            newAggregations.put(entry.getKey(), new CallOperator(call.getFnName(), call.getType(), arguments,
+                    call.getFunction(), call.isDistinct()));
+        }
+        return buildAggregation(expression, newAggregations, projection, rewriteContext);
+    }
+
+    // The view has an aggregation, read the aggregated values directly if the view groups by the same keys,
+    // otherwise roll up the aggregated values
+    private OptExpression aggregateOnAggregatedView(OptExpression expression,
+                                                    Map<ColumnRefOperator, ScalarOperator> groupKeys,
+                                                    Map<ColumnRefOperator, CallOperator> aggregations,
+                                                    MvRewriteContext rewriteContext) {
+        MvPlan mvPlan = rewriteContext.mvPlan;
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        if (!rewriteGroupKeys(groupKeys, rewriteContext, projection)) {
+            return null;
+        }
+
+        // The rows of the union compensation are disjoint only if the partition column is a group by key
+        boolean sameGroupKeys = Sets.newHashSet(groupKeys.values()).equals(Sets.newHashSet(mvPlan.spjg.groupKeys)) &&
+                (rewriteContext.freshness.isFresh() || mvPlan.partitionColumnIsGroupKey);
+        if (sameGroupKeys) {
+            for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregations.entrySet()) {
+                Integer index = mvPlan.aggregationColumns.get(entry.getValue());
+                if (index == null) {
+                    break;
+                }
+                projection.put(entry.getKey(), rewriteContext.columnRef(index));
+            }
+            if (projection.size() == groupKeys.size() + aggregations.size()) {
+                LogicalAggregationOperator aggregation = (LogicalAggregationOperator) expression.getOp();
+                OptExpression result = rewriteContext.buildRelation();
+                if (result == null) {
+                    return null;
+                }
+                result = OptExpression.create(new LogicalProjectOperator(projection), result);
+                if (aggregation.getPredicate() != null) {
+                    result = OptExpression.create(new LogicalFilterOperator(aggregation.getPredicate()), result);
+                }
+                if (aggregation.getProjection() != null) {
+                    result = OptExpression.create(
+                            new LogicalProjectOperator(aggregation.getProjection().getColumnRefMap()), result);
+                }
+                return result;
+            }
+            projection.keySet().removeAll(aggregations.keySet());
+        }
+
+        Map<ColumnRefOperator, CallOperator> newAggregations = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregations.entrySet()) {
+            CallOperator call = entry.getValue();
+            Integer index = mvPlan.aggregationColumns.get(call);
+            if (index == null || call.isDistinct()) {
+                return null;
+            }
+            ColumnRefOperator mvColumn = rewriteContext.columnRef(index);
+            CallOperator rollup = rollupAggregation(call, mvColumn);
+            if (rollup == null) {
+                return null;
+            }
+            projection.put(mvColumn, mvColumn);
+            newAggregations.put(entry.getKey(), rollup);
+        }
+        return buildAggregation(expression, newAggregations, projection, rewriteContext);
+    }
+
+    private static CallOperator rollupAggregation(CallOperator call, ColumnRefOperator mvColumn) {
+        String fnName = call.getFnName();
+        Function fn;
+        if (fnName.equals(FunctionSet.SUM) || fnName.equals(FunctionSet.COUNT)) {
+            fnName = FunctionSet.SUM;
+            fn = Expr.getBuiltinFunction(FunctionSet.SUM, new Type[] {mvColumn.getType()}, IS_IDENTICAL);
+        } else if (fnName.equals(FunctionSet.MIN) || fnName.equals(FunctionSet.MAX)) {
+            fn = call.getFunction();
+        } else {
+            return null;
+        }
+        if (fn == null || !fn.getReturnType().equals(call.getType())) {
+            return null;
+        }
+        return new CallOperator(fnName, call.getType(), Lists.newArrayList(mvColumn), fn);
+    }
+
+    private static boolean rewriteGroupKeys(Map<ColumnRefOperator, ScalarOperator> groupKeys,
+                                            MvRewriteContext rewriteContext,
+                                            Map<ColumnRefOperator, ScalarOperator> projection) {
+        for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : groupKeys.entrySet()) {
+            ScalarOperator rewritten = rewriteContext.rewrite(entry.getValue());
+            if (rewritten == null) {
+                return false;
+            }
+            projection.put(entry.getKey(), rewritten);
+        }
+        return true;
+    }
+
+    private ScalarOperator projectArgument(ScalarOperator argument, Map<ColumnRefOperator, ScalarOperator> projection) {
+        if (argument instanceof ConstantOperator) {
+            return argument;
+        }
+        if (argument instanceof ColumnRefOperator) {
+            projection.put((ColumnRefOperator) argument, argument);
+            return argument;
+        }
+        ColumnRefOperator ref = columnRefFactory.create(argument, argument.getType(), argument.isNullable());
+        projection.put(ref, argument);
+        return ref;
+    }
+
+    private OptExpression buildAggregation(OptExpression expression, Map<ColumnRefOperator, CallOperator> aggregations,
+                                           Map<ColumnRefOperator, ScalarOperator> projection,
+                                           MvRewriteContext rewriteContext) {
+        OptExpression relation = rewriteContext.buildRelation();
+        if (relation == null) {
+            return null;
+        }
+        LogicalAggregationOperator aggregation = new LogicalAggregationOperator.Builder()
+                .withOperator((LogicalAggregationOperator) expression.getOp())
+                .setAggregations(aggregations)
+                .build();
+        return OptExpression.create(aggregation,
+                OptExpression.create(new LogicalProjectOperator(projection), relation));
+    }
+
+    private void copyIn(OptExpression expression, OptExpression rewritten) {
+        Pair<Boolean, GroupExpression> result =
+                context.getMemo().copyIn(expression.getGroupExpression().getGroup(), rewritten);
+        if (result.first) {
+            rewrittenExpressions.add(result.second);
+        }
+    }
+
+    /**
+     * Match the normalized query block with the view, return null if the query block can not be computed
+     * from the view.
+     */
+    private MvRewriteContext match(Spjg query, MvPlan mvPlan) {
+        Set<Long> queryTables = query.scans.stream().map(s -> s.getTable().getId()).collect(Collectors.toSet());
+        Set<Long> mvTables = mvPlan.spjg.scans.stream().map(s -> s.getTable().getId()).collect(Collectors.toSet());
+        if (!queryTables.equals(mvTables)) {
+            return null;
+        }
+
+        List<ScalarOperator> queryConjuncts = canonicalizeConjuncts(query.conjuncts);
+        for (ScalarOperator mvConjunct : mvPlan.conjuncts) {
+            if (!queryConjuncts.removeIf(c -> isEquivalentConjunct(c, mvConjunct))) {
+                return null;
+            }
+        }
+
+        MvFreshness freshness = mvPlan.getFreshness();
+        if (freshness == null) {
+            return null;
+        }
+        MvRewriteContext rewriteContext = new MvRewriteContext(mvPlan, freshness);
+        List<ScalarOperator> compensations = Lists.newArrayList();
+        for (ScalarOperator conjunct : queryConjuncts) {
+            ScalarOperator rewritten = rewriteContext.rewrite(conjunct);
+            if (rewritten == null) {
+                return null;
+            }
+            compensations.add(rewritten);
+        }
+        rewriteContext.predicate = Utils.compoundAnd(compensations);
+        return rewriteContext;
+    }
+
+    private static boolean isEquivalentConjunct(ScalarOperator queryConjunct, ScalarOperator mvConjunct) {
+        if (queryConjunct.equals(mvConjunct)) {
+            return true;
+        }
+        if (queryConjunct instanceof BinaryPredicateOperator && mvConjunct instanceof BinaryPredicateOperator) {
+            BinaryPredicateOperator query = (BinaryPredicateOperator) queryConjunct;
+            BinaryPredicateOperator mv = (BinaryPredicateOperator) mvConjunct;
+            return query.getBinaryType().equals(BinaryPredicateOperator.BinaryType.EQ) &&
+                    mv.getBinaryType().equals(BinaryPredicateOperator.BinaryType.EQ) &&
+                    query.getChild(0).equals(mv.getChild(1)) && query.getChild(1).equals(mv.getChild(0));
+        }
+        return false;
+    }
+
+    private ScalarOperator canonicalize(ScalarOperator operator) {
+        return scalarRewriter.rewrite(operator.clone(), ScalarOperatorRewriter.DEFAULT_REWRITE_RULES);
+    }
+
+    private List<ScalarOperator> canonicalizeConjuncts(List<ScalarOperator> conjuncts) {
+        List<ScalarOperator> result = Lists.newArrayList();
+        for (ScalarOperator conjunct : conjuncts) {
+            for (ScalarOperator c : Utils.extractConjuncts(canonicalize(conjunct))) {
+                if (!c.equals(ConstantOperator.TRUE)) {
+                    result.add(c);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Normalize an SPJG tree, the outputs, conjuncts, group by keys and aggregations of the tree are
+     * expressed by the shared base column references.
+     */
+    private boolean normalize(OptExpression expression, Spjg spjg, boolean allowAggregation) {
+        Operator op = expression.getOp();
+        if (op.getLimit() != Operator.DEFAULT_LIMIT) {
+            return false;
+        }
+        Map<ColumnRefOperator, ScalarOperator> outputs = Maps.newHashMap();
+        if (op instanceof LogicalOlapScanOperator) {
+            LogicalOlapScanOperator scan = (LogicalOlapScanOperator) op;
+            OlapTable table = (OlapTable) scan.getTable();
+            if (scan.getPartitionNames() != null || !scan.getHintsTabletIds().isEmpty() ||
+                    scan.getSelectedIndexId() != table.getBaseIndexId() ||
+                    spjg.scans.stream().anyMatch(s -> s.getTable().getId() == table.getId())) {
+                return false;
+            }
+            for (Map.Entry<ColumnRefOperator, Column> entry : scan.getColRefToColumnMetaMap().entrySet()) {
+                outputs.put(entry.getKey(), getBaseColumnRef(table, entry.getValue()));
+            }
+            spjg.scans.add(scan);
+        } else if (op instanceof LogicalJoinOperator) {
+            LogicalJoinOperator join = (LogicalJoinOperator) op;
+            if (!join.isInnerOrCrossJoin()) {
+                return false;
+            }
+            for (OptExpression input : expression.getInputs()) {
+                if (!normalize(input, spjg, false)) {
+                    return false;
+                }
+                outputs.putAll(spjg.outputs);
+            }
+            if (join.getOnPredicate() != null) {
+                spjg.conjuncts.addAll(Utils.extractConjuncts(
+                        new ReplaceColumnRefRewriter(outputs).rewrite(join.getOnPredicate())));
+            }
+        } else if (op instanceof LogicalFilterOperator) {
+            if (!normalize(expression.inputAt(0), spjg, allowAggregation) || spjg.aggregations != null) {
+                return false;
+            }
+            outputs.putAll(spjg.outputs);
+        } else if (op instanceof LogicalProjectOperator) {
+            if (!normalize(expression.inputAt(0), spjg, allowAggregation)) {
+                return false;
+            }
+            ReplaceColumnRefRewriter rewriter = new ReplaceColumnRefRewriter(spjg.outputs);
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry :
+                    ((LogicalProjectOperator) op).getColumnRefMap().entrySet()) {
+                outputs.put(entry.getKey(), rewriter.rewrite(entry.getValue()));
+            }
+        } else if (op instanceof LogicalAggregationOperator) {
+            LogicalAggregationOperator aggregation = (LogicalAggregationOperator) op;
+            if (!allowAggregation || aggregation.getType() != AggType.GLOBAL || aggregation.getPredicate() != null ||
+                    !normalize(expression.inputAt(0), spjg, false)) {
+                return false;
+            }
+            ReplaceColumnRefRewriter rewriter = new ReplaceColumnRefRewriter(spjg.outputs);
+            spjg.groupKeys = Lists.newArrayList();
+            for (ColumnRefOperator key : aggregation.getGroupingKeys()) {
+                ScalarOperator groupKey = canonicalize(rewriter.rewrite(key));
+                spjg.groupKeys.add(groupKey);
+                outputs.put(key, groupKey);
+            }
+            spjg.aggregations = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregation.getAggregations().entrySet()) {
+                ScalarOperator call = canonicalize(rewriter.rewrite(entry.getValue()));
+                if (!(call instanceof CallOperator)) {
+                    return false;
+                }
+                spjg.aggregations.put(entry.getKey(), (CallOperator) call);
+                outputs.put(entry.getKey(), entry.getKey());
+            }
+        } else {
+            return false;
+        }
+
+        if (op.getPredicate() != null) {
+            spjg.conjuncts.addAll(Utils.extractConjuncts(new ReplaceColumnRefRewriter(outputs).rewrite(op.getPredicate())));
+        }
+        Projection projection = op.getProjection();
+        if (projection != null) {
+            if (!projection.getCommonSubOperatorMap().isEmpty()) {
+                return false;
+            }
+            ReplaceColumnRefRewriter rewriter = new ReplaceColumnRefRewriter(outputs);
+            Map<ColumnRefOperator, ScalarOperator> projected = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : projection.getColumnRefMap().entrySet()) {
+                projected.put(entry.getKey(), rewriter.rewrite(entry.getValue()));
+            }
+            outputs = projected;
+        }
+        spjg.outputs = outputs;
+        return true;
+    }
+
+    private ColumnRefOperator getBaseColumnRef(Table table, Column column) {
+        return baseColumnRefs.computeIfAbsent(Pair.create(table.getId(), column.getName()),
+                k -> columnRefFactory.create(column.getName(), column.getType(), column.isAllowNull()));
+    }
+
+    private MvPlan getMvPlan(MaterializedView mv) {
+        if (mvPlans.containsKey(mv.getId())) {
+            return mvPlans.get(mv.getId());
+        }
+        MvPlan mvPlan = null;
+        try {
+            mvPlan = buildMvPlan(mv);
+        } catch (Exception e) {
+            LOG.debug("failed to build the plan of materialized view {}", mv.getName(), e);
+        }
+        mvPlans.put(mv.getId(), mvPlan);
+        return mvPlan;
+    }
+
+    private MvPlan buildMvPlan(MaterializedView mv) {
+        if (mv.getViewDefineSql() == null || mv.getRefreshScheme() == null ||
+                mv.getRefreshScheme().getAsyncRefreshContext() == null) {
+            return null;
+        }
+        Database db = GlobalStateMgr.getCurrentState().getDb(mv.getDbId());
+        if (db == null) {
+            return null;
+        }
+        QueryStatement stmt = MvDefinitionCache.getInstance().get(mv, db, connectContext);
+        if (stmt == null) {
+            return null;
+        }
+        List<String> columnNames = stmt.getQueryRelation().getColumnOutputNames();
+        LogicalPlan logicalPlan;
+        synchronized (stmt) {
+            logicalPlan = new RelationTransformer(columnRefFactory, connectContext).transform(stmt.getQueryRelation());
+        }
+
+        MvPlan mvPlan = new MvPlan(mv, db, stmt);
+        if (!normalize(logicalPlan.getRoot(), mvPlan.spjg, true)) {
+            return null;
+        }
+        mvPlan.conjuncts = canonicalizeConjuncts(mvPlan.spjg.conjuncts);
+        for (int i = 0; i < columnNames.size(); i++) {
+            Column column = mv.getColumn(columnNames.get(i));
+            if (column == null) {
+                return null;
+            }
+            mvPlan.columns.add(column);
+            ScalarOperator output = canonicalize(mvPlan.spjg.outputs.get(logicalPlan.getOutputColumn().get(i)));
+            if (mvPlan.spjg.aggregations != null && mvPlan.spjg.aggregations.containsKey(output)) {
+                mvPlan.aggregationColumns.putIfAbsent(mvPlan.spjg.aggregations.get(output), i);
+            } else if (mvPlan.spjg.aggregations == null ||
+                    Collections.disjoint(Utils.extractColumnRef(output), mvPlan.spjg.aggregations.keySet())) {
+                mvPlan.keyColumns.putIfAbsent(output, i);
+            }
+        }
+
+        if (mv.getPartitionInfo() instanceof ExpressionRangePartitionInfo) {
+            List<SlotRef> slotRefs = Lists.newArrayList();
+            mv.getPartitionRefTableExprs().get(0).collect(SlotRef.class, slotRefs);
+            if (slotRefs.size() == 1 && slotRefs.get(0).getTblNameWithoutAnalyzed() != null) {
+                String tableName = slotRefs.get(0).getTblNameWithoutAnalyzed().getTbl();
+                for (LogicalOlapScanOperator scan : mvPlan.spjg.scans) {
+                    if (scan.getTable().getName().equals(tableName)) {
+                        mvPlan.partitionTable = (OlapTable) scan.getTable();
+                    }
+                }
+            }
+            String partitionColumn = ((ExpressionRangePartitionInfo) mv.getPartitionInfo())
+                    .getPartitionColumns().get(0).getName();
+            for (int i = 0; i < mvPlan.columns.size(); i++) {
+                if (mvPlan.columns.get(i).getName().equalsIgnoreCase(partitionColumn)) {
+                    mvPlan.partitionColumnIsGroupKey = mvPlan.keyColumns.containsValue(i);
+                }
+            }
+        }
+        return mvPlan;
+    }
+
+    private OptExpression pruneScan(OptExpression scan) {
+        List<OptExpression> result = new PartitionPruneRule().transform(scan, context);
+        if (!result.isEmpty()) {
+            scan = result.get(0);
+        }
+        result = new DistributionPruneRule().transform(scan, context);
+        if (!result.isEmpty()) {
+            scan = result.get(0);
+        }
+        return scan;
+    }
+
+    private OptExpression pruneAllScans(OptExpression expression) {
+        if (expression.getOp() instanceof LogicalOlapScanOperator) {
+            return pruneScan(expression);
+        }
+        List<OptExpression> inputs = Lists.newArrayList();
+        for (OptExpression input : expression.getInputs()) {
+            inputs.add(pruneAllScans(input));
+        }
+        return OptExpression.create(expression.getOp(), inputs);
+    }
+
+    // The normalized select-project-join-group by tree
+    private static class Spjg {
+        private final List<LogicalOlapScanOperator> scans = Lists.newArrayList();
+        private final List<ScalarOperator> conjuncts = Lists.newArrayList();
+        private Map<ColumnRefOperator, ScalarOperator> outputs = Maps.newHashMap();
+        // only set if the tree has an aggregation
+        private List<ScalarOperator> groupKeys;
+        private Map<ColumnRefOperator, CallOperator> aggregations;
+    }
+
+    // The freshness of a materialized view, the stale partitions are computed from the base tables
+    private static class MvFreshness {
+        // null if all partitions are fresh
+        private final List<String> freshPartitionNames;
+        private final List<String> stalePartitionTablePartitionNames;
+
+        private MvFreshness(List<String> freshPartitionNames, List<String> stalePartitionTablePartitionNames) {
+            this.freshPartitionNames = freshPartitionNames;
+            this.stalePartitionTablePartitionNames = stalePartitionTablePartitionNames;
+        }
+
+        private boolean isFresh() {
+            return freshPartitionNames == null;
+        }
+    }
+
+    private static class MvPlan {
+        private final MaterializedView mv;
+        private final Database db;
+        private final QueryStatement stmt;
+        private final Spjg spjg = new Spjg();
+        private List<ScalarOperator> conjuncts;
+        // the columns of the view in the order of the view query outputs
+        private final List<Column> columns = Lists.newArrayList();
+        // output expression without aggregation -> column index
+        private final Map<ScalarOperator, Integer> keyColumns = Maps.newHashMap();
+        // aggregation -> column index
+        private final Map<CallOperator, Integer> aggregationColumns = Maps.newHashMap();
+        private OlapTable partitionTable;
+        private boolean partitionColumnIsGroupKey;
+        private MvFreshness freshness;
+        private boolean freshnessComputed;
+
+        private MvPlan(MaterializedView mv, Database db, QueryStatement stmt) {
+            this.mv = mv;
+            this.db = db;
+            this.stmt = stmt;
+        }
+
+        /**
+         * Return null if the view can not be used, because the view is stale and the stale partitions
+         * can not be compensated by the base tables.
+         */
+        private MvFreshness getFreshness() {
+            if (!freshnessComputed) {
+                freshness = computeFreshness();
+                freshnessComputed = true;
+            }
+            return freshness;
+        }
+
+        private MvFreshness computeFreshness() {
+            Set<String> staleBasePartitionNames = null;
+            for (long tableId : mv.getBaseTableIds()) {
+                Table table = db.getTable(tableId);
+                if (!(table instanceof OlapTable)) {
+                    return null;
+                }
+                Set<String> stalePartitionNames = mv.getNeedRefreshPartitionNames((OlapTable) table);
+                if (stalePartitionNames.isEmpty()) {
+                    continue;
+                }
+                if (partitionTable == null || partitionTable.getId() != tableId) {
+                    // the changes of the tables other than the partition-by table affect all partitions of the view
+                    return null;
+                }
+                staleBasePartitionNames = Sets.newHashSet(stalePartitionNames);
+            }
+            if (staleBasePartitionNames == null) {
+                return new MvFreshness(null, null);
+            }
+
+            Map<String, Range<PartitionKey>> baseRangeMap = partitionTable.getRangePartitionMap();
+            Map<String, Range<PartitionKey>> mvRangeMap = mv.getRangePartitionMap();
+            Map<String, Set<String>> baseToMvNameRef = SyncPartitionUtils.generatePartitionRefMap(baseRangeMap, mvRangeMap);
+            Map<String, Set<String>> mvToBaseNameRef = SyncPartitionUtils.generatePartitionRefMap(mvRangeMap, baseRangeMap);
+            Set<String> staleMvPartitionNames = Sets.newHashSet();
+            for (String basePartitionName : staleBasePartitionNames) {
+                staleMvPartitionNames.addAll(baseToMvNameRef.getOrDefault(basePartitionName, Collections.emptySet()));
+            }
+            // the view partition and the base partition are n : m, expand the stale partitions until
+            // the stale view partitions are computed exactly from the stale base partitions
+            SyncPartitionUtils.calcPotentialRefreshPartition(staleMvPartitionNames, staleBasePartitionNames,
+                    baseToMvNameRef, mvToBaseNameRef);
+            staleBasePartitionNames.retainAll(baseRangeMap.keySet());
+
+            List<String> freshPartitionNames = mvRangeMap.keySet().stream()
+                    .filter(name -> !staleMvPartitionNames.contains(name))
+                    .collect(Collectors.toList());
+            if (freshPartitionNames.isEmpty()) {
+                return null;
+            }
+            return new MvFreshness(freshPartitionNames, Lists.newArrayList(staleBasePartitionNames));
+        }
+    }
+
+    // The column references of the view relation used by one rewritten plan
+    private class MvRewriteContext {
+        private final MvPlan mvPlan;
+        private final MvFreshness freshness;
+        private final ColumnRefOperator[] columnRefs;
+        // the compensation predicate on the view outputs
+        private ScalarOperator predicate;
+
+        private MvRewriteContext(MvPlan mvPlan, MvFreshness freshness) {
+            this.mvPlan = mvPlan;
+            this.freshness = freshness;
+            this.columnRefs = new ColumnRefOperator[mvPlan.columns.size()];
+        }
+
+        private ColumnRefOperator columnRef(int index) {
+            if (columnRefs[index] == null) {
+                Column column = mvPlan.columns.get(index);
+                columnRefs[index] = columnRefFactory.create(column.getName(), column.getType(), column.isAllowNull());
+            }
+            return columnRefs[index];
+        }
+
+        /**
+         * Rewrite the expression over the base columns to the expression over the view outputs,
+         * return null if the expression can not be computed from the view outputs.
+         */
+        private ScalarOperator rewrite(ScalarOperator operator) {
+            Integer index = mvPlan.keyColumns.get(operator);
+            if (index != null) {
+                return columnRef(index);
+            }
+            if (operator instanceof ColumnRefOperator) {
+                return null;
+            }
+            if (operator.getChildren().isEmpty()) {
+                return operator;
+            }
+            ScalarOperator result = operator.clone();
+            for (int i = 0; i < operator.getChildren().size(); i++) {
+                ScalarOperator child = rewrite(operator.getChild(i));
+                if (child == null) {
+                    return null;
+                }
+                result.setChild(i, child);
+            }
+            return result;
+        }
+
+        /**
+         * Build the relation that outputs the used view columns, the fresh partitions of the view are unioned
+         * with the view query on the stale partitions of the base table.
+         */
+        private OptExpression buildRelation() {
+            List<Integer> usedColumns = Lists.newArrayList();
+            List<ColumnRefOperator> outputs = Lists.newArrayList();
+            for (int i = 0; i < columnRefs.length; i++) {
+                if (columnRefs[i] != null) {
+                    usedColumns.add(i);
+                    outputs.add(columnRefs[i]);
+                }
+            }
+            if (freshness.isFresh()) {
+                return pruneScan(OptExpression.create(buildMvScan(outputs, predicate, null)));
+            }
+            if (freshness.stalePartitionTablePartitionNames.isEmpty()) {
+                // the stale partitions of the view only contain the rows of the dropped base partitions
+                return pruneScan(OptExpression.create(buildMvScan(outputs, predicate,
+                        new PartitionNames(false, freshness.freshPartitionNames))));
+            }
+
+            List<ColumnRefOperator> mvOutputs = Lists.newArrayList();
+            for (int index : usedColumns) {
+                Column column = mvPlan.columns.get(index);
+                mvOutputs.add(columnRefFactory.create(column.getName(), column.getType(), column.isAllowNull()));
+            }
+            OptExpression mvScan = pruneScan(OptExpression.create(buildMvScan(mvOutputs, null,
+                    new PartitionNames(false, freshness.freshPartitionNames))));
+
+            TableRelation partitionTableRelation =
+                    AnalyzerUtils.collectAllTableRelation(mvPlan.stmt).get(mvPlan.partitionTable.getName());
+            LogicalPlan basePlan;
+            // the statement is shared by the queries on the view, see MvDefinitionCache
+            synchronized (mvPlan.stmt) {
+                try {
+                    partitionTableRelation.setPartitionNames(
+                            new PartitionNames(false, freshness.stalePartitionTablePartitionNames));
+                    basePlan = new RelationTransformer(columnRefFactory, connectContext)
+                            .transform(mvPlan.stmt.getQueryRelation());
+                } finally {
+                    partitionTableRelation.setPartitionNames(null);
+                }
+            }
+            List<ColumnRefOperator> baseOutputs = Lists.newArrayList();
+            for (int index : usedColumns) {
+                ColumnRefOperator baseOutput = basePlan.getOutputColumn().get(index);
+                if (!baseOutput.getType().equals(mvPlan.columns.get(index).getType())) {
+                    return null;
+                }
+                baseOutputs.add(baseOutput);
+            }
+
+            OptExpression union = OptExpression.create(
+                    new LogicalUnionOperator(outputs, Lists.newArrayList(mvOutputs, baseOutputs), true),
+                    mvScan, pruneAllScans(basePlan.getRoot()));
+            if (predicate == null) {
+                return union;
+            }
+            return OptExpression.create(new LogicalFilterOperator(predicate), union);
+        }
+
+        private LogicalOlapScanOperator buildMvScan(List<ColumnRefOperator> outputs, ScalarOperator predicate,
+                                                    PartitionNames partitionNames) {
+            MaterializedView mv = mvPlan.mv;
+            Map<ColumnRefOperator, Column> colRefToColumnMetaMap = Maps.newHashMap();
+            Map<Column, ColumnRefOperator> columnMetaToColRefMap = Maps.newHashMap();
+            int relationId = columnRefFactory.getNextRelationId();
+            for (ColumnRefOperator output : outputs) {
+                Column column = mv.getColumn(output.getName());
+                colRefToColumnMetaMap.put(output, column);
+                columnMetaToColRefMap.put(column, output);
+            }
+
+            DistributionInfo distributionInfo = mv.getDefaultDistributionInfo();
+            List<Integer> hashDistributeColumns = Lists.newArrayList();
+            if (distributionInfo instanceof HashDistributionInfo) {
+                for (Column column : ((HashDistributionInfo) distributionInfo).getDistributionColumns()) {
+                    ColumnRefOperator ref = columnMetaToColRefMap.get(column);
+                    if (ref == null) {
+                        ref = columnRefFactory.create(column.getName(), column.getType(), column.isAllowNull());
+                        colRefToColumnMetaMap.put(ref, column);
+                        columnMetaToColRefMap.put(column, ref);
+                    }
+                    hashDistributeColumns.add(ref.getId());
+                }
+            }
+            for (Map.Entry<ColumnRefOperator, Column> entry : colRefToColumnMetaMap.entrySet()) {
+                columnRefFactory.updateColumnToRelationIds(entry.getKey().getId(), relationId);
+                columnRefFactory.updateColumnRefToColumns(entry.getKey(), entry.getValue(), mv);
+            }
+            HashDistributionDesc hashDistributionDesc =
+                    new HashDistributionDesc(hashDistributeColumns, HashDistributionDesc.SourceType.LOCAL);
+            return new LogicalOlapScanOperator(mv,
+                    colRefToColumnMetaMap,
+                    columnMetaToColRefMap,
+                    DistributionSpec.createHashDistributionSpec(hashDistributionDesc),
+                    Operator.DEFAULT_LIMIT,
+                    predicate,
+                    mv.getBaseIndexId(),
+                    null,
+                    partitionNames,
+                    Lists.newArrayList(),
+                    Lists.newArrayList());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedIndexMeta;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.analyzer.AnalyzerUtils;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.parser.SqlParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * FE-wide cache of the analyzed definitions of the asynchronous materialized views, so the view query is not
+ * parsed and analyzed again by every query that may be rewritten onto the view.
+ * <p>
+ * A definition is cached by the view id and the version of the view, which covers the view query and the name
+ * and schema of every base table. A schema change of a base table builds a new key and the stale definition
+ * is evicted by LRU. The analyzed statement refers to the base table objects, so a cached definition is only
+ * used while the database still holds the same objects.
+ * <p>
+ * The cached statement is shared by the concurrent queries, it must be locked while it is transformed.
+ */
+public class MvDefinitionCache {
+    private static final MvDefinitionCache INSTANCE = new MvDefinitionCache(1024);
+
+    private final Cache<Key, Definition> cache;
+
+    public static MvDefinitionCache getInstance() {
+        return INSTANCE;
+    }
+
+    MvDefinitionCache(long maxSize) {
+        cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Return the analyzed view query, or null if a base table is missing or is not the table of the definition.
+     */
+    QueryStatement get(MaterializedView mv, Database db, ConnectContext session) {
+        HashCode version = version(mv, db);
+        if (version == null) {
+            return null;
+        }
+        Key key = new Key(mv.getId(), session.getSessionVariable().getSqlMode(), version);
+        Definition definition = cache.getIfPresent(key);
+        if (definition != null && definition.isCurrent(db)) {
+            return definition.stmt;
+        }
+
+        QueryStatement stmt = (QueryStatement) SqlParser.parse(mv.getViewDefineSql(),
+                session.getSessionVariable().getSqlMode()).get(0);
+        Analyzer.analyze(stmt, session);
+        List<Table> tables = AnalyzerUtils.collectAllTable(stmt).values().stream()
+                .distinct()
+                .collect(Collectors.toList());
+        // the view query resolves the tables by name, they must still be the base tables of the view
+        Set<Long> tableIds = tables.stream().map(Table::getId).collect(Collectors.toSet());
+        if (!tableIds.equals(mv.getBaseTableIds())) {
+            return null;
+        }
+        cache.put(key, new Definition(stmt, tables));
+        return stmt;
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    // the view query and the name and schema of the base tables, null if a base table is missing
+    private static HashCode version(MaterializedView mv, Database db) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putString(mv.getViewDefineSql(), StandardCharsets.UTF_8);
+        for (long tableId : new TreeSet<>(mv.getBaseTableIds())) {
+            Table table = db.getTable(tableId);
+            if (table == null) {
+                return null;
+            }
+            hasher.putLong(tableId);
+            hasher.putString(table.getName(), StandardCharsets.UTF_8);
+            if (table instanceof OlapTable) {
+                for (MaterializedIndexMeta indexMeta : ((OlapTable) table).getIndexIdToMeta().values()) {
+                    hasher.putLong(indexMeta.getIndexId());
+                    hasher.putInt(indexMeta.getSchemaHash());
+                    hasher.putInt(indexMeta.getSchemaVersion());
+                }
+            }
+        }
+        return hasher.hash();
+    }
+
+    private static class Key {
+        private final long mvId;
+        private final long sqlMode;
+        private final HashCode version;
+
+        private Key(long mvId, long sqlMode, HashCode version) {
+            this.mvId = mvId;
+            this.sqlMode = sqlMode;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mvId == key.mvId && sqlMode == key.sqlMode && Objects.equals(version, key.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mvId, sqlMode, version);
+        }
+    }
+
+    private static class Definition {
+        private final QueryStatement stmt;
+        private final List<Table> tables;
+
+        private Definition(QueryStatement stmt, List<Table> tables) {
+            this.stmt = stmt;
+            this.tables = tables;
+        }
+
+        // a table replaced by the same id, e.g. by restore, is a new object not referred by the statement
+        private boolean isCurrent(Database db) {
+            for (Table table : tables) {
+                if (db.getTable(table.getId()) != table) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
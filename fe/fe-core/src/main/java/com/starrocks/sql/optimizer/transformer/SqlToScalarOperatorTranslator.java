@@ -26,6 +26,7 @@ import com.starrocks.analysis.IsNullPredicate;
 import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.Subquery;
@@ -506,6 +507,11 @@ public final class SqlToScalarOperatorTranslator {
         public ScalarOperator visitCloneExpr(CloneExpr node, Void context) {
             return new CloneOperator(visit(node.getChild(0)));
         }
+
+        @Override
+        public ScalarOperator visitParameterExpr(Parameter node, Void context) {
+            return visit(node.getExpr());
+        }
     }
 
     static class IgnoreSlotVisitor extends Visitor {
@@ -98,6 +98,7 @@ import com.starrocks.analysis.NullLiteral;
 import com.starrocks.analysis.OdbcScalarFunctionCall;
 import com.starrocks.analysis.OrderByElement;
 import com.starrocks.analysis.OutFileClause;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.PartitionDesc;
 import com.starrocks.analysis.PartitionKeyDesc;
@@ -295,11 +296,17 @@ import static java.util.stream.Collectors.toList;
 
 public class AstBuilder extends StarRocksBaseVisitor<ParseNode> {
     private final long sqlMode;
+    // '?' placeholders of a prepared statement, in the order they appear in the sql
+    private final List<Parameter> parameters = Lists.newArrayList();
 
     public AstBuilder(long sqlMode) {
         this.sqlMode = sqlMode;
     }
 
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+
     @Override
     public ParseNode visitSingleStatement(StarRocksParser.SingleStatementContext context) {
         return visit(context.statement());
@@ -3691,6 +3698,13 @@ public class AstBuilder extends StarRocksBaseVisitor<ParseNode> {
         return new VariableExpr(((Identifier) visit(context.identifier())).getValue(), setType);
     }
 
+    @Override
+    public ParseNode visitParameter(StarRocksParser.ParameterContext context) {
+        Parameter parameter = new Parameter(parameters.size(), context.start.getStartIndex());
+        parameters.add(parameter);
+        return parameter;
+    }
+
     @Override
     public ParseNode visitCollate(StarRocksParser.CollateContext context) {
         return visit(context.primaryExpression());
@@ -3,6 +3,7 @@ package com.starrocks.sql.parser;
 
 import com.clearspring.analytics.util.Lists;
 import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.SqlScanner;
 import com.starrocks.analysis.StatementBase;
 import com.starrocks.common.AnalysisException;
@@ -64,6 +65,42 @@ public class SqlParser {
         return ((Expr) new AstBuilder(sqlMode).visit(expressionContext));
     }
 
+    /**
+     * Parse the sql of a server-side prepared statement, which must be a single statement and
+     * may contain '?' placeholders.
+     *
+     * @param originSql  sql sent by COM_STMT_PREPARE
+     * @param sqlMode    sqlMode
+     * @param parameters filled with the placeholders, in the order they appear in the sql
+     * @return the parsed statement
+     */
+    public static StatementBase parsePrepareStatement(String originSql, long sqlMode, List<Parameter> parameters) {
+        StarRocksLexer lexer = new StarRocksLexer(new CaseInsensitiveStream(CharStreams.fromString(originSql)));
+        CommonTokenStream tokenStream = new CommonTokenStream(lexer);
+        StarRocksParser parser = new StarRocksParser(tokenStream);
+        StarRocksParser.sqlMode = sqlMode;
+        parser.removeErrorListeners();
+        parser.addErrorListener(new ErrorHandler());
+        StatementBase statement;
+        try {
+            StarRocksParser.SqlStatementsContext sqlStatements = parser.sqlStatements();
+            if (sqlStatements.singleStatement().size() != 1) {
+                throw new ParsingException("Prepared statement can only contain one statement");
+            }
+            AstBuilder astBuilder = new AstBuilder(sqlMode);
+            statement = (StatementBase) astBuilder.visitSingleStatement(sqlStatements.singleStatement(0));
+            parameters.addAll(astBuilder.getParameters());
+        } catch (ParsingException parsingException) {
+            // statements without placeholders may still be supported by the old parser
+            statement = parseWithOldParser(originSql, sqlMode, 0);
+            if (StatementPlanner.supportedByNewPlanner(statement)) {
+                throw parsingException;
+            }
+        }
+        statement.setOrigStmt(new OriginStatement(originSql, 0));
+        return statement;
+    }
+
     public static StatementBase parseFirstStatement(String originSql, long sqlMode) {
         return parse(originSql, sqlMode).get(0);
     }
@@ -358,6 +358,7 @@ BITXOR: '^';
 BITNOT: '~';
 
 ARROW: '->';
+PARAMETER: '?';
 AT: '@';
 
 INTEGER_VALUE
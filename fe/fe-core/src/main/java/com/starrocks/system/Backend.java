@@ -414,6 +414,9 @@ public class Backend extends ComputeNode {
     public class BackendStatus {
         // this will be output as json, so not using FeConstants.null_string;
         public String lastSuccessReportTabletsTime = "N/A";
+        // FULL or INCREMENTAL
+        public String lastTabletReportType = "N/A";
+        public long lastTabletReportCostMs = 0;
     }
 }
 
@@ -27,6 +27,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.LocalTablet;
 import com.starrocks.catalog.MaterializedIndex;
@@ -67,12 +68,18 @@ import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -92,15 +99,35 @@ public class DatabaseTransactionMgr {
 
     private long dbId;
 
+    private static final int LABEL_LOCK_STRIPES = 64;
+
     // the lock is used to control the access to transaction states
     // no other locks should be inside this lock
+    // the write lock is held by the operations on all transactions of the db, e.g. replay and removing expired txns.
+    // the state transforms of a single txn hold the read lock and the locks of the tables written by the txn,
+    // so the txns on different tables do not block each other, see lockTransaction()
     private ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock(true);
 
+    // tableId -> lock, serializes the state transforms of the txns writing the same table
+    private final Map<Long, ReentrantLock> tableLocks = Maps.newConcurrentMap();
+
+    // serializes the begin of the txns with the same label
+    private final Striped<Lock> labelLocks = Striped.lock(LABEL_LOCK_STRIPES);
+
+    // protects labelToTxnIds, finalStatusTransactionStateDeque and transactionGraph,
+    // it is only held for the in-memory updates and never held while writing edit log
+    private final Object indexLock = new Object();
+
+    // the read lock is held by a begin from allocating the txn id to putting the txn into the running map,
+    // the write lock is a barrier for the watermark check, see isPreviousTransactionsFinished()
+    private final ReentrantReadWriteLock beginLock = new ReentrantReadWriteLock();
+
     // transactionId -> running TransactionState
-    private Map<Long, TransactionState> idToRunningTransactionState = Maps.newHashMap();
+    // concurrent map, the txn states can be looked up without any lock
+    private Map<Long, TransactionState> idToRunningTransactionState = Maps.newConcurrentMap();
 
     // transactionId -> final status TransactionState
-    private Map<Long, TransactionState> idToFinalStatusTransactionState = Maps.newHashMap();
+    private Map<Long, TransactionState> idToFinalStatusTransactionState = Maps.newConcurrentMap();
 
     // to store transtactionStates with final status
     private ArrayDeque<TransactionState> finalStatusTransactionStateDeque = new ArrayDeque<>();
@@ -116,11 +143,12 @@ public class DatabaseTransactionMgr {
     // it must exists in dbIdToTxnLabels, and vice versa
     private Map<String, Set<Long>> labelToTxnIds = Maps.newHashMap();
 
-    // count the number of running txns of database, except for the routine load txn
-    private int runningTxnNums = 0;
+    // count the number of running txns of database, except for the routine load txn.
+    // a begin reserves its slot before the txn is put into the running map, see reserveRunningTxn()
+    private final AtomicInteger runningTxnNums = new AtomicInteger(0);
 
     // count only the number of running routine load txns of database
-    private int runningRoutineLoadTxnNums = 0;
+    private final AtomicInteger runningRoutineLoadTxnNums = new AtomicInteger(0);
 
     private GlobalStateMgr globalStateMgr;
 
@@ -131,7 +159,7 @@ public class DatabaseTransactionMgr {
     // not realtime usedQuota value to make a fast check for database data quota
     private volatile long usedQuotaDataBytes = -1;
 
-    private long maxCommitTs = 0;
+    private final AtomicLong maxCommitTs = new AtomicLong(0);
 
     private final TransactionStateListenerFactory stateListenerFactory = new TransactionStateListenerFactory();
 
@@ -153,6 +181,99 @@ public class DatabaseTransactionMgr {
         this.transactionLock.writeLock().unlock();
     }
 
+    /**
+     * Lock the tables written by the txn, or the whole db if the tables are unknown.
+     * The returned locks must be released by unlockTransaction().
+     */
+    private List<ReentrantLock> lockTransaction(TransactionState transactionState) {
+        List<Long> tableIdList = transactionState.getTableIdList();
+        if (tableIdList.isEmpty()) {
+            writeLock();
+            return null;
+        }
+        // the table locks are taken before the read lock, in the same order as lockDatabase()
+        List<ReentrantLock> locks = lockTables(tableIdList);
+        readLock();
+        return locks;
+    }
+
+    private void unlockTransaction(List<ReentrantLock> locks) {
+        if (locks == null) {
+            writeUnlock();
+            return;
+        }
+        readUnlock();
+        unlockTables(locks);
+    }
+
+    // lock the tables in the order of id to avoid deadlock. the locks are reentrant, so the state transforms
+    // of a txn can lock its tables again inside lockDatabase()
+    private List<ReentrantLock> lockTables(List<Long> tableIdList) {
+        List<ReentrantLock> locks = getTableLocks(tableIdList);
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        return locks;
+    }
+
+    private List<ReentrantLock> getTableLocks(List<Long> tableIdList) {
+        return tableIdList.stream().distinct().sorted()
+                .map(tableId -> tableLocks.computeIfAbsent(tableId, k -> new ReentrantLock()))
+                .collect(Collectors.toList());
+    }
+
+    private static void unlockTables(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    /**
+     * Lock the db for committing the txn, which writes the edit log and the next versions of the partitions.
+     * It takes the read lock of the db and the locks of the tables, so the commits on different tables of a db
+     * are not serialized by the db lock, or the write lock of the db if the tables are unknown.
+     * The publish still holds the write lock of the db, because the readers only take the read lock of the db
+     * and must see the new visible versions of all the partitions of a txn at once.
+     *
+     * @return the table locks to be released by unlockDatabase(), empty if the write lock of the db is taken,
+     * or null if the locks are not got before the timeout
+     */
+    public List<ReentrantLock> lockDatabase(Database db, long transactionId, long timeoutMillis) {
+        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
+        if (transactionState == null || transactionState.getTableIdList().isEmpty()) {
+            return db.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS) ? Collections.emptyList() : null;
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        if (!db.tryReadLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        List<ReentrantLock> locks = getTableLocks(transactionState.getTableIdList());
+        for (int i = 0; i < locks.size(); i++) {
+            boolean locked = false;
+            try {
+                locked = locks.get(i).tryLock(Math.max(0, deadline - System.currentTimeMillis()),
+                        TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                LOG.warn("failed to try table lock of transaction {} at db[{}]", transactionId, dbId, e);
+            }
+            if (!locked) {
+                unlockTables(locks.subList(0, i));
+                db.readUnlock();
+                return null;
+            }
+        }
+        return locks;
+    }
+
+    public void unlockDatabase(Database db, List<ReentrantLock> locks) {
+        if (locks.isEmpty()) {
+            db.writeUnlock();
+            return;
+        }
+        unlockTables(locks);
+        db.readUnlock();
+    }
+
     public DatabaseTransactionMgr(long dbId, GlobalStateMgr globalStateMgr, TransactionIdGenerator idGenerator) {
         this.dbId = dbId;
         this.globalStateMgr = globalStateMgr;
@@ -165,19 +286,11 @@ public class DatabaseTransactionMgr {
     }
 
     public TransactionState getTransactionState(Long transactionId) {
-        readLock();
-        try {
-            TransactionState transactionState = idToRunningTransactionState.get(transactionId);
-            if (transactionState != null) {
-                return transactionState;
-            } else {
-                return idToFinalStatusTransactionState.get(transactionId);
-            }
-        } finally {
-            readUnlock();
-        }
+        return unprotectedGetTransactionState(transactionId);
     }
 
+    // no lock is needed, a txn is put into idToFinalStatusTransactionState before removed from
+    // idToRunningTransactionState, so it can always be found in one of them
     private TransactionState unprotectedGetTransactionState(Long transactionId) {
         TransactionState transactionState = idToRunningTransactionState.get(transactionId);
         if (transactionState != null) {
@@ -195,12 +308,12 @@ public class DatabaseTransactionMgr {
 
     @VisibleForTesting
     protected int getRunningTxnNums() {
-        return runningTxnNums;
+        return runningTxnNums.get();
     }
 
     @VisibleForTesting
     protected int getRunningRoutineLoadTxnNums() {
-        return runningRoutineLoadTxnNums;
+        return runningRoutineLoadTxnNums.get();
     }
 
     @VisibleForTesting
@@ -211,25 +324,22 @@ public class DatabaseTransactionMgr {
     public List<List<String>> getTxnStateInfoList(boolean running, int limit) {
         List<List<String>> infos = Lists.newArrayList();
         Collection<TransactionState> transactionStateCollection = null;
-        readLock();
-        try {
-            if (running) {
-                transactionStateCollection = idToRunningTransactionState.values();
-            } else {
-                transactionStateCollection = finalStatusTransactionStateDeque;
+        if (running) {
+            transactionStateCollection = idToRunningTransactionState.values();
+        } else {
+            synchronized (indexLock) {
+                transactionStateCollection = Lists.newArrayList(finalStatusTransactionStateDeque);
             }
-            // get transaction order by txn id desc limit 'limit'
-            transactionStateCollection.stream()
-                    .sorted(TransactionState.TXN_ID_COMPARATOR)
-                    .limit(limit)
-                    .forEach(t -> {
-                        List<String> info = Lists.newArrayList();
-                        getTxnStateInfo(t, info);
-                        infos.add(info);
-                    });
-        } finally {
-            readUnlock();
         }
+        // get transaction order by txn id desc limit 'limit'
+        transactionStateCollection.stream()
+                .sorted(TransactionState.TXN_ID_COMPARATOR)
+                .limit(limit)
+                .forEach(t -> {
+                    List<String> info = Lists.newArrayList();
+                    getTxnStateInfo(t, info);
+                    infos.add(info);
+                });
         return infos;
     }
 
@@ -255,10 +365,13 @@ public class DatabaseTransactionMgr {
                                  TransactionState.LoadJobSourceType sourceType, long listenerId, long timeoutSecond)
             throws DuplicatedRequestException, LabelAlreadyUsedException, BeginTransactionException, AnalysisException {
         checkDatabaseDataQuota();
-        writeLock();
+        Preconditions.checkNotNull(label);
+        // the txns of different labels can begin concurrently
+        Lock labelLock = labelLocks.get(label);
+        readLock();
+        labelLock.lock();
         try {
             Preconditions.checkNotNull(coordinator);
-            Preconditions.checkNotNull(label);
             FeNameFormat.checkLabel(label);
 
             /*
@@ -268,7 +381,11 @@ public class DatabaseTransactionMgr {
              *    existing txn id.
              * 3. if there is a non-aborted transaction, throw label already used exception.
              */
-            Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
+            Set<Long> existingTxnIds;
+            synchronized (indexLock) {
+                existingTxnIds = unprotectedGetTxnIdsByLabel(label);
+                existingTxnIds = existingTxnIds == null ? null : Sets.newHashSet(existingTxnIds);
+            }
             if (existingTxnIds != null && !existingTxnIds.isEmpty()) {
                 List<TransactionState> notAbortedTxns = Lists.newArrayList();
                 for (long txnId : existingTxnIds) {
@@ -292,16 +409,25 @@ public class DatabaseTransactionMgr {
                 }
             }
 
-            checkRunningTxnExceedLimit(sourceType);
-
-            long tid = idGenerator.getNextTransactionId();
-            LOG.info("begin transaction: txn_id: {} with label {} from coordinator {}, listner id: {}",
-                    tid, label, coordinator, listenerId);
-            TransactionState transactionState =
-                    new TransactionState(dbId, tableIdList, tid, label, requestId, sourceType,
-                            coordinator, listenerId, timeoutSecond * 1000);
-            transactionState.setPrepareTime(System.currentTimeMillis());
-            unprotectUpsertTransactionState(transactionState, false);
+            boolean reserved = reserveRunningTxn(sourceType);
+            long tid;
+            beginLock.readLock().lock();
+            try {
+                tid = idGenerator.getNextTransactionId();
+                LOG.info("begin transaction: txn_id: {} with label {} from coordinator {}, listner id: {}",
+                        tid, label, coordinator, listenerId);
+                TransactionState transactionState =
+                        new TransactionState(dbId, tableIdList, tid, label, requestId, sourceType,
+                                coordinator, listenerId, timeoutSecond * 1000);
+                transactionState.setPrepareTime(System.currentTimeMillis());
+                unprotectUpsertTransactionState(transactionState, false, reserved);
+                reserved = false;
+            } finally {
+                beginLock.readLock().unlock();
+                if (reserved) {
+                    runningTxnNums.decrementAndGet();
+                }
+            }
 
             if (MetricRepo.isInit) {
                 MetricRepo.COUNTER_TXN_BEGIN.increase(1L);
@@ -316,7 +442,8 @@ public class DatabaseTransactionMgr {
             }
             throw e;
         } finally {
-            writeUnlock();
+            labelLock.unlock();
+            readUnlock();
         }
     }
 
@@ -363,13 +490,7 @@ public class DatabaseTransactionMgr {
             throw new MetaNotFoundException("could not find db [" + dbId + "]");
         }
 
-        TransactionState transactionState;
-        readLock();
-        try {
-            transactionState = unprotectedGetTransactionState(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
         if (transactionState == null) {
             throw new TransactionCommitFailedException("transaction not found");
         }
@@ -441,12 +562,12 @@ public class DatabaseTransactionMgr {
 
         Span unprotectedCommitSpan = TraceManager.startSpan("unprotectedCommitTransaction", txnSpan);
 
-        writeLock();
+        List<ReentrantLock> locks = lockTransaction(transactionState);
         try {
             unprotectedCommitTransaction(transactionState, stateListeners);
             txnOperated = true;
         } finally {
-            writeUnlock();
+            unlockTransaction(locks);
             int numPartitions = 0;
             for (Map.Entry<Long, TableCommitInfo> entry : transactionState.getIdToTableCommitInfos().entrySet()) {
                 numPartitions += entry.getValue().getIdToPartitionCommitInfo().size();
@@ -486,13 +607,7 @@ public class DatabaseTransactionMgr {
             throw new MetaNotFoundException("could not find db [" + dbId + "]");
         }
 
-        TransactionState transactionState;
-        readLock();
-        try {
-            transactionState = unprotectedGetTransactionState(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
         if (transactionState == null) {
             throw new TransactionCommitFailedException("transaction not found");
         }
@@ -563,11 +678,11 @@ public class DatabaseTransactionMgr {
 
         Span unprotectedCommitSpan = TraceManager.startSpan("unprotectedPreparedTransaction", txnSpan);
 
-        writeLock();
+        List<ReentrantLock> locks = lockTransaction(transactionState);
         try {
             unprotectedPrepareTransaction(transactionState, stateListeners);
         } finally {
-            writeUnlock();
+            unlockTransaction(locks);
             int numPartitions = 0;
             for (Map.Entry<Long, TableCommitInfo> entry : transactionState.getIdToTableCommitInfos().entrySet()) {
                 numPartitions += entry.getValue().getIdToPartitionCommitInfo().size();
@@ -588,13 +703,7 @@ public class DatabaseTransactionMgr {
             throw new MetaNotFoundException("could not find db [" + dbId + "]");
         }
 
-        TransactionState transactionState;
-        readLock();
-        try {
-            transactionState = unprotectedGetTransactionState(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
         if (transactionState == null) {
             throw new TransactionCommitFailedException("transaction not found");
         }
@@ -639,12 +748,12 @@ public class DatabaseTransactionMgr {
 
         Span unprotectedCommitSpan = TraceManager.startSpan("unprotectedCommitPreparedTransaction", txnSpan);
 
-        writeLock();
+        List<ReentrantLock> locks = lockTransaction(transactionState);
         try {
             unprotectedCommitPreparedTransaction(transactionState, db);
             txnOperated = true;
         } finally {
-            writeUnlock();
+            unlockTransaction(locks);
             int numPartitions = 0;
             for (Map.Entry<Long, TableCommitInfo> entry : transactionState.getIdToTableCommitInfos().entrySet()) {
                 numPartitions += entry.getValue().getIdToPartitionCommitInfo().size();
@@ -669,13 +778,15 @@ public class DatabaseTransactionMgr {
     public void deleteTransaction(TransactionState transactionState) {
         writeLock();
         try {
-            // here we only delete the oldest element, so if element exist in finalStatusTransactionStateDeque,
-            // it must at the front of the finalStatusTransactionStateDeque
-            if (!finalStatusTransactionStateDeque.isEmpty() &&
-                    transactionState.getTransactionId() ==
-                            finalStatusTransactionStateDeque.getFirst().getTransactionId()) {
-                finalStatusTransactionStateDeque.pop();
-                clearTransactionState(transactionState);
+            synchronized (indexLock) {
+                // here we only delete the oldest element, so if element exist in finalStatusTransactionStateDeque,
+                // it must at the front of the finalStatusTransactionStateDeque
+                if (!finalStatusTransactionStateDeque.isEmpty() &&
+                        transactionState.getTransactionId() ==
+                                finalStatusTransactionStateDeque.getFirst().getTransactionId()) {
+                    finalStatusTransactionStateDeque.pop();
+                    clearTransactionState(transactionState);
+                }
             }
         } finally {
             writeUnlock();
@@ -683,8 +794,7 @@ public class DatabaseTransactionMgr {
     }
 
     public TransactionStatus getLabelState(String label) {
-        readLock();
-        try {
+        synchronized (indexLock) {
             Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
             if (existingTxnIds == null || existingTxnIds.isEmpty()) {
                 return TransactionStatus.UNKNOWN;
@@ -692,14 +802,11 @@ public class DatabaseTransactionMgr {
             // find the latest txn (which id is largest)
             long maxTxnId = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf)).get();
             return unprotectedGetTransactionState(maxTxnId).getTransactionStatus();
-        } finally {
-            readUnlock();
         }
     }
 
     public Long getLabelTxnID(String label) {
-        readLock();
-        try {
+        synchronized (indexLock) {
             Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
             if (existingTxnIds == null || existingTxnIds.isEmpty()) {
                 return (long) -1;
@@ -711,32 +818,22 @@ public class DatabaseTransactionMgr {
             } else {
                 return (long) -1;
             }
-        } finally {
-            readUnlock();
         }
     }
 
     public List<TransactionState> getCommittedTxnList() {
-        readLock();
-        try {
-            // only send task to committed transaction
-            return idToRunningTransactionState.values().stream()
-                    .filter(transactionState -> (transactionState.getTransactionStatus() ==
-                            TransactionStatus.COMMITTED))
-                    .sorted(Comparator.comparing(TransactionState::getCommitTime))
-                    .collect(Collectors.toList());
-        } finally {
-            readUnlock();
-        }
+        // only send task to committed transaction
+        return idToRunningTransactionState.values().stream()
+                .filter(transactionState -> (transactionState.getTransactionStatus() ==
+                        TransactionStatus.COMMITTED))
+                .sorted(Comparator.comparing(TransactionState::getCommitTime))
+                .collect(Collectors.toList());
     }
 
     public List<TransactionState> getReadyToPublishTxnList() {
-        readLock();
-        try {
+        synchronized (indexLock) {
             List<Long> txnIds = transactionGraph.getTxnsWithoutDependency();
             return txnIds.stream().map(id -> idToRunningTransactionState.get(id)).collect(Collectors.toList());
-        } finally {
-            readUnlock();
         }
     }
 
@@ -831,13 +928,7 @@ public class DatabaseTransactionMgr {
     }
 
     public void finishTransaction(long transactionId, Set<Long> errorReplicaIds) throws UserException {
-        TransactionState transactionState = null;
-        readLock();
-        try {
-            transactionState = unprotectedGetTransactionState(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
         // add all commit errors and publish errors to a single set
         if (errorReplicaIds == null) {
             errorReplicaIds = Sets.newHashSet();
@@ -849,7 +940,7 @@ public class DatabaseTransactionMgr {
 
         Database db = globalStateMgr.getDb(transactionState.getDbId());
         if (db == null) {
-            writeLock();
+            List<ReentrantLock> locks = lockTransaction(transactionState);
             try {
                 transactionState.setTransactionStatus(TransactionStatus.ABORTED);
                 transactionState.setReason("db is dropped");
@@ -857,10 +948,11 @@ public class DatabaseTransactionMgr {
                 unprotectUpsertTransactionState(transactionState, false);
                 return;
             } finally {
-                writeUnlock();
+                unlockTransaction(locks);
             }
         }
         Span finishSpan = TraceManager.startSpan("finishTransaction", transactionState.getTxnSpan());
+        // the visible versions of all the partitions of the txn are updated under the write lock of the db
         db.writeLock();
         try {
             boolean hasError = false;
@@ -981,7 +1073,7 @@ public class DatabaseTransactionMgr {
                 return;
             }
             boolean txnOperated = false;
-            writeLock();
+            List<ReentrantLock> locks = lockTransaction(transactionState);
             try {
                 transactionState.setErrorReplicas(errorReplicaIds);
                 transactionState.setFinishTime(System.currentTimeMillis());
@@ -996,7 +1088,7 @@ public class DatabaseTransactionMgr {
                 // So I add a log here for observation.
                 LOG.debug("after set transaction {} to visible", transactionState);
             } finally {
-                writeUnlock();
+                unlockTransaction(locks);
                 transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
             }
             Span updateCatalogSpan = TraceManager.startSpan("updateCatalogAfterVisible", finishSpan);
@@ -1019,7 +1111,7 @@ public class DatabaseTransactionMgr {
             return;
         }
         // commit timestamps needs to be strictly monotonically increasing
-        long commitTs = Math.max(System.currentTimeMillis(), maxCommitTs + 1);
+        long commitTs = maxCommitTs.updateAndGet(ts -> Math.max(System.currentTimeMillis(), ts + 1));
         transactionState.setCommitTime(commitTs);
         // update transaction state version
         transactionState.setTransactionStatus(TransactionStatus.COMMITTED);
@@ -1065,7 +1157,7 @@ public class DatabaseTransactionMgr {
             return;
         }
         // commit timestamps needs to be strictly monotonically increasing
-        long commitTs = Math.max(System.currentTimeMillis(), maxCommitTs + 1);
+        long commitTs = maxCommitTs.updateAndGet(ts -> Math.max(System.currentTimeMillis(), ts + 1));
         transactionState.setCommitTime(commitTs);
         // update transaction state version
         transactionState.setTransactionStatus(TransactionStatus.COMMITTED);
@@ -1109,6 +1201,12 @@ public class DatabaseTransactionMgr {
 
     // for add/update/delete TransactionState
     protected void unprotectUpsertTransactionState(TransactionState transactionState, boolean isReplay) {
+        unprotectUpsertTransactionState(transactionState, isReplay, false);
+    }
+
+    // reserved: the slot of the new running txn is already counted by reserveRunningTxn()
+    private void unprotectUpsertTransactionState(TransactionState transactionState, boolean isReplay,
+                                                 boolean reserved) {
         // if this is a replay operation, we should not log it
         if (!isReplay) {
             if (transactionState.getTransactionStatus() != TransactionStatus.PREPARE
@@ -1125,31 +1223,36 @@ public class DatabaseTransactionMgr {
             }
         }
         // it's OK if getCommitTime() returns -1
-        maxCommitTs = Math.max(maxCommitTs, transactionState.getCommitTime());
-        if (!transactionState.getTransactionStatus().isFinalStatus()) {
-            if (idToRunningTransactionState.put(transactionState.getTransactionId(), transactionState) == null) {
-                if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
-                    runningRoutineLoadTxnNums++;
-                } else {
-                    runningTxnNums++;
+        maxCommitTs.accumulateAndGet(transactionState.getCommitTime(), Math::max);
+        synchronized (indexLock) {
+            if (!transactionState.getTransactionStatus().isFinalStatus()) {
+                if (idToRunningTransactionState.put(transactionState.getTransactionId(), transactionState) == null &&
+                        !reserved) {
+                    if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
+                        runningRoutineLoadTxnNums.incrementAndGet();
+                    } else {
+                        runningTxnNums.incrementAndGet();
+                    }
                 }
-            }
-            if (Config.enable_new_publish_mechanism && transactionState.getTransactionStatus() == TransactionStatus.COMMITTED) {
-                transactionGraph.add(transactionState.getTransactionId(), transactionState.getTableIdList());
-            }
-        } else {
-            if (idToRunningTransactionState.remove(transactionState.getTransactionId()) != null) {
-                if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
-                    runningRoutineLoadTxnNums--;
-                } else {
-                    runningTxnNums--;
+                if (Config.enable_new_publish_mechanism &&
+                        transactionState.getTransactionStatus() == TransactionStatus.COMMITTED) {
+                    transactionGraph.add(transactionState.getTransactionId(), transactionState.getTableIdList());
+                }
+            } else {
+                // put into the final status map first, so the lock-free lookups always find the txn
+                idToFinalStatusTransactionState.put(transactionState.getTransactionId(), transactionState);
+                if (idToRunningTransactionState.remove(transactionState.getTransactionId()) != null) {
+                    if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
+                        runningRoutineLoadTxnNums.decrementAndGet();
+                    } else {
+                        runningTxnNums.decrementAndGet();
+                    }
                 }
+                transactionGraph.remove(transactionState.getTransactionId());
+                finalStatusTransactionStateDeque.add(transactionState);
             }
-            transactionGraph.remove(transactionState.getTransactionId());
-            idToFinalStatusTransactionState.put(transactionState.getTransactionId(), transactionState);
-            finalStatusTransactionStateDeque.add(transactionState);
+            updateTxnLabels(transactionState);
         }
-        updateTxnLabels(transactionState);
     }
 
     private void updateTxnLabels(TransactionState transactionState) {
@@ -1160,8 +1263,7 @@ public class DatabaseTransactionMgr {
     public void abortTransaction(String label, String reason) throws UserException {
         Preconditions.checkNotNull(label);
         long transactionId = -1;
-        readLock();
-        try {
+        synchronized (indexLock) {
             Set<Long> existingTxns = unprotectedGetTxnIdsByLabel(label);
             if (existingTxns == null || existingTxns.isEmpty()) {
                 throw new TransactionNotFoundException("transaction not found, label=" + label);
@@ -1181,8 +1283,6 @@ public class DatabaseTransactionMgr {
             }
 
             transactionId = prepareTxn.getTransactionId();
-        } finally {
-            readUnlock();
         }
         abortTransaction(transactionId, reason, null);
     }
@@ -1200,13 +1300,7 @@ public class DatabaseTransactionMgr {
                     transactionId);
             return;
         }
-        TransactionState transactionState = null;
-        readLock();
-        try {
-            transactionState = idToRunningTransactionState.get(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = idToRunningTransactionState.get(transactionId);
         if (transactionState == null) {
             throw new TransactionNotFoundException("transaction not found", transactionId);
         }
@@ -1219,11 +1313,11 @@ public class DatabaseTransactionMgr {
         // before state transform
         TxnStateChangeCallback callback = transactionState.beforeStateTransform(TransactionStatus.ABORTED);
         boolean txnOperated = false;
-        writeLock();
+        List<ReentrantLock> locks = lockTransaction(transactionState);
         try {
             txnOperated = unprotectAbortTransaction(transactionId, abortPrepared, reason);
         } finally {
-            writeUnlock();
+            unlockTransaction(locks);
             transactionState.afterStateTransform(TransactionStatus.ABORTED, txnOperated, callback, reason);
         }
 
@@ -1283,13 +1377,12 @@ public class DatabaseTransactionMgr {
 
     protected List<List<Comparable>> getTableTransInfo(long txnId) throws AnalysisException {
         List<List<Comparable>> tableInfos = new ArrayList<>();
-        readLock();
+        TransactionState transactionState = unprotectedGetTransactionState(txnId);
+        if (null == transactionState) {
+            throw new AnalysisException("Transaction[" + txnId + "] does not exist.");
+        }
+        List<ReentrantLock> locks = lockTransaction(transactionState);
         try {
-            TransactionState transactionState = unprotectedGetTransactionState(txnId);
-            if (null == transactionState) {
-                throw new AnalysisException("Transaction[" + txnId + "] does not exist.");
-            }
-
             for (Map.Entry<Long, TableCommitInfo> entry : transactionState.getIdToTableCommitInfos().entrySet()) {
                 List<Comparable> tableInfo = new ArrayList<>();
                 tableInfo.add(entry.getKey());
@@ -1298,20 +1391,19 @@ public class DatabaseTransactionMgr {
                 tableInfos.add(tableInfo);
             }
         } finally {
-            readUnlock();
+            unlockTransaction(locks);
         }
         return tableInfos;
     }
 
     protected List<List<Comparable>> getPartitionTransInfo(long txnId, long tableId) throws AnalysisException {
         List<List<Comparable>> partitionInfos = new ArrayList<List<Comparable>>();
-        readLock();
+        TransactionState transactionState = unprotectedGetTransactionState(txnId);
+        if (null == transactionState) {
+            throw new AnalysisException("Transaction[" + txnId + "] does not exist.");
+        }
+        List<ReentrantLock> locks = lockTransaction(transactionState);
         try {
-            TransactionState transactionState = unprotectedGetTransactionState(txnId);
-            if (null == transactionState) {
-                throw new AnalysisException("Transaction[" + txnId + "] does not exist.");
-            }
-
             TableCommitInfo tableCommitInfo = transactionState.getIdToTableCommitInfos().get(tableId);
             Map<Long, PartitionCommitInfo> idToPartitionCommitInfo = tableCommitInfo.getIdToPartitionCommitInfo();
             for (Map.Entry<Long, PartitionCommitInfo> entry : idToPartitionCommitInfo.entrySet()) {
@@ -1321,7 +1413,7 @@ public class DatabaseTransactionMgr {
                 partitionInfos.add(partitionInfo);
             }
         } finally {
-            readUnlock();
+            unlockTransaction(locks);
         }
         return partitionInfos;
     }
@@ -1329,17 +1421,19 @@ public class DatabaseTransactionMgr {
     public void removeExpiredTxns(long currentMillis) {
         writeLock();
         try {
-            int numJobsToRemove = getTransactionNum() - Config.label_keep_max_num;
-            while (!finalStatusTransactionStateDeque.isEmpty()) {
-                TransactionState transactionState = finalStatusTransactionStateDeque.getFirst();
-                if (transactionState.isExpired(currentMillis) || numJobsToRemove > 0) {
-                    finalStatusTransactionStateDeque.pop();
-                    clearTransactionState(transactionState);
-                    --numJobsToRemove;
-                    LOG.info("transaction [" + transactionState.getTransactionId() +
-                            "] is expired, remove it from transaction manager");
-                } else {
-                    break;
+            synchronized (indexLock) {
+                int numJobsToRemove = getTransactionNum() - Config.label_keep_max_num;
+                while (!finalStatusTransactionStateDeque.isEmpty()) {
+                    TransactionState transactionState = finalStatusTransactionStateDeque.getFirst();
+                    if (transactionState.isExpired(currentMillis) || numJobsToRemove > 0) {
+                        finalStatusTransactionStateDeque.pop();
+                        clearTransactionState(transactionState);
+                        --numJobsToRemove;
+                        LOG.info("transaction [" + transactionState.getTransactionId() +
+                                "] is expired, remove it from transaction manager");
+                    } else {
+                        break;
+                    }
                 }
             }
         } finally {
@@ -1362,34 +1456,28 @@ public class DatabaseTransactionMgr {
 
     public List<Pair<Long, Long>> getTransactionIdByCoordinateBe(String coordinateHost, int limit) {
         ArrayList<Pair<Long, Long>> txnInfos = new ArrayList<>();
-        readLock();
-        try {
-            idToRunningTransactionState.values().stream()
-                    .filter(t -> (t.getCoordinator().sourceType == TransactionState.TxnSourceType.BE
-                            && t.getCoordinator().ip.equals(coordinateHost)))
-                    .limit(limit)
-                    .forEach(t -> txnInfos.add(new Pair<>(t.getDbId(), t.getTransactionId())));
-        } finally {
-            readUnlock();
-        }
+        idToRunningTransactionState.values().stream()
+                .filter(t -> (t.getCoordinator().sourceType == TransactionState.TxnSourceType.BE
+                        && t.getCoordinator().ip.equals(coordinateHost)))
+                .limit(limit)
+                .forEach(t -> txnInfos.add(new Pair<>(t.getDbId(), t.getTransactionId())));
         return txnInfos;
     }
 
     // get show info of a specified txnId
     public List<List<String>> getSingleTranInfo(long dbId, long txnId) throws AnalysisException {
         List<List<String>> infos = new ArrayList<List<String>>();
-        readLock();
-        try {
-            Database db = GlobalStateMgr.getCurrentState().getDb(dbId);
-            if (db == null) {
-                throw new AnalysisException("Database[" + dbId + "] does not exist");
-            }
-
-            TransactionState txnState = unprotectedGetTransactionState(txnId);
-            if (txnState == null) {
-                throw new AnalysisException("transaction with id " + txnId + " does not exist");
-            }
+        Database db = GlobalStateMgr.getCurrentState().getDb(dbId);
+        if (db == null) {
+            throw new AnalysisException("Database[" + dbId + "] does not exist");
+        }
 
+        TransactionState txnState = unprotectedGetTransactionState(txnId);
+        if (txnState == null) {
+            throw new AnalysisException("transaction with id " + txnId + " does not exist");
+        }
+        List<ReentrantLock> locks = lockTransaction(txnState);
+        try {
             if (ConnectContext.get() != null) {
                 // check auth
                 Set<Long> tblIds = txnState.getIdToTableCommitInfos().keySet();
@@ -1413,12 +1501,17 @@ public class DatabaseTransactionMgr {
             getTxnStateInfo(txnState, info);
             infos.add(info);
         } finally {
-            readUnlock();
+            unlockTransaction(locks);
         }
         return infos;
     }
 
-    protected void checkRunningTxnExceedLimit(TransactionState.LoadJobSourceType sourceType)
+    /**
+     * Check the limit of running txns and count the new txn in one CAS, so the concurrent begins can not exceed
+     * the limit together. Return true if the txn is counted, it must be put into the running map by
+     * unprotectUpsertTransactionState(txn, false, true), or be uncounted if the begin fails.
+     */
+    protected boolean reserveRunningTxn(TransactionState.LoadJobSourceType sourceType)
             throws BeginTransactionException {
         switch (sourceType) {
             case ROUTINE_LOAD_TASK:
@@ -1426,13 +1519,18 @@ public class DatabaseTransactionMgr {
                 // 1. the number of running routine load tasks is limited by Config.max_routine_load_task_num_per_be
                 // 2. if we add routine load txn to runningTxnNums, runningTxnNums will always be occupied by routine load,
                 //    and other txn may not be able to submitted.
-                break;
+                return false;
             default:
-                if (runningTxnNums >= Config.max_running_txn_num_per_db) {
-                    throw new BeginTransactionException("current running txns on db " + dbId + " is "
-                            + runningTxnNums + ", larger than limit " + Config.max_running_txn_num_per_db);
+                while (true) {
+                    int running = runningTxnNums.get();
+                    if (running >= Config.max_running_txn_num_per_db) {
+                        throw new BeginTransactionException("current running txns on db " + dbId + " is "
+                                + running + ", larger than limit " + Config.max_running_txn_num_per_db);
+                    }
+                    if (runningTxnNums.compareAndSet(running, running + 1)) {
+                        return true;
+                    }
                 }
-                break;
         }
     }
 
@@ -1457,6 +1555,10 @@ public class DatabaseTransactionMgr {
     }
 
     public boolean isPreviousTransactionsFinished(long endTransactionId, List<Long> tableIdList) {
+        // wait for the txns being begun, whose id may be allocated but not in the map yet.
+        // the txns begun after the barrier get the ids larger than the watermark
+        beginLock.writeLock().lock();
+        beginLock.writeLock().unlock();
         readLock();
         try {
             for (Map.Entry<Long, TransactionState> entry : idToRunningTransactionState.entrySet()) {
@@ -1497,16 +1599,11 @@ public class DatabaseTransactionMgr {
 
     public List<Long> getTimeoutTxns(long currentMillis) {
         List<Long> timeoutTxns = Lists.newArrayList();
-        readLock();
-        try {
-            for (TransactionState transactionState : idToRunningTransactionState.values()) {
-                if (transactionState.isTimeout(currentMillis)) {
-                    // txn is running but timeout, abort it.
-                    timeoutTxns.add(transactionState.getTransactionId());
-                }
+        for (TransactionState transactionState : idToRunningTransactionState.values()) {
+            if (transactionState.isTimeout(currentMillis)) {
+                // txn is running but timeout, abort it.
+                timeoutTxns.add(transactionState.getTransactionId());
             }
-        } finally {
-            readUnlock();
         }
         return timeoutTxns;
     }
@@ -1554,14 +1651,11 @@ public class DatabaseTransactionMgr {
 
     public List<List<String>> getDbTransStateInfo() {
         List<List<String>> infos = Lists.newArrayList();
-        readLock();
-        try {
+        synchronized (indexLock) {
             infos.add(Lists.newArrayList("running", String.valueOf(
-                    runningTxnNums + runningRoutineLoadTxnNums)));
+                    runningTxnNums.get() + runningRoutineLoadTxnNums.get())));
             long finishedNum = getFinishedTxnNums();
             infos.add(Lists.newArrayList("finished", String.valueOf(finishedNum)));
-        } finally {
-            readUnlock();
         }
         return infos;
     }
@@ -1583,7 +1677,7 @@ public class DatabaseTransactionMgr {
     public void finishTransactionNew(TransactionState transactionState, Set<Long> publishErrorReplicas) throws UserException {
         Database db = globalStateMgr.getDb(transactionState.getDbId());
         if (db == null) {
-            writeLock();
+            List<ReentrantLock> locks = lockTransaction(transactionState);
             try {
                 transactionState.setTransactionStatus(TransactionStatus.ABORTED);
                 transactionState.setReason("db is dropped");
@@ -1591,15 +1685,16 @@ public class DatabaseTransactionMgr {
                 unprotectUpsertTransactionState(transactionState, false);
                 return;
             } finally {
-                writeUnlock();
+                unlockTransaction(locks);
             }
         }
         Span finishSpan = TraceManager.startSpan("finishTransaction", transactionState.getTxnSpan());
+        // the visible versions of all the partitions of the txn are updated under the write lock of the db
         db.writeLock();
         finishSpan.addEvent("db_lock");
         try {
             boolean txnOperated = false;
-            writeLock();
+            List<ReentrantLock> locks = lockTransaction(transactionState);
             finishSpan.addEvent("txnmgr_lock");
             try {
                 transactionState.setErrorReplicas(publishErrorReplicas);
@@ -1611,7 +1706,7 @@ public class DatabaseTransactionMgr {
                 transactionState.notifyVisible();
                 txnOperated = true;
             } finally {
-                writeUnlock();
+                unlockTransaction(locks);
                 transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
             }
             Span updateCatalogSpan = TraceManager.startSpan("updateCatalogAfterVisible", finishSpan);
@@ -62,6 +62,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.validation.constraints.NotNull;
 
 /**
@@ -364,14 +365,16 @@ public class GlobalTransactionMgr implements Writable {
         VisibleStateWaiter waiter;
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        if (!db.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
-            throw new UserException("get database write lock timeout, database="
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(db.getId());
+        List<ReentrantLock> locks = dbTransactionMgr.lockDatabase(db, transactionId, timeoutMillis);
+        if (locks == null) {
+            throw new UserException("get database lock timeout, database="
                     + db.getFullName() + ", timeoutMillis=" + timeoutMillis);
         }
         try {
-            waiter = getDatabaseTransactionMgr(db.getId()).commitPreparedTransaction(transactionId);
+            waiter = dbTransactionMgr.commitPreparedTransaction(transactionId);
         } finally {
-            db.writeUnlock();
+            dbTransactionMgr.unlockDatabase(db, locks);
         }
 
         stopWatch.stop();
@@ -396,15 +399,18 @@ public class GlobalTransactionMgr implements Writable {
             throws UserException {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        if (!db.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
-            throw new UserException("get database write lock timeout, database="
+        // the commit only updates the tables of the txn, lock them with the read lock of the db
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(db.getId());
+        List<ReentrantLock> locks = dbTransactionMgr.lockDatabase(db, transactionId, timeoutMillis);
+        if (locks == null) {
+            throw new UserException("get database lock timeout, database="
                     + db.getOriginName() + ", timeoutMillis=" + timeoutMillis);
         }
         VisibleStateWaiter waiter;
         try {
             waiter = commitTransaction(db.getId(), transactionId, tabletCommitInfos, txnCommitAttachment);
         } finally {
-            db.writeUnlock();
+            dbTransactionMgr.unlockDatabase(db, locks);
         }
         stopWatch.stop();
         long publishTimeoutMillis = timeoutMillis - stopWatch.getTime();
@@ -38,6 +38,7 @@ import com.starrocks.common.UserException;
 import com.starrocks.common.util.LeaderDaemon;
 import com.starrocks.lake.LakeTable;
 import com.starrocks.lake.Utils;
+import com.starrocks.qe.QueryResultCache;
 import com.starrocks.rpc.RpcException;
 import com.starrocks.scheduler.Constants;
 import com.starrocks.server.GlobalStateMgr;
@@ -175,6 +176,7 @@ public class PublishVersionDaemon extends LeaderDaemon {
                     }
                     // clear publish version tasks to reduce memory usage when state changed to visible.
                     transactionState.clearPublishVersionTasks();
+                    QueryResultCache.getInstance().invalidate(transactionState.getTableIdList());
 
                     // Refresh materialized view when base table update transaction has been visible if necessary
                     refreshMvIfNecessary(transactionState);
@@ -203,6 +205,7 @@ public class PublishVersionDaemon extends LeaderDaemon {
                     }
                     // clear publish version tasks to reduce memory usage when state changed to visible.
                     transactionState.clearPublishVersionTasks();
+                    QueryResultCache.getInstance().invalidate(transactionState.getTableIdList());
                 }
             } catch (UserException e) {
                 LOG.error("errors while publish version to all backends", e);
@@ -253,6 +256,7 @@ public class PublishVersionDaemon extends LeaderDaemon {
             }
             if (finished) {
                 globalTransactionMgr.finishTransaction(db.getId(), txnId, null);
+                QueryResultCache.getInstance().invalidate(txnState.getTableIdList());
             }
         }
     }
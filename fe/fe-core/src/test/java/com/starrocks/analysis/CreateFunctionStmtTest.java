@@ -2,6 +2,8 @@
 
 package com.starrocks.analysis;
 
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.FeConstants;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.utframe.UtFrameUtils;
 import org.junit.After;
@@ -9,6 +11,11 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
 public class CreateFunctionStmtTest {
     private ConnectContext ctx;
 
@@ -40,4 +47,127 @@ public class CreateFunctionStmtTest {
         Assert.assertEquals(exceptedNormalizedSql, stmt.toSql());
     }
 
+    public static class PrimitiveArrayAdd {
+        public long[] evaluate(int rows, int[] a, boolean[] aNulls, short[] b, boolean[] bNulls) {
+            long[] res = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                res[i] = (long) a[i] + b[i];
+            }
+            return res;
+        }
+    }
+
+    public static class PrimitiveArrayBooleanNot {
+        public boolean[] evaluate(int rows, boolean[] a, boolean[] aNulls) {
+            boolean[] res = new boolean[rows];
+            for (int i = 0; i < rows; i++) {
+                res[i] = !a[i];
+            }
+            return res;
+        }
+    }
+
+    public static class PrimitiveArrayWithoutNulls {
+        public long[] evaluate(int rows, int[] a) {
+            return new long[rows];
+        }
+    }
+
+    public static class PrimitiveArrayByteNulls {
+        public long[] evaluate(int rows, int[] a, byte[] aNulls) {
+            return new long[rows];
+        }
+    }
+
+    public static class PrimitiveArrayString {
+        public long[] evaluate(int rows, String[] a, boolean[] aNulls) {
+            return new long[rows];
+        }
+    }
+
+    public static class PrimitiveArraySum {
+        public static class State {
+            public long val = 0;
+
+            public int serializeLength() {
+                return 8;
+            }
+        }
+
+        public State create() {
+            return new State();
+        }
+
+        public void destroy(State state) {
+        }
+
+        public void update(State state, int rows, int[] a, boolean[] aNulls) {
+        }
+
+        public void serialize(State state, java.nio.ByteBuffer buff) {
+        }
+
+        public void merge(State state, java.nio.ByteBuffer buffer) {
+        }
+
+        public Long finalize(State state) {
+            return state.val;
+        }
+    }
+
+    private CreateFunctionStmt analyzeUdf(String sql, Class<?> clazz) throws Exception {
+        // the class is loaded by the parent of the class loader of the jar
+        File jar = File.createTempFile("udf", ".jar");
+        jar.deleteOnExit();
+        try (JarOutputStream ignored = new JarOutputStream(new FileOutputStream(jar), new Manifest())) {
+        }
+        FeConstants.runningUnitTest = true;
+        ctx = UtFrameUtils.createDefaultCtx();
+        ctx.setDatabase("testDb");
+        String properties = String.format(" PROPERTIES (\"symbol\"=\"%s\", \"type\"=\"StarrocksJar\", " +
+                "\"file\"=\"%s\")", clazz.getName(), jar.toURI());
+        CreateFunctionStmt stmt =
+                (CreateFunctionStmt) UtFrameUtils.parseStmtWithNewParserNotIncludeAnalyzer(sql + properties, ctx);
+        stmt.analyze(ctx);
+        return stmt;
+    }
+
+    private void assertAnalyzeError(String sql, Class<?> clazz, String message) {
+        AnalysisException e = Assert.assertThrows(AnalysisException.class, () -> analyzeUdf(sql, clazz));
+        Assert.assertTrue(e.getMessage(), e.getMessage().contains(message));
+    }
+
+    @Test
+    public void testPrimitiveArrayEvaluate() throws Exception {
+        CreateFunctionStmt stmt =
+                analyzeUdf("CREATE FUNCTION add_int_smallint(INT, SMALLINT) RETURNS BIGINT", PrimitiveArrayAdd.class);
+        Assert.assertNotNull(stmt.getFunction());
+        stmt = analyzeUdf("CREATE FUNCTION boolean_not(BOOLEAN) RETURNS BOOLEAN", PrimitiveArrayBooleanNot.class);
+        Assert.assertNotNull(stmt.getFunction());
+    }
+
+    @Test
+    public void testInvalidPrimitiveArrayEvaluate() {
+        // the types of the columns and the result do not match the arrays
+        assertAnalyzeError("CREATE FUNCTION f(INT, INT) RETURNS BIGINT", PrimitiveArrayAdd.class,
+                "[short[]] type does not match int[]");
+        assertAnalyzeError("CREATE FUNCTION f(INT, SMALLINT) RETURNS INT", PrimitiveArrayAdd.class,
+                "[long[]] type does not match int[]");
+        // every column is followed by its nulls
+        assertAnalyzeError("CREATE FUNCTION f(INT) RETURNS BIGINT", PrimitiveArrayWithoutNulls.class,
+                "expect argument count 3");
+        assertAnalyzeError("CREATE FUNCTION f(INT) RETURNS BIGINT", PrimitiveArrayByteNulls.class,
+                "type does not match boolean[]");
+        // strings are not passed as arrays
+        assertAnalyzeError("CREATE FUNCTION f(VARCHAR(10)) RETURNS BIGINT", PrimitiveArrayString.class,
+                "does not support type");
+        assertAnalyzeError("CREATE FUNCTION f(INT, ...) RETURNS BIGINT", PrimitiveArrayByteNulls.class,
+                "does not support variadic arguments");
+    }
+
+    @Test
+    public void testPrimitiveArrayUpdate() {
+        assertAnalyzeError("CREATE AGGREGATE FUNCTION f(INT) RETURNS BIGINT", PrimitiveArraySum.class,
+                "does not support primitive array parameter int[]");
+    }
 }
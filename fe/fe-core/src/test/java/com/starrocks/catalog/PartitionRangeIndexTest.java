@@ -0,0 +1,129 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.google.common.collect.TreeRangeMap;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PartitionRangeIndexTest {
+
+    private static PartitionKey key(long... values) {
+        List<LiteralExpr> keys = Lists.newArrayList();
+        List<PrimitiveType> types = Lists.newArrayList();
+        for (long value : values) {
+            keys.add(new IntLiteral(value, Type.BIGINT));
+            types.add(PrimitiveType.BIGINT);
+        }
+        return new PartitionKey(keys, types);
+    }
+
+    private static void checkSameAsRangeMap(Map<Long, Range<PartitionKey>> idToRange,
+                                            List<Range<PartitionKey>> queries) {
+        RangeMap<PartitionKey, Long> rangeMap = TreeRangeMap.create();
+        for (Map.Entry<Long, Range<PartitionKey>> entry : idToRange.entrySet()) {
+            rangeMap.put(entry.getValue(), entry.getKey());
+        }
+        PartitionRangeIndex index = PartitionRangeIndex.build(idToRange);
+        for (Range<PartitionKey> query : queries) {
+            Assert.assertEquals(query.toString(),
+                    Lists.newArrayList(rangeMap.subRangeMap(query).asMapOfRanges().values()),
+                    index.getPartitionIds(query));
+        }
+    }
+
+    @Test
+    public void testSingleColumn() {
+        // [0, 10), [10, 20), ... [990, 1000), with some holes
+        Map<Long, Range<PartitionKey>> idToRange = Maps.newHashMap();
+        for (int i = 0; i < 100; i++) {
+            if (i % 7 == 3) {
+                continue;
+            }
+            idToRange.put((long) i, Range.closedOpen(key(i * 10), key(i * 10 + 10)));
+        }
+
+        Random random = new Random(0);
+        List<Range<PartitionKey>> queries = Lists.newArrayList();
+        queries.add(Range.closed(key(-100), key(-1)));
+        queries.add(Range.closed(key(1000), key(2000)));
+        queries.add(Range.closed(key(10), key(10)));
+        queries.add(Range.closed(key(-100), key(2000)));
+        queries.add(Range.closedOpen(key(20), key(20)));
+        for (int i = 0; i < 1000; i++) {
+            long lower = random.nextInt(1100) - 50;
+            long upper = lower + random.nextInt(100);
+            BoundType lowerType = random.nextBoolean() ? BoundType.OPEN : BoundType.CLOSED;
+            BoundType upperType = random.nextBoolean() ? BoundType.OPEN : BoundType.CLOSED;
+            if (lower == upper && lowerType == BoundType.OPEN && upperType == BoundType.OPEN) {
+                continue;
+            }
+            queries.add(Range.range(key(lower), lowerType, key(upper), upperType));
+        }
+        checkSameAsRangeMap(idToRange, queries);
+        checkSameAsRangeMap(Maps.newHashMap(), queries);
+    }
+
+    @Test
+    public void testMultiColumns() {
+        // (k1, k2): [(i, 0), (i, 50)), [(i, 50), (i + 1, 0))
+        Map<Long, Range<PartitionKey>> idToRange = Maps.newHashMap();
+        for (int i = 0; i < 50; i++) {
+            idToRange.put(2L * i, Range.closedOpen(key(i, 0), key(i, 50)));
+            idToRange.put(2L * i + 1, Range.closedOpen(key(i, 50), key(i + 1, 0)));
+        }
+
+        List<Range<PartitionKey>> queries = Lists.newArrayList();
+        queries.add(Range.closed(key(10, 50), key(10, 50)));
+        queries.add(Range.closed(key(10, 0), key(10, 49)));
+        queries.add(Range.closed(key(10, 49), key(12, 0)));
+        queries.add(Range.open(key(10, 50), key(11, 0)));
+        queries.add(Range.closed(key(-1, 0), key(100, 0)));
+        checkSameAsRangeMap(idToRange, queries);
+    }
+
+    @Test
+    public void testOverlappedRanges() {
+        // a formal partition and a temp partition covering the same range
+        Map<Long, Range<PartitionKey>> idToRange = Maps.newHashMap();
+        idToRange.put(1L, Range.closedOpen(key(0), key(10)));
+        idToRange.put(2L, Range.closedOpen(key(10), key(20)));
+        idToRange.put(3L, Range.closedOpen(key(5), key(15)));
+        PartitionRangeIndex index = PartitionRangeIndex.build(idToRange);
+        Assert.assertEquals(Lists.newArrayList(1L, 3L), index.getPartitionIds(Range.closed(key(6), key(7))));
+        Assert.assertEquals(Lists.newArrayList(2L), index.getPartitionIds(Range.closed(key(15), key(30))));
+    }
+
+    @Test
+    public void testCachedInPartitionInfo() {
+        Column column = new Column("k1", Type.BIGINT);
+        RangePartitionInfo partitionInfo = new RangePartitionInfo(Lists.newArrayList(column));
+        partitionInfo.setRange(1L, false, Range.closedOpen(key(0), key(10)));
+        PartitionRangeIndex index = partitionInfo.getRangeIndex();
+        Assert.assertEquals(1, index.size());
+        Assert.assertSame(index, partitionInfo.getRangeIndex());
+
+        // temp partitions are not in the index
+        partitionInfo.setRange(2L, true, Range.closedOpen(key(10), key(20)));
+        Assert.assertEquals(1, partitionInfo.getRangeIndex().size());
+
+        partitionInfo.moveRangeFromTempToFormal(2L);
+        Assert.assertEquals(Lists.newArrayList(1L, 2L),
+                partitionInfo.getRangeIndex().getPartitionIds(Range.closed(key(0), key(100))));
+
+        partitionInfo.dropPartition(1L);
+        Assert.assertEquals(Lists.newArrayList(2L),
+                partitionInfo.getRangeIndex().getPartitionIds(Range.closed(key(0), key(100))));
+    }
+}
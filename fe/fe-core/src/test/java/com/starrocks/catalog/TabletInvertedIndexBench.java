@@ -0,0 +1,137 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.Replica.ReplicaState;
+import com.starrocks.thrift.TStorageMedium;
+import com.starrocks.thrift.TTablet;
+import com.starrocks.thrift.TTabletInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the lookups of TabletInvertedIndex, alone and while the tablet reports of the backends are processed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class TabletInvertedIndexBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TabletInvertedIndexBench.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    private static final int BACKEND_NUM = 10;
+    private static final int REPLICA_NUM = 3;
+    private static final int SCHEMA_HASH = 1000;
+    private static final long START_ID = 10000;
+
+    @Param({"100000", "1000000"})
+    public int tabletNum;
+
+    private TabletInvertedIndex invertedIndex;
+    private Map<Long, TTablet> reportedTablets;
+
+    @Setup
+    public void setup() {
+        invertedIndex = new TabletInvertedIndex();
+        long replicaId = START_ID + tabletNum;
+        for (int i = 0; i < tabletNum; i++) {
+            long tabletId = START_ID + i;
+            invertedIndex.addTablet(tabletId, new TabletMeta(1, 2, 3 + i / 100, 4, SCHEMA_HASH, TStorageMedium.HDD));
+            for (int j = 0; j < REPLICA_NUM; j++) {
+                long backendId = (i + j) % BACKEND_NUM;
+                invertedIndex.addReplica(tabletId,
+                        new Replica(replicaId++, backendId, ReplicaState.NORMAL, 2, SCHEMA_HASH));
+            }
+        }
+
+        // the report of backend 0, every tablet is reported with the same version as FE
+        reportedTablets = new HashMap<>();
+        for (long tabletId : invertedIndex.getTabletIdsByBackendId(0)) {
+            TTabletInfo tabletInfo = new TTabletInfo();
+            tabletInfo.setTablet_id(tabletId);
+            tabletInfo.setSchema_hash(SCHEMA_HASH);
+            tabletInfo.setVersion(2);
+            tabletInfo.setPartition_id(3);
+            reportedTablets.put(tabletId, new TTablet(Lists.newArrayList(tabletInfo)));
+        }
+    }
+
+    private long randomTabletId() {
+        return START_ID + ThreadLocalRandom.current().nextInt(tabletNum);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TabletMeta getTabletMeta() {
+        return invertedIndex.getTabletMeta(randomTabletId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Replica getReplica() {
+        return invertedIndex.getReplica(randomTabletId(), ThreadLocalRandom.current().nextInt(BACKEND_NUM));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int tabletReport() {
+        return report();
+    }
+
+    @Benchmark
+    @Group("reportAndLookup")
+    @GroupThreads(1)
+    public int reportWhileLookup() {
+        return report();
+    }
+
+    @Benchmark
+    @Group("reportAndLookup")
+    @GroupThreads(7)
+    public TabletMeta lookupWhileReport() {
+        return invertedIndex.getTabletMeta(randomTabletId());
+    }
+
+    private int report() {
+        ArrayListMultimap<Long, Long> tabletSyncMap = ArrayListMultimap.create();
+        invertedIndex.tabletReport(0, reportedTablets, new HashMap<>(), tabletSyncMap,
+                ArrayListMultimap.create(), Sets.newHashSet(), Maps.newHashMap(), ArrayListMultimap.create(),
+                Maps.newHashMap(), Maps.newHashMap(), ArrayListMultimap.create(), ArrayListMultimap.create(),
+                Sets.newHashSet());
+        return tabletSyncMap.size();
+    }
+}
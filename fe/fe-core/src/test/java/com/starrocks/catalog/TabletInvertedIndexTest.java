@@ -0,0 +1,67 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.Replica.ReplicaState;
+import com.starrocks.thrift.TStorageMedium;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TabletInvertedIndexTest {
+    private static final int SCHEMA_HASH = 1000;
+
+    @Test
+    public void testConcurrentAddAndDeleteReplica() throws Exception {
+        TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+        int tabletNum = 16;
+        int backendNum = 3;
+        for (long tabletId = 0; tabletId < tabletNum; tabletId++) {
+            invertedIndex.addTablet(tabletId, new TabletMeta(1, 2, 3, 4, SCHEMA_HASH, TStorageMedium.HDD));
+        }
+
+        // the replicas of the same tablets and backends are added and deleted by all the threads
+        AtomicLong replicaId = new AtomicLong(10000);
+        List<Thread> threads = Lists.newArrayList();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < 20000; j++) {
+                    long tabletId = random.nextInt(tabletNum);
+                    long backendId = random.nextInt(backendNum);
+                    if (random.nextBoolean()) {
+                        invertedIndex.addReplica(tabletId, new Replica(replicaId.incrementAndGet(), backendId,
+                                ReplicaState.NORMAL, 2, SCHEMA_HASH));
+                    } else {
+                        invertedIndex.deleteReplica(tabletId, backendId);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // the tablet entries, the backend maps and the replica map agree with each other
+        for (long backendId = 0; backendId < backendNum; backendId++) {
+            Set<Long> tabletsOnBackend = Sets.newHashSet(invertedIndex.getTabletIdsByBackendId(backendId));
+            for (long tabletId = 0; tabletId < tabletNum; tabletId++) {
+                Replica replica = invertedIndex.getReplica(tabletId, backendId);
+                Assert.assertEquals(replica != null, tabletsOnBackend.contains(tabletId));
+                if (replica != null) {
+                    Assert.assertEquals(Long.valueOf(tabletId), invertedIndex.getTabletIdByReplica(replica.getId()));
+                }
+            }
+        }
+        for (long tabletId = 0; tabletId < tabletNum; tabletId++) {
+            Assert.assertTrue(invertedIndex.getReplicasByTabletId(tabletId).size() <= backendNum);
+        }
+    }
+}
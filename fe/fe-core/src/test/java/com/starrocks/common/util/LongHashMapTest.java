@@ -0,0 +1,62 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class LongHashMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        LongHashMap<String> map = new LongHashMap<>();
+        Assert.assertNull(map.put(1L, "a"));
+        Assert.assertNull(map.put(-1L, "b"));
+        Assert.assertNull(map.put(0L, "c"));
+        Assert.assertEquals("a", map.put(1L, "d"));
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals("d", map.get(1L));
+        Assert.assertEquals("b", map.get(-1L));
+        Assert.assertEquals("c", map.get(0L));
+        Assert.assertNull(map.get(2L));
+        Assert.assertEquals("e", map.getOrDefault(2L, "e"));
+        Assert.assertEquals("c", map.putIfAbsent(0L, "f"));
+
+        Assert.assertEquals("b", map.remove(-1L));
+        Assert.assertNull(map.remove(-1L));
+        Assert.assertFalse(map.containsKey(-1L));
+        Assert.assertEquals(2, map.size());
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(1L));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        LongHashMap<Long> map = new LongHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 200000; i++) {
+            // a small key range makes many collisions and removals in the probe sequences
+            long key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                Assert.assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        Assert.assertEquals(expected, visited);
+        Assert.assertEquals(expected.size(), map.keys().length);
+    }
+}
@@ -0,0 +1,132 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import com.google.common.base.Strings;
+import com.starrocks.common.Config;
+import com.starrocks.common.jmockit.Deencapsulation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+public class ProfileManagerTest {
+    private long profileMaxMemoryBytes;
+    private boolean enableProfileSpill;
+    private String profileSpillDir;
+    private long profileSpillMaxBytes;
+
+    @Before
+    public void setUp() {
+        profileMaxMemoryBytes = Config.profile_max_memory_bytes;
+        enableProfileSpill = Config.enable_profile_spill;
+        profileSpillDir = Config.profile_spill_dir;
+        profileSpillMaxBytes = Config.profile_spill_max_bytes;
+    }
+
+    @After
+    public void tearDown() {
+        Config.profile_max_memory_bytes = profileMaxMemoryBytes;
+        Config.enable_profile_spill = enableProfileSpill;
+        Config.profile_spill_dir = profileSpillDir;
+        Config.profile_spill_max_bytes = profileSpillMaxBytes;
+    }
+
+    private static RuntimeProfile createProfile(String queryId, String content) {
+        RuntimeProfile profile = new RuntimeProfile("Query");
+        RuntimeProfile summaryProfile = new RuntimeProfile("Summary");
+        summaryProfile.addInfoString(ProfileManager.QUERY_ID, queryId);
+        summaryProfile.addInfoString(ProfileManager.SQL_STATEMENT, content);
+        profile.addChild(summaryProfile);
+        return profile;
+    }
+
+    // a random content of about the given bytes when compressed
+    private static String randomContent(int compressedLength) {
+        byte[] bytes = new byte[compressedLength];
+        new Random().nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    @Test
+    public void testPushAndGet() {
+        ProfileManager manager = Deencapsulation.newInstance(ProfileManager.class);
+        RuntimeProfile profile = createProfile("q1", Strings.repeat("select 1 ", 10000));
+        String content = manager.pushProfile(profile);
+        Assert.assertEquals(profile.toString(), content);
+        Assert.assertEquals(content, manager.getProfile("q1"));
+        Assert.assertNull(manager.getProfile("q2"));
+
+        manager.pushProfile(createProfile("q2", "select 2"));
+        List<List<String>> queries = manager.getAllQueries();
+        Assert.assertEquals(2, queries.size());
+        Assert.assertEquals("q2", queries.get(0).get(0));
+        Assert.assertEquals("q1", queries.get(1).get(0));
+    }
+
+    @Test
+    public void testEvictByBytes() {
+        Config.profile_max_memory_bytes = 50 * 1024;
+        Config.enable_profile_spill = false;
+        ProfileManager manager = Deencapsulation.newInstance(ProfileManager.class);
+        for (int i = 0; i < 10; i++) {
+            manager.pushProfile(createProfile("q" + i, randomContent(20 * 1024)));
+            if (i == 5) {
+                // the recently used one is evicted later
+                Assert.assertNotNull(manager.getProfile("q4"));
+            }
+        }
+        // only 2 profiles of about 20KB can be kept
+        Assert.assertEquals(2, manager.getAllQueries().size());
+        Assert.assertNotNull(manager.getProfile("q9"));
+        Assert.assertNotNull(manager.getProfile("q8"));
+        Assert.assertNull(manager.getProfile("q4"));
+
+        // the newest one is kept even if larger than the limit
+        manager.pushProfile(createProfile("q10", randomContent(100 * 1024)));
+        Assert.assertEquals(1, manager.getAllQueries().size());
+        Assert.assertNotNull(manager.getProfile("q10"));
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        File spillDir = Files.createTempDirectory("profile").toFile();
+        // the other files in the dir are not removed
+        File otherFile = new File(spillDir, "other.log");
+        Files.write(otherFile.toPath(), new byte[] {1});
+        File otherDir = new File(spillDir, "other.profile");
+        Assert.assertTrue(otherDir.mkdir());
+        Config.profile_max_memory_bytes = 50 * 1024;
+        Config.enable_profile_spill = true;
+        Config.profile_spill_dir = spillDir.getAbsolutePath();
+        Config.profile_spill_max_bytes = 100 * 1024;
+        ProfileManager manager = Deencapsulation.newInstance(ProfileManager.class);
+        String[] contents = new String[10];
+        for (int i = 0; i < 10; i++) {
+            contents[i] = manager.pushProfile(createProfile("q" + i, randomContent(20 * 1024)));
+        }
+
+        // 2 in memory and 4 spilled
+        List<List<String>> queries = manager.getAllQueries();
+        Assert.assertEquals(6, queries.size());
+        Assert.assertEquals("q9", queries.get(0).get(0));
+        Assert.assertEquals("q4", queries.get(5).get(0));
+        Assert.assertEquals(6, spillDir.listFiles().length);
+        for (int i = 4; i < 10; i++) {
+            Assert.assertEquals(contents[i], manager.getProfile("q" + i));
+        }
+        Assert.assertNull(manager.getProfile("q3"));
+
+        // the spilled profiles are removed when restarting
+        Deencapsulation.newInstance(ProfileManager.class);
+        Assert.assertEquals(2, spillDir.listFiles().length);
+        Assert.assertTrue(otherFile.isFile());
+        Assert.assertTrue(otherDir.isDirectory());
+    }
+}
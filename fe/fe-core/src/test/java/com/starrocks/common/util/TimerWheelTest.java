@@ -0,0 +1,107 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TimerWheelTest {
+
+    @Test
+    public void testExpire() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 10000);
+        TimerWheel.Timer<String> t1 = new TimerWheel.Timer<>("t1");
+        TimerWheel.Timer<String> t2 = new TimerWheel.Timer<>("t2");
+        wheel.schedule(t1, 12000);
+        wheel.schedule(t2, 12500);
+        Assert.assertEquals(2, wheel.size());
+
+        Assert.assertTrue(wheel.advance(11999).isEmpty());
+        Assert.assertEquals(Lists.newArrayList("t1"), wheel.advance(12000));
+        // the deadline is rounded up to the next tick
+        Assert.assertTrue(wheel.advance(12999).isEmpty());
+        Assert.assertEquals(Lists.newArrayList("t2"), wheel.advance(13000));
+        Assert.assertEquals(0, wheel.size());
+
+        // a deadline passed expires at the next tick
+        wheel.schedule(t1, 1000);
+        Assert.assertEquals(Lists.newArrayList("t1"), wheel.advance(14000));
+    }
+
+    @Test
+    public void testScheduleEarlierOnly() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 0);
+        TimerWheel.Timer<String> timer = new TimerWheel.Timer<>("t");
+        wheel.schedule(timer, 8 * 3600 * 1000L);
+        wheel.schedule(timer, 300 * 1000L);
+        wheel.schedule(timer, 600 * 1000L);
+        Assert.assertEquals(1, wheel.size());
+        Assert.assertTrue(wheel.advance(299 * 1000L).isEmpty());
+        Assert.assertEquals(Lists.newArrayList("t"), wheel.advance(300 * 1000L));
+        Assert.assertTrue(wheel.advance(8 * 3600 * 1000L).isEmpty());
+    }
+
+    @Test
+    public void testCancel() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 0);
+        TimerWheel.Timer<String> timer = new TimerWheel.Timer<>("t");
+        wheel.schedule(timer, 5000);
+        wheel.cancel(timer);
+        Assert.assertEquals(0, wheel.size());
+        // a cancelled timer is never scheduled again
+        wheel.schedule(timer, 5000);
+        Assert.assertEquals(0, wheel.size());
+        Assert.assertTrue(wheel.advance(10000).isEmpty());
+    }
+
+    @Test
+    public void testClockBackwards() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 100000);
+        TimerWheel.Timer<String> timer = new TimerWheel.Timer<>("t");
+        wheel.schedule(timer, 200000);
+        Assert.assertEquals(Lists.newArrayList("t"), wheel.advance(50000));
+        wheel.schedule(timer, 60000);
+        Assert.assertTrue(wheel.advance(59000).isEmpty());
+        Assert.assertEquals(Lists.newArrayList("t"), wheel.advance(60000));
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(7);
+        long now = 123456;
+        TimerWheel<Integer> wheel = new TimerWheel<>(10, now);
+        Map<Integer, Long> deadlines = Maps.newHashMap();
+        List<TimerWheel.Timer<Integer>> timers = Lists.newArrayList();
+        for (int i = 0; i < 2000; i++) {
+            timers.add(new TimerWheel.Timer<>(i));
+        }
+        for (int round = 0; round < 3000; round++) {
+            for (int k = 0; k < 5; k++) {
+                int i = random.nextInt(timers.size());
+                // from the next tick to several levels of the wheel
+                long deadline = now + 1 + (long) Math.pow(10, random.nextInt(8)) * random.nextInt(10);
+                Long current = deadlines.get(i);
+                if (current == null || deadline < current) {
+                    deadlines.put(i, deadline);
+                }
+                wheel.schedule(timers.get(i), deadline);
+            }
+            now += random.nextInt(3) == 0 ? random.nextInt(1000000) : random.nextInt(100);
+            for (int i : wheel.advance(now)) {
+                long deadline = deadlines.remove(i);
+                Assert.assertTrue(deadline <= now);
+            }
+            // none of the timers remaining has expired
+            for (long deadline : deadlines.values()) {
+                Assert.assertTrue(deadline > now - now % 10);
+            }
+            Assert.assertEquals(deadlines.size(), wheel.size());
+        }
+    }
+}
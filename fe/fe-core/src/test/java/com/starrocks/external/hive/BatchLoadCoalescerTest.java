@@ -0,0 +1,83 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.external.hive;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.DdlException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BatchLoadCoalescerTest {
+
+    private static Map<Integer, String> values(List<Integer> keys) {
+        Map<Integer, String> values = Maps.newHashMap();
+        for (Integer key : keys) {
+            values.put(key, "v" + key);
+        }
+        return values;
+    }
+
+    @Test
+    public void testCoalesceConcurrentLoads() throws Exception {
+        BatchLoadCoalescer<Integer, String> coalescer = new BatchLoadCoalescer<>();
+        CountDownLatch firstLoading = new CountDownLatch(1);
+        CountDownLatch secondLoaded = new CountDownLatch(1);
+        List<List<Integer>> loadedKeys = Collections.synchronizedList(Lists.newArrayList());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Map<Integer, String>> first = executor.submit(() ->
+                    coalescer.loadAll(Lists.newArrayList(1, 2), keys -> {
+                        loadedKeys.add(keys);
+                        firstLoading.countDown();
+                        secondLoaded.await();
+                        return values(keys);
+                    }));
+            firstLoading.await();
+            // the key 2 being loaded by the first thread is not loaded again
+            Future<Map<Integer, String>> second = executor.submit(() ->
+                    coalescer.loadAll(Lists.newArrayList(2, 3), keys -> {
+                        loadedKeys.add(keys);
+                        secondLoaded.countDown();
+                        return values(keys);
+                    }));
+
+            Assert.assertEquals(values(Lists.newArrayList(1, 2)), first.get());
+            Assert.assertEquals(values(Lists.newArrayList(2, 3)), second.get());
+            Assert.assertEquals(Lists.newArrayList(Lists.newArrayList(1, 2), Lists.newArrayList(3)), loadedKeys);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the keys are loaded again after the previous loads finished
+        coalescer.loadAll(Lists.newArrayList(1, 2), keys -> {
+            loadedKeys.add(keys);
+            return values(keys);
+        });
+        Assert.assertEquals(3, loadedKeys.size());
+    }
+
+    @Test
+    public void testLoadFailed() throws Exception {
+        BatchLoadCoalescer<Integer, String> coalescer = new BatchLoadCoalescer<>();
+        try {
+            coalescer.loadAll(Lists.newArrayList(1, 2), keys -> {
+                throw new DdlException("partition not exists");
+            });
+            Assert.fail();
+        } catch (DdlException e) {
+            Assert.assertEquals("partition not exists", e.getMessage());
+        }
+
+        // the failed keys are not left loading
+        Assert.assertEquals("v1", coalescer.loadAll(Lists.newArrayList(1), BatchLoadCoalescerTest::values).get(1));
+    }
+}
@@ -0,0 +1,94 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.external.hive;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.external.hive.HiveFileListingService.ListedBlock;
+import com.starrocks.external.hive.HiveFileListingService.ListedFile;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+public class HiveFileStatusCacheTest {
+    private static final String LOCATION = "hdfs://nameservice1/hive/db/tbl/k1=1";
+
+    private File dir;
+    private long ttl;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("hive_file_status_cache").toFile();
+        ttl = Config.hive_meta_cache_ttl_s;
+    }
+
+    @After
+    public void tearDown() {
+        Config.hive_meta_cache_ttl_s = ttl;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private List<ListedFile> newFiles() {
+        return Lists.newArrayList(
+                new ListedFile("000000_0", 200L, Lists.newArrayList(
+                        new ListedBlock(0L, 128L, new String[] {"127.0.0.1:9866", "127.0.0.2:9866"}),
+                        new ListedBlock(128L, 72L, new String[] {"127.0.0.3:9866"}))),
+                new ListedFile("000001_0", 0L, Lists.newArrayList()));
+    }
+
+    @Test
+    public void testPutAndGet() {
+        HiveFileStatusCache cache = new HiveFileStatusCache(dir.getAbsolutePath());
+        Assert.assertNull(cache.get(LOCATION, 100L));
+
+        cache.put(LOCATION, 100L, newFiles());
+        // survives restart
+        cache = new HiveFileStatusCache(dir.getAbsolutePath());
+        List<ListedFile> files = cache.get(LOCATION, 100L);
+        Assert.assertNotNull(files);
+        Assert.assertEquals(2, files.size());
+        Assert.assertEquals("000000_0", files.get(0).getName());
+        Assert.assertEquals(200L, files.get(0).getLength());
+        Assert.assertEquals(2, files.get(0).getBlocks().size());
+        Assert.assertEquals(128L, files.get(0).getBlocks().get(1).getOffset());
+        Assert.assertEquals(72L, files.get(0).getBlocks().get(1).getLength());
+        Assert.assertArrayEquals(new String[] {"127.0.0.1:9866", "127.0.0.2:9866"},
+                files.get(0).getBlocks().get(0).getNames());
+        Assert.assertTrue(files.get(1).getBlocks().isEmpty());
+
+        // the directory has changed
+        Assert.assertNull(cache.get(LOCATION, 101L));
+        Assert.assertNull(cache.get(LOCATION + "0", 100L));
+    }
+
+    @Test
+    public void testExpired() {
+        HiveFileStatusCache cache = new HiveFileStatusCache(dir.getAbsolutePath());
+        cache.put(LOCATION, 100L, newFiles());
+        for (File file : dir.listFiles()) {
+            Assert.assertTrue(file.setLastModified(System.currentTimeMillis() - 2000L));
+        }
+        Config.hive_meta_cache_ttl_s = 1L;
+        Assert.assertNull(cache.get(LOCATION, 100L));
+        Assert.assertEquals(0, dir.listFiles().length);
+
+        cache.put(LOCATION, 100L, newFiles());
+        for (File file : dir.listFiles()) {
+            Assert.assertTrue(file.setLastModified(System.currentTimeMillis() - 2000L));
+        }
+        new HiveFileStatusCache(dir.getAbsolutePath());
+        Assert.assertEquals(0, dir.listFiles().length);
+    }
+}
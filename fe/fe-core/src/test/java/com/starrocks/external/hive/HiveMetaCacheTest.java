@@ -23,7 +23,9 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class HiveMetaCacheTest {
     private List<Column> partColumns = Lists.newArrayList(new Column("k1", Type.INT),
@@ -33,9 +35,13 @@ public class HiveMetaCacheTest {
 
     private int clientMethodGetPartitionKeysCalledTimes = 0;
     private int clientMethodGetPartitionCalledTimes = 0;
+    private int clientMethodGetPartitionsCalledTimes = 0;
     private int clientMethodGetTableStatsCalledTimes = 0;
     private int clientMethodGetPartitionStatsCalledTimes = 0;
+    private int clientMethodGetPartitionsStatsCalledTimes = 0;
     private String partitionPath = "hdfs://nameservice1/hive/db/tbl/k1=1/k2=1/k3=3";
+    // counted down by each hudi partition load, a load returns only after all the loads are started
+    private CountDownLatch hudiPartitionLatch = new CountDownLatch(3);
 
     HiveMetaStoreTableInfo hmsTable = new HiveMetaStoreTableInfo("resource", "db", "tbl",
             partColumnNames, null, constructNameToColumn(), Table.TableType.HIVE);
@@ -94,6 +100,51 @@ public class HiveMetaCacheTest {
         Assert.assertEquals(1, clientMethodGetPartitionCalledTimes);
     }
 
+    @Test
+    public void testGetPartitions() throws Exception {
+        HiveMetaClient metaClient = new MockedHiveMetaClient();
+        HiveMetaCache metaCache = new HiveMetaCache(metaClient, Executors.newFixedThreadPool(10));
+
+        PartitionKey cachedKey = Utils.createPartitionKey(Lists.newArrayList("1", "2", "3"), partColumns);
+        metaCache.getPartition(hmsTable, cachedKey);
+        Assert.assertEquals(1, clientMethodGetPartitionCalledTimes);
+
+        // only the missing partitions are loaded, together
+        List<PartitionKey> partitionKeys = Lists.newArrayList(
+                Utils.createPartitionKey(Lists.newArrayList("1", "2", "5"), partColumns),
+                cachedKey,
+                Utils.createPartitionKey(Lists.newArrayList("1", "2", "4"), partColumns));
+        List<HivePartition> partitions = metaCache.getPartitions(hmsTable, partitionKeys);
+        Assert.assertEquals(3, partitions.size());
+        Assert.assertEquals(partitionPath + "/5", partitions.get(0).getFullPath());
+        Assert.assertEquals(partitionPath, partitions.get(1).getFullPath());
+        Assert.assertEquals(partitionPath + "/4", partitions.get(2).getFullPath());
+        Assert.assertEquals(1, clientMethodGetPartitionsCalledTimes);
+
+        metaCache.getPartitions(hmsTable, partitionKeys);
+        Assert.assertEquals(1, clientMethodGetPartitionCalledTimes);
+        Assert.assertEquals(1, clientMethodGetPartitionsCalledTimes);
+    }
+
+    @Test
+    public void testGetHudiPartitions() throws Exception {
+        HiveMetaClient metaClient = new MockedHiveMetaClient();
+        HiveMetaCache metaCache = new HiveMetaCache(metaClient, Executors.newFixedThreadPool(10));
+        HiveMetaStoreTableInfo hudiTable = new HiveMetaStoreTableInfo("resource", "db", "hudi_tbl",
+                partColumnNames, null, constructNameToColumn(), Table.TableType.HUDI);
+
+        // the partitions are loaded concurrently, or the loads wait for each other until the timeout
+        List<PartitionKey> partitionKeys = Lists.newArrayList(
+                Utils.createPartitionKey(Lists.newArrayList("1", "2", "3"), partColumns),
+                Utils.createPartitionKey(Lists.newArrayList("1", "2", "4"), partColumns),
+                Utils.createPartitionKey(Lists.newArrayList("1", "2", "5"), partColumns));
+        List<HivePartition> partitions = metaCache.getPartitions(hudiTable, partitionKeys);
+        Assert.assertEquals(3, partitions.size());
+        Assert.assertEquals(partitionPath + "/3", partitions.get(0).getFullPath());
+        Assert.assertEquals(partitionPath + "/4", partitions.get(1).getFullPath());
+        Assert.assertEquals(partitionPath + "/5", partitions.get(2).getFullPath());
+    }
+
     @Test
     public void testGetTableStats() throws Exception {
         HiveMetaClient metaClient = new MockedHiveMetaClient();
@@ -128,6 +179,27 @@ public class HiveMetaCacheTest {
         Assert.assertEquals(1, clientMethodGetPartitionStatsCalledTimes);
     }
 
+    @Test
+    public void testGetPartitionsStats() throws Exception {
+        HiveMetaClient metaClient = new MockedHiveMetaClient();
+        HiveMetaCache metaCache = new HiveMetaCache(metaClient, Executors.newFixedThreadPool(10));
+
+        List<PartitionKey> partitionKeys = Lists.newArrayList(
+                Utils.createPartitionKey(Lists.newArrayList("1", "2", "4"), partColumns),
+                Utils.createPartitionKey(Lists.newArrayList("1", "2", "5"), partColumns));
+        List<HivePartitionStats> partitionsStats = metaCache.getPartitionsStats(hmsTable, partitionKeys);
+        Assert.assertEquals(2, partitionsStats.size());
+        Assert.assertEquals(4L, partitionsStats.get(0).getNumRows());
+        Assert.assertEquals(5L, partitionsStats.get(1).getNumRows());
+        Assert.assertEquals(1, clientMethodGetPartitionsStatsCalledTimes);
+        // the files of the partitions are loaded together too
+        Assert.assertEquals(1, clientMethodGetPartitionsCalledTimes);
+
+        metaCache.getPartitionsStats(hmsTable, partitionKeys);
+        Assert.assertEquals(1, clientMethodGetPartitionsStatsCalledTimes);
+        Assert.assertEquals(0, clientMethodGetPartitionStatsCalledTimes);
+    }
+
     @Test
     public void testAddPartitionByEvent() throws Exception {
         HiveMetaClient metaClient = new MockedHiveMetaClient();
@@ -298,6 +370,33 @@ public class HiveMetaCacheTest {
                     partitionPath);
         }
 
+        @Override
+        public List<HivePartition> getPartitions(String dbName, String tableName, List<List<String>> partValuesList)
+                throws DdlException {
+            clientMethodGetPartitionsCalledTimes++;
+            List<HivePartition> partitions = Lists.newArrayList();
+            for (List<String> partValues : partValuesList) {
+                partitions.add(new HivePartition(HdfsFileFormat.PARQUET, ImmutableList.of(),
+                        partitionPath + "/" + partValues.get(2)));
+            }
+            return partitions;
+        }
+
+        @Override
+        public HivePartition getHudiPartition(String dbName, String tableName, List<String> partValues)
+                throws DdlException {
+            hudiPartitionLatch.countDown();
+            try {
+                if (!hudiPartitionLatch.await(10, TimeUnit.SECONDS)) {
+                    throw new DdlException("hudi partitions are not loaded concurrently");
+                }
+            } catch (InterruptedException e) {
+                throw new DdlException(e.getMessage());
+            }
+            return new HivePartition(HdfsFileFormat.PARQUET, ImmutableList.of(),
+                    partitionPath + "/" + partValues.get(2));
+        }
+
         @Override
         public HiveTableStats getTableStats(String dbName, String tableName) throws DdlException {
             clientMethodGetTableStatsCalledTimes++;
@@ -310,6 +409,17 @@ public class HiveMetaCacheTest {
             clientMethodGetPartitionStatsCalledTimes++;
             return new HivePartitionStats(10000L);
         }
+
+        @Override
+        public List<HivePartitionStats> getPartitionsStats(String dbName, String tableName,
+                                                           List<List<String>> partValuesList) throws DdlException {
+            clientMethodGetPartitionsStatsCalledTimes++;
+            List<HivePartitionStats> partitionsStats = Lists.newArrayList();
+            for (List<String> partValues : partValuesList) {
+                partitionsStats.add(new HivePartitionStats(Long.parseLong(partValues.get(2))));
+            }
+            return partitionsStats;
+        }
     }
 }
 
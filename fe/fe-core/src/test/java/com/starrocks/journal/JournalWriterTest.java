@@ -314,4 +314,46 @@ public class JournalWriterTest {
         Assert.assertFalse(task2.get());
         Assert.assertEquals(0, journalQueue.size());
     }
+
+    @Test
+    public void testPipelinedCommit() throws Exception {
+        new Expectations(journal) {
+            {
+                journal.batchWriteBegin();
+                times = 1;
+
+                journal.batchWriteAppend(1, (DataOutputBuffer) any);
+                times = 1;
+
+                journal.batchWriteAppend(2, (DataOutputBuffer) any);
+                times = 1;
+
+                journal.batchWriteDetach();
+                times = 1;
+                result = journal;
+
+                journal.batchWriteCommit();
+                times = 1;
+            }
+        };
+        writer.nextAppendJournalId = 1;
+        JournalTask task1 = new JournalTask(makeBuffer(10), -1);
+        JournalTask task2 = new JournalTask(makeBuffer(10), -1);
+        journalQueue.add(task1);
+        journalQueue.add(task2);
+
+        // the batch is written but not committed yet
+        writer.writeOnePipelinedBatch();
+        Assert.assertEquals(3, writer.nextAppendJournalId);
+        Assert.assertEquals(1, writer.nextVisibleJournalId);
+        Assert.assertEquals(1, task1.latch.getCount());
+        Assert.assertEquals(1, task2.latch.getCount());
+
+        writer.commitOnePipelinedBatch();
+        Assert.assertEquals(3, writer.nextVisibleJournalId);
+        Assert.assertEquals(2, writer.rollJournalCounter);
+        Assert.assertEquals(0, task1.latch.getCount());
+        Assert.assertEquals(0, task2.latch.getCount());
+        Assert.assertEquals(0, journalQueue.size());
+    }
 }
@@ -335,6 +335,57 @@ public class StarOSAgentTest {
         Assert.assertEquals(Sets.newHashSet(10001L, 10002L, 10003L), starosAgent.getBackendIdsByShard(10L));
     }
 
+    @Test
+    public void testGetBackendsByShardsCached() throws StarClientException, UserException {
+        ReplicaInfo replica1 = ReplicaInfo.newBuilder()
+                .setReplicaRole(ReplicaRole.PRIMARY)
+                .setWorkerInfo(WorkerInfo.newBuilder().setWorkerId(1L).setWorkerState(WorkerState.ON).build())
+                .build();
+        ReplicaInfo replica2 = ReplicaInfo.newBuilder()
+                .setReplicaRole(ReplicaRole.SECONDARY)
+                .setWorkerInfo(WorkerInfo.newBuilder().setWorkerId(2L).setWorkerState(WorkerState.ON).build())
+                .build();
+        ReplicaInfo replica3 = ReplicaInfo.newBuilder()
+                .setReplicaRole(ReplicaRole.PRIMARY)
+                .setWorkerInfo(WorkerInfo.newBuilder().setWorkerId(2L).setWorkerState(WorkerState.ON).build())
+                .build();
+        ShardInfo shard1 = ShardInfo.newBuilder().setShardId(10L).addAllReplicaInfo(
+                Lists.newArrayList(replica1, replica2)).build();
+        ShardInfo shard2 = ShardInfo.newBuilder().setShardId(11L).addAllReplicaInfo(
+                Lists.newArrayList(replica3)).build();
+
+        new Expectations() {
+            {
+                client.getShardInfo("1", Lists.newArrayList(10L, 11L));
+                times = 1;
+                result = Lists.newArrayList(shard1, shard2);
+
+                client.getShardInfo("1", Lists.newArrayList(10L));
+                times = 1;
+                result = Lists.newArrayList(shard1);
+            }
+        };
+
+        Deencapsulation.setField(starosAgent, "serviceId", "1");
+        Map<Long, Long> workerToBackend = Deencapsulation.getField(starosAgent, "workerToBackend");
+        workerToBackend.put(1L, 10001L);
+        workerToBackend.put(2L, 10002L);
+
+        // all the shards are got by one request
+        Map<Long, Set<Long>> backendIds = starosAgent.getBackendIdsByShards(Lists.newArrayList(10L, 11L, 10L));
+        Assert.assertEquals(Sets.newHashSet(10001L, 10002L), backendIds.get(10L));
+        Assert.assertEquals(Sets.newHashSet(10002L), backendIds.get(11L));
+
+        // from the cache
+        Assert.assertEquals(10001L, starosAgent.getPrimaryBackendIdByShard(10L));
+        Assert.assertEquals(10002L, starosAgent.getPrimaryBackendIdByShard(11L));
+        Assert.assertEquals(Sets.newHashSet(10002L), starosAgent.getBackendIdsByShard(11L));
+
+        // the cache is invalidated once the workers change
+        starosAgent.removeWorkerFromMap(3L, "127.0.0.1:8093");
+        Assert.assertEquals(10001L, starosAgent.getPrimaryBackendIdByShard(10L));
+    }
+
     @Test
     public void testRemoveWorkerFromMap() {
         String workerHost = "127.0.0.1:8090";
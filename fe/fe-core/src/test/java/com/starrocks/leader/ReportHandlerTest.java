@@ -2,12 +2,24 @@
 
 package com.starrocks.leader;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.TabletInvertedIndex;
 import com.starrocks.common.FeConstants;
+import com.starrocks.common.util.PropertyAnalyzer;
 import com.starrocks.common.util.UUIDUtil;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.system.Backend;
+import com.starrocks.thrift.TBackend;
+import com.starrocks.thrift.TMasterResult;
+import com.starrocks.thrift.TReportRequest;
+import com.starrocks.thrift.TStatusCode;
 import com.starrocks.thrift.TTablet;
 import com.starrocks.thrift.TTabletInfo;
 import com.starrocks.utframe.StarRocksAssert;
@@ -19,6 +31,7 @@ import org.junit.Test;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class ReportHandlerTest {
     private static ConnectContext connectContext;
@@ -63,4 +76,103 @@ public class ReportHandlerTest {
         ReportHandler handler = new ReportHandler();
         handler.testHandleSetTabletEnablePersistentIndex(backendId, backendTablets);
     }
+
+    @Test
+    public void testIncrementalTabletReport() throws Exception {
+        Backend backend = GlobalStateMgr.getCurrentSystemInfo().getBackend(10001);
+        TBackend tBackend = new TBackend(backend.getHost(), backend.getBePort(), backend.getHttpPort());
+        ReportHandler handler = new ReportHandler();
+        ReportHandler.requestFullTabletReport(backend.getId());
+
+        // no full report is received, the incremental report is rejected
+        TReportRequest request = new TReportRequest(tBackend);
+        request.setTablets(new HashMap<>());
+        request.setReport_version(1);
+        request.setIncremental_tablet_report(true);
+        TMasterResult result = handler.handleReport(request);
+        Assert.assertEquals(TStatusCode.OK, result.getStatus().getStatus_code());
+        Assert.assertTrue(result.isNeed_full_tablet_report());
+
+        request = new TReportRequest(tBackend);
+        request.setTablets(new HashMap<>());
+        request.setReport_version(2);
+        result = handler.handleReport(request);
+        Assert.assertFalse(result.isNeed_full_tablet_report());
+
+        request = new TReportRequest(tBackend);
+        request.setTablets(new HashMap<>());
+        request.setReport_version(3);
+        request.setIncremental_tablet_report(true);
+        request.setDropped_tablet_ids(Lists.newArrayList(1L));
+        result = handler.handleReport(request);
+        Assert.assertFalse(result.isNeed_full_tablet_report());
+    }
+
+    private static TMasterResult report(ReportHandler handler, TBackend tBackend, boolean incremental)
+            throws Exception {
+        TReportRequest request = new TReportRequest(tBackend);
+        request.setTablets(new HashMap<>());
+        request.setReport_version(1);
+        if (incremental) {
+            request.setIncremental_tablet_report(true);
+            request.setDropped_tablet_ids(Lists.newArrayList());
+        }
+        return handler.handleReport(request);
+    }
+
+    @Test
+    public void testRequestFullTabletReport() throws Exception {
+        Backend backend = GlobalStateMgr.getCurrentSystemInfo().getBackend(10001);
+        TBackend tBackend = new TBackend(backend.getHost(), backend.getBePort(), backend.getHttpPort());
+        ReportHandler handler = new ReportHandler();
+        Assert.assertFalse(report(handler, tBackend, false).isNeed_full_tablet_report());
+        Assert.assertFalse(report(handler, tBackend, true).isNeed_full_tablet_report());
+
+        // the incremental report after the request is rejected, until a full report is received
+        ReportHandler.requestFullTabletReport(backend.getId());
+        Assert.assertTrue(report(handler, tBackend, true).isNeed_full_tablet_report());
+        Assert.assertFalse(report(handler, tBackend, false).isNeed_full_tablet_report());
+        Assert.assertFalse(report(handler, tBackend, true).isNeed_full_tablet_report());
+
+        // the tablet meta changed by FE is checked by a full report
+        Database db = GlobalStateMgr.getCurrentState().getDb("test");
+        OlapTable table = (OlapTable) db.getTable("properties_change_test");
+        Map<String, String> properties = Maps.newHashMap();
+        properties.put(PropertyAnalyzer.PROPERTIES_INMEMORY, "true");
+        db.writeLock();
+        try {
+            GlobalStateMgr.getCurrentState().getLocalMetastore().modifyTableInMemoryMeta(db, table, properties);
+        } finally {
+            db.writeUnlock();
+        }
+        Assert.assertTrue(report(handler, tBackend, true).isNeed_full_tablet_report());
+        Assert.assertFalse(report(handler, tBackend, false).isNeed_full_tablet_report());
+    }
+
+    @Test
+    public void testIncrementalTabletDiff() {
+        long backendId = 10001L;
+        TabletInvertedIndex invertedIndex = GlobalStateMgr.getCurrentInvertedIndex();
+        List<Long> tabletIds = invertedIndex.getTabletIdsByBackendId(backendId);
+        Assert.assertFalse(tabletIds.isEmpty());
+
+        // the tablets not reported in a full report are deleted from meta
+        ListMultimap<Long, Long> tabletDeleteFromMeta = diff(invertedIndex, backendId, null);
+        Assert.assertEquals(tabletIds.size(), tabletDeleteFromMeta.size());
+
+        // only the dropped tablets are deleted from meta in an incremental report
+        Assert.assertTrue(diff(invertedIndex, backendId, Sets.newHashSet()).isEmpty());
+        tabletDeleteFromMeta = diff(invertedIndex, backendId, Sets.newHashSet(tabletIds.get(0), -1L));
+        Assert.assertEquals(Lists.newArrayList(tabletIds.get(0)), tabletDeleteFromMeta.values());
+    }
+
+    private static ListMultimap<Long, Long> diff(TabletInvertedIndex invertedIndex, long backendId,
+                                                 Set<Long> droppedTabletIds) {
+        ListMultimap<Long, Long> tabletDeleteFromMeta = ArrayListMultimap.create();
+        invertedIndex.tabletReport(backendId, new HashMap<>(), droppedTabletIds, new HashMap<>(),
+                ArrayListMultimap.create(), tabletDeleteFromMeta, Sets.newHashSet(), Maps.newHashMap(),
+                ArrayListMultimap.create(), Maps.newHashMap(), Maps.newHashMap(), ArrayListMultimap.create(),
+                ArrayListMultimap.create(), Sets.newHashSet());
+        return tabletDeleteFromMeta;
+    }
 }
\ No newline at end of file
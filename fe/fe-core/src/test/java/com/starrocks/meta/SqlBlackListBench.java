@@ -0,0 +1,99 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.meta;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark matching a generated sql of several KB against the blacklist compiled into one matcher, compared with
+ * matching the patterns one by one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class SqlBlackListBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SqlBlackListBench.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Param({"10", "100", "500"})
+    public int patternNum;
+
+    private List<Pattern> patterns;
+    private SqlBlackListMatcher matcher;
+    private String sql;
+
+    @Setup
+    public void setup() {
+        patterns = Lists.newArrayList();
+        for (int i = 0; i < patternNum; i++) {
+            switch (i % 4) {
+                case 0:
+                    patterns.add(Pattern.compile("select .* from db_" + i + "\\.tbl_" + i + " .*"));
+                    break;
+                case 1:
+                    patterns.add(Pattern.compile("insert into tbl_" + i + " values.+"));
+                    break;
+                case 2:
+                    patterns.add(Pattern.compile("count\\(distinct col_" + i + "\\)"));
+                    break;
+                default:
+                    patterns.add(Pattern.compile("join tbl_" + i + " on .* = \\d+"));
+                    break;
+            }
+        }
+        matcher = new SqlBlackListMatcher(patterns);
+
+        StringBuilder sb = new StringBuilder("select ");
+        for (int i = 0; i < 200; i++) {
+            sb.append("sum(col_").append(i).append(") as s_").append(i).append(", ");
+        }
+        sb.append("count(*) from db.tbl where col_0 in (");
+        for (int i = 0; i < 300; i++) {
+            sb.append(i).append(", ");
+        }
+        sb.append("-1) group by col_1 order by col_2 limit 10");
+        sql = sb.toString();
+    }
+
+    @Benchmark
+    public boolean matchCompiled() {
+        return matcher.matches(sql);
+    }
+
+    @Benchmark
+    public boolean matchOneByOne() {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(sql).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
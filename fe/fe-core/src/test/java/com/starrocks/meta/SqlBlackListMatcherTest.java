@@ -0,0 +1,88 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.meta;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class SqlBlackListMatcherTest {
+
+    private static String literal(String regex) {
+        return SqlBlackListMatcher.getRequiredLiteral(Pattern.compile(regex));
+    }
+
+    @Test
+    public void testGetRequiredLiteral() {
+        Assert.assertEquals("select k1 from ", literal("select k1 from .+"));
+        Assert.assertEquals("insert into ", literal("insert into .+ values.+"));
+        Assert.assertEquals("", literal("((?!where).)*"));
+        Assert.assertEquals(" from t1.k1", literal("select .* from t1\\.k1"));
+        Assert.assertEquals("selec", literal("select?s[abc]+ from"));
+        Assert.assertEquals("select ", literal("^select (.*) limit \\d+$"));
+        Assert.assertEquals("aaab", literal("aaab{2,}c"));
+        Assert.assertEquals("select ", literal("select x{0,3} from t"));
+
+        // not sure about the literal
+        Assert.assertNull(literal("select a|select b"));
+        Assert.assertNull(literal("(?i)select k1"));
+        Assert.assertNull(literal("select (?i:k1) from t"));
+        Assert.assertNull(literal("select \\x41 from t"));
+        Assert.assertNull(literal("select (k1) from \\1"));
+        Assert.assertNull(literal("\\Qselect *\\E from t"));
+        Assert.assertNull(literal("select [[a-z]] from t"));
+        Assert.assertNull(SqlBlackListMatcher.getRequiredLiteral(Pattern.compile("select", Pattern.CASE_INSENSITIVE)));
+    }
+
+    @Test
+    public void testSameAsMatchingOneByOne() {
+        List<Pattern> patterns = Lists.newArrayList();
+        for (String regex : new String[] {"select k1 from .+", "((?!where).)*", "insert into .+ values.+",
+                "select .* from t1\\.k1", "count\\(\\*\\)", "select a|delete b", "(?i)ORDER BY",
+                "join.*join.*join", "^select (.*) limit \\d+$", "ab+c", "x?yz", "where k\\d = 1"}) {
+            patterns.add(Pattern.compile(regex));
+        }
+        List<String> sqls = Lists.newArrayList("select k1 from t", "select k1 from test.baseall where k1 > 0",
+                "insert into t values (1)", "insert into t select 1", "select count(*) from t1.k1 where 1",
+                "select count(1) from t", "delete b", "select * from t order by k1",
+                "select * from a join b join c join d", "select * from t limit 10", "abbbc", "ac", "yz",
+                "select * from t where k2 = 1", "select * from t where kk = 1", "");
+
+        for (int i = 0; i < patterns.size(); i++) {
+            SqlBlackListMatcher matcher = new SqlBlackListMatcher(patterns.subList(i, i + 1));
+            for (String sql : sqls) {
+                Assert.assertEquals(patterns.get(i) + " " + sql, patterns.get(i).matcher(sql).find(),
+                        matcher.matches(sql));
+            }
+        }
+
+        // without the patterns matching everything
+        List<Pattern> selective = Lists.newArrayList(patterns);
+        selective.remove(1);
+        SqlBlackListMatcher matcher = new SqlBlackListMatcher(selective);
+        for (String sql : sqls) {
+            boolean expected = selective.stream().anyMatch(pattern -> pattern.matcher(sql).find());
+            Assert.assertEquals(sql, expected, matcher.matches(sql));
+        }
+        Assert.assertFalse(SqlBlackListMatcher.EMPTY.matches("select 1"));
+    }
+
+    @Test
+    public void testRebuiltOnChange() throws Exception {
+        SqlBlackList blackList = new SqlBlackList();
+        blackList.put(Pattern.compile("select k1 from .+"));
+        Assert.assertTrue(blackList.matches("select k1 from t"));
+        Assert.assertFalse(blackList.matches("select k2 from t"));
+
+        blackList.put(Pattern.compile("select k2 from .+"));
+        Assert.assertTrue(blackList.matches("select k2 from t"));
+
+        long id = blackList.sqlBlackListMap.get("select k1 from .+").id;
+        blackList.delete(id);
+        Assert.assertFalse(blackList.matches("select k1 from t"));
+        Assert.assertTrue(blackList.matches("select k2 from t"));
+    }
+}
@@ -0,0 +1,100 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.metric;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark a prometheus scrape with the table metrics, building the whole text in memory as before compared with
+ * streaming it. Run with `-prof gc` to see the allocation per scrape.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class PrometheusMetricVisitorBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PrometheusMetricVisitorBench.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Param({"1000", "10000"})
+    public int tableNum;
+
+    private List<Metric> metrics;
+
+    @Setup
+    public void setup() {
+        metrics = Lists.newArrayList();
+        for (int i = 0; i < tableNum; i++) {
+            for (Metric metric : new TableMetricsEntity().getMetrics()) {
+                metric.addLabel(new MetricLabel("db_name", "db_" + i % 10))
+                        .addLabel(new MetricLabel("tbl_name", "tbl_" + i))
+                        .addLabel(new MetricLabel("tbl_id", String.valueOf(i)));
+                metrics.add(metric);
+            }
+        }
+    }
+
+    @Benchmark
+    public int buildText() {
+        PrometheusMetricVisitor visitor = new PrometheusMetricVisitor("starrocks_fe");
+        for (Metric metric : metrics) {
+            visitor.visit(metric);
+        }
+        // the text was encoded again to be sent
+        return visitor.build().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @Benchmark
+    public long stream() {
+        CountingOutputStream out = new CountingOutputStream();
+        PrometheusMetricVisitor visitor = new PrometheusMetricVisitor("starrocks_fe", out, null);
+        for (Metric metric : metrics) {
+            visitor.visit(metric);
+        }
+        visitor.build();
+        return out.count;
+    }
+
+    // stands for the channel, which copies the chunks to the pooled direct buffers
+    private static class CountingOutputStream extends OutputStream {
+        private long count = 0;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
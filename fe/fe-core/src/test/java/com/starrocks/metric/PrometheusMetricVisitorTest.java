@@ -0,0 +1,105 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.metric;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.UniformReservoir;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.starrocks.metric.Metric.MetricUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class PrometheusMetricVisitorTest {
+
+    private static List<Metric> createMetrics() {
+        List<Metric> metrics = Lists.newArrayList();
+        LongCounterMetric counter = new LongCounterMetric("query_total", MetricUnit.REQUESTS, "query total");
+        counter.increase(12345L);
+        metrics.add(counter);
+        GaugeMetricImpl<Double> gauge = new GaugeMetricImpl<>("qps", MetricUnit.NOUNIT, "query per second");
+        gauge.setValue(1.5);
+        metrics.add(gauge);
+        for (int i = 0; i < 1000; i++) {
+            LongCounterMetric tableCounter = new LongCounterMetric("table_scan_bytes", MetricUnit.BYTES, "scan bytes");
+            tableCounter.increase(-i * 1000L);
+            tableCounter.addLabel(new MetricLabel("db_name", "db"))
+                    .addLabel(new MetricLabel("tbl_name", "\u8868_" + i))
+                    .addLabel(new MetricLabel("tbl_id", String.valueOf(i)));
+            metrics.add(tableCounter);
+        }
+        return metrics;
+    }
+
+    private static void visit(MetricVisitor visitor, List<Metric> metrics, Histogram histogram) {
+        for (Metric metric : metrics) {
+            visitor.visit(metric);
+        }
+        visitor.visitHistogram("query.latency", histogram);
+    }
+
+    @Test
+    public void testFormat() {
+        Histogram histogram = new Histogram(new UniformReservoir());
+        histogram.update(10);
+        List<Metric> metrics = createMetrics();
+        PrometheusMetricVisitor visitor = new PrometheusMetricVisitor("starrocks_fe");
+        visit(visitor, metrics.subList(0, 4), histogram);
+        Assert.assertEquals("# HELP starrocks_fe_query_total query total\n" +
+                "# TYPE starrocks_fe_query_total counter\n" +
+                "starrocks_fe_query_total 12345\n" +
+                "# HELP starrocks_fe_qps query per second\n" +
+                "# TYPE starrocks_fe_qps gauge\n" +
+                "starrocks_fe_qps 1.5\n" +
+                "# HELP starrocks_fe_table_scan_bytes scan bytes\n" +
+                "# TYPE starrocks_fe_table_scan_bytes counter\n" +
+                "starrocks_fe_table_scan_bytes{db_name=\"db\", tbl_name=\"\u8868_0\", tbl_id=\"0\"} 0\n" +
+                "starrocks_fe_table_scan_bytes{db_name=\"db\", tbl_name=\"\u8868_1\", tbl_id=\"1\"} -1000\n" +
+                "# HELP starrocks_fe_query_latency \n" +
+                "# TYPE starrocks_fe_query_latency summary\n" +
+                "starrocks_fe_query_latency{quantile=\"0.75\"} 10.0\n" +
+                "starrocks_fe_query_latency{quantile=\"0.95\"} 10.0\n" +
+                "starrocks_fe_query_latency{quantile=\"0.98\"} 10.0\n" +
+                "starrocks_fe_query_latency{quantile=\"0.99\"} 10.0\n" +
+                "starrocks_fe_query_latency{quantile=\"0.999\"} 10.0\n" +
+                "starrocks_fe_query_latency_sum 10.0\n" +
+                "starrocks_fe_query_latency_count 1\n", visitor.build());
+    }
+
+    @Test
+    public void testStreaming() {
+        Histogram histogram = new Histogram(new UniformReservoir());
+        List<Metric> metrics = createMetrics();
+        PrometheusMetricVisitor visitor = new PrometheusMetricVisitor("starrocks_fe");
+        visit(visitor, metrics, histogram);
+        String expected = visitor.build();
+        // larger than the buffer of the visitor
+        Assert.assertTrue(expected.length() > 8192 * 5);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrometheusMetricVisitor streamingVisitor = new PrometheusMetricVisitor("starrocks_fe", out, null);
+        visit(streamingVisitor, metrics, histogram);
+        Assert.assertEquals("", streamingVisitor.build());
+        Assert.assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFamilyFilter() {
+        Histogram histogram = new Histogram(new UniformReservoir());
+        List<Metric> metrics = createMetrics();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrometheusMetricVisitor visitor = new PrometheusMetricVisitor("starrocks_fe", out,
+                Sets.newHashSet("starrocks_fe_qps", "starrocks_fe_query_latency"));
+        visit(visitor, metrics, histogram);
+        visitor.build();
+        String result = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertTrue(result.contains("starrocks_fe_qps 1.5\n"));
+        Assert.assertTrue(result.contains("starrocks_fe_query_latency_count 0\n"));
+        Assert.assertFalse(result.contains("starrocks_fe_query_total"));
+        Assert.assertFalse(result.contains("starrocks_fe_table_scan_bytes"));
+    }
+}
@@ -0,0 +1,80 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.mysql;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class MysqlBinaryRowConverterTest {
+
+    @Test
+    public void testConvert() {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeLenEncodedString("1");
+        serializer.writeNull();
+        serializer.writeLenEncodedString("-2");
+        serializer.writeLenEncodedString("1.5");
+        serializer.writeLenEncodedString("2022-05-01");
+        serializer.writeLenEncodedString("2022-05-01 12:34:56.000100");
+        serializer.writeLenEncodedString("abc");
+        ByteBuffer textRow = serializer.toByteBuffer();
+
+        ByteBuffer row = MysqlBinaryRowConverter.convert(serializer, textRow, Lists.newArrayList(
+                MysqlColType.MYSQL_TYPE_LONG,
+                MysqlColType.MYSQL_TYPE_LONGLONG,
+                MysqlColType.MYSQL_TYPE_LONGLONG,
+                MysqlColType.MYSQL_TYPE_DOUBLE,
+                MysqlColType.MYSQL_TYPE_DATE,
+                MysqlColType.MYSQL_TYPE_DATETIME,
+                MysqlColType.MYSQL_TYPE_VAR_STRING));
+
+        // header
+        Assert.assertEquals(0x00, MysqlProto.readInt1(row));
+        // null bitmap of 7 columns with offset 2, the second column is null
+        Assert.assertEquals(1 << 3, MysqlProto.readInt1(row));
+        Assert.assertEquals(0, MysqlProto.readInt1(row));
+
+        Assert.assertEquals(1, MysqlProto.readInt4(row));
+        Assert.assertEquals(-2L, MysqlProto.readInt8(row));
+        Assert.assertEquals(1.5, Double.longBitsToDouble(MysqlProto.readInt8(row)), 0);
+
+        Assert.assertEquals(4, MysqlProto.readInt1(row));
+        Assert.assertEquals(2022, MysqlProto.readInt2(row));
+        Assert.assertEquals(5, MysqlProto.readInt1(row));
+        Assert.assertEquals(1, MysqlProto.readInt1(row));
+
+        Assert.assertEquals(11, MysqlProto.readInt1(row));
+        Assert.assertEquals(2022, MysqlProto.readInt2(row));
+        Assert.assertEquals(5, MysqlProto.readInt1(row));
+        Assert.assertEquals(1, MysqlProto.readInt1(row));
+        Assert.assertEquals(12, MysqlProto.readInt1(row));
+        Assert.assertEquals(34, MysqlProto.readInt1(row));
+        Assert.assertEquals(56, MysqlProto.readInt1(row));
+        Assert.assertEquals(100, MysqlProto.readInt4(row));
+
+        Assert.assertEquals("abc", new String(MysqlProto.readLenEncodedString(row), StandardCharsets.UTF_8));
+        Assert.assertEquals(0, row.remaining());
+    }
+
+    @Test
+    public void testConvertTime() {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeLenEncodedString("-25:01:02");
+        ByteBuffer row = MysqlBinaryRowConverter.convert(serializer, serializer.toByteBuffer(),
+                Lists.newArrayList(MysqlColType.MYSQL_TYPE_TIME));
+
+        Assert.assertEquals(0x00, MysqlProto.readInt1(row));
+        Assert.assertEquals(0, MysqlProto.readInt1(row));
+        Assert.assertEquals(8, MysqlProto.readInt1(row));
+        Assert.assertEquals(1, MysqlProto.readInt1(row));
+        Assert.assertEquals(1, MysqlProto.readInt4(row));
+        Assert.assertEquals(1, MysqlProto.readInt1(row));
+        Assert.assertEquals(1, MysqlProto.readInt1(row));
+        Assert.assertEquals(2, MysqlProto.readInt1(row));
+        Assert.assertEquals(0, row.remaining());
+    }
+}
@@ -0,0 +1,161 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SectionedImageTest {
+    private File dir;
+    private File imageFile;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("sectioned_image").toFile();
+        imageFile = new File(dir, "image.100");
+    }
+
+    @After
+    public void tearDown() {
+        Config.image_section_compression = false;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private void writeImage() throws IOException {
+        SectionedImage.Writer writer = new SectionedImage.Writer()
+                .addSection("a", (dos, checksum) -> {
+                    for (int i = 0; i < 10000; i++) {
+                        dos.writeLong(i);
+                        checksum ^= i;
+                    }
+                    return checksum;
+                })
+                .addSection("b", (dos, checksum) -> {
+                    dos.writeUTF("hello");
+                    return checksum;
+                });
+        writer.write(imageFile, (dos, checksum) -> {
+            dos.writeInt(SectionedImage.SECTIONED_IMAGE_FLAG);
+            dos.writeLong(100);
+            return checksum ^ 100;
+        });
+    }
+
+    private Map<String, Object> loadImage() throws IOException {
+        Map<String, Object> result = new ConcurrentHashMap<>();
+        SectionedImage.Reader reader = new SectionedImage.Reader(imageFile);
+        reader.readHeader((dis, checksum) -> {
+            Assert.assertEquals(SectionedImage.SECTIONED_IMAGE_FLAG, dis.readInt());
+            long journalId = dis.readLong();
+            result.put("header", journalId);
+            return checksum ^ journalId;
+        });
+        Map<String, SectionedImage.SectionReader> sections = Maps.newLinkedHashMap();
+        sections.put("b", (dis, checksum) -> {
+            result.put("b", dis.readUTF());
+            return checksum;
+        });
+        sections.put("a", (dis, checksum) -> {
+            long sum = 0;
+            for (int i = 0; i < 10000; i++) {
+                long value = dis.readLong();
+                sum += value;
+                checksum ^= value;
+            }
+            result.put("a", sum);
+            return checksum;
+        });
+        // the section written by a newer version is skipped
+        sections.put("c", (dis, checksum) -> {
+            result.put("c", true);
+            return checksum;
+        });
+        reader.load(sections);
+        return result;
+    }
+
+    @Test
+    public void testWriteAndLoad() throws IOException {
+        writeImage();
+        Assert.assertTrue(SectionedImage.isSectionedImage(imageFile));
+        Assert.assertFalse(new File(dir, "ckpt_sections").exists());
+
+        Map<String, Object> result = loadImage();
+        Assert.assertEquals(100L, result.get("header"));
+        Assert.assertEquals(9999L * 10000 / 2, result.get("a"));
+        Assert.assertEquals("hello", result.get("b"));
+        Assert.assertFalse(result.containsKey("c"));
+    }
+
+    @Test
+    public void testCompression() throws IOException {
+        writeImage();
+        long uncompressedLength = imageFile.length();
+
+        Config.image_section_compression = true;
+        writeImage();
+        Assert.assertTrue(imageFile.length() < uncompressedLength);
+        Map<String, Object> result = loadImage();
+        Assert.assertEquals(9999L * 10000 / 2, result.get("a"));
+        Assert.assertEquals("hello", result.get("b"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptedSection() throws IOException {
+        writeImage();
+        try (RandomAccessFile file = new RandomAccessFile(imageFile, "rw")) {
+            // the last bytes belong to the section b
+            file.seek(file.length() - 3);
+            file.writeByte(0x7f);
+        }
+        loadImage();
+    }
+
+    @Test
+    public void testLoadInOrder() throws IOException {
+        writeImage();
+        SectionedImage.Reader reader = new SectionedImage.Reader(imageFile);
+        reader.readHeader((dis, checksum) -> {
+            dis.readInt();
+            return checksum ^ dis.readLong();
+        });
+        // the sections are loaded in the order of the readers and in the caller thread
+        List<String> loaded = Lists.newArrayList();
+        Thread caller = Thread.currentThread();
+        Map<String, SectionedImage.SectionReader> sections = Maps.newLinkedHashMap();
+        sections.put("b", (dis, checksum) -> {
+            Assert.assertSame(caller, Thread.currentThread());
+            loaded.add(dis.readUTF());
+            return checksum;
+        });
+        sections.put("a", (dis, checksum) -> {
+            Assert.assertSame(caller, Thread.currentThread());
+            for (int i = 0; i < 10000; i++) {
+                checksum ^= dis.readLong();
+            }
+            loaded.add("a");
+            return checksum;
+        });
+        reader.loadInOrder(sections);
+        Assert.assertEquals(Lists.newArrayList("hello", "a"), loaded);
+    }
+}
@@ -0,0 +1,96 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.planner;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PrimitiveType;
+import com.starrocks.catalog.RangePartitionInfo;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the range partition pruning with the range index cached in partition info, compared with building
+ * the index from the partition ranges for every query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class RangePartitionPrunerBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RangePartitionPrunerBench.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Param({"1000", "10000", "100000"})
+    public int partitionNum;
+
+    private RangePartitionInfo partitionInfo;
+    private Column column;
+
+    private static PartitionKey key(long value) {
+        return new PartitionKey(Lists.newArrayList(new IntLiteral(value, Type.BIGINT)),
+                Lists.newArrayList(PrimitiveType.BIGINT));
+    }
+
+    @Setup
+    public void setup() {
+        column = new Column("k1", Type.BIGINT);
+        partitionInfo = new RangePartitionInfo(Lists.newArrayList(column));
+        for (int i = 0; i < partitionNum; i++) {
+            partitionInfo.setRange(i, false, Range.closedOpen(key(i * 10L), key(i * 10L + 10)));
+        }
+    }
+
+    // a filter selecting about 7 partitions, e.g. a week of daily partitions
+    private Map<String, PartitionColumnFilter> randomFilter() {
+        long lower = ThreadLocalRandom.current().nextLong(partitionNum * 10L);
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setLowerBound(new IntLiteral(lower, Type.BIGINT), true);
+        filter.setUpperBound(new IntLiteral(lower + 70, Type.BIGINT), false);
+        Map<String, PartitionColumnFilter> filters = Maps.newHashMap();
+        filters.put(column.getName(), filter);
+        return filters;
+    }
+
+    @Benchmark
+    public List<Long> pruneWithCachedIndex() throws AnalysisException {
+        return new RangePartitionPruner(partitionInfo, randomFilter()).prune();
+    }
+
+    @Benchmark
+    public List<Long> pruneWithRebuiltIndex() throws AnalysisException {
+        return new RangePartitionPruner(partitionInfo.getIdToRange(false), partitionInfo.getPartitionColumns(),
+                randomFilter()).prune();
+    }
+}
@@ -0,0 +1,94 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.pseudocluster;
+
+import com.starrocks.clone.TabletSchedulerStat;
+import com.starrocks.common.Config;
+import com.starrocks.common.FeConstants;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.system.Backend;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TabletRepairTest {
+    private static final Logger LOG = LogManager.getLogger(TabletRepairTest.class);
+    private static final int NUM_DB = 4;
+    private static final long REPAIR_TIMEOUT_MS = 120 * 1000L;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Config.tablet_sched_checker_interval_seconds = 1;
+        Config.tablet_sched_repair_delay_factor_second = 1;
+        Config.tablet_sched_max_scheduling_tablets = 10000;
+        Config.drop_backend_after_decommission = false;
+        FeConstants.default_scheduler_interval_millisecond = 5000;
+        PseudoCluster.getOrCreateWithRandomPort(true, 4);
+        GlobalStateMgr.getCurrentState().getTabletChecker().setInterval(1000);
+        for (int i = 0; i < NUM_DB; i++) {
+            PseudoCluster.getInstance().runSql(null, "create database test_" + i);
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        for (int i = 0; i < NUM_DB; i++) {
+            PseudoCluster.getInstance().runSql(null, "drop database test_" + i + " force");
+        }
+        PseudoCluster.getInstance().shutdown(false);
+    }
+
+    /**
+     * Move all the tablets out of a backend, and check how fast the tablets are cloned. The tablets of all the
+     * databases are scheduled concurrently, and the slots freed by the finished clone tasks are used at once,
+     * so the number of tablets cloned per round exceeds the number of slots, which is the limit when the
+     * tablets are only scheduled once per round.
+     */
+    @Test
+    public void testRepairRate() throws Exception {
+        PseudoCluster cluster = PseudoCluster.getInstance();
+        for (int i = 0; i < NUM_DB; i++) {
+            String db = "test_" + i;
+            for (int j = 0; j < 4; j++) {
+                String table = "test_" + j;
+                cluster.runSqls(db, PseudoCluster.newCreateTableSqlBuilder().setTableName(table).setBuckets(32).build(),
+                        PseudoCluster.buildInsertSql(db, table));
+            }
+        }
+
+        TabletSchedulerStat stat = GlobalStateMgr.getCurrentState().getTabletScheduler().getStat();
+        long startClone = stat.counterCloneTaskSucceeded.get();
+        long startRound = stat.counterTabletScheduleRound.get();
+        long startTime = System.currentTimeMillis();
+
+        PseudoBackend decommissionBE = cluster.getBackend(10001);
+        int oldTabletNum = decommissionBE.getTabletManager().getNumTablet();
+        // every clone task takes a slot of its destination path
+        int slotNum = 0;
+        for (Backend be : GlobalStateMgr.getCurrentSystemInfo().getBackends()) {
+            slotNum += be.getDisks().size() * Config.tablet_sched_slot_num_per_path;
+        }
+        cluster.runSql(null, String.format("ALTER SYSTEM DECOMMISSION BACKEND \"%s\"",
+                decommissionBE.getHostHeartbeatPort()));
+        while (decommissionBE.getTabletManager().getNumTablet() > 0) {
+            if (System.currentTimeMillis() - startTime > REPAIR_TIMEOUT_MS) {
+                Assert.fail(String.format("%d/%d tablets are not moved in %d seconds",
+                        decommissionBE.getTabletManager().getNumTablet(), oldTabletNum, REPAIR_TIMEOUT_MS / 1000));
+            }
+            LOG.info("#tablets: {}/{}, cloned: {}", decommissionBE.getTabletManager().getNumTablet(),
+                    oldTabletNum, stat.counterCloneTaskSucceeded.get() - startClone);
+            Thread.sleep(1000);
+        }
+
+        long cloneNum = stat.counterCloneTaskSucceeded.get() - startClone;
+        long roundNum = Math.max(1, stat.counterTabletScheduleRound.get() - startRound);
+        double seconds = Math.max(1, System.currentTimeMillis() - startTime) / 1000.0;
+        LOG.info(String.format("moved %d tablets in %.1f seconds, %d clone tasks, %.1f clones/s, %.1f clones per round",
+                oldTabletNum, seconds, cloneNum, cloneNum / seconds, (double) cloneNum / roundNum));
+        Assert.assertTrue(cloneNum >= oldTabletNum);
+        Assert.assertTrue(String.format("%d clones in %d rounds with %d slots", cloneNum, roundNum, slotNum),
+                cloneNum > (long) slotNum * roundNum);
+    }
+}
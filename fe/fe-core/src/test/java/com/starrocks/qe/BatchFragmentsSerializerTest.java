@@ -0,0 +1,120 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.thrift.InternalServiceVersion;
+import com.starrocks.thrift.TDataPartition;
+import com.starrocks.thrift.TDescriptorTable;
+import com.starrocks.thrift.TExecBatchPlanFragmentsParams;
+import com.starrocks.thrift.TExecPlanFragmentParams;
+import com.starrocks.thrift.TNetworkAddress;
+import com.starrocks.thrift.TPartitionType;
+import com.starrocks.thrift.TPlanFragment;
+import com.starrocks.thrift.TPlanFragmentDestination;
+import com.starrocks.thrift.TPlanFragmentExecParams;
+import com.starrocks.thrift.TQueryOptions;
+import com.starrocks.thrift.TTupleDescriptor;
+import com.starrocks.thrift.TUniqueId;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class BatchFragmentsSerializerTest {
+
+    private static TExecPlanFragmentParams newCommonParams() {
+        TExecPlanFragmentParams commonParams = new TExecPlanFragmentParams();
+        commonParams.setProtocol_version(InternalServiceVersion.V1);
+        commonParams.setFragment(new TPlanFragment(new TDataPartition(TPartitionType.UNPARTITIONED)));
+        commonParams.setCoord(new TNetworkAddress("127.0.0.1", 9020));
+        commonParams.setQuery_options(new TQueryOptions());
+        commonParams.setIs_pipeline(true);
+        commonParams.setFunc_version(4);
+
+        TPlanFragmentExecParams params = new TPlanFragmentExecParams();
+        params.setQuery_id(new TUniqueId(1, 2));
+        params.setFragment_instance_id(new TUniqueId(0, 0));
+        params.setPer_node_scan_ranges(Maps.newHashMap());
+        params.setPer_exch_num_senders(Maps.newHashMap());
+        params.setDestinations(Lists.newArrayList(
+                new TPlanFragmentDestination(new TUniqueId(1, 3), new TNetworkAddress("host1", 9060)),
+                new TPlanFragmentDestination(new TUniqueId(1, 4), new TNetworkAddress("host2", 9060))));
+        params.setNum_senders(3);
+        commonParams.setParams(params);
+        return commonParams;
+    }
+
+    private static TExecPlanFragmentParams newUniqueParams(int backendNum) {
+        TExecPlanFragmentParams uniqueParams = new TExecPlanFragmentParams();
+        uniqueParams.setProtocol_version(InternalServiceVersion.V1);
+        uniqueParams.setBackend_num(backendNum);
+        uniqueParams.setPipeline_dop(8);
+
+        TPlanFragmentExecParams params = new TPlanFragmentExecParams();
+        params.setQuery_id(new TUniqueId(0, 0));
+        params.setFragment_instance_id(new TUniqueId(1, 10 + backendNum));
+        params.setPer_node_scan_ranges(Maps.newHashMap());
+        params.setPer_exch_num_senders(Maps.newHashMap());
+        params.setSender_id(backendNum);
+        uniqueParams.setParams(params);
+        return uniqueParams;
+    }
+
+    private static TDescriptorTable newDescTable(boolean cached) {
+        TDescriptorTable descTable = new TDescriptorTable();
+        descTable.setTupleDescriptors(Lists.newArrayList());
+        if (!cached) {
+            descTable.addToTupleDescriptors(new TTupleDescriptor(0, 16, 1));
+        }
+        descTable.setIs_cached(cached);
+        return descTable;
+    }
+
+    private static TExecBatchPlanFragmentsParams deserialize(byte[] bytes) throws Exception {
+        TExecBatchPlanFragmentsParams request = new TExecBatchPlanFragmentsParams();
+        new TDeserializer(new TBinaryProtocol.Factory()).deserialize(request, bytes);
+        return request;
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        TExecPlanFragmentParams commonParams = newCommonParams();
+        BatchFragmentsSerializer serializer = new BatchFragmentsSerializer(commonParams);
+        // the common params are left unchanged
+        Assert.assertEquals(newCommonParams(), commonParams);
+
+        TDescriptorTable descTable = newDescTable(false);
+        TDescriptorTable emptyDescTable = newDescTable(true);
+        byte[] serializedDescTable = BatchFragmentsSerializer.serialize(descTable);
+        byte[] serializedEmptyDescTable = BatchFragmentsSerializer.serialize(emptyDescTable);
+
+        // the serialized common params are reused by the requests to different hosts
+        List<TExecPlanFragmentParams> uniqueParamsList = Lists.newArrayList(newUniqueParams(0), newUniqueParams(1));
+        TExecBatchPlanFragmentsParams request = deserialize(serializer.serialize(serializedDescTable, 2,
+                uniqueParamsList));
+        TExecPlanFragmentParams expectedCommonParams = newCommonParams();
+        expectedCommonParams.setDesc_tbl(descTable);
+        expectedCommonParams.getParams().setInstances_number(2);
+        Assert.assertEquals(new TExecBatchPlanFragmentsParams().setCommon_param(expectedCommonParams)
+                .setUnique_param_per_instance(uniqueParamsList), request);
+
+        uniqueParamsList = Lists.newArrayList(newUniqueParams(2));
+        request = deserialize(serializer.serialize(serializedEmptyDescTable, 1, uniqueParamsList));
+        expectedCommonParams = newCommonParams();
+        expectedCommonParams.setDesc_tbl(emptyDescTable);
+        expectedCommonParams.getParams().setInstances_number(1);
+        Assert.assertEquals(new TExecBatchPlanFragmentsParams().setCommon_param(expectedCommonParams)
+                .setUnique_param_per_instance(uniqueParamsList), request);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInstancesNumberSet() throws Exception {
+        TExecPlanFragmentParams commonParams = newCommonParams();
+        commonParams.getParams().setInstances_number(1);
+        new BatchFragmentsSerializer(commonParams);
+    }
+}
@@ -23,6 +23,7 @@ package com.starrocks.qe;
 
 import com.starrocks.analysis.AccessTestUtil;
 import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlCommand;
 import com.starrocks.mysql.MysqlProto;
 import mockit.Expectations;
 import mockit.Mocked;
@@ -88,4 +89,29 @@ public class ConnectSchedulerTest {
         ConnectContext context = new ConnectContext(socketChannel);
         Assert.assertTrue(scheduler.submit(context));
     }
+
+    @Test
+    public void testCheckTimeout() {
+        ConnectScheduler scheduler = new ConnectScheduler(10);
+        ConnectContext context = new ConnectContext(socketChannel);
+        context.setGlobalStateMgr(AccessTestUtil.fetchAdminCatalog());
+        context.setQualifiedUser("root");
+        context.setConnectScheduler(scheduler);
+        Assert.assertTrue(scheduler.registerConnection(context));
+        Assert.assertEquals(1, scheduler.getTimeoutTimerNum());
+
+        context.setCommand(MysqlCommand.COM_QUERY);
+        context.setStartTime();
+        long queryDeadline = context.getStartTime() + context.getSessionVariable().getQueryTimeoutS() * 1000L + 1;
+        Assert.assertEquals(queryDeadline, context.getTimeoutDeadline());
+        context.setCommand(MysqlCommand.COM_SLEEP);
+        long waitDeadline = context.getStartTime() + context.getSessionVariable().getWaitTimeoutS() * 1000L + 1;
+        Assert.assertEquals(waitDeadline, context.getTimeoutDeadline());
+
+        scheduler.checkTimeout(waitDeadline + 1000);
+        Assert.assertTrue(context.isKilled());
+
+        scheduler.unregisterConnection(context);
+        Assert.assertEquals(0, scheduler.getTimeoutTimerNum());
+    }
 }
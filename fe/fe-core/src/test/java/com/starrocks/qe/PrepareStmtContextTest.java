@@ -0,0 +1,85 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlSerializer;
+import com.starrocks.sql.parser.SqlParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class PrepareStmtContextTest {
+
+    private PrepareStmtContext prepare(String sql) {
+        List<Parameter> parameters = Lists.newArrayList();
+        StatementBase stmt = SqlParser.parsePrepareStatement(sql, SqlModeHelper.MODE_DEFAULT, parameters);
+        return new PrepareStmtContext(1, stmt, parameters, SqlModeHelper.MODE_DEFAULT);
+    }
+
+    @Test
+    public void testParseParameters() {
+        PrepareStmtContext context = prepare("select * from t where k1 = ? and k2 in (?, ?)");
+        List<Parameter> parameters = context.getParameters();
+        Assert.assertEquals(3, parameters.size());
+        for (int i = 0; i < parameters.size(); i++) {
+            Assert.assertEquals(i, parameters.get(i).getSlotId());
+        }
+        Assert.assertEquals(27, parameters.get(0).getPosition());
+    }
+
+    @Test
+    public void testBindParameters() throws AnalysisException {
+        PrepareStmtContext context = prepare("select * from t where k1 = ? and k2 = ? and k3 = ?");
+
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        // null bitmap, the third parameter is null
+        serializer.writeInt1(1 << 2);
+        // new params bound flag
+        serializer.writeInt1(1);
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_LONGLONG.getCode());
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_VAR_STRING.getCode());
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_NULL.getCode());
+        serializer.writeInt8(10);
+        serializer.writeLenEncodedString("it's");
+        List<Expr> values = context.readParameters(serializer.toByteBuffer());
+        Assert.assertEquals(10, ((IntLiteral) values.get(0)).getLongValue());
+        Assert.assertEquals("it's", ((StringLiteral) values.get(1)).getStringValue());
+        Assert.assertTrue(values.get(2) instanceof NullLiteral);
+        StatementBase stmt = context.bindParameters(values);
+        Assert.assertEquals("select * from t where k1 = 10 and k2 = 'it\\'s' and k3 = NULL",
+                stmt.getOrigStmt().originStmt);
+        // the placeholders of the prepared statement are not bound
+        for (Parameter parameter : context.getParameters()) {
+            Assert.assertNull(parameter.getExpr());
+        }
+
+        // types are not sent again, and the value of the second parameter is sent by long data
+        context.appendLongData(1, "abc".getBytes(StandardCharsets.UTF_8));
+        serializer.reset();
+        serializer.writeInt1(1 << 2);
+        serializer.writeInt1(0);
+        serializer.writeInt8(20);
+        values = context.readParameters(serializer.toByteBuffer());
+        Assert.assertEquals(20, ((IntLiteral) values.get(0)).getLongValue());
+        Assert.assertEquals("abc", ((StringLiteral) values.get(1)).getStringValue());
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testBindParametersWithoutTypes() throws AnalysisException {
+        PrepareStmtContext context = prepare("select ?");
+        ByteBuffer packet = ByteBuffer.wrap(new byte[] {0, 0});
+        context.readParameters(packet);
+    }
+}
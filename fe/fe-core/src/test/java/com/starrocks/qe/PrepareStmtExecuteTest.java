@@ -0,0 +1,130 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.catalog.Type;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlCommand;
+import com.starrocks.mysql.MysqlSerializer;
+import com.starrocks.sql.PlanCache;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.sql.ast.QueryRelation;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.parser.SqlParser;
+import com.starrocks.sql.plan.PlanTestBase;
+import com.starrocks.thrift.TExplainLevel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class PrepareStmtExecuteTest extends PlanTestBase {
+    private MysqlCommand command;
+
+    @Before
+    public void before() {
+        command = connectContext.getCommand();
+        connectContext.setCommand(MysqlCommand.COM_STMT_EXECUTE);
+        PlanCache.getInstance().invalidateAll();
+    }
+
+    @After
+    public void after() {
+        connectContext.setCommand(command);
+        PlanCache.getInstance().invalidateAll();
+    }
+
+    private static PrepareStmtContext prepare(String sql) {
+        List<Parameter> parameters = Lists.newArrayList();
+        long sqlMode = connectContext.getSessionVariable().getSqlMode();
+        StatementBase stmt = SqlParser.parsePrepareStatement(sql, sqlMode, parameters);
+        return new PrepareStmtContext(1, stmt, parameters, sqlMode);
+    }
+
+    // COM_STMT_EXECUTE packet from the null bitmap, with one BIGINT parameter
+    private static ByteBuffer longParameter(long value) {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt1(0);
+        serializer.writeInt1(1);
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_LONGLONG.getCode());
+        serializer.writeInt8(value);
+        return serializer.toByteBuffer();
+    }
+
+    private static ByteBuffer stringParameter(String value) {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt1(0);
+        serializer.writeInt1(1);
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_VAR_STRING.getCode());
+        serializer.writeLenEncodedString(value);
+        return serializer.toByteBuffer();
+    }
+
+    private static String execute(StatementBase stmt) {
+        return StatementPlanner.plan(stmt, connectContext).getExplainString(TExplainLevel.NORMAL);
+    }
+
+    @Test
+    public void testExecuteTwice() throws Exception {
+        PrepareStmtContext context = prepare("select v1, v2 from t0 where v3 > ?");
+        StatementBase stmt1 = context.bindParameters(context.readParameters(longParameter(10)));
+        String plan1 = execute(stmt1);
+        StatementBase stmt2 = context.bindParameters(context.readParameters(longParameter(20)));
+        String plan2 = execute(stmt2);
+        assertContains(plan1, "3: v3 > 10");
+        assertContains(plan2, "3: v3 > 20");
+        Assert.assertEquals(2, PlanCache.getInstance().size());
+
+        // every execution has its own statement, the second one does not change the first one
+        Assert.assertNotSame(stmt1, stmt2);
+        Assert.assertEquals("select v1, v2 from t0 where v3 > 10", stmt1.getOrigStmt().originStmt);
+        Assert.assertEquals("select v1, v2 from t0 where v3 > 20", stmt2.getOrigStmt().originStmt);
+        Assert.assertNull(context.getParameters().get(0).getExpr());
+
+        // the same value reuses the cached plan
+        List<Expr> values = context.readParameters(longParameter(10));
+        Assert.assertEquals(10, ((IntLiteral) values.get(0)).getLongValue());
+        Assert.assertEquals(plan1, execute(context.bindParameters(values)));
+        Assert.assertEquals(2, PlanCache.getInstance().size());
+    }
+
+    @Test
+    public void testReuseAnalyzedQuery() throws Exception {
+        PrepareStmtContext context = prepare("select v1, v2 from t0 where v3 > ?");
+        StatementBase stmt1 = context.bindParameters(context.readParameters(longParameter(10)), connectContext);
+        Assert.assertTrue(PrepareStmtContext.isAnalyzedQuery(stmt1));
+        assertContains(StatementPlanner.planAnalyzedQuery((QueryStatement) stmt1, connectContext)
+                .getExplainString(TExplainLevel.NORMAL), "3: v3 > 10");
+
+        // the values of the same types are substituted into the analyzed query, which is not parsed again
+        StatementBase stmt2 = context.bindParameters(context.readParameters(longParameter(20)), connectContext);
+        Assert.assertSame(stmt1, stmt2);
+        Assert.assertEquals("select v1, v2 from t0 where v3 > 20", stmt2.getOrigStmt().originStmt);
+        assertContains(StatementPlanner.planAnalyzedQuery((QueryStatement) stmt2, connectContext)
+                .getExplainString(TExplainLevel.NORMAL), "3: v3 > 20");
+
+        // a value of another type changes the types of the analyzed expressions
+        StatementBase stmt3 = context.bindParameters(context.readParameters(stringParameter("30")), connectContext);
+        Assert.assertNotSame(stmt2, stmt3);
+        Assert.assertSame(stmt3,
+                context.bindParameters(context.readParameters(stringParameter("40")), connectContext));
+    }
+
+    @Test
+    public void testResultColumns() {
+        QueryRelation relation = prepare("select v1, v2 as s from t0 where v3 = ?").analyzeQuery(connectContext);
+        Assert.assertEquals(Lists.newArrayList("v1", "s"), relation.getColumnOutputNames());
+        Assert.assertEquals(2, relation.getOutputExpression().size());
+        for (Expr expr : relation.getOutputExpression()) {
+            Assert.assertEquals(Type.BIGINT, expr.getType());
+        }
+    }
+}
@@ -21,11 +21,14 @@
 
 package com.starrocks.qe;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.gson.Gson;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Set;
 
 public class QueryDetailQueueTest {
     @Test
@@ -70,4 +73,45 @@ public class QueryDetailQueueTest {
         queryDetails = QueryDetailQueue.getQueryDetailsAfterTime(startQueryDetail.getEventTime() - 1);
         Assert.assertEquals(2, queryDetails.size());
     }
+
+    @Test
+    public void testConcurrentAddAndPoll() throws Exception {
+        List<QueryDetail> existing = QueryDetailQueue.getQueryDetailsAfterTime(0);
+        long startCursor = existing.isEmpty() ? 0 : existing.get(existing.size() - 1).getEventTime();
+
+        int writerNum = 4;
+        int detailNum = 10000;
+        List<Thread> writers = Lists.newArrayList();
+        for (int i = 0; i < writerNum; i++) {
+            String prefix = "writer-" + i + "-";
+            writers.add(new Thread(() -> {
+                for (int j = 0; j < detailNum; j++) {
+                    QueryDetail queryDetail = new QueryDetail();
+                    queryDetail.setQueryId(prefix + j);
+                    QueryDetailQueue.addAndRemoveTimeoutQueryDetail(queryDetail);
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+
+        // poll like the monitors while the details are added, every detail is got exactly once in order
+        Set<String> queryIds = Sets.newHashSet();
+        long cursor = startCursor;
+        // a skipped detail is never got, so fail by the deadline instead of polling forever
+        long deadline = System.currentTimeMillis() + 60000;
+        while (queryIds.size() < writerNum * detailNum) {
+            Assert.assertTrue("got " + queryIds.size() + " details before the deadline",
+                    System.currentTimeMillis() < deadline);
+            for (QueryDetail queryDetail : QueryDetailQueue.getQueryDetailsAfterTime(cursor)) {
+                Assert.assertTrue(queryDetail.getEventTime() > cursor);
+                cursor = queryDetail.getEventTime();
+                Assert.assertTrue(queryIds.add(queryDetail.getQueryId()));
+            }
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        Assert.assertTrue(QueryDetailQueue.getQueryDetailsAfterTime(cursor).isEmpty());
+        Assert.assertEquals(writerNum * detailNum, QueryDetailQueue.getQueryDetailsAfterTime(startCursor).size());
+    }
 }
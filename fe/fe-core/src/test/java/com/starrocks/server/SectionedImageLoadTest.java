@@ -0,0 +1,148 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.server;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.starrocks.alter.AlterJobV2;
+import com.starrocks.alter.MaterializedViewHandler;
+import com.starrocks.analysis.AddRollupClause;
+import com.starrocks.analysis.AlterClause;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.GlobalStateMgrTestUtil;
+import com.starrocks.catalog.MaterializedIndex;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Tablet;
+import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.common.Config;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.jmockit.Deencapsulation;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.persist.SectionedImage;
+import com.starrocks.sql.analyzer.DDLTestBase;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SectionedImageLoadTest extends DDLTestBase {
+    private File imageDir;
+
+    @After
+    public void tearDown() {
+        GlobalStateMgr.getCurrentState().getRollupHandler().clearJobs();
+        if (imageDir != null) {
+            File[] files = imageDir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            imageDir.delete();
+        }
+    }
+
+    private static Set<Long> getTabletIds(OlapTable table) {
+        Set<Long> tabletIds = Sets.newHashSet();
+        for (Partition partition : table.getPartitions()) {
+            for (MaterializedIndex index : partition.getMaterializedIndices(MaterializedIndex.IndexExtState.ALL)) {
+                for (Tablet tablet : index.getTablets()) {
+                    tabletIds.add(tablet.getId());
+                }
+            }
+        }
+        return tabletIds;
+    }
+
+    @Test
+    public void testLoadAlterJobsAndRecycleBin() throws Exception {
+        GlobalStateMgr servingState = GlobalStateMgr.getCurrentState();
+        Database db = servingState.getDb(GlobalStateMgrTestUtil.testDb1);
+
+        // the tablets of a dropped table are only in the recycle bin
+        starRocksAssert.withTable("CREATE TABLE `recycled_table` (\n" +
+                "  `v1` bigint NULL COMMENT \"\",\n" +
+                "  `v2` bigint NULL COMMENT \"\"\n" +
+                ") ENGINE=OLAP\n" +
+                "DUPLICATE KEY(`v1`)\n" +
+                "DISTRIBUTED BY HASH(`v1`) BUCKETS 3\n" +
+                "PROPERTIES (\n" +
+                "\"replication_num\" = \"1\"\n" +
+                ");");
+        Set<Long> recycledTabletIds = getTabletIds((OlapTable) db.getTable("recycled_table"));
+        starRocksAssert.dropTable("recycled_table");
+
+        // the shadow tablets of a pending rollup job are only in the job
+        AddRollupClause clause = new AddRollupClause(GlobalStateMgrTestUtil.testRollupIndex2,
+                Lists.newArrayList("v1"), null, GlobalStateMgrTestUtil.testTable1, null);
+        clause.analyze(analyzer);
+        List<AlterClause> alterClauses = Lists.newArrayList(clause);
+        MaterializedViewHandler rollupHandler = servingState.getRollupHandler();
+        rollupHandler.process(alterClauses, db, (OlapTable) db.getTable(GlobalStateMgrTestUtil.testTable1));
+        AlterJobV2 rollupJob = rollupHandler.getAlterJobsV2().values().iterator().next();
+        Assert.assertEquals(AlterJobV2.JobState.PENDING, rollupJob.getJobState());
+        Set<Long> rollupTabletIds = Sets.newHashSet();
+        Map<Long, MaterializedIndex> rollupIndexes = Deencapsulation.getField(rollupJob, "partitionIdToRollupIndex");
+        for (MaterializedIndex index : rollupIndexes.values()) {
+            for (Tablet tablet : index.getTablets()) {
+                rollupTabletIds.add(tablet.getId());
+            }
+        }
+        Assert.assertFalse(recycledTabletIds.isEmpty());
+        Assert.assertFalse(rollupTabletIds.isEmpty());
+
+        int imageFormatVersion = Config.image_format_version;
+        Config.image_format_version = 2;
+        imageDir = Files.createTempDirectory("sectioned_image_load").toFile();
+        File imageFile = new File(imageDir, "image.100");
+        try {
+            servingState.saveImage(imageFile, 100);
+        } finally {
+            Config.image_format_version = imageFormatVersion;
+        }
+        Assert.assertTrue(SectionedImage.isSectionedImage(imageFile));
+
+        // load the image into a new state, as a restarted FE does
+        Constructor<GlobalStateMgr> constructor = GlobalStateMgr.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        GlobalStateMgr loadedState = constructor.newInstance();
+        MockUp<GlobalStateMgr> mockUp = new MockUp<GlobalStateMgr>() {
+            @Mock
+            public GlobalStateMgr getCurrentState() {
+                return loadedState;
+            }
+        };
+        try {
+            MetaContext metaContext = new MetaContext();
+            metaContext.setMetaVersion(FeConstants.meta_version);
+            metaContext.setStarRocksMetaVersion(FeConstants.starrocks_meta_version);
+            metaContext.setThreadLocalInfo();
+            loadedState.loadImage(imageDir.getAbsolutePath());
+        } finally {
+            mockUp.tearDown();
+        }
+
+        Assert.assertEquals(1, loadedState.getRollupHandler().getAlterJobsV2().size());
+        TabletInvertedIndex invertedIndex = loadedState.getTabletInvertedIndex();
+        for (long tabletId : recycledTabletIds) {
+            Assert.assertNotNull(invertedIndex.getTabletMeta(tabletId));
+        }
+        for (long tabletId : rollupTabletIds) {
+            Assert.assertNotNull(invertedIndex.getTabletMeta(tabletId));
+        }
+        OlapTable table = (OlapTable) loadedState.getDb(GlobalStateMgrTestUtil.testDb1)
+                .getTable(GlobalStateMgrTestUtil.testTable1);
+        for (long tabletId : getTabletIds(table)) {
+            Assert.assertNotNull(invertedIndex.getTabletMeta(tabletId));
+        }
+    }
+}
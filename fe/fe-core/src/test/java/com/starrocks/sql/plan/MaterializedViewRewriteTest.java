@@ -0,0 +1,155 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.analysis.DmlStmt;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.UUIDUtil;
+import com.starrocks.qe.StmtExecutor;
+import com.starrocks.scheduler.Task;
+import com.starrocks.scheduler.TaskBuilder;
+import com.starrocks.scheduler.TaskRun;
+import com.starrocks.scheduler.TaskRunBuilder;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.optimizer.rule.mv.MvDefinitionCache;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MaterializedViewRewriteTest extends PlanTestBase {
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+        Config.enable_experimental_mv = true;
+        connectContext.getSessionVariable().setEnableMaterializedViewRewrite(true);
+        starRocksAssert.withTable("CREATE TABLE test.mv_fact\n" +
+                        "(\n" +
+                        "    k1 date,\n" +
+                        "    k2 int,\n" +
+                        "    v1 bigint\n" +
+                        ")\n" +
+                        "DUPLICATE KEY(k1)\n" +
+                        "PARTITION BY RANGE(k1)\n" +
+                        "(\n" +
+                        "    PARTITION p1 values [('2022-01-01'),('2022-02-01')),\n" +
+                        "    PARTITION p2 values [('2022-02-01'),('2022-03-01')),\n" +
+                        "    PARTITION p3 values [('2022-03-01'),('2022-04-01'))\n" +
+                        ")\n" +
+                        "DISTRIBUTED BY HASH(k2) BUCKETS 3\n" +
+                        "PROPERTIES('replication_num' = '1');")
+                .withTable("CREATE TABLE test.mv_dim\n" +
+                        "(\n" +
+                        "    k2 int,\n" +
+                        "    name varchar(20)\n" +
+                        ")\n" +
+                        "DUPLICATE KEY(k2)\n" +
+                        "DISTRIBUTED BY HASH(k2) BUCKETS 3\n" +
+                        "PROPERTIES('replication_num' = '1');")
+                .withNewMaterializedView("create materialized view test.mv_fact_dim_agg\n" +
+                        "partition by k1\n" +
+                        "distributed by hash(name)\n" +
+                        "refresh manual\n" +
+                        "properties('replication_num' = '1')\n" +
+                        "as select mv_fact.k1, mv_dim.name, sum(mv_fact.v1) as total, count(mv_fact.v1) as cnt\n" +
+                        "from mv_fact join mv_dim on mv_fact.k2 = mv_dim.k2\n" +
+                        "group by mv_fact.k1, mv_dim.name;");
+
+        // the refresh creates the partitions of the materialized view and records the versions of the base tables
+        new MockUp<StmtExecutor>() {
+            @Mock
+            public void handleDMLStmt(ExecPlan execPlan, DmlStmt stmt) {
+            }
+        };
+        Database db = GlobalStateMgr.getCurrentState().getDb("test");
+        MaterializedView mv = (MaterializedView) db.getTable("mv_fact_dim_agg");
+        Task task = TaskBuilder.buildMvTask(mv, db.getFullName());
+        TaskRun taskRun = TaskRunBuilder.newBuilder(task).build();
+        taskRun.initStatus(UUIDUtil.genUUID().toString(), System.currentTimeMillis());
+        taskRun.executeTaskRun();
+        Assert.assertEquals(3, mv.getPartitions().size());
+
+        setTableStatistics((OlapTable) db.getTable("mv_fact"), 10000000);
+        setTableStatistics((OlapTable) db.getTable("mv_dim"), 1000);
+        setTableStatistics(mv, 1000);
+    }
+
+    @Test
+    public void testExactAggregation() throws Exception {
+        String sql = "select mv_fact.k1, mv_dim.name, sum(mv_fact.v1) from mv_fact join mv_dim " +
+                "on mv_fact.k2 = mv_dim.k2 group by mv_fact.k1, mv_dim.name";
+        String plan = getFragmentPlan(sql);
+        assertContains(plan, "TABLE: mv_fact_dim_agg");
+        assertNotContains(plan, "TABLE: mv_dim");
+        assertNotContains(plan, "AGGREGATE");
+    }
+
+    @Test
+    public void testRollupAggregation() throws Exception {
+        String sql = "select mv_dim.name, sum(mv_fact.v1), count(mv_fact.v1) from mv_fact join mv_dim " +
+                "on mv_fact.k2 = mv_dim.k2 where mv_dim.name = 'a' group by mv_dim.name";
+        String plan = getFragmentPlan(sql);
+        assertContains(plan, "TABLE: mv_fact_dim_agg");
+        assertContains(plan, "name = 'a'");
+        assertNotContains(plan, "TABLE: mv_dim");
+    }
+
+    @Test
+    public void testNotRewrite() throws Exception {
+        // the group by key is not in the materialized view
+        String sql = "select mv_fact.k2, sum(mv_fact.v1) from mv_fact join mv_dim " +
+                "on mv_fact.k2 = mv_dim.k2 group by mv_fact.k2";
+        assertNotContains(getFragmentPlan(sql), "mv_fact_dim_agg");
+
+        // the outer join is not the join of the materialized view
+        sql = "select mv_fact.k1, mv_dim.name, sum(mv_fact.v1) from mv_fact left join mv_dim " +
+                "on mv_fact.k2 = mv_dim.k2 group by mv_fact.k1, mv_dim.name";
+        assertNotContains(getFragmentPlan(sql), "mv_fact_dim_agg");
+
+        connectContext.getSessionVariable().setEnableMaterializedViewRewrite(false);
+        try {
+            sql = "select mv_fact.k1, mv_dim.name, sum(mv_fact.v1) from mv_fact join mv_dim " +
+                    "on mv_fact.k2 = mv_dim.k2 group by mv_fact.k1, mv_dim.name";
+            assertNotContains(getFragmentPlan(sql), "mv_fact_dim_agg");
+        } finally {
+            connectContext.getSessionVariable().setEnableMaterializedViewRewrite(true);
+        }
+    }
+
+    @Test
+    public void testUnionStalePartitions() throws Exception {
+        OlapTable fact = (OlapTable) GlobalStateMgr.getCurrentState().getDb("test").getTable("mv_fact");
+        Partition partition = fact.getPartition("p2");
+        long version = partition.getVisibleVersion();
+        partition.setVisibleVersion(version + 1, System.currentTimeMillis());
+        try {
+            String sql = "select mv_fact.k1, mv_dim.name, sum(mv_fact.v1) from mv_fact join mv_dim " +
+                    "on mv_fact.k2 = mv_dim.k2 group by mv_fact.k1, mv_dim.name";
+            String plan = getFragmentPlan(sql);
+            assertContains(plan, "UNION");
+            assertContains(plan, "TABLE: mv_fact_dim_agg");
+            assertContains(plan, "TABLE: mv_fact\n");
+            assertContains(plan, "partitions=1/3");
+        } finally {
+            partition.setVisibleVersion(version, System.currentTimeMillis());
+        }
+    }
+
+    @Test
+    public void testCachedDefinition() throws Exception {
+        String sql = "select mv_fact.k1, mv_dim.name, sum(mv_fact.v1) from mv_fact join mv_dim " +
+                "on mv_fact.k2 = mv_dim.k2 group by mv_fact.k1, mv_dim.name";
+        assertContains(getFragmentPlan(sql), "TABLE: mv_fact_dim_agg");
+        long size = MvDefinitionCache.getInstance().size();
+        Assert.assertTrue(size > 0);
+        // the view is not changed, its analyzed definition is reused
+        assertContains(getFragmentPlan(sql), "TABLE: mv_fact_dim_agg");
+        Assert.assertEquals(size, MvDefinitionCache.getInstance().size());
+    }
+}
@@ -446,6 +446,26 @@ public class MultiJoinReorderTest extends PlanTestBase {
         Assert.assertTrue(plan.contains("17:NESTLOOP JOIN"));
     }
 
+    @Test
+    public void testParallelJoinReorderGreedy() throws Exception {
+        connectContext.getSessionVariable().disableDPJoinReorder();
+        connectContext.getSessionVariable().enableGreedyJoinReorder();
+        String sql = "select count(*) from t0 join t1 on t0.v1 = t1.v4 join t2 on t1.v5 = t2.v7 " +
+                "join t3 on t2.v8 = t3.v10 join t0 as t4 on t3.v11 = t4.v2 join t1 as t5 on t4.v3 = t5.v6 " +
+                "join t2 as t6 on t5.v4 = t6.v9 join t3 as t7 on t6.v7 = t7.v12 join t0 as t8 on t7.v10 = t8.v1";
+        String serialPlan = getFragmentPlan(sql);
+        try {
+            connectContext.getSessionVariable().setCboEnableParallelJoinReorder(true);
+            connectContext.getSessionVariable().setCboJoinReorderParallelism(4);
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals(serialPlan, getFragmentPlan(sql));
+            }
+        } finally {
+            connectContext.getSessionVariable().setCboEnableParallelJoinReorder(false);
+            connectContext.getSessionVariable().enableDPJoinReorder();
+        }
+    }
+
     @Test
     public void testInsertWithMultiJoin() throws Exception {
         String sql = "insert into test_all_type(t1b, t1c, t1d, t1a) select v1,v4,v7,t1b from (" +
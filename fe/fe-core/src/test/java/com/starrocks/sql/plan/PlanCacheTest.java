@@ -0,0 +1,89 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.common.Config;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.PlanCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PlanCacheTest extends PlanTestBase {
+
+    @Before
+    public void before() {
+        Config.enable_plan_cache = true;
+        PlanCache.getInstance().invalidateAll();
+    }
+
+    @After
+    public void after() {
+        Config.enable_plan_cache = false;
+        PlanCache.getInstance().invalidateAll();
+    }
+
+    @Test
+    public void testSameQuery() throws Exception {
+        String sql = "select v1, sum(v2) from t0 where v3 > 10 group by v1";
+        String plan1 = getFragmentPlan(sql);
+        Assert.assertEquals(1, PlanCache.getInstance().size());
+        String plan2 = getFragmentPlan(sql);
+        Assert.assertEquals(1, PlanCache.getInstance().size());
+        Assert.assertEquals(plan1, plan2);
+    }
+
+    @Test
+    public void testDifferentLiterals() throws Exception {
+        String plan1 = getFragmentPlan("select v1 from t0 where v3 > 10 limit 5");
+        String plan2 = getFragmentPlan("select v1 from t0 where v3 > 20 limit 5");
+        String plan3 = getFragmentPlan("select v1 from t0 where v3 > 20 limit 6");
+        Assert.assertEquals(3, PlanCache.getInstance().size());
+        Assert.assertTrue(plan1.contains("3: v3 > 10"));
+        Assert.assertTrue(plan2.contains("3: v3 > 20"));
+        Assert.assertTrue(plan3.contains("limit: 6"));
+    }
+
+    @Test
+    public void testNonCacheableQuery() throws Exception {
+        getFragmentPlan("select v1, now() from t0");
+        getFragmentPlan("select v1 from t0 where v2 = connection_id()");
+        getFragmentPlan("select 1");
+        Assert.assertEquals(0, PlanCache.getInstance().size());
+    }
+
+    @Test
+    public void testSessionVariableChanged() throws Exception {
+        String sql = "select v1 from t0 join t1 on v1 = v4";
+        getFragmentPlan(sql);
+        int parallelism = connectContext.getSessionVariable().getParallelExecInstanceNum();
+        try {
+            connectContext.getSessionVariable().setParallelExecInstanceNum(parallelism + 1);
+            getFragmentPlan(sql);
+        } finally {
+            connectContext.getSessionVariable().setParallelExecInstanceNum(parallelism);
+        }
+        Assert.assertEquals(2, PlanCache.getInstance().size());
+    }
+
+    @Test
+    public void testLoadIntoEmptyPartition() throws Exception {
+        String sql = "select v1 from t0 where v3 > 10";
+        OlapTable t0 = (OlapTable) GlobalStateMgr.getCurrentState().getDb("test").getTable("t0");
+        Partition partition = t0.getPartitions().iterator().next();
+        long version = partition.getVisibleVersion();
+        Assert.assertFalse(partition.hasData());
+        assertContains(getFragmentPlan(sql), "partitions=0/1");
+        try {
+            // a load publishes a new version of the empty partition, the cached plan pruned the partition
+            partition.setVisibleVersion(version + 1, System.currentTimeMillis());
+            assertContains(getFragmentPlan(sql), "partitions=1/1");
+            Assert.assertEquals(2, PlanCache.getInstance().size());
+        } finally {
+            partition.setVisibleVersion(version, System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.qe.QueryResultCache;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class QueryResultCacheTest extends PlanTestBase {
+
+    @Before
+    public void before() {
+        QueryResultCache.getInstance().invalidateAll();
+    }
+
+    @After
+    public void after() {
+        QueryResultCache.getInstance().invalidateAll();
+    }
+
+    private QueryResultCache.Key buildKey(String sql) throws Exception {
+        StatementBase stmt = UtFrameUtils.parseStmtWithNewParserNotIncludeAnalyzer(sql, connectContext);
+        ExecPlan plan = StatementPlanner.plan(stmt, connectContext);
+        return QueryResultCache.getInstance().buildKey((QueryStatement) stmt, plan, connectContext);
+    }
+
+    private static QueryResultCache.ResultBuilder buildResult(String... rows) {
+        QueryResultCache.ResultBuilder builder = new QueryResultCache.ResultBuilder();
+        for (String row : rows) {
+            builder.addRow(ByteBuffer.wrap(row.getBytes(StandardCharsets.UTF_8)));
+        }
+        return builder;
+    }
+
+    @Test
+    public void testSameQuery() throws Exception {
+        String sql = "select v1, sum(v2) from t0 where v3 > 10 group by v1";
+        QueryResultCache.Key key = buildKey(sql);
+        Assert.assertNotNull(key);
+        Assert.assertNull(QueryResultCache.getInstance().get(key));
+
+        QueryResultCache.getInstance().put(key, buildResult("a", "bc"));
+        List<ByteBuffer> rows = QueryResultCache.getInstance().get(buildKey(sql));
+        Assert.assertNotNull(rows);
+        Assert.assertEquals(2, rows.size());
+        Assert.assertEquals("bc", StandardCharsets.UTF_8.decode(rows.get(1)).toString());
+        Assert.assertTrue(QueryResultCache.getInstance().hitRatio() > 0);
+
+        Assert.assertNotEquals(key, buildKey("select v1, sum(v2) from t0 where v3 > 20 group by v1"));
+    }
+
+    @Test
+    public void testPartitionVersionChanged() throws Exception {
+        String sql = "select v1, v2 from t0";
+        QueryResultCache.Key key = buildKey(sql);
+        QueryResultCache.getInstance().put(key, buildResult("a"));
+
+        OlapTable t0 = (OlapTable) GlobalStateMgr.getCurrentState().getDb("test").getTable("t0");
+        Partition partition = t0.getPartitions().iterator().next();
+        long version = partition.getVisibleVersion();
+        partition.setVisibleVersion(version + 1, System.currentTimeMillis());
+        try {
+            Assert.assertNull(QueryResultCache.getInstance().get(buildKey(sql)));
+        } finally {
+            partition.setVisibleVersion(version, System.currentTimeMillis());
+        }
+
+        QueryResultCache.getInstance().invalidate(Lists.newArrayList(t0.getId()));
+        Assert.assertEquals(0, QueryResultCache.getInstance().size());
+        Assert.assertNull(QueryResultCache.getInstance().get(buildKey(sql)));
+    }
+
+    @Test
+    public void testNonCacheableQuery() throws Exception {
+        Assert.assertNull(buildKey("select v1, rand() from t0"));
+        Assert.assertNull(buildKey("select v1, now() from t0"));
+        Assert.assertNull(buildKey("select 1"));
+        Assert.assertNull(buildKey("explain select v1 from t0"));
+    }
+}
@@ -0,0 +1,83 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.transaction;
+
+import com.starrocks.common.Config;
+import com.starrocks.pseudocluster.PseudoCluster;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load generator of the txns on the tables of a single db. Every thread loads its own table as fast as it can,
+ * so the tps grows with the threads when the txns on different tables do not block each other. The threads
+ * loading one table are serialized by the table and show the tps without that independence.
+ * Not run by the unit tests, run it by: mvn test -Dtest=ConcurrentTxnSingleDbBenchmark
+ */
+public class ConcurrentTxnSingleDbBenchmark {
+    private static final String DB = "txn_benchmark";
+    private static final int MAX_THREAD_NUM = 16;
+    private static final int RUN_SECONDS = 10;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Config.enable_new_publish_mechanism = false;
+        PseudoCluster cluster = PseudoCluster.getOrCreateWithRandomPort(true, 3);
+        cluster.runSql(null, "create database " + DB);
+        for (int i = 0; i < MAX_THREAD_NUM; i++) {
+            cluster.runSql(DB, "create table table_" + i +
+                    " (pk bigint NOT NULL, v0 string not null) primary KEY (pk) DISTRIBUTED BY HASH(pk) BUCKETS 4" +
+                    " PROPERTIES(\"replication_num\" = \"3\", \"storage_medium\" = \"SSD\")");
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        PseudoCluster.getInstance().shutdown(true);
+    }
+
+    // return the tps of the loads by the threads, the thread i loads the table i % tableNum
+    private static double benchmark(int threadNum, int tableNum) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+        List<Future<Integer>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = start + RUN_SECONDS * 1000000000L;
+        for (int t = 0; t < threadNum; t++) {
+            String table = "table_" + (t % tableNum);
+            futures.add(executor.submit(() -> {
+                int loadNum = 0;
+                while (System.nanoTime() < deadline) {
+                    PseudoCluster.getInstance().runSql(DB,
+                            "insert into " + table + " values (1,\"1\"), (2,\"2\"), (3,\"3\")");
+                    loadNum++;
+                }
+                return loadNum;
+            }));
+        }
+        int loadNum = 0;
+        for (Future<Integer> future : futures) {
+            loadNum += future.get();
+        }
+        executor.shutdown();
+        return loadNum / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Compare the tps of the loads on independent tables and on one table by the same threads.
+     */
+    @Test
+    public void benchmarkTps() throws Exception {
+        for (int threadNum = 1; threadNum <= MAX_THREAD_NUM; threadNum *= 2) {
+            double independent = benchmark(threadNum, threadNum);
+            double sameTable = benchmark(threadNum, 1);
+            System.out.printf("loads by %d threads: %d tables %.1f tps, 1 table %.1f tps\n",
+                    threadNum, threadNum, independent, sameTable);
+        }
+    }
+}
@@ -23,6 +23,7 @@ package com.starrocks.transaction;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.starrocks.catalog.Database;
 import com.starrocks.catalog.FakeEditLog;
 import com.starrocks.catalog.FakeGlobalStateMgr;
 import com.starrocks.catalog.GlobalStateMgrTestUtil;
@@ -42,8 +43,16 @@ import org.junit.rules.ExpectedException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -281,4 +290,75 @@ public class DatabaseTransactionMgrTest {
         assertEquals(3, masterDbTransMgr.getTransactionNum());
         assertNull(masterDbTransMgr.unprotectedGetTxnIdsByLabel(GlobalStateMgrTestUtil.testTxnLable1));
     }
+
+    @Test
+    public void testLockDatabaseByTables() throws Exception {
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        Database db = masterGlobalStateMgr.getDb(GlobalStateMgrTestUtil.testDbId1);
+        long otherTableId = GlobalStateMgrTestUtil.testTableId1 + 100;
+        long otherTxnId = masterTransMgr.beginTransaction(GlobalStateMgrTestUtil.testDbId1,
+                Lists.newArrayList(otherTableId), "other_table_label", transactionSource,
+                TransactionState.LoadJobSourceType.FRONTEND, Config.stream_load_default_timeout_second);
+        long txnId3 = lableToTxnId.get(GlobalStateMgrTestUtil.testTxnLable3);
+        long txnId4 = lableToTxnId.get(GlobalStateMgrTestUtil.testTxnLable4);
+
+        List<ReentrantLock> locks = masterDbTransMgr.lockDatabase(db, txnId3, 1000);
+        assertNotNull(locks);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // a txn of another table is not blocked, a txn of the same table and a db writer are
+            Future<Boolean> otherTable = executor.submit(() -> {
+                List<ReentrantLock> otherLocks = masterDbTransMgr.lockDatabase(db, otherTxnId, 100);
+                if (otherLocks == null) {
+                    return false;
+                }
+                masterDbTransMgr.unlockDatabase(db, otherLocks);
+                return true;
+            });
+            assertTrue(otherTable.get());
+            assertNull(executor.submit(() -> masterDbTransMgr.lockDatabase(db, txnId4, 100)).get());
+            assertFalse(executor.submit(() -> db.tryWriteLock(100, TimeUnit.MILLISECONDS)).get());
+        } finally {
+            masterDbTransMgr.unlockDatabase(db, locks);
+            executor.shutdownNow();
+        }
+        assertTrue(db.tryWriteLock(100, TimeUnit.MILLISECONDS));
+        db.writeUnlock();
+    }
+
+    @Test
+    public void testConcurrentBeginWithinLimit() throws Exception {
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        int maxRunningTxnNum = Config.max_running_txn_num_per_db;
+        Config.max_running_txn_num_per_db = masterDbTransMgr.getRunningTxnNums() + 10;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            AtomicInteger succeeded = new AtomicInteger(0);
+            List<Future<?>> futures = Lists.newArrayList();
+            for (int i = 0; i < 50; i++) {
+                String label = "concurrent_label_" + i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        masterTransMgr.beginTransaction(GlobalStateMgrTestUtil.testDbId1,
+                                Lists.newArrayList(GlobalStateMgrTestUtil.testTableId1), label, transactionSource,
+                                TransactionState.LoadJobSourceType.FRONTEND, Config.stream_load_default_timeout_second);
+                        succeeded.incrementAndGet();
+                    } catch (BeginTransactionException e) {
+                        // exceeds the limit
+                    } catch (UserException e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            // the checks of the limit do not race with each other
+            assertEquals(10, succeeded.get());
+            assertEquals(Config.max_running_txn_num_per_db, masterDbTransMgr.getRunningTxnNums());
+        } finally {
+            Config.max_running_txn_num_per_db = maxRunningTxnNum;
+            executor.shutdownNow();
+        }
+    }
 }
@@ -27,6 +27,14 @@ public class BrokerConfig extends ConfigBase {
     
     @ConfField
     public static int hdfs_write_buffer_size_kb = 1024;
+
+    // the max size to read ahead for the sequential reads of a file, e.g. loading a csv file, 0 to disable it
+    @ConfField
+    public static int hdfs_read_ahead_max_size_kb = 0;
+
+    // the max size of the read buffer kept by each thread, the larger buffers are allocated for each read
+    @ConfField
+    public static int hdfs_read_thread_buffer_max_size_kb = 1024;
     
     @ConfField
     public static int client_expire_seconds = 300;
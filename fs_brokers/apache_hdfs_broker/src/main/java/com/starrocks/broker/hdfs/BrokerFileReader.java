@@ -0,0 +1,108 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.broker.hdfs;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a file opened by the broker at the offsets of the requests.
+ * <p>
+ * The requests are served by the positional reads, which never change the position of the stream and are thread
+ * safe, so the random and concurrent reads of the columnar files like parquet and orc are not serialized on the
+ * stream. The data are read to a buffer reused by the thread, as the thrift server serializes the response in the
+ * same thread before serving another request.
+ * <p>
+ * If hdfs_read_ahead_max_size_kb is set, the sequential reads, e.g. loading a csv file, are read ahead. The window
+ * is doubled by every read following the data read ahead, up to the max size, and shrinks to the size of the request
+ * when the reads are not sequential any more.
+ */
+public class BrokerFileReader {
+    private static final ThreadLocal<byte[]> THREAD_BUFFER = new ThreadLocal<>();
+
+    private final FSDataInputStream stream;
+    private final int maxReadAheadSize;
+    private final int maxThreadBufferSize;
+    // the offset following the last read, where a sequential read starts
+    private volatile long nextOffset = 0;
+
+    // the data read ahead, guarded by this
+    private byte[] readAheadBuffer;
+    private long readAheadOffset = 0;
+    private int readAheadLength = 0;
+
+    public BrokerFileReader(FSDataInputStream stream, int maxReadAheadSize, int maxThreadBufferSize) {
+        this.stream = stream;
+        this.maxReadAheadSize = maxReadAheadSize;
+        this.maxThreadBufferSize = maxThreadBufferSize;
+    }
+
+    public FSDataInputStream getStream() {
+        return stream;
+    }
+
+    /**
+     * Read at most length bytes at the offset, less only if the end of the file is reached.
+     * The data returned are only valid until the thread reads again.
+     */
+    public ByteBuffer read(long offset, int length) throws IOException {
+        byte[] buffer = getBuffer(length);
+        int readLength;
+        if (offset == nextOffset && maxReadAheadSize > length) {
+            synchronized (this) {
+                readLength = readAhead(offset, buffer, length);
+            }
+        } else {
+            readLength = readFully(offset, buffer, length);
+        }
+        nextOffset = offset + readLength;
+        return ByteBuffer.wrap(buffer, 0, readLength);
+    }
+
+    private int readAhead(long offset, byte[] dest, int length) throws IOException {
+        long readAheadEnd = readAheadOffset + readAheadLength;
+        if (offset < readAheadOffset || offset + length > readAheadEnd) {
+            int window = length;
+            if (readAheadLength > 0 && offset >= readAheadOffset && offset <= readAheadEnd) {
+                // keep reading the data following the data read ahead
+                window = Math.min(maxReadAheadSize, Math.max(length, readAheadLength * 2));
+            }
+            if (readAheadBuffer == null || readAheadBuffer.length < window) {
+                readAheadBuffer = new byte[window];
+            }
+            readAheadOffset = offset;
+            readAheadLength = 0;
+            readAheadLength = readFully(offset, readAheadBuffer, window);
+        }
+        int readLength = (int) Math.min(length, readAheadOffset + readAheadLength - offset);
+        System.arraycopy(readAheadBuffer, (int) (offset - readAheadOffset), dest, 0, readLength);
+        return readLength;
+    }
+
+    private int readFully(long offset, byte[] dest, int length) throws IOException {
+        int readLength = 0;
+        while (readLength < length) {
+            int n = stream.read(offset + readLength, dest, readLength, length - readLength);
+            if (n <= 0) {
+                break;
+            }
+            readLength += n;
+        }
+        return readLength;
+    }
+
+    // the buffers larger than maxThreadBufferSize are not kept by the thread, to bound the memory of idle threads
+    private byte[] getBuffer(int length) {
+        byte[] buffer = THREAD_BUFFER.get();
+        if (buffer != null && buffer.length >= length) {
+            return buffer;
+        }
+        buffer = new byte[length];
+        if (length <= maxThreadBufferSize) {
+            THREAD_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+}
@@ -86,6 +86,19 @@ public class ClientContextManager {
         return fsDataInputStream;
     }
     
+    // not synchronized, so the reads of different files do not wait for each other
+    public BrokerFileReader getFileReader(TBrokerFD fd) {
+        String clientId = fdToClientMap.get(fd);
+        ClientResourceContext clientContext = clientId == null ? null : clientContexts.get(clientId);
+        BrokerInputStream brokerInputStream = clientContext == null ? null : clientContext.inputStreams.get(fd);
+        if (brokerInputStream == null) {
+            throw new BrokerException(TBrokerOperationStatusCode.TARGET_STORAGE_SERVICE_ERROR,
+                    "the fd is not owned by client {}", clientId);
+        }
+        clientContext.updateClientLastPingTime();
+        return brokerInputStream.getFileReader();
+    }
+
     public synchronized FSDataOutputStream getFsDataOutputStream(TBrokerFD fd) {
         String clientId = fdToClientMap.get(fd);
         if (clientId == null) {
@@ -178,10 +191,13 @@ public class ClientContextManager {
     private static class BrokerInputStream {
         
         private final FSDataInputStream inputStream;
+        private final BrokerFileReader fileReader;
         private final BrokerFileSystem brokerFileSystem;
         
         public BrokerInputStream(FSDataInputStream inputStream, BrokerFileSystem brokerFileSystem) {
             this.inputStream = inputStream;
+            this.fileReader = new BrokerFileReader(inputStream, BrokerConfig.hdfs_read_ahead_max_size_kb << 10,
+                    BrokerConfig.hdfs_read_thread_buffer_max_size_kb << 10);
             this.brokerFileSystem = brokerFileSystem;
             this.brokerFileSystem.updateLastUpdateAccessTime();
         }
@@ -190,6 +206,11 @@ public class ClientContextManager {
             this.brokerFileSystem.updateLastUpdateAccessTime();
             return inputStream;
         }
+
+        public BrokerFileReader getFileReader() {
+            this.brokerFileSystem.updateLastUpdateAccessTime();
+            return fileReader;
+        }
         
         public void updateLastUpdateAccessTime() {
             this.brokerFileSystem.updateLastUpdateAccessTime();
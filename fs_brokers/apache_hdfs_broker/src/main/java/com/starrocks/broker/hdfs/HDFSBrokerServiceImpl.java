@@ -155,7 +155,8 @@ public class HDFSBrokerServiceImpl implements TFileBrokerService.Iface {
         TBrokerReadResponse response = new TBrokerReadResponse();
         try {
             ByteBuffer readBuf = fileSystemManager.pread(request.fd, request.offset, request.length);
-            response.setData(readBuf);
+            // not by setData, which copies the data
+            response.data = readBuf;
             response.setOpStatus(generateOKStatus());
         } catch (BrokerException e) {
             logger.warn("failed to pread: " + request.fd, e);
@@ -0,0 +1,137 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.broker.hdfs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the throughput of the reads by {@link BrokerFileReader} and the reads seeking the stream.
+ * Not run by the unit tests, run it by: mvn test -Dtest=BrokerFileReaderBenchmark
+ */
+public class BrokerFileReaderBenchmark {
+    private static final int FILE_SIZE = 32 << 20;
+
+    private File dir;
+    private Path path;
+    private FileSystem fileSystem;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("broker_file_reader").toFile();
+        File file = new File(dir, "data");
+        byte[] content = new byte[FILE_SIZE];
+        new Random(7).nextBytes(content);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+        path = new Path(file.getAbsolutePath());
+        fileSystem = FileSystem.getLocal(new Configuration()).getRawFileSystem();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        fileSystem.delete(new Path(dir.getAbsolutePath()), true);
+    }
+
+    // the reads before positional reads, which seek the stream and read under its monitor
+    private static int readWithSeek(FSDataInputStream stream, long offset, int length) throws IOException {
+        synchronized (stream) {
+            if (stream.getPos() != offset) {
+                stream.seek(offset);
+            }
+            byte[] buf = new byte[length];
+            int readLength = 0;
+            while (readLength < length) {
+                int n = stream.read(buf, readLength, length - readLength);
+                if (n <= 0) {
+                    break;
+                }
+                readLength += n;
+            }
+            return readLength;
+        }
+    }
+
+    private interface Read {
+        int read(long offset, int length) throws IOException;
+    }
+
+    // return the throughput of the reads in MB/s
+    private double benchmark(Read read, int threadNum, int length, boolean sequential) throws Exception {
+        int readNum = 400;
+        ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+        List<Future<Long>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threadNum; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                long bytes = 0;
+                long offset = (long) seed * (FILE_SIZE / threadNum);
+                for (int i = 0; i < readNum; i++) {
+                    if (!sequential || offset >= FILE_SIZE) {
+                        offset = random.nextInt(FILE_SIZE - length);
+                    }
+                    int n = read.read(offset, length);
+                    bytes += n;
+                    offset += n;
+                }
+                return bytes;
+            }));
+        }
+        long bytes = 0;
+        for (Future<Long> future : futures) {
+            bytes += future.get();
+        }
+        executor.shutdown();
+        return bytes / 1048576.0 / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Compare the throughput of the reads by the positional reads and the reads seeking the stream,
+     * on the local file system.
+     */
+    @Test
+    public void benchmarkThroughput() throws Exception {
+        try (FSDataInputStream stream = fileSystem.open(path)) {
+            BrokerFileReader reader = new BrokerFileReader(stream, 0, 1 << 20);
+            for (int threadNum : new int[] {1, 8}) {
+                double seek = benchmark((offset, length) -> readWithSeek(stream, offset, length),
+                        threadNum, 64 << 10, false);
+                double positional = benchmark((offset, length) -> reader.read(offset, length).remaining(),
+                        threadNum, 64 << 10, false);
+                System.out.printf("random reads of 64KB by %d threads: seek %.1f MB/s, positional %.1f MB/s\n",
+                        threadNum, seek, positional);
+            }
+        }
+
+        try (FSDataInputStream stream = fileSystem.open(path)) {
+            BrokerFileReader reader = new BrokerFileReader(stream, 0, 1 << 20);
+            BrokerFileReader readAheadReader = new BrokerFileReader(stream, 8 << 20, 1 << 20);
+            double seek = benchmark((offset, length) -> readWithSeek(stream, offset, length), 1, 64 << 10, true);
+            double positional = benchmark((offset, length) -> reader.read(offset, length).remaining(),
+                    1, 64 << 10, true);
+            double readAhead = benchmark((offset, length) -> readAheadReader.read(offset, length).remaining(),
+                    1, 64 << 10, true);
+            System.out.printf("sequential reads of 64KB: seek %.1f MB/s, positional %.1f MB/s, " +
+                    "read ahead %.1f MB/s\n", seek, positional, readAhead);
+        }
+    }
+}
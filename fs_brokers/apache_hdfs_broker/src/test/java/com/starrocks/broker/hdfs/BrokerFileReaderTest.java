@@ -0,0 +1,129 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.broker.hdfs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BrokerFileReaderTest {
+    private static final int FILE_SIZE = 32 << 20;
+
+    private File dir;
+    private Path path;
+    private byte[] content;
+    private FileSystem fileSystem;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("broker_file_reader").toFile();
+        File file = new File(dir, "data");
+        content = new byte[FILE_SIZE];
+        new Random(7).nextBytes(content);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+        path = new Path(file.getAbsolutePath());
+        fileSystem = FileSystem.getLocal(new Configuration()).getRawFileSystem();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        fileSystem.delete(new Path(dir.getAbsolutePath()), true);
+    }
+
+    private void assertData(long offset, int length, ByteBuffer buf) {
+        int expectedLength = (int) Math.max(0, Math.min(length, FILE_SIZE - offset));
+        Assert.assertEquals(expectedLength, buf.remaining());
+        for (int i = 0; i < expectedLength; i++) {
+            Assert.assertEquals(content[(int) offset + i], buf.get(buf.position() + i));
+        }
+    }
+
+    @Test
+    public void testRandomRead() throws IOException {
+        try (FSDataInputStream stream = fileSystem.open(path)) {
+            BrokerFileReader reader = new BrokerFileReader(stream, 0, 1 << 20);
+            Random random = new Random(1);
+            for (int i = 0; i < 100; i++) {
+                long offset = random.nextInt(FILE_SIZE);
+                int length = random.nextInt(1 << 20) + 1;
+                assertData(offset, length, reader.read(offset, length));
+            }
+            // the end of the file
+            assertData(FILE_SIZE - 10, 100, reader.read(FILE_SIZE - 10, 100));
+            assertData(FILE_SIZE, 100, reader.read(FILE_SIZE, 100));
+        }
+    }
+
+    @Test
+    public void testSequentialReadAhead() throws IOException {
+        try (FSDataInputStream stream = fileSystem.open(path)) {
+            BrokerFileReader reader = new BrokerFileReader(stream, 4 << 20, 1 << 20);
+            long offset = 0;
+            int length = 100 << 10;
+            ByteBuffer buf;
+            do {
+                buf = reader.read(offset, length);
+                assertData(offset, length, buf);
+                offset += buf.remaining();
+            } while (buf.remaining() > 0);
+            Assert.assertEquals(FILE_SIZE, offset);
+
+            // the random reads mixed with the sequential reads
+            Random random = new Random(2);
+            offset = 0;
+            for (int i = 0; i < 200; i++) {
+                if (random.nextInt(4) == 0) {
+                    offset = random.nextInt(FILE_SIZE);
+                }
+                length = random.nextInt(200 << 10) + 1;
+                buf = reader.read(offset, length);
+                assertData(offset, length, buf);
+                offset += buf.remaining();
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentRead() throws Exception {
+        try (FSDataInputStream stream = fileSystem.open(path)) {
+            BrokerFileReader reader = new BrokerFileReader(stream, 4 << 20, 1 << 20);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 100; i++) {
+                        long offset = random.nextInt(FILE_SIZE);
+                        int length = random.nextInt(256 << 10) + 1;
+                        assertData(offset, length, reader.read(offset, length));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+        }
+    }
+}
@@ -103,12 +103,18 @@ struct TReportRequest {
     8: optional i64 tablet_max_compaction_score
     // active workgroup on this backend
     9: optional list<WorkGroup.TWorkGroup> active_workgroups
+    // if true, the tablets only contain the tablets changed since the last report accepted by FE,
+    // and dropped_tablet_ids contains the tablets dropped since then
+    10: optional bool incremental_tablet_report
+    11: optional list<Types.TTabletId> dropped_tablet_ids
 }
 
 struct TMasterResult {
     // required in V1
     1: required Status.TStatus status
     2: optional list<WorkGroup.TWorkGroupOp> workgroup_ops
+    // FE has no baseline for an incremental tablet report, BE should send a full report
+    3: optional bool need_full_tablet_report
 }
 
 // Deprecated
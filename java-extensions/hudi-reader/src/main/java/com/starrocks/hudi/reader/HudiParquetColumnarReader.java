@@ -0,0 +1,353 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.hudi.reader;
+
+import com.starrocks.jni.connector.OffHeapColumnVector;
+import com.starrocks.jni.connector.OffHeapColumnVector.OffHeapColumnType;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReadStore;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the base parquet file of a copy-on-write slice, i.e. a slice without delta logs, column by column.
+ * <p>
+ * The record reader of hive deserializes every row to writables, and every field is boxed before it is appended to
+ * the off-heap table. Here only the required columns are read from the row groups by the column readers of parquet,
+ * which decode the pages and the dictionaries, and the values are appended to the off-heap column vectors directly.
+ * The required columns missing in the file are read as nulls, like hive does.
+ */
+class HudiParquetColumnarReader implements Closeable {
+    private static final PrimitiveConverter NO_OP_PRIMITIVE_CONVERTER = new PrimitiveConverter() {
+    };
+    // the values are read from the column readers, so the converters are never called
+    private static final GroupConverter NO_OP_CONVERTER = new GroupConverter() {
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return NO_OP_PRIMITIVE_CONVERTER;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void end() {
+        }
+    };
+
+    private final ParquetFileReader fileReader;
+    private final MessageType requestedSchema;
+    private final String createdBy;
+    private final Column[] columns;
+    private long rowGroupRowsLeft = 0;
+
+    private HudiParquetColumnarReader(ParquetFileReader fileReader, MessageType requestedSchema, Column[] columns) {
+        this.fileReader = fileReader;
+        this.requestedSchema = requestedSchema;
+        this.createdBy = fileReader.getFooter().getFileMetaData().getCreatedBy();
+        this.columns = columns;
+    }
+
+    /**
+     * Open the parquet file for the required fields.
+     *
+     * @return null if any of the fields can not be read by columns, e.g. a nested or timestamp column,
+     * then the slice should be read by the record reader.
+     */
+    static HudiParquetColumnarReader create(Configuration conf, Path path, String[] fieldNames,
+                                            OffHeapColumnType[] types) throws IOException {
+        ParquetFileReader fileReader = ParquetFileReader.open(HadoopInputFile.fromPath(path, conf));
+        try {
+            MessageType fileSchema = fileReader.getFooter().getFileMetaData().getSchema();
+            List<Type> requestedFields = new ArrayList<>();
+            PrimitiveType[] parquetTypes = new PrimitiveType[fieldNames.length];
+            for (int i = 0; i < fieldNames.length; i++) {
+                Type field = findField(fileSchema, fieldNames[i]);
+                if (field == null) {
+                    continue;
+                }
+                if (!field.isPrimitive() || field.isRepetition(Type.Repetition.REPEATED) ||
+                        !isSupported(types[i], field.asPrimitiveType())) {
+                    fileReader.close();
+                    return null;
+                }
+                parquetTypes[i] = field.asPrimitiveType();
+                if (!requestedFields.contains(field)) {
+                    requestedFields.add(field);
+                }
+            }
+            MessageType requestedSchema = new MessageType(fileSchema.getName(), requestedFields);
+            fileReader.setRequestedSchema(requestedSchema);
+
+            Column[] columns = new Column[fieldNames.length];
+            for (int i = 0; i < fieldNames.length; i++) {
+                ColumnDescriptor descriptor = parquetTypes[i] == null ? null :
+                        requestedSchema.getColumnDescription(new String[] {parquetTypes[i].getName()});
+                columns[i] = new Column(types[i], parquetTypes[i], descriptor);
+            }
+            return new HudiParquetColumnarReader(fileReader, requestedSchema, columns);
+        } catch (Exception e) {
+            fileReader.close();
+            throw e;
+        }
+    }
+
+    // hive matches the columns of parquet files by the lower case names
+    private static Type findField(MessageType schema, String name) {
+        for (Type field : schema.getFields()) {
+            if (field.getName().equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSupported(OffHeapColumnType type, PrimitiveType parquetType) {
+        PrimitiveType.PrimitiveTypeName typeName = parquetType.getPrimitiveTypeName();
+        OriginalType originalType = parquetType.getOriginalType();
+        if (type == null) {
+            return false;
+        }
+        switch (type) {
+            case BOOLEAN:
+                return typeName == PrimitiveType.PrimitiveTypeName.BOOLEAN;
+            case SHORT:
+            case INT:
+                return typeName == PrimitiveType.PrimitiveTypeName.INT32 && isPlainInteger(originalType);
+            case LONG:
+                return (typeName == PrimitiveType.PrimitiveTypeName.INT32 ||
+                        typeName == PrimitiveType.PrimitiveTypeName.INT64) && isPlainInteger(originalType);
+            case FLOAT:
+                return typeName == PrimitiveType.PrimitiveTypeName.FLOAT;
+            case DOUBLE:
+                return typeName == PrimitiveType.PrimitiveTypeName.FLOAT ||
+                        typeName == PrimitiveType.PrimitiveTypeName.DOUBLE;
+            case STRING:
+                return typeName == PrimitiveType.PrimitiveTypeName.BINARY &&
+                        (originalType == null || originalType == OriginalType.UTF8 ||
+                                originalType == OriginalType.ENUM || originalType == OriginalType.JSON);
+            case DATE:
+                return typeName == PrimitiveType.PrimitiveTypeName.INT32 && originalType == OriginalType.DATE;
+            case DECIMAL:
+                return originalType == OriginalType.DECIMAL && typeName != PrimitiveType.PrimitiveTypeName.INT96;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isPlainInteger(OriginalType originalType) {
+        return originalType == null || originalType == OriginalType.INT_8 || originalType == OriginalType.INT_16 ||
+                originalType == OriginalType.INT_32 || originalType == OriginalType.INT_64;
+    }
+
+    /**
+     * Read at most batchSize rows to the vectors of the required fields.
+     *
+     * @return the number of rows read, less than batchSize only if the end of the file is reached.
+     */
+    int readBatch(OffHeapColumnVector[] vectors, int batchSize) throws IOException {
+        int numRows = 0;
+        while (numRows < batchSize) {
+            if (rowGroupRowsLeft == 0 && !nextRowGroup()) {
+                break;
+            }
+            int n = (int) Math.min(batchSize - numRows, rowGroupRowsLeft);
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].read(vectors[i], n);
+            }
+            rowGroupRowsLeft -= n;
+            numRows += n;
+        }
+        return numRows;
+    }
+
+    private boolean nextRowGroup() throws IOException {
+        PageReadStore pages = fileReader.readNextRowGroup();
+        if (pages == null) {
+            return false;
+        }
+        ColumnReadStore store = new ColumnReadStoreImpl(pages, NO_OP_CONVERTER, requestedSchema, createdBy);
+        for (Column column : columns) {
+            column.reset(store);
+        }
+        rowGroupRowsLeft = pages.getRowCount();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileReader.close();
+    }
+
+    private static class Column {
+        private final OffHeapColumnType type;
+        private final PrimitiveType parquetType;
+        // null if the column is missing in the file
+        private final ColumnDescriptor descriptor;
+        private final int maxDefinitionLevel;
+        private ColumnReader reader;
+
+        Column(OffHeapColumnType type, PrimitiveType parquetType, ColumnDescriptor descriptor) {
+            this.type = type;
+            this.parquetType = parquetType;
+            this.descriptor = descriptor;
+            this.maxDefinitionLevel = descriptor == null ? 0 : descriptor.getMaxDefinitionLevel();
+        }
+
+        void reset(ColumnReadStore store) {
+            if (descriptor != null) {
+                reader = store.getColumnReader(descriptor);
+            }
+        }
+
+        private boolean isNull() {
+            return reader.getCurrentDefinitionLevel() < maxDefinitionLevel;
+        }
+
+        // the type is switched once for the rows, and every value is consumed whether it is null or not
+        void read(OffHeapColumnVector vector, int numRows) {
+            if (reader == null) {
+                for (int i = 0; i < numRows; i++) {
+                    vector.appendNull();
+                }
+                return;
+            }
+            PrimitiveType.PrimitiveTypeName typeName = parquetType.getPrimitiveTypeName();
+            switch (type) {
+                case BOOLEAN:
+                    for (int i = 0; i < numRows; i++, reader.consume()) {
+                        if (isNull()) {
+                            vector.appendNull();
+                        } else {
+                            vector.appendBoolean(reader.getBoolean());
+                        }
+                    }
+                    break;
+                case SHORT:
+                    for (int i = 0; i < numRows; i++, reader.consume()) {
+                        if (isNull()) {
+                            vector.appendNull();
+                        } else {
+                            vector.appendShort((short) reader.getInteger());
+                        }
+                    }
+                    break;
+                case INT:
+                    for (int i = 0; i < numRows; i++, reader.consume()) {
+                        if (isNull()) {
+                            vector.appendNull();
+                        } else {
+                            vector.appendInt(reader.getInteger());
+                        }
+                    }
+                    break;
+                case LONG:
+                    for (int i = 0; i < numRows; i++, reader.consume()) {
+                        if (isNull()) {
+                            vector.appendNull();
+                        } else if (typeName == PrimitiveType.PrimitiveTypeName.INT32) {
+                            vector.appendLong(reader.getInteger());
+                        } else {
+                            vector.appendLong(reader.getLong());
+                        }
+                    }
+                    break;
+                case FLOAT:
+                    for (int i = 0; i < numRows; i++, reader.consume()) {
+                        if (isNull()) {
+                            vector.appendNull();
+                        } else {
+                            vector.appendFloat(reader.getFloat());
+                        }
+                    }
+                    break;
+                case DOUBLE:
+                    for (int i = 0; i < numRows; i++, reader.consume()) {
+                        if (isNull()) {
+                            vector.appendNull();
+                        } else if (typeName == PrimitiveType.PrimitiveTypeName.FLOAT) {
+                            vector.appendDouble(reader.getFloat());
+                        } else {
+                            vector.appendDouble(reader.getDouble());
+                        }
+                    }
+                    break;
+                case STRING:
+                    for (int i = 0; i < numRows; i++, reader.consume()) {
+                        if (isNull()) {
+                            vector.appendNull();
+                        } else {
+                            appendBinary(vector, reader.getBinary());
+                        }
+                    }
+                    break;
+                case DATE:
+                    for (int i = 0; i < numRows; i++, reader.consume()) {
+                        if (isNull()) {
+                            vector.appendNull();
+                        } else {
+                            vector.appendString(LocalDate.ofEpochDay(reader.getInteger()).toString());
+                        }
+                    }
+                    break;
+                case DECIMAL:
+                    int scale = parquetType.getDecimalMetadata().getScale();
+                    for (int i = 0; i < numRows; i++, reader.consume()) {
+                        if (isNull()) {
+                            vector.appendNull();
+                        } else {
+                            vector.appendString(readDecimal(typeName, scale).toPlainString());
+                        }
+                    }
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unsupported type: " + type);
+            }
+        }
+
+        // append the bytes of the binary without copying them to a byte array if possible
+        private static void appendBinary(OffHeapColumnVector vector, Binary binary) {
+            ByteBuffer buffer = binary.toByteBuffer();
+            if (buffer.hasArray()) {
+                vector.appendByteArray(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            } else {
+                byte[] bytes = binary.getBytes();
+                vector.appendByteArray(bytes, 0, bytes.length);
+            }
+        }
+
+        private BigDecimal readDecimal(PrimitiveType.PrimitiveTypeName typeName, int scale) {
+            switch (typeName) {
+                case INT32:
+                    return BigDecimal.valueOf(reader.getInteger(), scale);
+                case INT64:
+                    return BigDecimal.valueOf(reader.getLong(), scale);
+                default:
+                    return new BigDecimal(new BigInteger(reader.getBinary().getBytes()), scale);
+            }
+        }
+    }
+}
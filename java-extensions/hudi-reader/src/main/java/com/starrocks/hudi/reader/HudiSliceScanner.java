@@ -3,6 +3,7 @@
 package com.starrocks.hudi.reader;
 
 import com.starrocks.jni.connector.ConnectorScanner;
+import com.starrocks.jni.connector.OffHeapColumnVector;
 import com.starrocks.jni.connector.TypeMapping;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -51,6 +52,9 @@ public class HudiSliceScanner extends ConnectorScanner {
     private ObjectInspector[] fieldInspectors;
     private StructField[] structFields;
     private Deserializer deserializer;
+    // the reader of the copy-on-write slices, null if the slice is read by the record reader
+    private HudiParquetColumnarReader columnarReader;
+    private OffHeapColumnVector[] vectors;
     private final int fetchSize;
 
     public HudiSliceScanner(int fetchSize, Map<String, String> params) {
@@ -108,6 +112,16 @@ public class HudiSliceScanner extends ConnectorScanner {
             }
             initOffHeapTableWriter(requiredTypes, fetchSize, TypeMapping.hiveTypeMappings);
 
+            // the slices without delta logs are read by columns from the base parquet files
+            if (deltaFilePaths.length == 0 && dataFileLenth != -1 && dataFilePath.endsWith(".parquet")) {
+                columnarReader = HudiParquetColumnarReader.create(jobConf, new Path(dataFilePath), requiredFields,
+                        getOffHeapColumnTypes());
+                if (columnarReader != null) {
+                    vectors = new OffHeapColumnVector[requiredFields.length];
+                    return;
+                }
+            }
+
             properties.setProperty("hive.io.file.readcolumn.ids", columnIdBuilder.toString());
             properties.setProperty("hive.io.file.readcolumn.names", String.join(",", this.requiredFields));
             properties.setProperty("columns", this.hiveColumnNames);
@@ -148,6 +162,9 @@ public class HudiSliceScanner extends ConnectorScanner {
             if (reader != null) {
                 reader.close();
             }
+            if (columnarReader != null) {
+                columnarReader.close();
+            }
         } catch (IOException e) {
             e.printStackTrace();
             throw new IOException("Failed to close the hudi MOR slice reader.", e);
@@ -157,6 +174,12 @@ public class HudiSliceScanner extends ConnectorScanner {
     @Override
     public int getNext() throws IOException {
         try {
+            if (columnarReader != null) {
+                for (int i = 0; i < vectors.length; i++) {
+                    vectors[i] = getOffHeapColumnVector(i);
+                }
+                return columnarReader.readBatch(vectors, getTableSize());
+            }
             NullWritable key = reader.createKey();
             ArrayWritable value = reader.createValue();
             int numRows = 0;
@@ -0,0 +1,283 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.hudi.reader;
+
+import com.starrocks.jni.connector.OffHeapColumnVector;
+import com.starrocks.jni.connector.OffHeapColumnVector.OffHeapColumnType;
+import com.starrocks.jni.connector.OffHeapTable;
+import com.starrocks.jni.connector.TypeMapping;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat;
+import org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Properties;
+
+public class HudiParquetColumnarReaderTest {
+    private static final int ROW_NUM = 1000;
+    private static final int FETCH_SIZE = 64;
+
+    private File dir;
+    private Configuration conf;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("hudi_columnar_reader").toFile();
+        conf = new Configuration();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileSystem.getLocal(conf).delete(new Path(dir.getAbsolutePath()), true);
+    }
+
+    // write the rows by the small row groups and pages, so a batch spans the row groups.
+    // every third row is null in all the columns
+    private Path writeParquet(String name, MessageType schema, RowWriter rowWriter) throws IOException {
+        Path path = new Path(new File(dir, name).getAbsolutePath());
+        SimpleGroupFactory factory = new SimpleGroupFactory(schema);
+        try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(path).withConf(conf).withType(schema)
+                .withRowGroupSize(8 << 10).withPageSize(1 << 10).withDictionaryPageSize(1 << 10).build()) {
+            for (int i = 0; i < ROW_NUM; i++) {
+                Group group = factory.newGroup();
+                if (i % 3 != 0) {
+                    rowWriter.write(group, i);
+                }
+                writer.write(group);
+            }
+        }
+        return path;
+    }
+
+    private interface RowWriter {
+        void write(Group group, int row);
+    }
+
+    // the unscaled value of a decimal in the bytes of a fixed length
+    private static Binary toFixedBinary(BigDecimal value, int length) {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, 0, length - unscaled.length, (byte) (value.signum() < 0 ? -1 : 0));
+        System.arraycopy(unscaled, 0, bytes, length - unscaled.length, unscaled.length);
+        return Binary.fromConstantByteArray(bytes);
+    }
+
+    private static OffHeapColumnType[] toOffHeapTypes(String[] hiveTypes) {
+        OffHeapColumnType[] types = new OffHeapColumnType[hiveTypes.length];
+        for (int i = 0; i < hiveTypes.length; i++) {
+            types[i] = TypeMapping.hiveTypeMappings.get(hiveTypes[i].startsWith("decimal") ? "decimal" : hiveTypes[i]);
+        }
+        return types;
+    }
+
+    private static int readColumnar(HudiParquetColumnarReader reader, OffHeapTable table) throws IOException {
+        int numRows = 0;
+        int n;
+        do {
+            n = reader.readBatch(table.vectors, FETCH_SIZE);
+            numRows += n;
+        } while (n == FETCH_SIZE);
+        return numRows;
+    }
+
+    // read the file by the record reader of hive as HudiSliceScanner does for the slices with delta logs
+    private int readRecords(Path path, String[] names, String[] hiveTypes, OffHeapTable table) throws Exception {
+        JobConf jobConf = new JobConf(conf);
+        jobConf.setBoolean("hive.io.file.read.all.columns", false);
+        StringBuilder columnIds = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            columnIds.append(i == 0 ? "" : ",").append(i);
+        }
+        Properties properties = new Properties();
+        properties.setProperty("hive.io.file.readcolumn.ids", columnIds.toString());
+        properties.setProperty("hive.io.file.readcolumn.names", String.join(",", names));
+        properties.setProperty("columns", String.join(",", names));
+        properties.setProperty("columns.types", String.join(",", hiveTypes));
+        properties.setProperty("serialization.lib", ParquetHiveSerDe.class.getName());
+        properties.stringPropertyNames().forEach(name -> jobConf.set(name, properties.getProperty(name)));
+
+        long length = FileSystem.getLocal(conf).getFileStatus(path).getLen();
+        RecordReader<NullWritable, ArrayWritable> reader = new MapredParquetInputFormat()
+                .getRecordReader(new FileSplit(path, 0, length, new String[] {""}), jobConf, Reporter.NULL);
+        ParquetHiveSerDe serDe = new ParquetHiveSerDe();
+        serDe.initialize(jobConf, properties);
+        StructObjectInspector rowInspector = (StructObjectInspector) serDe.getObjectInspector();
+
+        NullWritable key = reader.createKey();
+        ArrayWritable value = reader.createValue();
+        int numRows = 0;
+        while (reader.next(key, value)) {
+            Object row = serDe.deserialize(value);
+            for (int i = 0; i < names.length; i++) {
+                StructField field = rowInspector.getStructFieldRef(names[i]);
+                Object data = rowInspector.getStructFieldData(row, field);
+                table.appendData(i, data == null ? null :
+                        ((PrimitiveObjectInspector) field.getFieldObjectInspector()).getPrimitiveJavaObject(data));
+            }
+            numRows++;
+        }
+        reader.close();
+        return numRows;
+    }
+
+    private static void assertColumnEquals(OffHeapColumnType type, OffHeapColumnVector expect,
+                                           OffHeapColumnVector actual, int numRows) {
+        for (int i = 0; i < numRows; i++) {
+            Assert.assertEquals(expect.isNullAt(i), actual.isNullAt(i));
+            if (expect.isNullAt(i)) {
+                continue;
+            }
+            switch (type) {
+                case INT:
+                    Assert.assertEquals(expect.getInt(i), actual.getInt(i));
+                    break;
+                case LONG:
+                    Assert.assertEquals(expect.getLong(i), actual.getLong(i));
+                    break;
+                case FLOAT:
+                    Assert.assertEquals(expect.getFloat(i), actual.getFloat(i), 0);
+                    break;
+                case DOUBLE:
+                    Assert.assertEquals(expect.getDouble(i), actual.getDouble(i), 0);
+                    break;
+                case DECIMAL:
+                    // hive trims the trailing zeros, both are parsed to the same decimal by BE
+                    Assert.assertEquals(0, new BigDecimal(expect.getUTF8String(i))
+                            .compareTo(new BigDecimal(actual.getUTF8String(i))));
+                    break;
+                default:
+                    Assert.assertEquals(expect.getUTF8String(i), actual.getUTF8String(i));
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsRecordReader() throws Exception {
+        MessageType schema = MessageTypeParser.parseMessageType("message hudi {\n" +
+                "  optional int32 c_int;\n" +
+                "  optional int32 c_int_as_bigint;\n" +
+                "  optional int64 c_bigint;\n" +
+                "  optional float c_float;\n" +
+                "  optional float c_float_as_double;\n" +
+                "  optional double c_double;\n" +
+                "  optional binary C_String (UTF8);\n" +
+                "  optional int32 c_date (DATE);\n" +
+                "  optional fixed_len_byte_array(5) c_decimal (DECIMAL(10,2));\n" +
+                "}");
+        Path path = writeParquet("record.parquet", schema, (group, i) -> {
+            group.append("c_int", i);
+            group.append("c_int_as_bigint", -i);
+            group.append("c_bigint", i * 100000000000L);
+            group.append("c_float", i / 3.0f);
+            group.append("c_float_as_double", i / 7.0f);
+            group.append("c_double", i / 9.0);
+            // a few distinct values, so the strings are dictionary encoded
+            group.append("C_String", "value_" + (i % 10));
+            group.append("c_date", (int) LocalDate.of(2022, 1, 1).toEpochDay() + i);
+            group.append("c_decimal", toFixedBinary(BigDecimal.valueOf(i * 101L - 5000, 2), 5));
+        });
+        // the names are lower cased by hive, and c_missing is not in the file
+        String[] names = {"c_int", "c_int_as_bigint", "c_bigint", "c_float", "c_float_as_double", "c_double",
+                "c_string", "c_date", "c_decimal", "c_missing"};
+        String[] hiveTypes = {"int", "bigint", "bigint", "float", "double", "double", "string", "date",
+                "decimal(10,2)", "int"};
+        OffHeapColumnType[] types = toOffHeapTypes(hiveTypes);
+
+        OffHeapTable expect = new OffHeapTable(types, ROW_NUM);
+        Assert.assertEquals(ROW_NUM, readRecords(path, names, hiveTypes, expect));
+
+        OffHeapTable actual = new OffHeapTable(types, FETCH_SIZE);
+        try (HudiParquetColumnarReader reader = HudiParquetColumnarReader.create(conf, path, names, types)) {
+            Assert.assertNotNull(reader);
+            Assert.assertEquals(ROW_NUM, readColumnar(reader, actual));
+        }
+        for (int i = 0; i < names.length; i++) {
+            assertColumnEquals(types[i], expect.vectors[i], actual.vectors[i], ROW_NUM);
+        }
+        for (int row = 0; row < ROW_NUM; row++) {
+            Assert.assertTrue(actual.vectors[names.length - 1].isNullAt(row));
+        }
+        expect.close();
+        actual.close();
+    }
+
+    @Test
+    public void testDecimals() throws Exception {
+        MessageType schema = MessageTypeParser.parseMessageType("message hudi {\n" +
+                "  optional int32 c_int32 (DECIMAL(9,2));\n" +
+                "  optional int64 c_int64 (DECIMAL(18,3));\n" +
+                "  optional binary c_binary (DECIMAL(30,4));\n" +
+                "}");
+        Path path = writeParquet("decimal.parquet", schema, (group, i) -> {
+            group.append("c_int32", i * 7 - 3000);
+            group.append("c_int64", i * 123456789L - 1);
+            group.append("c_binary", Binary.fromConstantByteArray(
+                    BigInteger.valueOf(i).pow(5).negate().toByteArray()));
+        });
+        String[] names = {"c_int32", "c_int64", "c_binary"};
+        OffHeapColumnType[] types = {OffHeapColumnType.DECIMAL, OffHeapColumnType.DECIMAL, OffHeapColumnType.DECIMAL};
+        OffHeapTable table = new OffHeapTable(types, FETCH_SIZE);
+        try (HudiParquetColumnarReader reader = HudiParquetColumnarReader.create(conf, path, names, types)) {
+            Assert.assertNotNull(reader);
+            Assert.assertEquals(ROW_NUM, readColumnar(reader, table));
+        }
+        for (int i = 0; i < ROW_NUM; i++) {
+            if (i % 3 == 0) {
+                for (OffHeapColumnVector vector : table.vectors) {
+                    Assert.assertTrue(vector.isNullAt(i));
+                }
+                continue;
+            }
+            Assert.assertEquals(BigDecimal.valueOf(i * 7 - 3000, 2).toPlainString(),
+                    table.vectors[0].getUTF8String(i));
+            Assert.assertEquals(BigDecimal.valueOf(i * 123456789L - 1, 3).toPlainString(),
+                    table.vectors[1].getUTF8String(i));
+            Assert.assertEquals(new BigDecimal(BigInteger.valueOf(i).pow(5).negate(), 4).toPlainString(),
+                    table.vectors[2].getUTF8String(i));
+        }
+        table.close();
+    }
+
+    @Test
+    public void testUnsupportedColumn() throws Exception {
+        MessageType schema = MessageTypeParser.parseMessageType("message hudi {\n" +
+                "  optional int32 c_int;\n" +
+                "  optional int96 c_timestamp;\n" +
+                "}");
+        Path path = writeParquet("unsupported.parquet", schema, (group, i) -> group.append("c_int", i));
+        // the timestamps are not mapped to the off-heap types, the slice is read by the record reader
+        Assert.assertNull(HudiParquetColumnarReader.create(conf, path, new String[] {"c_int", "c_timestamp"},
+                new OffHeapColumnType[] {OffHeapColumnType.INT, null}));
+        // a column of a different type in the file, e.g. int read as string
+        Assert.assertNull(HudiParquetColumnarReader.create(conf, path, new String[] {"c_int"},
+                new OffHeapColumnType[] {OffHeapColumnType.STRING}));
+    }
+}
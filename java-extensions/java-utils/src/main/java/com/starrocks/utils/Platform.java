@@ -27,6 +27,19 @@ public final class Platform {
 
     public static final int DOUBLE_ARRAY_OFFSET;
 
+    // The native methods are registered by BE to track the memory. Out of BE, e.g. in the unit tests,
+    // the memory is allocated by unsafe.
+    private static final boolean NATIVE_MEMORY_TRACKER = isNativeMemoryTrackerRegistered();
+
+    private static boolean isNativeMemoryTrackerRegistered() {
+        try {
+            NativeMethodHelper.memoryTrackerFree(0);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
     public static int getInt(Object object, long offset) {
         return _UNSAFE.getInt(object, offset);
     }
@@ -84,13 +97,18 @@ public final class Platform {
     }
 
     public static void freeMemory(long address) {
-        //_UNSAFE.freeMemory(address);
-        com.starrocks.utils.NativeMethodHelper.memoryTrackerFree(address);
+        if (NATIVE_MEMORY_TRACKER) {
+            NativeMethodHelper.memoryTrackerFree(address);
+        } else {
+            _UNSAFE.freeMemory(address);
+        }
     }
 
     public static long allocateMemory(long size) {
-        //return _UNSAFE.allocateMemory(size);
-        return com.starrocks.utils.NativeMethodHelper.memoryTrackerMalloc(size);
+        if (NATIVE_MEMORY_TRACKER) {
+            return NativeMethodHelper.memoryTrackerMalloc(size);
+        }
+        return _UNSAFE.allocateMemory(size);
     }
 
     public static long reallocateMemory(long address, long oldSize, long newSize) {
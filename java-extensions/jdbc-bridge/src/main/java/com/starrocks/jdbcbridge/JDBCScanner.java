@@ -2,11 +2,16 @@
 
 package com.starrocks.jdbcbridge;
 
+import com.starrocks.jni.connector.OffHeapColumnVector;
+import com.starrocks.jni.connector.OffHeapColumnVector.OffHeapColumnType;
+import com.starrocks.jni.connector.OffHeapTable;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import java.lang.reflect.Array;
+import java.math.BigDecimal;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.Statement;
@@ -23,6 +28,9 @@ public class JDBCScanner {
     private ResultSetMetaData resultSetMetaData;
     private List<String> resultColumnClassNames;
     private List<Object[]> resultChunk;
+    // the types of the result columns in the off-heap table, null if the column class is not supported
+    private OffHeapColumnType[] resultOffHeapTypes;
+    private OffHeapTable offHeapTable;
     private int resultNumRows = 0;
 
     public JDBCScanner(String driverLocation, JDBCScanContext scanContext) {
@@ -51,10 +59,40 @@ public class JDBCScanner {
         resultSetMetaData = resultSet.getMetaData();
         resultColumnClassNames = new ArrayList<>(resultSetMetaData.getColumnCount());
         resultChunk = new ArrayList<>(resultSetMetaData.getColumnCount());
+        resultOffHeapTypes = new OffHeapColumnType[resultSetMetaData.getColumnCount()];
         for (int i = 1; i <= resultSetMetaData.getColumnCount(); i++) {
             resultColumnClassNames.add(resultSetMetaData.getColumnClassName(i));
             Class<?> clazz = Class.forName(resultSetMetaData.getColumnClassName(i));
             resultChunk.add((Object[]) Array.newInstance(clazz, scanContext.getStatementFetchSize()));
+            resultOffHeapTypes[i - 1] = toOffHeapColumnType(resultSetMetaData.getColumnClassName(i));
+        }
+    }
+
+    // the off-heap layout of the intermediate type BE reads a column class into, see JDBCScanner::_precheck_data_type
+    private static OffHeapColumnType toOffHeapColumnType(String className) {
+        switch (className) {
+            case "java.lang.Boolean":
+                return OffHeapColumnType.BOOLEAN;
+            case "java.lang.Short":
+                return OffHeapColumnType.SHORT;
+            case "java.lang.Integer":
+                return OffHeapColumnType.INT;
+            case "java.lang.Long":
+                return OffHeapColumnType.LONG;
+            case "java.lang.Float":
+                return OffHeapColumnType.FLOAT;
+            case "java.lang.Double":
+                return OffHeapColumnType.DOUBLE;
+            case "java.lang.String":
+            case "java.sql.Timestamp":
+            case "java.time.LocalDateTime":
+                return OffHeapColumnType.STRING;
+            case "java.sql.Date":
+                return OffHeapColumnType.DATE;
+            case "java.math.BigDecimal":
+                return OffHeapColumnType.DECIMAL;
+            default:
+                return null;
         }
     }
 
@@ -81,12 +119,140 @@ public class JDBCScanner {
         return resultChunk;
     }
 
+    /**
+     * Read the next chunk into an off-heap table, see {@link OffHeapTable} for the layout.
+     * The values are read by the typed getters of the result set, so the numeric values are never boxed,
+     * and written to the off-heap columns BE copies from directly.
+     * The table is valid until {@link #releaseOffHeapTable()} or the next call.
+     *
+     * @return The address of the meta column of the table.
+     */
+    public long getNextOffHeapChunk() throws Exception {
+        releaseOffHeapTable();
+        int chunkSize = scanContext.getStatementFetchSize();
+        int columnCount = resultOffHeapTypes.length;
+        for (int i = 0; i < columnCount; i++) {
+            if (resultOffHeapTypes[i] == null) {
+                throw new UnsupportedOperationException("unsupported type: " + resultColumnClassNames.get(i));
+            }
+        }
+        offHeapTable = new OffHeapTable(resultOffHeapTypes, chunkSize);
+        OffHeapColumnVector[] vectors = offHeapTable.vectors;
+        resultNumRows = 0;
+        do {
+            for (int i = 0; i < columnCount; i++) {
+                readColumn(i, vectors[i]);
+            }
+            resultNumRows++;
+        } while (resultNumRows < chunkSize && resultSet.next());
+        offHeapTable.setNumRows(resultNumRows);
+        return offHeapTable.getMetaNativeAddress();
+    }
+
+    private void readColumn(int index, OffHeapColumnVector vector) throws Exception {
+        int columnIndex = index + 1;
+        switch (resultOffHeapTypes[index]) {
+            case BOOLEAN: {
+                boolean value = resultSet.getBoolean(columnIndex);
+                if (resultSet.wasNull()) {
+                    vector.appendNull();
+                } else {
+                    vector.appendBoolean(value);
+                }
+                break;
+            }
+            case SHORT: {
+                short value = resultSet.getShort(columnIndex);
+                if (resultSet.wasNull()) {
+                    vector.appendNull();
+                } else {
+                    vector.appendShort(value);
+                }
+                break;
+            }
+            case INT: {
+                int value = resultSet.getInt(columnIndex);
+                if (resultSet.wasNull()) {
+                    vector.appendNull();
+                } else {
+                    vector.appendInt(value);
+                }
+                break;
+            }
+            case LONG: {
+                long value = resultSet.getLong(columnIndex);
+                if (resultSet.wasNull()) {
+                    vector.appendNull();
+                } else {
+                    vector.appendLong(value);
+                }
+                break;
+            }
+            case FLOAT: {
+                float value = resultSet.getFloat(columnIndex);
+                if (resultSet.wasNull()) {
+                    vector.appendNull();
+                } else {
+                    vector.appendFloat(value);
+                }
+                break;
+            }
+            case DOUBLE: {
+                double value = resultSet.getDouble(columnIndex);
+                if (resultSet.wasNull()) {
+                    vector.appendNull();
+                } else {
+                    vector.appendDouble(value);
+                }
+                break;
+            }
+            case STRING: {
+                // the same strings as the boxed chunk, i.e. Timestamp and LocalDateTime are formatted by toString
+                Object value = resultSet.getObject(columnIndex);
+                if (value == null) {
+                    vector.appendNull();
+                } else {
+                    vector.appendString(value.toString());
+                }
+                break;
+            }
+            case DATE: {
+                Date value = resultSet.getDate(columnIndex);
+                if (value == null) {
+                    vector.appendNull();
+                } else {
+                    vector.appendString(JDBCUtil.formatDate(value));
+                }
+                break;
+            }
+            case DECIMAL: {
+                BigDecimal value = resultSet.getBigDecimal(columnIndex);
+                if (value == null) {
+                    vector.appendNull();
+                } else {
+                    vector.appendString(value.toString());
+                }
+                break;
+            }
+            default:
+                throw new UnsupportedOperationException("unsupported type: " + resultOffHeapTypes[index]);
+        }
+    }
+
+    public void releaseOffHeapTable() {
+        if (offHeapTable != null) {
+            offHeapTable.close();
+            offHeapTable = null;
+        }
+    }
+
     public int getResultNumRows() {
         return resultNumRows;
     }
 
 
     public void close() throws Exception {
+        releaseOffHeapTable();
         if (resultSet != null) {
             resultSet.close();
         }
@@ -8,11 +8,13 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class JDBCUtil {
-    private static final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+    // SimpleDateFormat is not thread safe, and the scanners of different queries format the dates concurrently
+    private static final ThreadLocal<SimpleDateFormat> format =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd"));
     private static final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     // format Date to 'YYYY-MM-dd'
     static String formatDate(Date date) {
-        return format.format(date);
+        return format.get().format(date);
     }
     // format LocalDateTime to 'yyyy-MM-dd HH:mm:ss'
     static String formatLocalDatetime(LocalDateTime localDateTime) {
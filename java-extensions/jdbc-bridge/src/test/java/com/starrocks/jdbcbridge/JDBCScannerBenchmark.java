@@ -0,0 +1,72 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.jdbcbridge;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+/**
+ * Compares the rows read per second by the boxed chunks and the off-heap chunks of {@link JDBCScanner}, from a table
+ * of 32 numeric columns in the embedded database.
+ * Not run by the unit tests, run it by: mvn test -Dtest=JDBCScannerBenchmark
+ */
+public class JDBCScannerBenchmark {
+    private static final String DRIVER_CLASS_NAME = "org.h2.Driver";
+    private static final String JDBC_URL = "jdbc:h2:mem:jdbc_scanner_benchmark;DB_CLOSE_DELAY=-1";
+    private static final int ROW_NUM = 200000;
+    private static final int COLUMN_NUM = 32;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Class.forName(DRIVER_CLASS_NAME);
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            StringBuilder columns = new StringBuilder();
+            StringBuilder values = new StringBuilder();
+            for (int i = 0; i < COLUMN_NUM; i++) {
+                String type = i % 4 == 0 ? "INT" : (i % 4 == 1 ? "DOUBLE" : "BIGINT");
+                columns.append(i == 0 ? "" : ", ").append("c").append(i).append(" ").append(type);
+                values.append(i == 0 ? "" : ", ").append("X + ").append(i);
+            }
+            statement.execute("CREATE TABLE wide (" + columns + ")");
+            statement.execute("INSERT INTO wide SELECT " + values + " FROM SYSTEM_RANGE(1, " + ROW_NUM + ")");
+        }
+    }
+
+    private interface ChunkReader {
+        void read(JDBCScanner scanner) throws Exception;
+    }
+
+    // return the rows read per second
+    private static double benchmark(ChunkReader reader) throws Exception {
+        JDBCScanContext scanContext = new JDBCScanContext(DRIVER_CLASS_NAME, JDBC_URL, "sa", "",
+                "SELECT * FROM wide", 4096, 4);
+        JDBCScanner scanner = new JDBCScanner("h2", scanContext);
+        scanner.open();
+        long start = System.nanoTime();
+        long rows = 0;
+        while (scanner.hasNext()) {
+            reader.read(scanner);
+            rows += scanner.getResultNumRows();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        scanner.close();
+        Assert.assertEquals(ROW_NUM, rows);
+        return rows / seconds;
+    }
+
+    @Test
+    public void benchmarkWideNumericTable() throws Exception {
+        for (int round = 0; round < 3; round++) {
+            double boxed = benchmark(JDBCScanner::getNextChunk);
+            double offHeap = benchmark(JDBCScanner::getNextOffHeapChunk);
+            System.out.printf("read %d rows of %d numeric columns: boxed %.0f rows/s, off-heap %.0f rows/s\n",
+                    ROW_NUM, COLUMN_NUM, boxed, offHeap);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.jdbcbridge;
+
+import com.starrocks.utils.Platform;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+
+public class JDBCScannerTest {
+    private static final String DRIVER_CLASS_NAME = "org.h2.Driver";
+    private static final String JDBC_URL = "jdbc:h2:mem:jdbc_scanner_test;DB_CLOSE_DELAY=-1";
+    private static final int ROW_NUM = 1000;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Class.forName(DRIVER_CLASS_NAME);
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE t (c_int INT, c_bigint BIGINT, c_double DOUBLE, c_float REAL, " +
+                    "c_bool BOOLEAN, c_varchar VARCHAR(32), c_date DATE, c_decimal DECIMAL(10, 2))");
+            // every third row is null in all the columns
+            statement.execute("INSERT INTO t SELECT " +
+                    "CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE X END, " +
+                    "CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE X * 100000000000 END, " +
+                    "CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE X / 7.0 END, " +
+                    "CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE X / 3.0 END, " +
+                    "CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE MOD(X, 2) = 0 END, " +
+                    "CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE CONCAT('\u884c', X) END, " +
+                    "CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE DATEADD(DAY, X, DATE '2022-01-01') END, " +
+                    "CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE X / 4.0 END " +
+                    "FROM SYSTEM_RANGE(1, " + ROW_NUM + ")");
+        }
+    }
+
+    private static JDBCScanner openScanner(String sql, int chunkSize) throws Exception {
+        JDBCScanContext scanContext = new JDBCScanContext(DRIVER_CLASS_NAME, JDBC_URL, "sa", "", sql, chunkSize, 4);
+        JDBCScanner scanner = new JDBCScanner("h2", scanContext);
+        scanner.open();
+        return scanner;
+    }
+
+    // the columns read to strings have the offsets and the bytes, the others have the values only
+    private static boolean isBinary(String className) {
+        return className.equals("java.lang.String") || className.equals("java.sql.Date") ||
+                className.equals("java.math.BigDecimal");
+    }
+
+    // read a value of the off-heap table as the boxed chunk, see OffHeapTable for the layout
+    private static Object readOffHeapValue(String className, long[] addresses, int row) {
+        if (Platform.getByte(null, addresses[0] + row) == 1) {
+            return null;
+        }
+        switch (className) {
+            case "java.lang.Integer":
+                return Platform.getInt(null, addresses[1] + 4L * row);
+            case "java.lang.Long":
+                return Platform.getLong(null, addresses[1] + 8L * row);
+            case "java.lang.Double":
+                return Platform.getDouble(null, addresses[1] + 8L * row);
+            case "java.lang.Float":
+                return Platform.getFloat(null, addresses[1] + 4L * row);
+            case "java.lang.Boolean":
+                return Platform.getByte(null, addresses[1] + row) == 1;
+            default:
+                int start = Platform.getInt(null, addresses[1] + 4L * row);
+                int end = Platform.getInt(null, addresses[1] + 4L * (row + 1));
+                byte[] bytes = new byte[end - start];
+                Platform.copyMemory(null, addresses[2] + start, bytes, Platform.BYTE_ARRAY_OFFSET, bytes.length);
+                return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Object toOffHeapValue(Object value) {
+        if (value instanceof Date) {
+            return JDBCUtil.formatDate((Date) value);
+        } else if (value instanceof BigDecimal) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    @Test
+    public void testOffHeapChunk() throws Exception {
+        String sql = "SELECT * FROM t ORDER BY c_int";
+        int chunkSize = 64;
+        JDBCScanner boxedScanner = openScanner(sql, chunkSize);
+        JDBCScanner offHeapScanner = openScanner(sql, chunkSize);
+        List<String> classNames = offHeapScanner.getResultColumnClassNames();
+        Assert.assertEquals(boxedScanner.getResultColumnClassNames(), classNames);
+
+        int totalRows = 0;
+        while (boxedScanner.hasNext()) {
+            Assert.assertTrue(offHeapScanner.hasNext());
+            List<Object[]> boxedChunk = boxedScanner.getNextChunk();
+            int numRows = boxedScanner.getResultNumRows();
+            long meta = offHeapScanner.getNextOffHeapChunk();
+            Assert.assertEquals(numRows, Platform.getLong(null, meta));
+            Assert.assertEquals(numRows, offHeapScanner.getResultNumRows());
+
+            int metaIndex = 1;
+            for (int col = 0; col < classNames.size(); col++) {
+                boolean isBinary = isBinary(classNames.get(col));
+                long[] addresses = new long[isBinary ? 3 : 2];
+                for (int i = 0; i < addresses.length; i++) {
+                    addresses[i] = Platform.getLong(null, meta + 8L * metaIndex++);
+                }
+                for (int row = 0; row < numRows; row++) {
+                    Assert.assertEquals(toOffHeapValue(boxedChunk.get(col)[row]),
+                            readOffHeapValue(classNames.get(col), addresses, row));
+                }
+                if (isBinary) {
+                    // BE copies the offsets as a whole, so they are continuous at the null rows as well
+                    Assert.assertEquals(0, Platform.getInt(null, addresses[1]));
+                    for (int row = 0; row < numRows; row++) {
+                        Assert.assertTrue(Platform.getInt(null, addresses[1] + 4L * row) <=
+                                Platform.getInt(null, addresses[1] + 4L * (row + 1)));
+                    }
+                }
+            }
+            totalRows += numRows;
+        }
+        Assert.assertFalse(offHeapScanner.hasNext());
+        Assert.assertEquals(ROW_NUM, totalRows);
+        boxedScanner.close();
+        offHeapScanner.close();
+    }
+}
@@ -76,6 +76,23 @@ public abstract class ConnectorScanner {
         offHeapTable.appendData(index, value);
     }
 
+    /**
+     * The column vector of the off-heap table filled by {@link ConnectorScanner#getNext()}.
+     * The columnar scanners can append the values to it directly, instead of boxing them for
+     * {@link ConnectorScanner#scanData(int, Object)}.
+     */
+    protected OffHeapColumnVector getOffHeapColumnVector(int index) {
+        return offHeapTable.vectors[index];
+    }
+
+    /**
+     * The types of the columns mapped by {@link ConnectorScanner#initOffHeapTableWriter(String[], int, Map)},
+     * null for the types not mapped.
+     */
+    protected OffHeapColumnVector.OffHeapColumnType[] getOffHeapColumnTypes() {
+        return types;
+    }
+
     public int getTableSize() {
         return tableSize;
     }
@@ -194,6 +194,10 @@ public class OffHeapColumnVector {
     public int appendNull() {
         reserve(elementsAppended + 1);
         putNull(elementsAppended);
+        if (offsetData != 0) {
+            // the offsets are read by BE as a whole, so a null string is an empty one in the offsets
+            putArray(elementsAppended, arrayData().elementsAppended, 0);
+        }
         return elementsAppended++;
     }
 
@@ -306,10 +310,10 @@ public class OffHeapColumnVector {
 
     public int appendString(String str) {
         byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
-        return appendByteArray(bytes, 0, str.length());
+        return appendByteArray(bytes, 0, bytes.length);
     }
 
-    private int appendByteArray(byte[] value, int offset, int length) {
+    public int appendByteArray(byte[] value, int offset, int length) {
         int copiedOffset = arrayData().appendBytes(length, value, offset);
         reserve(elementsAppended + 1);
         putArray(elementsAppended, copiedOffset, length);
@@ -278,7 +278,100 @@ public class CallStubGenerator {
         private final Method udfEvaluate;
     }
 
+    //    public class CallStub {
+    //        public static long[] batchCallV(int rows, UDF obj, long[] var1, boolean[] var2, ...) throws Exception {
+    //            return obj.evaluate(rows, var1, var2, ...);
+    //        }
+    //    }
+    private static class PrimitiveArrayCallEvaluateGenerator {
+        PrimitiveArrayCallEvaluateGenerator(Class<?> clazz, Method evaluate) {
+            this.udfClazz = clazz;
+            this.udfEvaluate = evaluate;
+        }
+
+        private final ClassWriter writer = new ClassWriter(0);
+
+        private void declareCallStubClazz() {
+            writer.visit(V1_8, ACC_PUBLIC, CLAZZ_NAME, null, "java/lang/Object", null);
+        }
+
+        private void genBatchCall() {
+            final Class<?>[] parameterTypes = udfEvaluate.getParameterTypes();
+            StringBuilder desc = new StringBuilder("(");
+            desc.append("I");
+            desc.append(Type.getDescriptor(udfClazz));
+            // the first parameter of evaluate is the number of rows
+            for (int i = 1; i < parameterTypes.length; i++) {
+                desc.append(Type.getDescriptor(parameterTypes[i]));
+            }
+            desc.append(")");
+            desc.append(Type.getDescriptor(udfEvaluate.getReturnType()));
+
+            final MethodVisitor batchCall =
+                    writer.visitMethod(ACC_PUBLIC + ACC_STATIC, "batchCallV", desc.toString(), null,
+                            new String[] {"java/lang/Exception"});
+            batchCall.visitCode();
+
+            // local var0: rows
+            // local var1: UDF handle
+            // local var2...varn: the arrays of the columns
+            batchCall.visitVarInsn(ALOAD, 1);
+            batchCall.visitVarInsn(ILOAD, 0);
+            for (int i = 1; i < parameterTypes.length; i++) {
+                batchCall.visitVarInsn(ALOAD, i + 1);
+            }
+            batchCall.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(udfClazz), udfEvaluate.getName(),
+                    Type.getMethodDescriptor(udfEvaluate), false);
+            batchCall.visitInsn(ARETURN);
+
+            batchCall.visitMaxs(parameterTypes.length + 1, parameterTypes.length + 1);
+            batchCall.visitEnd();
+        }
+
+        private void finish() {
+            writer.visitEnd();
+        }
+
+        private byte[] getByteCode() {
+            return writer.toByteArray();
+        }
+
+        private final Class<?> udfClazz;
+        private final Method udfEvaluate;
+    }
+
+    /**
+     * Whether the evaluate method takes the columns as primitive arrays, which are never boxed, i.e.
+     * R[] evaluate(int rows, T1[] a1, boolean[] nulls1, T2[] a2, boolean[] nulls2, ...)
+     * where R and T are primitive types. The nulls of a column are null if the column has no null.
+     */
+    public static boolean isPrimitiveArrayEvaluate(Method method) {
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        if (!isPrimitiveArray(method.getReturnType()) || parameterTypes.length % 2 != 1 ||
+                parameterTypes[0] != int.class) {
+            return false;
+        }
+        for (int i = 1; i < parameterTypes.length; i += 2) {
+            if (!isPrimitiveArray(parameterTypes[i]) || parameterTypes[i + 1] != boolean[].class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPrimitiveArray(Class<?> type) {
+        return type.isArray() && type.getComponentType().isPrimitive();
+    }
+
     public static byte[] generateScalarCallStub(Class<?> clazz, Method method) {
+        if (isPrimitiveArrayEvaluate(method)) {
+            final PrimitiveArrayCallEvaluateGenerator generator =
+                    new PrimitiveArrayCallEvaluateGenerator(clazz, method);
+            generator.declareCallStubClazz();
+            generator.genBatchCall();
+            generator.finish();
+            return generator.getByteCode();
+        }
         final BatchCallEvaluateGenerator generator = new BatchCallEvaluateGenerator(clazz, method);
         generator.declareCallStubClazz();
         generator.genBatchUpdateSingle();
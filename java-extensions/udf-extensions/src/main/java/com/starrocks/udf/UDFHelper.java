@@ -294,6 +294,112 @@ public class UDFHelper {
         }
     }
 
+    // copy the result of a primitive-array evaluate method to the column, the nulls are set by BE
+    public static void getResultFromPrimitiveArray(int type, int numRows, Object result, long columnAddr) {
+        final long[] addrs = getAddrs(columnAddr);
+        getResultFromPrimitiveArray(type, numRows, result, addrs[0], addrs[1]);
+    }
+
+    // nullAddr and dataAddr are the addresses of the null column and the data column of the nullable column
+    static void getResultFromPrimitiveArray(int type, int numRows, Object result, long nullAddr, long dataAddr) {
+        if (Array.getLength(result) < numRows) {
+            throw new IllegalArgumentException(
+                    "the result has " + Array.getLength(result) + " values, expect " + numRows);
+        }
+        Platform.setMemory(nullAddr, (byte) 0, numRows);
+        switch (type) {
+            case TYPE_BOOLEAN: {
+                // a boolean of java is a byte of 0 or 1, as the boolean column
+                Platform.copyMemory(result, Platform.BOOLEAN_ARRAY_OFFSET, null, dataAddr, numRows);
+                break;
+            }
+            case TYPE_TINYINT: {
+                Platform.copyMemory(result, Platform.BYTE_ARRAY_OFFSET, null, dataAddr, numRows);
+                break;
+            }
+            case TYPE_SMALLINT: {
+                Platform.copyMemory(result, Platform.SHORT_ARRAY_OFFSET, null, dataAddr, numRows * 2L);
+                break;
+            }
+            case TYPE_INT: {
+                Platform.copyMemory(result, Platform.INT_ARRAY_OFFSET, null, dataAddr, numRows * 4L);
+                break;
+            }
+            case TYPE_BIGINT: {
+                Platform.copyMemory(result, Platform.LONG_ARRAY_OFFSET, null, dataAddr, numRows * 8L);
+                break;
+            }
+            case TYPE_FLOAT: {
+                Platform.copyMemory(result, Platform.FLOAT_ARRAY_OFFSET, null, dataAddr, numRows * 4L);
+                break;
+            }
+            case TYPE_DOUBLE: {
+                Platform.copyMemory(result, Platform.DOUBLE_ARRAY_OFFSET, null, dataAddr, numRows * 8L);
+                break;
+            }
+            default:
+                throw new UnsupportedOperationException("unsupported type:" + type);
+        }
+    }
+
+    // create the primitive array of a column for the primitive-array evaluate method
+    public static Object createPrimitiveArray(int type, int numRows, ByteBuffer dataBuffer) {
+        dataBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        switch (type) {
+            case TYPE_BOOLEAN: {
+                byte[] dataArr = new byte[numRows];
+                dataBuffer.get(dataArr);
+                boolean[] res = new boolean[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    res[i] = dataArr[i] == 1;
+                }
+                return res;
+            }
+            case TYPE_TINYINT: {
+                byte[] res = new byte[numRows];
+                dataBuffer.get(res);
+                return res;
+            }
+            case TYPE_SMALLINT: {
+                short[] res = new short[numRows];
+                dataBuffer.asShortBuffer().get(res);
+                return res;
+            }
+            case TYPE_INT: {
+                int[] res = new int[numRows];
+                dataBuffer.asIntBuffer().get(res);
+                return res;
+            }
+            case TYPE_BIGINT: {
+                long[] res = new long[numRows];
+                dataBuffer.asLongBuffer().get(res);
+                return res;
+            }
+            case TYPE_FLOAT: {
+                float[] res = new float[numRows];
+                dataBuffer.asFloatBuffer().get(res);
+                return res;
+            }
+            case TYPE_DOUBLE: {
+                double[] res = new double[numRows];
+                dataBuffer.asDoubleBuffer().get(res);
+                return res;
+            }
+            default:
+                throw new UnsupportedOperationException("Unsupported UDF TYPE:" + type);
+        }
+    }
+
+    // create the nulls of a column for the primitive-array evaluate method
+    public static boolean[] createNullArray(int numRows, ByteBuffer nullBuffer) {
+        byte[] nullArr = getNullData(nullBuffer, numRows);
+        boolean[] res = new boolean[numRows];
+        for (int i = 0; i < numRows; i++) {
+            res[i] = nullArr[i] != 0;
+        }
+        return res;
+    }
+
     // create boxed array
     //
     public static Object[] createBoxedArray(int type, int numRows, boolean nullable, ByteBuffer... buffer) {
@@ -144,4 +144,48 @@ public class CallStubGeneratorTest {
             Assert.assertEquals(expects[i], res[i]);
         }
     }
+
+    public static class PrimitiveArrayAdd {
+        public long[] evaluate(int rows, long[] v1, boolean[] nulls1, int[] v2, boolean[] nulls2) {
+            long[] res = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                res[i] = v1[i] + v2[i];
+            }
+            return res;
+        }
+    }
+
+    @Test
+    public void testPrimitiveArrayScalarCallStub()
+            throws NoSuchMethodException, ClassNotFoundException, InvocationTargetException, IllegalAccessException {
+        Class<?> clazz = PrimitiveArrayAdd.class;
+        final String genClassName = CallStubGenerator.CLAZZ_NAME.replace("/", ".");
+        Method m = clazz.getMethod("evaluate", int.class, long[].class, boolean[].class, int[].class,
+                boolean[].class);
+        Assert.assertTrue(CallStubGenerator.isPrimitiveArrayEvaluate(m));
+        Assert.assertFalse(CallStubGenerator.isPrimitiveArrayEvaluate(
+                ScalarAdd.class.getMethod("evaluate", String.class, Integer.class)));
+        final byte[] updates =
+                CallStubGenerator.generateScalarCallStub(clazz, m);
+
+        ClassLoader classLoader = new TestClassLoader(genClassName, updates);
+        final Class<?> stubClazz = classLoader.loadClass(genClassName);
+        Method batchCall = getFirstMethod(stubClazz, "batchCallV");
+
+        PrimitiveArrayAdd add = new PrimitiveArrayAdd();
+        int testSize = 1000;
+        long[] inputs1 = new long[testSize];
+        int[] inputs2 = new int[testSize];
+        for (int i = 0; i < testSize; i++) {
+            inputs1[i] = i * 100000000000L;
+            inputs2[i] = i;
+        }
+
+        // the nulls are null if the columns have no null
+        final long[] res =
+                (long[]) batchCall.invoke(null, testSize, add, inputs1, null, inputs2, new boolean[testSize]);
+        for (int i = 0; i < testSize; i++) {
+            Assert.assertEquals(inputs1[i] + inputs2[i], res[i]);
+        }
+    }
 }
@@ -0,0 +1,103 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.udf;
+
+import com.starrocks.utils.Platform;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class UDFHelperTest {
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void testCreateBooleanArray() {
+        ByteBuffer data = newBuffer(4);
+        data.put((byte) 1).put((byte) 0).put((byte) 0).put((byte) 1).flip();
+        Object array = UDFHelper.createPrimitiveArray(UDFHelper.TYPE_BOOLEAN, 4, data);
+        Assert.assertArrayEquals(new boolean[] {true, false, false, true}, (boolean[]) array);
+    }
+
+    @Test
+    public void testCreateSmallIntArray() {
+        ByteBuffer data = newBuffer(8);
+        data.putShort((short) 1).putShort((short) -2).putShort(Short.MAX_VALUE).putShort(Short.MIN_VALUE).flip();
+        Object array = UDFHelper.createPrimitiveArray(UDFHelper.TYPE_SMALLINT, 4, data);
+        Assert.assertArrayEquals(new short[] {1, -2, Short.MAX_VALUE, Short.MIN_VALUE}, (short[]) array);
+    }
+
+    @Test
+    public void testCreateIntAndDoubleArray() {
+        ByteBuffer ints = newBuffer(12);
+        ints.putInt(7).putInt(-8).putInt(Integer.MIN_VALUE).flip();
+        Assert.assertArrayEquals(new int[] {7, -8, Integer.MIN_VALUE},
+                (int[]) UDFHelper.createPrimitiveArray(UDFHelper.TYPE_INT, 3, ints));
+
+        ByteBuffer doubles = newBuffer(16);
+        doubles.putDouble(1.5).putDouble(-0.25).flip();
+        Assert.assertArrayEquals(new double[] {1.5, -0.25},
+                (double[]) UDFHelper.createPrimitiveArray(UDFHelper.TYPE_DOUBLE, 2, doubles), 0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCreateVarcharArray() {
+        UDFHelper.createPrimitiveArray(UDFHelper.TYPE_VARCHAR, 1, newBuffer(16));
+    }
+
+    @Test
+    public void testCreateNullArray() {
+        ByteBuffer nulls = newBuffer(3);
+        nulls.put((byte) 0).put((byte) 1).put((byte) 0).flip();
+        Assert.assertArrayEquals(new boolean[] {false, true, false}, UDFHelper.createNullArray(3, nulls));
+    }
+
+    @Test
+    public void testGetBooleanResult() {
+        int numRows = 3;
+        long nullAddr = Platform.allocateMemory(numRows);
+        long dataAddr = Platform.allocateMemory(numRows);
+        try {
+            Platform.setMemory(nullAddr, (byte) 1, numRows);
+            UDFHelper.getResultFromPrimitiveArray(UDFHelper.TYPE_BOOLEAN, numRows, new boolean[] {true, false, true},
+                    nullAddr, dataAddr);
+            for (int i = 0; i < numRows; i++) {
+                Assert.assertEquals(0, Platform.getByte(null, nullAddr + i));
+            }
+            Assert.assertEquals(1, Platform.getByte(null, dataAddr));
+            Assert.assertEquals(0, Platform.getByte(null, dataAddr + 1));
+            Assert.assertEquals(1, Platform.getByte(null, dataAddr + 2));
+        } finally {
+            Platform.freeMemory(nullAddr);
+            Platform.freeMemory(dataAddr);
+        }
+    }
+
+    @Test
+    public void testGetSmallIntResult() {
+        int numRows = 3;
+        short[] result = {-1, 300, Short.MIN_VALUE};
+        long nullAddr = Platform.allocateMemory(numRows);
+        long dataAddr = Platform.allocateMemory(numRows * 2L);
+        try {
+            Platform.setMemory(nullAddr, (byte) 1, numRows);
+            UDFHelper.getResultFromPrimitiveArray(UDFHelper.TYPE_SMALLINT, numRows, result, nullAddr, dataAddr);
+            for (int i = 0; i < numRows; i++) {
+                Assert.assertEquals(0, Platform.getByte(null, nullAddr + i));
+                Assert.assertEquals(result[i], Platform.getShort(null, dataAddr + i * 2L));
+            }
+        } finally {
+            Platform.freeMemory(nullAddr);
+            Platform.freeMemory(dataAddr);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetResultOfFewerRows() {
+        // the evaluate method returns less values than the rows
+        UDFHelper.getResultFromPrimitiveArray(UDFHelper.TYPE_INT, 2, new int[1], 0, 0);
+    }
+}